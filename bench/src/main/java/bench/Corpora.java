@@ -0,0 +1,109 @@
+package bench;
+
+/**
+ * Synthetic Gemtext documents for benchmarks.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class Corpora {
+    /**
+     * A typical capsule page: headings, prose, lists, links and a little
+     * preformatted text.
+     */
+    private static final String MIXED = String.join("\n",
+        "# Gemlog",
+        "",
+        "Welcome to my capsule. This paragraph is about as long as a typical line of prose on a personal gemlog page.",
+        "",
+        "## Recent posts",
+        "=> gemini://example.org/2024-02-14.gmi 2024-02-14 Building a browser",
+        "=> gemini://example.org/2024-02-28.gmi 2024-02-28 Parsing Gemtext",
+        "=> /2024-03-01.gmi 2024-03-01 Relative links",
+        "* first item",
+        "* second item",
+        "> a quotation from somewhere",
+        "```",
+        "  preformatted   text",
+        "```",
+        "");
+
+    /**
+     * Repeat a document until it's at least a given size.
+     * 
+     * @param unit Document to repeat.
+     * @param size Minimum size in characters.
+     * @return Document.
+     */
+    public static String repeat(String unit, int size) {
+        StringBuilder text = new StringBuilder(size + unit.length());
+        while(text.length() < size) {
+            text.append(unit);
+        }
+        return text.toString();
+    }
+
+    /**
+     * A mixed document of a given size.
+     * 
+     * @param size Minimum size in characters.
+     * @return Document.
+     */
+    public static String mixed(int size) {
+        return repeat(MIXED, size);
+    }
+
+    /**
+     * A link-heavy document of a given size, like a capsule index or an
+     * aggregator page.
+     * 
+     * @param size Minimum size in characters.
+     * @return Document.
+     */
+    public static String linkHeavy(int size) {
+        StringBuilder text = new StringBuilder(size + 100);
+        text.append("# Index\n\n");
+        for(int i = 0; text.length() < size; i++) {
+            text.append("=> gemini://capsule").append(i % 97).append(".example.org/posts/").append(i)
+                .append(".gmi 2024-02-").append(10 + i % 19).append(" Post number ").append(i).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * A preformatted-heavy document of a given size, like a page of ASCII
+     * art or code listings: long blocks with a little prose between them.
+     * 
+     * @param size Minimum size in characters.
+     * @return Document.
+     */
+    public static String preformattedHeavy(int size) {
+        StringBuilder text = new StringBuilder(size + 4096);
+        text.append("# Listings\n\n");
+        for(int i = 0; text.length() < size; i++) {
+            text.append("Listing ").append(i).append(":\n```c\n");
+            for(int line = 0; line < 40; line++) {
+                text.append("    for(int i = 0; i < n; i++) { total += values[i] * ").append(line).append("; }\n");
+            }
+            text.append("```\n\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * A document by name, for benchmark parameters: "small" (a 2 KB page),
+     * "links" and "preformatted" (256 KB each) or "large" (a 4 MB page).
+     * 
+     * @param name Corpus name.
+     * @return Document.
+     */
+    public static String named(String name) {
+        switch(name) {
+            case "small": return mixed(2 * 1024);
+            case "links": return linkHeavy(256 * 1024);
+            case "preformatted": return preformattedHeavy(256 * 1024);
+            case "large": return mixed(4 * 1024 * 1024);
+            default: throw new IllegalArgumentException("Unknown corpus: " + name);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import gemtext.LineIndex;
+import gemtext.LineScanner;
+
+/**
+ * Compares finding and classifying lines with String.split (the parser's
+ * original loop) against the byte-level line scanners.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class LineSplitBenchmark {
+    /**
+     * Body size in bytes.
+     */
+    @Param({ "65536", "4194304" })
+    public int size;
+
+    /**
+     * Body as bytes.
+     */
+    private byte[] bytes;
+
+    /**
+     * Body as text.
+     */
+    private String text;
+
+    /**
+     * Portable scanner.
+     */
+    private LineScanner swar;
+
+    /**
+     * Fastest scanner available (Vector API when the module is present).
+     */
+    private LineScanner vector;
+
+    @Setup
+    public void setup() {
+        text = Corpora.mixed(size);
+        bytes = text.getBytes(StandardCharsets.UTF_8);
+        swar = LineScanner.portable();
+        vector = LineScanner.getInstance();
+    }
+
+    /**
+     * The original loop: split on a regex, then look at each line's start.
+     */
+    @Benchmark
+    public void stringSplit(Blackhole blackhole) {
+        for(String line : text.split("\n")) {
+            if(line.startsWith("```")) {
+                blackhole.consume(1);
+            } else if(line.equals("")) {
+                blackhole.consume(2);
+            } else {
+                blackhole.consume(line.charAt(0));
+            }
+        }
+    }
+
+    @Benchmark
+    public LineIndex swarScanner() {
+        return swar.scan(bytes, 0, bytes.length);
+    }
+
+    @Benchmark
+    public LineIndex vectorScanner() {
+        return vector.scan(bytes, 0, bytes.length);
+    }
+}
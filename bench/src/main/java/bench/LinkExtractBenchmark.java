@@ -0,0 +1,91 @@
+package bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gemtext.GeminiLink;
+import gemtext.Gemtext;
+import gemtext.GemtextParser;
+import gemtext.LinkExtractor;
+
+/**
+ * Compares getting a page's links from a full parse against the link
+ * extractor.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkExtractBenchmark {
+    /**
+     * Body size in bytes.
+     */
+    @Param({ "4194304" })
+    public int size;
+
+    /**
+     * Link-heavy body.
+     */
+    private byte[] bytes;
+
+    /**
+     * Extractor.
+     */
+    private LinkExtractor extractor;
+
+    @Setup
+    public void setup() {
+        bytes = Corpora.linkHeavy(size).getBytes(StandardCharsets.UTF_8);
+        extractor = new LinkExtractor();
+    }
+
+    /**
+     * Parse the whole page and keep the links.
+     */
+    @Benchmark
+    public int fullParse() {
+        int links = 0;
+        for(Gemtext element : new GemtextParser(bytes, StandardCharsets.UTF_8).getParsedContent()) {
+            if(element instanceof GeminiLink) {
+                links++;
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Find link offsets only.
+     */
+    @Benchmark
+    public int extractOffsets() {
+        int[] links = new int[1];
+        extractor.extract(bytes, 0, bytes.length, (content, urlStart, urlEnd, captionStart, captionEnd) -> links[0]++);
+        return links[0];
+    }
+
+    /**
+     * Find links and build GeminiLink objects.
+     */
+    @Benchmark
+    public List<GeminiLink> extractLinks() {
+        return extractor.extractLinks(bytes, StandardCharsets.UTF_8);
+    }
+}
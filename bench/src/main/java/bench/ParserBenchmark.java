@@ -0,0 +1,68 @@
+package bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gemtext.CompactDocument;
+import gemtext.Gemtext;
+import gemtext.GemtextParser;
+
+/**
+ * Parses each kind of page, into element objects and into a compact
+ * document, from bytes as they come off the network.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class ParserBenchmark {
+    /**
+     * Page, by {@link Corpora#named(String)}.
+     */
+    @Param({ "small", "links", "preformatted", "large" })
+    public String corpus;
+
+    /**
+     * Page body.
+     */
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        bytes = Corpora.named(corpus).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse into a list of element objects.
+     */
+    @Benchmark
+    public List<Gemtext> parseElements() {
+        return new GemtextParser(bytes, StandardCharsets.UTF_8).getParsedContent();
+    }
+
+    /**
+     * Parse into a compact document.
+     */
+    @Benchmark
+    public CompactDocument parseDocument() {
+        return GemtextParser.parseDocument(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,71 @@
+package bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import browser.Downloader;
+import network.GeminiRequest;
+
+/**
+ * Splits whole responses into header and body, as GeminiRequest does once
+ * a response has been read, and converts the body back from boxed bytes,
+ * as saving a download did.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+    /**
+     * Body size in bytes.
+     */
+    @Param({ "1024", "1048576" })
+    public int size;
+
+    /**
+     * Whole response: header and body.
+     */
+    private byte[] response;
+
+    @Setup
+    public void setup() {
+        byte[] header = "20 text/gemini; charset=utf-8\r\n".getBytes(StandardCharsets.UTF_8);
+        byte[] body = Corpora.mixed(size).substring(0, size).getBytes(StandardCharsets.UTF_8);
+        response = new byte[header.length + body.length];
+        System.arraycopy(header, 0, response, 0, header.length);
+        System.arraycopy(body, 0, response, header.length, body.length);
+    }
+
+    /**
+     * Split the header from the body.
+     */
+    @Benchmark
+    public byte[] parseContent() {
+        return GeminiRequest.fromResponse("gemini://example.org/", response).getBody();
+    }
+
+    /**
+     * Split the response, box the body and convert it back.
+     */
+    @Benchmark
+    public byte[] boxedBody() {
+        return Downloader.toBytes(GeminiRequest.fromResponse("gemini://example.org/", response).getContent());
+    }
+}
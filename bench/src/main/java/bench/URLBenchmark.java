@@ -0,0 +1,96 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import network.URL;
+
+/**
+ * Parses, validates and resolves the URLs found on a link-heavy page.
+ * Every link on a page goes through these, so they're per-link costs.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class URLBenchmark {
+    /**
+     * Number of links in each batch.
+     */
+    private static final int LINKS = 256;
+
+    /**
+     * Page the links are on.
+     */
+    private static final String BASE = "gemini://example.org/posts/2024/index.gmi";
+
+    /**
+     * Complete URLs.
+     */
+    private String[] absolute;
+
+    /**
+     * Links as written on a page: complete, from the root and relative.
+     */
+    private String[] links;
+
+    @Setup
+    public void setup() {
+        absolute = new String[LINKS];
+        links = new String[LINKS];
+        for(int i = 0; i < LINKS; i++) {
+            absolute[i] = "gemini://capsule" + i % 97 + ".example.org/posts/" + i + ".gmi";
+            switch(i % 3) {
+                case 0: links[i] = absolute[i]; break;
+                case 1: links[i] = "/tags/tag" + i + ".gmi"; break;
+                default: links[i] = "./post" + i + ".gmi"; break;
+            }
+        }
+    }
+
+    /**
+     * Check complete URLs against the URL format.
+     */
+    @Benchmark
+    public void validate(Blackhole blackhole) {
+        for(String url : absolute) {
+            blackhole.consume(URL.isValidURL(url));
+        }
+    }
+
+    /**
+     * Parse complete URLs into host, folder and file.
+     */
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for(String url : absolute) {
+            blackhole.consume(new URL(url));
+        }
+    }
+
+    /**
+     * Resolve links against the page they're on.
+     */
+    @Benchmark
+    public void resolve(Blackhole blackhole) {
+        for(String link : links) {
+            blackhole.consume(URL.resolve(BASE, link));
+        }
+    }
+}
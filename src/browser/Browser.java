@@ -1,40 +1,57 @@
 package browser;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.List;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import browser.StyleTable.Theme;
+import feeds.FeedEntry;
+import feeds.FeedPoller;
+import feeds.Subscriptions;
+import gemtext.CompactDocument;
+import gemtext.ElementType;
 import gemtext.GeminiLink;
 import gemtext.Gemtext;
 import gemtext.GemtextParser;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
-import javafx.scene.control.Hyperlink;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.ColumnConstraints;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
-import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
 import network.BadURLException;
-import network.GeminiRequest;
-import network.RequestFailedException;
+import network.GeminiConnection;
 import network.URL;
+import search.PageIndex;
+import search.SearchHit;
+import store.BlobStore;
+import store.DocumentCache;
+import store.TieredCache;
 
 /**
  * The browser's GUI.
  * 
  * @author Hayden Walker
- * @version 2024-02-14
+ * @version 2026-10-19
  */
 public class Browser extends Application {
     /**
@@ -57,6 +74,87 @@ public class Browser extends Application {
      */
     private static final String STARTUP_ADDRESS = "gemini://gemini.haywalk.ca/browser.gmi";
 
+    /**
+     * Factor each zoom step scales text by.
+     */
+    private static final double ZOOM_STEP = 1.1;
+
+    /**
+     * Address of the built-in search page. A query follows a '?'.
+     */
+    private static final String SEARCH_ADDRESS = "about:search";
+
+    /**
+     * Most results shown on the search page.
+     */
+    private static final int SEARCH_RESULTS = 50;
+
+    /**
+     * Address of the built-in feed page. "?refresh" polls every feed, and
+     * "?unsubscribe=" followed by a feed URL drops that feed.
+     */
+    private static final String FEEDS_ADDRESS = "about:feeds";
+
+    /**
+     * Most posts shown on the feed page.
+     */
+    private static final int FEED_ENTRIES = 100;
+
+    /**
+     * Feeds polled at once.
+     */
+    private static final int FEED_THREADS = 8;
+
+    /**
+     * Wait between requests to a host while polling, in milliseconds.
+     */
+    private static final long FEED_HOST_DELAY = 500;
+
+    /**
+     * Wait between checks for due feeds, in milliseconds.
+     */
+    private static final long FEED_CHECK_PERIOD = 5 * 60 * 1000L;
+
+    /**
+     * Directory holding the subscribed feeds.
+     */
+    private static final Path FEEDS_DIRECTORY = Path.of(System.getProperty("user.home"), ".gemini-browser", "feeds");
+
+    /**
+     * Directory holding the index of visited pages.
+     */
+    private static final Path INDEX_DIRECTORY = Path.of(System.getProperty("user.home"), ".gemini-browser", "index");
+
+    /**
+     * Directory holding the bodies of visited pages.
+     */
+    private static final Path STORE_DIRECTORY = Path.of(System.getProperty("user.home"), ".gemini-browser", "store");
+
+    /**
+     * Space the stored bodies are trimmed to on exit.
+     */
+    private static final long STORE_BYTES = 256L * 1024 * 1024;
+
+    /**
+     * Memory for stored bodies kept as they are.
+     */
+    private static final long HOT_CACHE_BYTES = 8L * 1024 * 1024;
+
+    /**
+     * Memory for stored bodies kept compressed.
+     */
+    private static final long COLD_CACHE_BYTES = 8L * 1024 * 1024;
+
+    /**
+     * Memory for documents kept parsed.
+     */
+    private static final long DOCUMENT_CACHE_BYTES = 32L * 1024 * 1024;
+
+    /**
+     * Memory for decoded inline images.
+     */
+    private static final long IMAGE_CACHE_BYTES = 64L * 1024 * 1024;
+
     /**
      * Address bar.
      */
@@ -68,10 +166,30 @@ public class Browser extends Application {
     private Label statusBar;
 
     /**
-     * Content pane.
+     * Content pane, for plaintext.
      */
     private ScrollPane contentPane;
 
+    /**
+     * Gemtext document view.
+     */
+    private DocumentView documentView;
+
+    /**
+     * Find-in-page bar for the document view.
+     */
+    private FindBar findBar;
+
+    /**
+     * View for large plaintext.
+     */
+    private LargeTextView largeTextView;
+
+    /**
+     * Window layout; the center shows the current page.
+     */
+    private BorderPane root;
+
     /**
      * Main window.
      */
@@ -84,14 +202,108 @@ public class Browser extends Application {
 
     private ArrayDeque<String> history;
 
+    /**
+     * Builds nodes for Gemtext elements.
+     */
+    private GemtextRenderer renderer;
+
+    /**
+     * Load in progress, or the last one.
+     */
+    private PageLoader loader;
+
+    /**
+     * URL of the Gemtext document in the document view.
+     */
+    private String documentURL;
+
+    /**
+     * Index of visited pages, opened in the background.
+     */
+    private CompletableFuture<PageIndex> pageIndex;
+
+    /**
+     * Bodies of visited pages, opened in the background.
+     */
+    private CompletableFuture<BlobStore> bodyStore;
+
+    /**
+     * Bodies of recently visited pages, kept in memory.
+     */
+    private TieredCache bodyCache;
+
+    /**
+     * Documents of visited pages, by body.
+     */
+    private DocumentCache documents;
+
+    /**
+     * Images shown inline, or null while they're switched off.
+     */
+    private ImagePreviews images;
+
+    /**
+     * Subscribed feeds, loaded in the background.
+     */
+    private CompletableFuture<Subscriptions> subscriptions;
+
+    /**
+     * Polls the subscribed feeds, once they're loaded.
+     */
+    private CompletableFuture<FeedPoller> feedPoller;
+
+    /**
+     * Built-in page whose contents are awaited, or null.
+     */
+    private String searching;
+
     /**
      * Start the application.
      */
     @Override
     public void start(Stage primaryStage) {
-        
+        // --proxy HOST:PORT sends every request through a Gemini proxy
+        List<String> args = getParameters().getRaw();
+        int option = args.indexOf("--proxy");
+        if(option >= 0 && option + 1 < args.size()) {
+            setProxy(args.get(option + 1));
+        }
 
         this.primaryStage = primaryStage;
+        renderer = new GemtextRenderer();
+
+        // open the index of visited pages without holding up the window
+        pageIndex = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new PageIndex(INDEX_DIRECTORY);
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        bodyCache = new TieredCache(HOT_CACHE_BYTES, COLD_CACHE_BYTES);
+        bodyStore = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new BlobStore(STORE_DIRECTORY, bodyCache);
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        documents = new DocumentCache(DOCUMENT_CACHE_BYTES);
+
+        // poll subscribed feeds in the background
+        subscriptions = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new Subscriptions(FEEDS_DIRECTORY);
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        feedPoller = subscriptions.thenApply(feeds -> {
+            FeedPoller poller = new FeedPoller(feeds, FEED_THREADS, FEED_HOST_DELAY, FeedPoller.DEFAULT_INTERVAL);
+            poller.start(FEED_CHECK_PERIOD, added -> Platform.runLater(() ->
+                showStatus(added.size() + (added.size() == 1 ? " new post" : " new posts") + " in your feeds.")));
+            return poller;
+        });
 
         // create address bar
         addressBar = new TextField();
@@ -154,9 +366,78 @@ public class Browser extends Application {
             }
         });
 
+        // create reload button
+        Button reloadButton = new Button();
+        reloadButton.setText("Reload");
+        reloadButton.setMaxWidth(Double.MAX_VALUE);
+        reloadButton.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent arg0) {
+                makeRequest(addressBar.getText());
+            }
+        });
+
+        // create theme button
+        Button themeButton = new Button();
+        themeButton.setText("Theme");
+        themeButton.setMaxWidth(Double.MAX_VALUE);
+        themeButton.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent arg0) {
+                StyleTable styles = renderer.getStyles();
+                Theme next = styles.getTheme() == Theme.LIGHT ? Theme.DARK : Theme.LIGHT;
+                setStyles(styles.withTheme(next));
+            }
+        });
+
+        // create search button
+        Button searchButton = new Button();
+        searchButton.setText("Search");
+        searchButton.setMaxWidth(Double.MAX_VALUE);
+        searchButton.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent arg0) {
+                makeRequest(SEARCH_ADDRESS);
+            }
+        });
+
+        // create feeds button
+        Button feedsButton = new Button();
+        feedsButton.setText("Feeds");
+        feedsButton.setMaxWidth(Double.MAX_VALUE);
+        feedsButton.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent arg0) {
+                makeRequest(FEEDS_ADDRESS);
+            }
+        });
+
+        // create subscribe button
+        Button subscribeButton = new Button();
+        subscribeButton.setText("Subscribe");
+        subscribeButton.setMaxWidth(Double.MAX_VALUE);
+        subscribeButton.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent arg0) {
+                subscribe();
+            }
+        });
+
+        // create images button
+        Button imagesButton = new Button();
+        imagesButton.setText("Images");
+        imagesButton.setMaxWidth(Double.MAX_VALUE);
+        imagesButton.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(ActionEvent arg0) {
+                toggleImages();
+            }
+        });
+
         // button vbox
         HBox buttonBar = new HBox();
-        buttonBar.getChildren().addAll(backButton, parentFolderButton, homeButton);
+        buttonBar.getChildren().addAll(backButton, reloadButton, parentFolderButton, homeButton, themeButton, searchButton,
+            feedsButton, subscribeButton, imagesButton);
 
         VBox menu = new VBox();
         menu.getChildren().addAll(topBar, buttonBar);
@@ -164,18 +445,48 @@ public class Browser extends Application {
         // create status bar
         statusBar = new Label(STARTUP_STATUS);
 
-        // create content pane
+        // hovering the status bar shows loading and rendering metrics
+        Tooltip metrics = new Tooltip();
+        metrics.setOnShowing(event -> metrics.setText(describeMetrics()));
+        statusBar.setTooltip(metrics);
+
+        // create content pane and document view
         contentPane = new ScrollPane();
+        documentView = new DocumentView(renderer, this::followLink);
+        largeTextView = new LargeTextView(renderer.getStyles());
 
         // top bar to a vbox
-        BorderPane root = new BorderPane();
+        root = new BorderPane();
         root.setTop(menu);
-        root.setBottom(statusBar);
+        findBar = new FindBar(documentView);
+        root.setBottom(new VBox(findBar, statusBar));
         root.setCenter(contentPane);
 
         // add the vbox to a scene
         Scene scene = new Scene(root, DEFAULT_WIDTH, DEFAULT_HEIGHT);
 
+        // zoom with Ctrl+Plus, Ctrl+Minus and Ctrl+0; find with Ctrl+F
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if(!event.isShortcutDown()) {
+                return;
+            }
+
+            StyleTable styles = renderer.getStyles();
+            if(event.getCode() == KeyCode.PLUS || event.getCode() == KeyCode.EQUALS || event.getCode() == KeyCode.ADD) {
+                setStyles(styles.withZoom(styles.getZoom() * ZOOM_STEP));
+            } else if(event.getCode() == KeyCode.MINUS || event.getCode() == KeyCode.SUBTRACT) {
+                setStyles(styles.withZoom(styles.getZoom() / ZOOM_STEP));
+            } else if(event.getCode() == KeyCode.DIGIT0 || event.getCode() == KeyCode.NUMPAD0) {
+                setStyles(styles.withZoom(1));
+            } else if(event.getCode() == KeyCode.F && root.getCenter() == documentView) {
+                findBar.open();
+            } else {
+                return;
+            }
+
+            event.consume();
+        });
+
         // display the window
         primaryStage.setTitle("Gemini Browser");
         primaryStage.setScene(scene);
@@ -187,60 +498,85 @@ public class Browser extends Application {
     }
 
     /**
-     * Given a URL as a String, make a Gemini request.
+     * Given a URL as a String, start loading it. Any page still loading is
+     * abandoned.
      * 
      * @param url
      */
     private void makeRequest(String url) {
+        makeRequest(url, false);
+    }
 
-        try {
-            // attempt to make request
-            GeminiRequest req = new GeminiRequest(new URL(url));
+    /**
+     * Given a URL as a String, start loading it, from the store if asked
+     * and it's there. Any page still loading is abandoned.
+     * 
+     * @param url URL.
+     * @param stored Whether a stored copy will do, e.g. going back.
+     */
+    private void makeRequest(String url, boolean stored) {
+        // stop the previous load
+        if(loader != null) {
+            loader.cancel();
+        }
+        searching = null;
 
-            // set address bar to url requested and status bar to status returned
-            updateURL(url);
-            showStatus(req.getStatus() + " " + req.getHeaderInfo());
+        // built-in search page
+        if(url.startsWith(SEARCH_ADDRESS)) {
+            search(url);
+            return;
+        }
 
-            // process the completed request
-            processRequest(req);
-            history.push(url); 
-            contentPane.setVvalue(contentPane.getVmin()); // resets scroll bar
+        // built-in feed page
+        if(url.startsWith(FEEDS_ADDRESS)) {
+            showFeeds(url);
+            return;
+        }
+
+        try {
+            URL parsed = new URL(url);
+
+            showStatus("Loading " + url);
+            // the store is skipped until it has opened
+            BlobStore store = bodyStore.isDone() && !bodyStore.isCompletedExceptionally() ? bodyStore.join() : null;
+            loader = new PageLoader(parsed, new PageHandler(), store, documents);
+            if(stored) {
+                loader.startStored();
+            } else {
+                loader.start();
+            }
         } 
         
         // handle bad URL
         catch(BadURLException e) {
             showStatus("Bad Gemini URL.");
         } 
-        
-        // handle request failure
-        catch(RequestFailedException e) {
-            showStatus("Request failed.");
-        }
     }
 
     /**
-     * Process a completed request.
+     * Process a response header.
      * 
-     * @param req Request to process.
+     * @param url URL requested.
+     * @param status Status returned by the server.
+     * @param meta Header information returned by the server.
      */
-    private void processRequest(GeminiRequest req) {
+    private void processResponse(String url, int status, String meta) {
         // take specific actions based on the status code
-        switch(req.getStatus()) {
+        switch(status) {
             // input (note 11 is "sensitive" input)
             case 10: case 11:
-                promptUser(req.getHeaderInfo()); // prompt user for input
-                makeRequest(addressBar.getText() + "?" + response); // make a new request
-                break;
+                promptUser(meta); // prompt user for input
+                makeRequest(url + "?" + response); // make a new request
+                return;
             
-            // success
+            // success: the body is handled as it loads
             case 20:
-                processContent(req);
                 break;
             
             // redirect
             case 30: case 31:
-                makeRequest(req.getHeaderInfo());
-                break;
+                makeRequest(meta);
+                return;
 
             // server unavailable
             case 40: case 41: case 42: case 43: case 44:
@@ -258,116 +594,276 @@ public class Browser extends Application {
             default:
                 break;
         }
+
+        history.push(url);
     }
 
     /**
-     * Process content returned by the server.
+     * Follow a link on the current page.
+     * 
+     * @param link Link that was clicked.
      */
-    private void processContent(GeminiRequest req) {
-        
-        String header = req.getHeaderInfo();
+    private void followLink(GeminiLink link) {
+        // the search and feed pages
+        if(link.getURL().startsWith(SEARCH_ADDRESS) || link.getURL().startsWith(FEEDS_ADDRESS)) {
+            makeRequest(link.getURL());
+            return;
+        }
 
-        // parse gemtext
-        if(header.contains("text/gemini")) {
-            displayGemtext(req.getContent());
+        String resolved = URL.resolve(addressBar.getText(), link.getURL());
+        if(resolved != null) {
+            makeRequest(resolved);
+            return;
         }
 
-        // show plaintext
-        else if(header.contains("text/plain")) {
-            displayPlaintext(req.getContent());
+        statusBar.setText("Not a Gemini link.");
+    }
+
+    /**
+     * Search the visited pages in the background, then show the results.
+     * Without a query, the user is asked for one.
+     * 
+     * @param url Search page URL, with the query after a '?'.
+     */
+    private void search(String url) {
+        int mark = url.indexOf('?');
+        String query = mark < 0 ? "" : url.substring(mark + 1);
+
+        if(query.isBlank()) {
+            promptUser("Search pages you've visited");
+            makeRequest(SEARCH_ADDRESS + "?" + response);
+            return;
+        }
+
+        searching = url;
+        showStatus("Searching for " + query);
+        pageIndex.thenApplyAsync(index -> index.search(query, SEARCH_RESULTS))
+            .whenComplete((hits, error) -> Platform.runLater(() -> {
+                // the user has moved on
+                if(!url.equals(searching)) {
+                    return;
+                }
+                searching = null;
+
+                if(error != null) {
+                    showStatus("Search is unavailable.");
+                } else {
+                    displaySearchResults(url, query, hits);
+                }
+            }));
+    }
+
+    /**
+     * Show search results as a Gemtext page.
+     * 
+     * @param url Search page URL.
+     * @param query Query searched for.
+     * @param hits Results, best first.
+     */
+    private void displaySearchResults(String url, String query, List<SearchHit> hits) {
+        StringBuilder page = new StringBuilder();
+        page.append("# Search: ").append(query).append("\n\n");
+
+        if(hits.isEmpty()) {
+            page.append("No pages you've visited match.\n");
+        } else {
+            page.append(hits.size()).append(hits.size() == 1 ? " page" : " pages").append(" found.\n\n");
+            for(SearchHit hit : hits) {
+                page.append("=> ").append(hit.getURL()).append(' ').append(hit.getTitle()).append('\n');
+            }
+        }
+        page.append("\n=> ").append(SEARCH_ADDRESS).append(" New search\n");
+
+        documentView.setDocument(GemtextParser.parseDocument(page.toString()));
+        root.setCenter(documentView);
+        documentURL = url;
+        updateURL(url);
+        history.push(url);
+        showStatus(hits.size() + " results for " + query);
+    }
+
+    /**
+     * Subscribe to the Gemtext page being shown.
+     */
+    private void subscribe() {
+        String url = documentURL;
+        if(url == null || url.startsWith("about:") || root.getCenter() != documentView) {
+            showStatus("Open a feed page to subscribe to it.");
+            return;
         }
 
-        // last resort: download binary file
-        else {
-            showStatus("Downloading " + req.url() + " (" + req.getContent().length + " bytes)");
-            Downloader.download(req);
-            showStatus("Downloaded " + req.url() + " (" + req.getContent().length + " bytes)");            
+        subscriptions.thenAccept(feeds -> {
+            boolean added = feeds.subscribe(url);
+            Platform.runLater(() -> showStatus(added ? "Subscribed to " + url : "Already subscribed to " + url));
+        });
+    }
+
+    /**
+     * Show the feed page, after polling every feed or unsubscribing from
+     * one if asked. Polling happens on the feed poller's thread.
+     *
+     * @param url Feed page URL.
+     */
+    private void showFeeds(String url) {
+        int mark = url.indexOf('?');
+        String query = mark < 0 ? "" : url.substring(mark + 1);
+
+        searching = url;
+        showStatus(query.equals("refresh") ? "Checking feeds" : "Loading feeds");
+
+        CompletableFuture<String> update;
+        if(query.equals("refresh")) {
+            // polling blocks, so it runs on the poller's own thread
+            update = feedPoller.thenCompose(poller -> poller.refresh().thenApply(added -> poller.summary()));
+        } else if(query.startsWith("unsubscribe=")) {
+            String feed = query.substring("unsubscribe=".length());
+            update = subscriptions.thenApplyAsync(feeds -> {
+                if(!feeds.unsubscribe(feed)) {
+                    return "Not subscribed to " + feed;
+                }
+
+                try {
+                    feeds.save();
+                } catch(IOException e) {
+                    // fall through
+                }
+                return "Unsubscribed.";
+            });
+        } else {
+            update = subscriptions.thenApply(feeds -> feeds.getFeeds().size() + " feeds");
         }
+
+        update.whenComplete((status, error) -> Platform.runLater(() -> {
+            // the user has moved on
+            if(!url.equals(searching)) {
+                return;
+            }
+            searching = null;
+
+            if(error != null) {
+                showStatus("Feeds are unavailable.");
+            } else {
+                displayFeeds(subscriptions.join(), status);
+            }
+        }));
     }
 
     /**
-     * Parse and display Gemtext.
+     * Show the newest posts across every feed as a Gemtext page, grouped
+     * by date, followed by the feeds themselves.
      * 
-     * @param content Gemtext content as Bytes.
-     */
-    private void displayGemtext(Byte[] content) {
-        // parse gemtext
-        GemtextParser parser = new GemtextParser(content);
-        List<Gemtext> gemtext = parser.getParsedContent();
-
-        VBox contentBox = new VBox();
-
-        for(Gemtext element : gemtext) {
-            // set up links
-            if(element instanceof GeminiLink) {
-                GeminiLink link = (GeminiLink) element;
-                Hyperlink hyperlink = (Hyperlink) link.render();
-                
-                hyperlink.setOnAction(new EventHandler<ActionEvent>() {
-                    @Override
-                    public void handle(ActionEvent arg0) {
-                        // valid (complete) url
-                        if(URL.isValidURL(link.getURL())) {
-                            makeRequest(link.getURL());
-                            return;
-                        }
-
-                        // full path on same server 
-                        if(link.getURL().startsWith("/")) {                           
-                            URL current = new URL(addressBar.getText());
-                            String rootURL = "gemini://" + current.getHostname() + link.getURL();
-                            
-                            if(URL.isValidURL(rootURL)) {
-                                makeRequest(rootURL);
-                                return;
-                            }
-                        } 
-
-                        // try local url
-                        String localURL = new URL(addressBar.getText()).getFolderURL();
-                        if(!localURL.endsWith("/")) {
-                            localURL += "/";
-                        }
-                        
-                        // remove ./ 
-                        if(link.getURL().startsWith("./")) {
-                            localURL += link.getURL().substring(2);
-                        } else {
-                            localURL += link.getURL();
-                        }
-
-                        // last try to check validity
-                        if(URL.isValidURL(localURL)) {
-                            makeRequest(localURL);
-                            return;
-                        }
-
-                        statusBar.setText("Not a Gemini link.");
-                    }            
-                });            
+     * @param feeds Subscribed feeds.
+     * @param status Status message to show.
+     */
+    private void displayFeeds(Subscriptions feeds, String status) {
+        StringBuilder page = new StringBuilder();
+        page.append("# Feeds\n\n");
+        page.append("=> ").append(FEEDS_ADDRESS).append("?refresh Check every feed now\n");
+
+        List<Subscriptions.Feed> subscribed = feeds.getFeeds();
+        if(subscribed.isEmpty()) {
+            page.append("\nYou have no subscriptions. Open a page of dated links and press Subscribe.\n");
+        }
+
+        String date = null;
+        for(FeedEntry entry : feeds.getEntries(FEED_ENTRIES)) {
+            if(!entry.getDate().equals(date)) {
+                date = entry.getDate();
+                page.append("\n## ").append(date).append("\n\n");
             }
 
-            contentBox.getChildren().add(element.render());
+            Subscriptions.Feed feed = feeds.getFeed(entry.getFeed());
+            String source = feed == null ? entry.getFeed() : feed.getTitle();
+            page.append("=> ").append(entry.getURL()).append(' ').append(source).append(" - ").append(entry.getTitle()).append('\n');
         }
 
-        contentPane.setContent(contentBox);
+        if(!subscribed.isEmpty()) {
+            page.append("\n## Subscriptions\n\n");
+            for(Subscriptions.Feed feed : subscribed) {
+                page.append("=> ").append(feed.getURL()).append(' ').append(feed.getTitle()).append('\n');
+                page.append("=> ").append(FEEDS_ADDRESS).append("?unsubscribe=").append(feed.getURL())
+                    .append(" Unsubscribe from ").append(feed.getTitle()).append('\n');
+            }
+        }
+
+        documentView.setDocument(GemtextParser.parseDocument(page.toString()));
+        root.setCenter(documentView);
+        documentURL = FEEDS_ADDRESS;
+        updateURL(FEEDS_ADDRESS);
+        history.push(FEEDS_ADDRESS);
+        showStatus(status);
     }
 
     /**
      * Display plaintext content.
      * 
-     * @param content Content to display.
+     * @param content Decoded content to display.
+     */
+    private void displayPlaintext(String content) {
+        Text text = new Text(content);
+        text.setFont(renderer.getStyles().getFont(ElementType.PREFORMATTED));
+        contentPane.setContent(text);
+        contentPane.setVvalue(contentPane.getVmin()); // resets scroll bar
+        root.setCenter(contentPane);
+    }
+
+    /**
+     * Switch theme or zoom level. Pages aren't reloaded or re-parsed; only
+     * the nodes being shown are restyled.
+     * 
+     * @param styles New style table.
      */
-    private void displayPlaintext(Byte[] content) {
-        StringBuilder sb = new StringBuilder();
+    private void setStyles(StyleTable styles) {
+        documentView.setStyles(styles);
+        largeTextView.setStyles(styles);
 
-        for(Byte b : content) {
-            sb.append((char) b.intValue());
+        if(contentPane.getContent() instanceof Text) {
+            ((Text) contentPane.getContent()).setFont(styles.getFont(ElementType.PREFORMATTED));
         }
+    }
 
-        Text text = new Text(sb.toString());
-        text.setFont(Font.font("monospace"));
-        contentPane.setContent(text);
+    /**
+     * Send every request through a Gemini proxy.
+     *
+     * @param proxy Proxy as HOST:PORT.
+     */
+    private void setProxy(String proxy) {
+        int colon = proxy.lastIndexOf(':');
+        try {
+            GeminiConnection.setProxy(proxy.substring(0, colon), Integer.parseInt(proxy.substring(colon + 1)));
+        } catch(IndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Ignoring proxy " + proxy + ": expected HOST:PORT");
+        }
+    }
+
+    /**
+     * Switch inline images on or off.
+     */
+    private void toggleImages() {
+        if(images == null) {
+            // image bodies are stored alongside pages, once the store has opened
+            BlobStore store = bodyStore.isDone() && !bodyStore.isCompletedExceptionally() ? bodyStore.join() : null;
+            images = new ImagePreviews(IMAGE_CACHE_BYTES, store);
+            showStatus("Showing images inline");
+        } else {
+            images = null;
+            showStatus("Showing image links only");
+        }
+
+        documentView.setImagePreviews(images);
+    }
+
+    /**
+     * Describe how the current page loaded and is being rendered.
+     * 
+     * @return Metrics summary.
+     */
+    private String describeMetrics() {
+        String proxy = GeminiConnection.getProxy();
+        String rendering = documentView.getRenderStats() + "\nParsed documents: " + documents
+            + "\nCached bodies: " + bodyCache + (images == null ? "" : "\nImages: " + images)
+            + (proxy == null ? "" : "\nProxy: " + proxy);
+        return loader == null ? rendering : loader.getStats() + "\n" + rendering;
     }
 
     /**
@@ -441,7 +937,130 @@ public class Browser extends Application {
 
         history.pop();
         String lastURL = history.pop();
-        makeRequest(lastURL);
+        makeRequest(lastURL, true);
+    }
+
+    /**
+     * Shows the results of page loads.
+     */
+    private class PageHandler implements PageLoader.Listener {
+        /**
+         * Status line of the page being loaded.
+         */
+        private String header = "";
+
+        /**
+         * URL of the page being loaded.
+         */
+        private String url;
+
+        /**
+         * Whether this load is a new version of the document being shown.
+         * If so, it's diffed in once complete instead of shown as it loads.
+         */
+        private boolean reloading;
+
+        /**
+         * Elements received so far.
+         */
+        private int received;
+
+        @Override
+        public void headerReceived(String url, int status, String meta) {
+            // set address bar to url requested and status bar to status returned
+            header = status + " " + meta;
+            this.url = url;
+            reloading = url.equals(documentURL) && root.getCenter() == documentView;
+            updateURL(url);
+            showStatus(header);
+
+            processResponse(url, status, meta);
+        }
+
+        @Override
+        public void documentStarted() {
+            if(!reloading) {
+                documentView.setBaseURL(url);
+                documentView.beginDocument();
+                root.setCenter(documentView);
+            }
+        }
+
+        @Override
+        public void elementsAdded(List<Gemtext> elements) {
+            if(!reloading) {
+                documentView.appendElements(elements);
+            }
+
+            received += elements.size();
+            showStatus(header + " (loading, " + received + " elements)");
+        }
+
+        @Override
+        public void documentFinished(CompactDocument document, PipelineStats stats) {
+            if(reloading) {
+                documentView.updateDocument(document);
+            } else {
+                documentView.finishDocument(document);
+            }
+
+            documentURL = url;
+
+            // index the page in the background
+            pageIndex.thenAccept(index -> index.add(url, document));
+
+            showStatus(header + " (" + document.size() + " elements in "
+                + TimeUnit.NANOSECONDS.toMillis(stats.getElapsedNanos()) + " ms)");
+        }
+
+        @Override
+        public void plaintextLoaded(String text) {
+            displayPlaintext(text);
+        }
+
+        @Override
+        public void largeTextLoaded(LargeTextView.Lines lines) {
+            largeTextView.setLines(lines);
+            root.setCenter(largeTextView);
+        }
+
+        @Override
+        public void downloaded(String url, int size) {
+            showStatus("Downloaded " + url + " (" + size + " bytes)");
+        }
+
+        @Override
+        public void failed(String message) {
+            showStatus("Request failed.");
+        }
+    }
+
+    /**
+     * Stop polling feeds, and write out the subscriptions and the index
+     * and stored bodies of visited pages before exiting.
+     */
+    @Override
+    public void stop() {
+        if(feedPoller.isDone() && !feedPoller.isCompletedExceptionally()) {
+            feedPoller.join().close();
+            try {
+                subscriptions.join().save();
+            } catch(IOException e) {
+                // fall through
+            }
+        }
+
+        if(pageIndex.isDone() && !pageIndex.isCompletedExceptionally()) {
+            pageIndex.join().close();
+        }
+
+        if(bodyStore.isDone() && !bodyStore.isCompletedExceptionally()) {
+            try(BlobStore store = bodyStore.join()) {
+                store.trim(STORE_BYTES);
+            } catch(IOException e) {
+                // fall through
+            }
+        }
     }
 
     /**
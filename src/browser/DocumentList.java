@@ -0,0 +1,84 @@
+package browser;
+
+import javafx.collections.ObservableListBase;
+
+import gemtext.CompactDocument;
+import gemtext.DocumentDiff;
+import gemtext.Gemtext;
+
+/**
+ * An observable list of a compact document's elements. When the document
+ * is replaced by a new version, only the elements that changed are reported
+ * as changed, so a ListView showing it leaves the other rows alone.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+class DocumentList extends ObservableListBase<Gemtext> {
+    /**
+     * Document whose elements are listed.
+     */
+    private CompactDocument document;
+
+    /**
+     * Create a list of a document's elements.
+     *
+     * @param document Document.
+     */
+    DocumentList(CompactDocument document) {
+        this.document = document;
+    }
+
+    /**
+     * Return the document whose elements are listed.
+     *
+     * @return Document.
+     */
+    CompactDocument getDocument() {
+        return document;
+    }
+
+    /**
+     * Switch to a new version of the document, reporting only the hunks
+     * that differ.
+     *
+     * @param updated New version.
+     * @param diff Differences from the current version.
+     */
+    void update(CompactDocument updated, DocumentDiff diff) {
+        CompactDocument previous = document;
+        document = updated;
+
+        // nothing to report
+        if(diff.isUnchanged()) {
+            return;
+        }
+
+        beginChange();
+        for(DocumentDiff.Hunk hunk : diff.getHunks()) {
+            int from = hunk.getNewStart();
+            int to = from + hunk.getNewLength();
+            int removedFrom = hunk.getOldStart();
+            int removedTo = removedFrom + hunk.getOldLength();
+
+            if(hunk.getOldLength() == 0) {
+                nextAdd(from, to);
+            } else if(hunk.getNewLength() == 0) {
+                nextRemove(from, previous.asList().subList(removedFrom, removedTo));
+            } else {
+                nextReplace(from, to, previous.asList().subList(removedFrom, removedTo));
+            }
+        }
+        endChange();
+    }
+
+    @Override
+    public Gemtext get(int index) {
+        return document.get(index);
+    }
+
+    @Override
+    public int size() {
+        return document.size();
+    }
+}
@@ -0,0 +1,678 @@
+package browser;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import gemtext.CompactDocument;
+import gemtext.DocumentDiff;
+import gemtext.ElementType;
+import gemtext.GeminiLink;
+import gemtext.Gemtext;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.scene.Group;
+import javafx.scene.control.Hyperlink;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.skin.VirtualFlow;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Path;
+import javafx.scene.text.Text;
+import javafx.util.Duration;
+import network.URL;
+
+/**
+ * Displays a Gemtext document, one element per row.
+ *
+ * The ListView only creates cells for the rows in view and reuses them as
+ * the document scrolls, so layout and CSS cost depend on the window size
+ * rather than the length of the page. Element objects are created from the
+ * compact document as rows come into view.
+ *
+ * A document can also be shown as it loads: elements are appended as they
+ * are parsed, then swapped for the compact document once it's complete.
+ * A new version of the same document (a reload) is diffed against the one
+ * shown, and only the rows that changed are updated.
+ *
+ * Paragraphs wrap to fit the view. The wrapping width is rounded down to a
+ * bucket and only changes once resizing has paused, and then only the rows
+ * in view are reflowed. Row heights are cached per bucket, so rows don't
+ * need to be measured again when the view returns to a width it's had.
+ *
+ * Given {@link ImagePreviews}, links to images show the image below the
+ * link, decoded to the wrapping width. A placeholder is shown until the
+ * image has loaded in the background; then the rows in view are laid out
+ * again, batched so a page of images doesn't relayout once per image.
+ *
+ * Rows can be selected (shift/ctrl-click) and copied with Ctrl+C.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class DocumentView extends ListView<Gemtext> {
+    /**
+     * Height of the viewer for large preformatted blocks.
+     */
+    private static final double LARGE_TEXT_HEIGHT = 480;
+
+    /**
+     * Room left beside the viewer for the cell padding and scroll bar.
+     */
+    private static final double LARGE_TEXT_INSET = 32;
+
+    /**
+     * Wrapping widths are rounded down to a multiple of this.
+     */
+    private static final int WIDTH_BUCKET = 32;
+
+    /**
+     * Narrowest wrapping width.
+     */
+    private static final int MIN_WRAPPING_WIDTH = 160;
+
+    /**
+     * How long resizing must pause before paragraphs are reflowed.
+     */
+    private static final Duration REFLOW_DELAY = Duration.millis(100);
+
+    /**
+     * Height of the placeholder shown while an image loads.
+     */
+    private static final double IMAGE_PLACEHOLDER_HEIGHT = 48;
+
+    /**
+     * How long after an image loads the rows in view are laid out again,
+     * so images loading together cause one relayout.
+     */
+    private static final Duration IMAGE_RELAYOUT_DELAY = Duration.millis(50);
+
+    /**
+     * Highlight behind find-in-page matches.
+     */
+    private static final Color MATCH_FILL = Color.rgb(255, 230, 0, 0.5);
+
+    /**
+     * Highlight behind the current match.
+     */
+    private static final Color CURRENT_MATCH_FILL = Color.rgb(255, 140, 0, 0.7);
+
+    /**
+     * Builds and updates nodes for elements.
+     */
+    private GemtextRenderer renderer;
+
+    /**
+     * Called when a link is clicked.
+     */
+    private Consumer<GeminiLink> linkHandler;
+
+    /**
+     * Document being shown.
+     */
+    private CompactDocument document;
+
+    /**
+     * Row heights per wrapping width.
+     */
+    private final LayoutCache layoutCache = new LayoutCache();
+
+    /**
+     * Reflow measurements.
+     */
+    private final RenderStats renderStats = new RenderStats();
+
+    /**
+     * Reflows once resizing pauses.
+     */
+    private final PauseTransition reflowTimer = new PauseTransition(REFLOW_DELAY);
+
+    /**
+     * Lays rows out again once images have loaded.
+     */
+    private final PauseTransition imageTimer = new PauseTransition(IMAGE_RELAYOUT_DELAY);
+
+    /**
+     * Loads images shown inline, or null not to show them.
+     */
+    private ImagePreviews images;
+
+    /**
+     * URL of the document, which image links resolve against.
+     */
+    private String baseURL;
+
+    /**
+     * Current wrapping width, always a multiple of WIDTH_BUCKET.
+     */
+    private int wrappingWidth;
+
+    /**
+     * Offsets of find-in-page matches in the document's backing text.
+     */
+    private int[] matches = new int[0];
+
+    /**
+     * Length of each match.
+     */
+    private int matchLength;
+
+    /**
+     * Index of the current match, or -1.
+     */
+    private int currentMatch = -1;
+
+    /**
+     * Create a new DocumentView.
+     *
+     * @param renderer Builds and updates nodes for elements.
+     * @param linkHandler Called when a link is clicked.
+     */
+    public DocumentView(GemtextRenderer renderer, Consumer<GeminiLink> linkHandler) {
+        this.renderer = renderer;
+        this.linkHandler = linkHandler;
+
+        getStyleClass().add("document-view");
+        getStylesheets().add(renderer.getStyles().getStylesheet());
+        getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        setCellFactory(list -> new ElementCell());
+
+        // reflow once resizing pauses
+        wrappingWidth = (int) renderer.getWrappingWidth();
+        reflowTimer.setOnFinished(event -> reflow());
+        imageTimer.setOnFinished(event -> refresh());
+        widthProperty().addListener(observable -> reflowTimer.playFromStart());
+
+        // copy selected rows
+        addEventHandler(KeyEvent.KEY_PRESSED, event -> {
+            if(event.isShortcutDown() && event.getCode() == KeyCode.C) {
+                copySelection();
+                event.consume();
+            }
+        });
+    }
+
+    /**
+     * Show a document, scrolled to the top.
+     *
+     * @param document Document to show.
+     */
+    public void setDocument(CompactDocument document) {
+        this.document = document;
+        matches = new int[0];
+        layoutCache.clear();
+        setItems(new DocumentList(document));
+        scrollTo(0);
+    }
+
+    /**
+     * Show a new version of the document being shown, e.g. after a reload.
+     * Only rows whose elements changed are updated, and the view stays
+     * scrolled to the same content.
+     *
+     * @param updated New version.
+     */
+    public void updateDocument(CompactDocument updated) {
+        // nothing to compare against
+        if(document == null || !(getItems() instanceof DocumentList)) {
+            setDocument(updated);
+            return;
+        }
+
+        DocumentDiff diff = DocumentDiff.compute(document, updated);
+
+        // keep the top row in view, or the first one after it that survived
+        int first = getFirstVisibleIndex();
+        int anchor = -1;
+        for(int row = first; row < document.size() && anchor < 0; row++) {
+            anchor = diff.getNewIndex(row);
+        }
+        if(anchor < 0) {
+            anchor = Math.max(0, Math.min(first, updated.size() - 1));
+        }
+
+        document = updated;
+        matches = new int[0];
+        layoutCache.remap(updated.size(), diff::getOldIndex);
+        ((DocumentList) getItems()).update(updated, diff);
+
+        // only scroll if the change moved the view
+        layout();
+        if(getFirstVisibleIndex() != anchor) {
+            scrollTo(anchor);
+        }
+    }
+
+    /**
+     * Switch to another style table. Only the rows in view are restyled;
+     * the rest pick up the new styles as they're scrolled to.
+     *
+     * @param styles New style table.
+     */
+    public void setStyles(StyleTable styles) {
+        getStylesheets().remove(renderer.getStyles().getStylesheet());
+        renderer.setStyles(styles);
+        getStylesheets().add(styles.getStylesheet());
+
+        // wrapping widths aren't set by CSS, and heights change with fonts
+        layoutCache.clear();
+        refresh();
+    }
+
+    /**
+     * Show images linked from the document inline, or stop showing them.
+     *
+     * @param images Loads the images, or null not to show them.
+     */
+    public void setImagePreviews(ImagePreviews images) {
+        this.images = images;
+        layoutCache.clear();
+        refresh();
+    }
+
+    /**
+     * Set the URL of the document, which image links resolve against.
+     *
+     * @param url Document URL.
+     */
+    public void setBaseURL(String url) {
+        baseURL = url;
+    }
+
+    /**
+     * Highlight find-in-page matches in the rows shown.
+     *
+     * @param matches Offsets of the matches in the document's backing text, ascending.
+     * @param length Length of each match.
+     */
+    public void setMatches(int[] matches, int length) {
+        this.matches = matches;
+        matchLength = length;
+        currentMatch = -1;
+        refresh();
+    }
+
+    /**
+     * Make a match the current one and scroll to it if it's out of view.
+     *
+     * @param index Index of the match.
+     */
+    public void showMatch(int index) {
+        currentMatch = index;
+        int row = document.elementAt(matches[index]);
+
+        if(row < getFirstVisibleIndex() || row > getLastVisibleIndex()) {
+            scrollTo(Math.max(0, row - 2));
+        }
+
+        refresh();
+    }
+
+    /**
+     * Return the index of the last row in view.
+     *
+     * @return Row index, or -1 if nothing has been laid out.
+     */
+    public int getLastVisibleIndex() {
+        VirtualFlow<?> flow = (VirtualFlow<?>) lookup(".virtual-flow");
+
+        if(flow == null || flow.getLastVisibleCell() == null) {
+            return -1;
+        }
+
+        return flow.getLastVisibleCell().getIndex();
+    }
+
+    /**
+     * Return the reflow measurements.
+     *
+     * @return Render statistics.
+     */
+    public RenderStats getRenderStats() {
+        return renderStats;
+    }
+
+    /**
+     * Fit paragraphs to the view's current width, if it has moved to
+     * another bucket. Only the rows in view are reflowed now; others are
+     * reflowed when they're scrolled to.
+     */
+    private void reflow() {
+        int width = (int) (getWidth() - LARGE_TEXT_INSET);
+        int bucket = Math.max(MIN_WRAPPING_WIDTH, width - width % WIDTH_BUCKET);
+
+        if(bucket == wrappingWidth) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        wrappingWidth = bucket;
+        renderer.setWrappingWidth(bucket);
+        refresh();
+        layout();
+        renderStats.recordRelayout(System.nanoTime() - start);
+    }
+
+    /**
+     * Start showing a document that's still loading. The view is emptied
+     * and elements are added with {@link #appendElements(List)}.
+     */
+    public void beginDocument() {
+        document = null;
+        matches = new int[0];
+        layoutCache.clear();
+        setItems(FXCollections.observableArrayList());
+        scrollTo(0);
+    }
+
+    /**
+     * Add elements to the end of a document that's still loading.
+     *
+     * @param elements Elements, in document order.
+     */
+    public void appendElements(List<Gemtext> elements) {
+        getItems().addAll(elements);
+    }
+
+    /**
+     * Replace the elements of a loaded document with its compact form,
+     * keeping the scroll position.
+     *
+     * @param document Complete document.
+     */
+    public void finishDocument(CompactDocument document) {
+        int first = getFirstVisibleIndex();
+
+        this.document = document;
+        setItems(new DocumentList(document));
+        scrollTo(first);
+    }
+
+    /**
+     * Return the index of the first row in view.
+     *
+     * @return Row index, or 0 if nothing has been laid out.
+     */
+    public int getFirstVisibleIndex() {
+        VirtualFlow<?> flow = (VirtualFlow<?>) lookup(".virtual-flow");
+
+        if(flow == null || flow.getFirstVisibleCell() == null) {
+            return 0;
+        }
+
+        return flow.getFirstVisibleCell().getIndex();
+    }
+
+    /**
+     * Return the document being shown.
+     *
+     * @return Document, or {@code null} while it's still loading.
+     */
+    public CompactDocument getDocument() {
+        return document;
+    }
+
+    /**
+     * Copy the text of the selected rows to the clipboard.
+     */
+    private void copySelection() {
+        StringBuilder text = new StringBuilder();
+
+        for(int index : getSelectionModel().getSelectedIndices()) {
+            text.append(getItems().get(index).getText()).append('\n');
+        }
+
+        ClipboardContent content = new ClipboardContent();
+        content.putString(text.toString());
+        Clipboard.getSystemClipboard().setContent(content);
+    }
+
+    /**
+     * A row. Each cell keeps one Text and one Hyperlink and reuses them for
+     * whichever element it's showing.
+     */
+    private class ElementCell extends ListCell<Gemtext> {
+        /**
+         * Node for text elements.
+         */
+        private final Text text = new Text();
+
+        /**
+         * Highlights behind the matches in the text.
+         */
+        private final Path highlights = new Path();
+
+        /**
+         * Highlight behind the current match.
+         */
+        private final Path current = new Path();
+
+        /**
+         * Text with its highlights.
+         */
+        private final Group textGroup = new Group(highlights, current, text);
+
+        /**
+         * Node for links.
+         */
+        private final Hyperlink hyperlink = new Hyperlink();
+
+        /**
+         * Image shown below an image link.
+         */
+        private final ImageView imageView = new ImageView();
+
+        /**
+         * Shown below an image link until the image loads.
+         */
+        private final Label imagePlaceholder = new Label();
+
+        /**
+         * Link with its image or placeholder.
+         */
+        private final VBox imageBox = new VBox();
+
+        /**
+         * Viewer for large preformatted blocks, created when first needed.
+         */
+        private LargeTextView largeText;
+
+        /**
+         * Text shown in largeText, so it isn't re-indexed needlessly.
+         */
+        private String largeTextContent;
+
+        /**
+         * Create a new cell.
+         */
+        ElementCell() {
+            hyperlink.getStyleClass().add(StyleTable.styleClass(ElementType.LINK));
+            imagePlaceholder.setMinHeight(IMAGE_PLACEHOLDER_HEIGHT);
+
+            highlights.setFill(MATCH_FILL);
+            highlights.setStroke(null);
+            current.setFill(CURRENT_MATCH_FILL);
+            current.setStroke(null);
+
+            // follow the link shown in this cell
+            hyperlink.setOnAction(event -> {
+                if(getItem() instanceof GeminiLink) {
+                    linkHandler.accept((GeminiLink) getItem());
+                }
+            });
+        }
+
+        @Override
+        protected double computePrefHeight(double width) {
+            int row = getIndex();
+            if(isEmpty() || row < 0) {
+                return super.computePrefHeight(width);
+            }
+
+            // measured at this width before?
+            double height = layoutCache.get(wrappingWidth, row);
+            renderStats.recordLookup(!Double.isNaN(height));
+
+            if(Double.isNaN(height)) {
+                height = super.computePrefHeight(width);
+                layoutCache.put(wrappingWidth, row, height);
+            }
+
+            return height;
+        }
+
+        @Override
+        protected void updateItem(Gemtext element, boolean empty) {
+            super.updateItem(element, empty);
+            setText(null);
+
+            if(empty || element == null) {
+                setGraphic(null);
+                return;
+            }
+
+            if(element instanceof GeminiLink) {
+                hyperlink.setText(element.getText());
+                hyperlink.setVisited(false);
+                highlightLink();
+                showLink((GeminiLink) element);
+            } else if(element.getType() == ElementType.PREFORMATTED
+                    && element.getText().length() > LargeTextView.THRESHOLD) {
+                showLargeText(element.getText());
+            } else {
+                renderer.update(text, element);
+                highlightText();
+                setGraphic(textGroup);
+            }
+        }
+
+        /**
+         * Show a link, with its image below it if it's an image link and
+         * images are shown.
+         *
+         * @param link Link.
+         */
+        private void showLink(GeminiLink link) {
+            String url = images == null || !ImagePreviews.isImage(link.getURL()) ? null : URL.resolve(baseURL, link.getURL());
+            if(url == null) {
+                setGraphic(hyperlink);
+                return;
+            }
+
+            Image image = images.get(url, wrappingWidth);
+            if(image != null) {
+                imageView.setImage(image);
+                imageBox.getChildren().setAll(hyperlink, imageView);
+            } else if(images.hasFailed(url)) {
+                imagePlaceholder.setText("Image unavailable.");
+                imageBox.getChildren().setAll(hyperlink, imagePlaceholder);
+            } else {
+                imagePlaceholder.setText("Loading image...");
+                imageBox.getChildren().setAll(hyperlink, imagePlaceholder);
+
+                // measure the row again once the image is in
+                int row = getIndex();
+                images.load(url, wrappingWidth).whenComplete((loaded, error) -> Platform.runLater(() -> {
+                    layoutCache.forget(row);
+                    imageTimer.playFromStart();
+                }));
+            }
+
+            setGraphic(imageBox);
+        }
+
+        /**
+         * Draw highlights behind the matches in this row's text.
+         */
+        private void highlightText() {
+            highlights.getElements().clear();
+            current.getElements().clear();
+
+            int first = firstMatch();
+            if(first < 0) {
+                return;
+            }
+
+            int start = document.getStart(getIndex());
+            int end = start + document.getLength(getIndex());
+            for(int i = first; i < matches.length && matches[i] + matchLength <= end; i++) {
+                Path path = i == currentMatch ? current : highlights;
+                path.getElements().addAll(text.rangeShape(matches[i] - start, matches[i] - start + matchLength));
+            }
+        }
+
+        /**
+         * Highlight this row's link if its caption has a match.
+         */
+        private void highlightLink() {
+            int first = firstMatch();
+            int end = first < 0 ? 0 : document.getStart(getIndex()) + document.getLength(getIndex());
+            boolean hasCurrent = false;
+            boolean hasMatch = false;
+
+            for(int i = first; i >= 0 && i < matches.length && matches[i] + matchLength <= end; i++) {
+                hasMatch = true;
+                hasCurrent |= i == currentMatch;
+            }
+
+            hyperlink.setBackground(!hasMatch ? null
+                : new Background(new BackgroundFill(hasCurrent ? CURRENT_MATCH_FILL : MATCH_FILL, null, null)));
+        }
+
+        /**
+         * Return the first match in this row.
+         *
+         * @return Match index, or -1 if the row has none.
+         */
+        private int firstMatch() {
+            if(document == null || matches.length == 0) {
+                return -1;
+            }
+
+            int start = document.getStart(getIndex());
+            int end = start + document.getLength(getIndex());
+            int i = Arrays.binarySearch(matches, start);
+            if(i < 0) {
+                i = -i - 1;
+            }
+
+            return i < matches.length && matches[i] + matchLength <= end ? i : -1;
+        }
+
+        /**
+         * Show a large preformatted block in a fixed-height viewer that only
+         * draws the visible lines.
+         *
+         * @param content Block content.
+         */
+        private void showLargeText(String content) {
+            if(largeText == null) {
+                largeText = new LargeTextView(renderer.getStyles());
+                largeText.setPrefHeight(LARGE_TEXT_HEIGHT);
+                largeText.prefWidthProperty().bind(DocumentView.this.widthProperty().subtract(LARGE_TEXT_INSET));
+            }
+
+            // restyled along with the rest of the view
+            largeText.setStyles(renderer.getStyles());
+
+            if(!content.equals(largeTextContent)) {
+                largeText.setText(content);
+                largeTextContent = content;
+            }
+
+            setGraphic(largeText);
+        }
+    }
+}
@@ -4,14 +4,21 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import network.GeminiRequest;
+import network.URL;
 
 /**
  * Downloads files.
  * 
+ * Besides saving single files to the working directory, it maps URLs to
+ * paths in a local copy of a capsule (host/path), for the headless tools.
+ * 
  * @author Hayden Walker
- * @version 2024-04-02
+ * @version 2026-10-19
  */
 public class Downloader {
     /**
@@ -20,13 +27,8 @@ public class Downloader {
      * @param req GeminiRequest to save content from.
      */
     public static void download(GeminiRequest req) {
-        // TODO clean this up, or use it for URL?
-        // get filename to save to
-        String[] tokens = req.url().split("/");
-        String name = tokens[tokens.length - 1];
-        
         // open file to write
-        File file = new File(name);
+        File file = new File(fileName(req.url()));
         file.delete();
         RandomAccessFile raf;
 
@@ -37,10 +39,7 @@ public class Downloader {
         }
 
         // convert to primitive byte array
-        byte[] bytes = new byte[req.getContent().length];
-        for(int i = 0; i < bytes.length; i++) {
-            bytes[i] = req.getContent()[i];
-        }
+        byte[] bytes = toBytes(req.getContent());
         
         // write bytes to file
         try{
@@ -50,4 +49,106 @@ public class Downloader {
             return;
         }
     }
+
+    /**
+     * Convert boxed content to a primitive byte array.
+     * 
+     * @param content Boxed bytes.
+     * @return Bytes.
+     */
+    public static byte[] toBytes(Byte[] content) {
+        byte[] bytes = new byte[content.length];
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = content[i];
+        }
+        return bytes;
+    }
+
+    /**
+     * Save a body that's already been read.
+     * 
+     * @param url URL the body came from.
+     * @param body Body to save.
+     */
+    public static void download(String url, byte[] body) {
+        // open file to write, replacing any old copy
+        File file = new File(fileName(url));
+        file.delete();
+
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(body);
+        } catch(IOException e) {
+            return;
+        }
+    }
+
+    /**
+     * Return where a URL's content goes in a local copy of its capsule:
+     * root/host/path, with index.gmi for a folder, and any query kept in the
+     * file name with '?' and '/' escaped. A port other than 1965 is part of
+     * the host directory's name, with ':' escaped, so capsules on different
+     * ports of one host are kept apart.
+     * 
+     * @param root Directory holding local copies.
+     * @param url URL.
+     * @return File under the root.
+     * @throws IOException If the URL's path would leave the root.
+     */
+    public static Path localPath(Path root, String url) throws IOException {
+        URL parsed = new URL(url);
+        String path = parsed.getURL().substring("gemini://".length() + parsed.getAuthority().length());
+
+        // keep a query in the file name
+        int query = path.indexOf('?');
+        String suffix = "";
+        if(query >= 0) {
+            suffix = "%3F" + path.substring(query + 1).replace("/", "%2F");
+            path = path.substring(0, query);
+        }
+
+        if(path.isEmpty() || path.endsWith("/")) {
+            path += "index.gmi";
+        }
+
+        // stay under the root
+        Path base = root.normalize();
+        Path host = base.resolve(parsed.getAuthority().replace(":", "%3A")).normalize();
+        Path file = host.resolve(path.substring(path.startsWith("/") ? 1 : 0) + suffix).normalize();
+        if(!host.startsWith(base) || host.equals(base) || !file.startsWith(host) || file.equals(host)) {
+            throw new IOException("Path leaves the download directory: " + url);
+        }
+        return file;
+    }
+
+    /**
+     * Save a body to a file, replacing it all at once so readers never see
+     * part of it.
+     * 
+     * @param file File.
+     * @param body Body to save.
+     * @throws IOException If it can't be written.
+     */
+    public static void save(Path file, byte[] body) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temporary = Files.createTempFile(file.getParent(), ".download", ".tmp");
+
+        try {
+            Files.write(temporary, body);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Return the name to save a URL's content under: the last part of its path.
+     * 
+     * @param url URL.
+     * @return File name.
+     */
+    private static String fileName(String url) {
+        // TODO clean this up, or use it for URL?
+        String[] tokens = url.split("/");
+        return tokens[tokens.length - 1];
+    }
 }
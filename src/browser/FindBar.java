@@ -0,0 +1,241 @@
+package browser;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import gemtext.CompactDocument;
+import gemtext.SearchIndex;
+import javafx.application.Platform;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.HBox;
+
+/**
+ * Find-in-page for a {@link DocumentView}. Matches are found as the user
+ * types, highlighted, and stepped through with Enter and Shift+Enter (or
+ * the buttons). Escape closes the bar.
+ *
+ * The page is searched through a {@link SearchIndex}, kept until the page
+ * changes. A large page's index is built on a worker thread when the bar
+ * opens or the page is first searched; until it's swapped in, the page is
+ * scanned. While a query only grows, the previous matches are narrowed
+ * down rather than searched for again.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class FindBar extends HBox {
+    /**
+     * Builds indexes off the FX thread.
+     */
+    private static final ExecutorService INDEXER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "find-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * View being searched.
+     */
+    private DocumentView view;
+
+    /**
+     * Query field.
+     */
+    private TextField field = new TextField();
+
+    /**
+     * Match count display.
+     */
+    private Label count = new Label();
+
+    /**
+     * Index of the page last searched, not built until swapped in.
+     */
+    private SearchIndex index;
+
+    /**
+     * Page whose index is being built, or null.
+     */
+    private CompactDocument indexing;
+
+    /**
+     * Last query searched for.
+     */
+    private String query = "";
+
+    /**
+     * Matches of the last query.
+     */
+    private int[] matches = new int[0];
+
+    /**
+     * Index of the current match, or -1.
+     */
+    private int current = -1;
+
+    /**
+     * Create a find bar. It starts hidden.
+     *
+     * @param view View to search.
+     */
+    public FindBar(DocumentView view) {
+        super(4);
+        this.view = view;
+
+        field.setPromptText("Find in page");
+        field.textProperty().addListener(observable -> search());
+
+        Button previous = new Button("Previous");
+        previous.setOnAction(event -> step(-1));
+
+        Button next = new Button("Next");
+        next.setOnAction(event -> step(1));
+
+        Button close = new Button("Close");
+        close.setOnAction(event -> close());
+
+        // Enter: next, Shift+Enter: previous, Escape: close
+        field.setOnKeyPressed(event -> {
+            if(event.getCode() == KeyCode.ENTER) {
+                step(event.isShiftDown() ? -1 : 1);
+                event.consume();
+            } else if(event.getCode() == KeyCode.ESCAPE) {
+                close();
+                event.consume();
+            }
+        });
+
+        getChildren().addAll(field, previous, next, count, close);
+        setVisible(false);
+        setManaged(false);
+    }
+
+    /**
+     * Show the bar and focus the query field.
+     */
+    public void open() {
+        setVisible(true);
+        setManaged(true);
+        field.requestFocus();
+        field.selectAll();
+
+        // the page may have changed since the last search
+        search();
+    }
+
+    /**
+     * Hide the bar and clear the highlights.
+     */
+    public void close() {
+        setVisible(false);
+        setManaged(false);
+        view.setMatches(new int[0], 0);
+        view.requestFocus();
+    }
+
+    /**
+     * Search for the query in the field.
+     */
+    private void search() {
+        CompactDocument document = view.getDocument();
+        String text = field.getText();
+
+        if(document == null) {
+            count.setText(view.getItems().isEmpty() ? "" : "Page still loading");
+            return;
+        }
+
+        // a new page needs a new index: scan it until one is built
+        boolean samePage = index != null && index.getDocument() == document;
+        if(!samePage) {
+            index = new SearchIndex(document);
+            buildIndex(document);
+        }
+
+        // narrow the last matches down while the query only grows
+        if(samePage && !query.isEmpty() && text.startsWith(query)) {
+            matches = index.refine(matches, text);
+        } else {
+            matches = index.find(text);
+        }
+        query = text;
+
+        view.setMatches(matches, text.length());
+        current = -1;
+
+        // start from the first match at or below the top of the view
+        if(matches.length > 0) {
+            int top = document.getStart(Math.min(view.getFirstVisibleIndex(), document.size() - 1));
+            current = 0;
+            while(current < matches.length - 1 && matches[current] < top) {
+                current++;
+            }
+            view.showMatch(current);
+        }
+
+        showCount();
+    }
+
+    /**
+     * Build a page's index on a worker thread, and swap it in once built
+     * if the page is still shown.
+     *
+     * @param document Page.
+     */
+    private void buildIndex(CompactDocument document) {
+        if(document == indexing || document.getBackingText().length() < SearchIndex.MIN_INDEXED_LENGTH) {
+            return;
+        }
+        indexing = document;
+
+        SearchIndex built = new SearchIndex(document);
+        INDEXER.execute(() -> {
+            built.build();
+            Platform.runLater(() -> {
+                if(indexing == document) {
+                    indexing = null;
+                }
+                if(index != null && index.getDocument() == document) {
+                    index = built;
+                }
+            });
+        });
+    }
+
+    /**
+     * Move to the next or previous match, wrapping around.
+     *
+     * @param direction 1 for the next match, -1 for the previous one.
+     */
+    private void step(int direction) {
+        // the page changed under the matches
+        if(index == null || index.getDocument() != view.getDocument()) {
+            search();
+            return;
+        }
+
+        if(matches.length == 0) {
+            return;
+        }
+
+        current = Math.floorMod(current + direction, matches.length);
+        view.showMatch(current);
+        showCount();
+    }
+
+    /**
+     * Show which match is current.
+     */
+    private void showCount() {
+        if(query.isEmpty()) {
+            count.setText("");
+        } else if(matches.length == 0) {
+            count.setText("No matches");
+        } else {
+            count.setText((current + 1) + " of " + matches.length);
+        }
+    }
+}
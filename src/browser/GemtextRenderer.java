@@ -0,0 +1,125 @@
+package browser;
+
+import gemtext.ElementType;
+import gemtext.Gemtext;
+import javafx.scene.Node;
+import javafx.scene.control.Hyperlink;
+import javafx.scene.text.Text;
+
+/**
+ * Builds JavaFX nodes for parsed Gemtext elements. Nodes are only created
+ * when an element is about to be displayed, and can be reused for other
+ * elements.
+ *
+ * Nodes are given the style class for their element type; fonts and
+ * colours come from the {@link StyleTable}'s stylesheet, so nothing is
+ * looked up per element.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class GemtextRenderer {
+    /**
+     * Styles in use.
+     */
+    private StyleTable styles;
+
+    /**
+     * Width paragraphs wrap at, or 0 to use the style table's.
+     */
+    private double wrappingWidth;
+
+    /**
+     * Create a renderer using the default styles.
+     */
+    public GemtextRenderer() {
+        this(StyleTable.DEFAULT);
+    }
+
+    /**
+     * Create a renderer.
+     *
+     * @param styles Styles to use.
+     */
+    public GemtextRenderer(StyleTable styles) {
+        this.styles = styles;
+    }
+
+    /**
+     * Return the styles in use.
+     *
+     * @return Style table.
+     */
+    public StyleTable getStyles() {
+        return styles;
+    }
+
+    /**
+     * Change the styles used for nodes updated from now on.
+     *
+     * @param styles New style table.
+     */
+    public void setStyles(StyleTable styles) {
+        this.styles = styles;
+    }
+
+    /**
+     * Return the width paragraphs wrap at.
+     *
+     * @return Wrapping width.
+     */
+    public double getWrappingWidth() {
+        return wrappingWidth > 0 ? wrappingWidth : styles.getWrappingWidth(ElementType.PARAGRAPH);
+    }
+
+    /**
+     * Change the width paragraphs wrap at, e.g. to fit the window.
+     *
+     * @param wrappingWidth Wrapping width, or 0 to use the style table's.
+     */
+    public void setWrappingWidth(double wrappingWidth) {
+        this.wrappingWidth = wrappingWidth;
+    }
+
+    /**
+     * Render an element as a JavaFX node. Links are rendered as Hyperlinks,
+     * with no action set. The node is styled directly, so it looks right
+     * outside a view that has the stylesheet.
+     *
+     * @param element Element to render.
+     * @return Rendered element.
+     */
+    public Node render(Gemtext element) {
+        if(element.getType() == ElementType.LINK) {
+            Hyperlink link = new Hyperlink(element.getText());
+            link.getStyleClass().add(StyleTable.styleClass(ElementType.LINK));
+            link.setFont(styles.getFont(ElementType.LINK));
+            link.setTextFill(styles.getFill(ElementType.LINK));
+            return link;
+        }
+
+        Text text = new Text();
+        update(text, element);
+        text.setFont(styles.getFont(element.getType()));
+        text.setFill(styles.getFill(element.getType()));
+        return text;
+    }
+
+    /**
+     * Reuse a Text node to show a (non-link) element.
+     *
+     * @param text Text node.
+     * @param element Element to show.
+     */
+    public void update(Text text, Gemtext element) {
+        ElementType type = element.getType();
+        text.setText(type == ElementType.BLANK_LINE ? "\n" : element.getText());
+        text.setWrappingWidth(type == ElementType.PARAGRAPH ? getWrappingWidth() : 0);
+
+        // only touch the style class when the type changes
+        String styleClass = StyleTable.styleClass(type);
+        if(text.getStyleClass().size() != 1 || !text.getStyleClass().get(0).equals(styleClass)) {
+            text.getStyleClass().setAll(styleClass);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package browser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import javafx.scene.image.Image;
+import network.BadURLException;
+import network.GeminiConnection;
+import network.RequestFailedException;
+import network.URL;
+import store.BlobStore;
+
+/**
+ * Fetches and decodes images linked from pages, for showing inline.
+ *
+ * Images are fetched and decoded on a small pool of background threads,
+ * so however many are in view, only a few are ever being decoded at once.
+ * Each is decoded straight to the width it's shown at (never wider than it
+ * is), so a large photo costs the memory of a screen-wide copy rather than
+ * of its full resolution. Decoded images are kept in a least recently
+ * used cache with a byte budget, and requests for an image already being
+ * loaded share the one load.
+ *
+ * Given a {@link BlobStore}, image bodies are read from and written to it,
+ * so an image linked from many pages is fetched once.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class ImagePreviews {
+    /**
+     * Extensions of the image formats JavaFX can decode.
+     */
+    private static final String[] EXTENSIONS = {".png", ".jpg", ".jpeg", ".gif", ".bmp"};
+
+    /**
+     * Largest image body fetched.
+     */
+    private static final int MAX_IMAGE_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * Most redirects followed to reach an image.
+     */
+    private static final int MAX_REDIRECTS = 5;
+
+    /**
+     * Connect and read timeout, in milliseconds.
+     */
+    private static final int TIMEOUT = 15000;
+
+    /**
+     * Most failed URLs remembered, so they aren't retried on every scroll.
+     */
+    private static final int MAX_FAILURES = 1024;
+
+    /**
+     * Fetches and decodes images.
+     */
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(3, runnable -> {
+        Thread thread = new Thread(runnable, "image-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Decoded images by URL and width, least recently used first.
+     */
+    private final LinkedHashMap<String, Image> images = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Loads in progress, by URL and width.
+     */
+    private final Map<String, CompletableFuture<Image>> pending = new HashMap<>();
+
+    /**
+     * URLs that couldn't be loaded.
+     */
+    private final Set<String> failures = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Where image bodies are stored, or null.
+     */
+    private final BlobStore store;
+
+    /**
+     * Most bytes the decoded images may take.
+     */
+    private final long budget;
+
+    /**
+     * Bytes the decoded images take.
+     */
+    private long weight;
+
+    /**
+     * Lookups that found a decoded image.
+     */
+    private long hits;
+
+    /**
+     * Images loaded.
+     */
+    private long loads;
+
+    /**
+     * Create an empty cache.
+     *
+     * @param budget Most bytes the decoded images may take.
+     * @param store Where image bodies are stored, or null.
+     */
+    public ImagePreviews(long budget, BlobStore store) {
+        this.budget = budget;
+        this.store = store;
+    }
+
+    /**
+     * Return whether a link looks like an image that can be shown.
+     *
+     * @param url Link target.
+     * @return Whether its path ends in an image extension.
+     */
+    public static boolean isImage(String url) {
+        int end = url.indexOf('?');
+        String path = (end < 0 ? url : url.substring(0, end)).toLowerCase(Locale.ROOT);
+
+        for(String extension : EXTENSIONS) {
+            if(path.endsWith(extension)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Return an image if it's already decoded at a width.
+     *
+     * @param url Image URL.
+     * @param width Width it's shown at.
+     * @return Image, or null if it isn't ready.
+     */
+    public synchronized Image get(String url, int width) {
+        Image image = images.get(key(url, width));
+        if(image != null) {
+            hits++;
+        }
+        return image;
+    }
+
+    /**
+     * Return whether an image couldn't be loaded.
+     *
+     * @param url Image URL.
+     * @return Whether it failed.
+     */
+    public boolean hasFailed(String url) {
+        return failures.contains(url);
+    }
+
+    /**
+     * Fetch and decode an image in the background, unless it's already
+     * decoded or being loaded.
+     *
+     * @param url Image URL.
+     * @param width Width it's shown at.
+     * @return Completes on a loader thread with the image, or exceptionally
+     *         if it couldn't be loaded.
+     */
+    public synchronized CompletableFuture<Image> load(String url, int width) {
+        String key = key(url, width);
+
+        Image image = images.get(key);
+        if(image != null) {
+            return CompletableFuture.completedFuture(image);
+        }
+
+        CompletableFuture<Image> load = pending.get(key);
+        if(load == null) {
+            load = CompletableFuture.supplyAsync(() -> decode(fetch(url), width), LOADER);
+            pending.put(key, load);
+            load.whenComplete((loaded, error) -> finish(url, key, loaded));
+        }
+
+        return load;
+    }
+
+    /**
+     * Describe what's cached and how often it's been used.
+     *
+     * @return Summary.
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("%d images (%.1f MB), %d hits, %d loads, %d failed",
+            images.size(), weight / (1024.0 * 1024), hits, loads, failures.size());
+    }
+
+    /**
+     * Record the end of a load.
+     *
+     * @param url Image URL.
+     * @param key Cache key.
+     * @param image Image, or null if it failed.
+     */
+    private synchronized void finish(String url, String key, Image image) {
+        pending.remove(key);
+        loads++;
+
+        // failed, or too large to keep: don't try again
+        long size = image == null ? 0 : weigh(image);
+        if(image == null || size > budget) {
+            if(failures.size() >= MAX_FAILURES) {
+                failures.clear();
+            }
+            failures.add(url);
+            return;
+        }
+
+        images.put(key, image);
+        weight += size;
+
+        // drop the least recently used until it fits
+        Iterator<Image> oldest = images.values().iterator();
+        while(weight > budget) {
+            weight -= weigh(oldest.next());
+            oldest.remove();
+        }
+    }
+
+    /**
+     * Fetch an image body, from the store if it's there.
+     *
+     * @param url Image URL.
+     * @return Body.
+     */
+    private byte[] fetch(String url) {
+        BlobStore.Entry entry = store == null ? null : store.get(url);
+        if(entry != null) {
+            try {
+                return store.read(entry);
+            } catch(IOException e) {
+                // fall through
+            }
+        }
+
+        String target = url;
+        try {
+            for(int redirects = 0; redirects <= MAX_REDIRECTS && target != null; redirects++) {
+                try(GeminiConnection connection = new GeminiConnection(new URL(target), TIMEOUT)) {
+                    int status = connection.getStatus();
+                    if(status / 10 == 3) {
+                        target = URL.resolve(target, connection.getHeaderInfo());
+                        continue;
+                    }
+
+                    if(status != 20 || !connection.getMediaType().getMimeType().startsWith("image/")) {
+                        break;
+                    }
+
+                    byte[] body = readLimited(connection);
+                    if(store != null) {
+                        store.put(url, connection.getHeaderInfo(), body);
+                    }
+                    return body;
+                }
+            }
+        } catch(RequestFailedException | BadURLException | IOException e) {
+            throw new ImageLoadException(url, e);
+        }
+
+        throw new ImageLoadException(url, null);
+    }
+
+    /**
+     * Read a body, giving up if it's too large to be worth decoding.
+     *
+     * @param connection Connection, past the header.
+     * @return Body.
+     * @throws IOException If reading fails or the body is too large.
+     */
+    private static byte[] readLimited(GeminiConnection connection) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[16 * 1024];
+        int read;
+
+        while((read = connection.read(buffer)) >= 0) {
+            if(body.size() + read > MAX_IMAGE_BYTES) {
+                throw new IOException("Image larger than " + MAX_IMAGE_BYTES + " bytes.");
+            }
+            body.write(buffer, 0, read);
+        }
+
+        return body.toByteArray();
+    }
+
+    /**
+     * Decode an image no wider than a width. Only the header is read to
+     * find its real width, so small images aren't scaled up.
+     *
+     * @param body Image body.
+     * @param width Widest it may be.
+     * @return Image.
+     */
+    private static Image decode(byte[] body, int width) {
+        int natural = naturalWidth(body);
+        int target = natural > 0 ? Math.min(natural, width) : width;
+
+        Image image = new Image(new ByteArrayInputStream(body), target, 0, true, true);
+        if(image.isError()) {
+            throw new ImageLoadException(null, image.getException());
+        }
+        return image;
+    }
+
+    /**
+     * Read an image's width from its header.
+     *
+     * @param body Image body.
+     * @return Width in pixels, or 0 if it can't be read.
+     */
+    private static int naturalWidth(byte[] body) {
+        try(ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(body))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if(!readers.hasNext()) {
+                return 0;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return reader.getWidth(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch(IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Return the bytes a decoded image takes.
+     *
+     * @param image Image.
+     * @return Bytes, at four per pixel.
+     */
+    private static long weigh(Image image) {
+        return 4L * (long) image.getWidth() * (long) image.getHeight();
+    }
+
+    /**
+     * Return the cache key for an image at a width.
+     *
+     * @param url Image URL.
+     * @param width Width.
+     * @return Key.
+     */
+    private static String key(String url, int width) {
+        return width + " " + url;
+    }
+
+    /**
+     * Thrown when an image can't be fetched or decoded.
+     */
+    static class ImageLoadException extends RuntimeException {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Create an exception.
+         *
+         * @param url Image URL, or null.
+         * @param cause Cause, or null.
+         */
+        ImageLoadException(String url, Throwable cause) {
+            super(url == null ? "Couldn't decode image." : "Couldn't load " + url + ".", cause);
+        }
+    }
+}
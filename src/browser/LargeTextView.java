@@ -0,0 +1,361 @@
+package browser;
+
+import gemtext.ElementType;
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Shows very large monospaced text by drawing only the visible lines onto
+ * a Canvas. Used for big text/plain bodies and preformatted blocks, which
+ * would otherwise become a single huge Text node. The text is drawn in the
+ * style table's preformatted font and colour, on its theme's background.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class LargeTextView extends BorderPane {
+    /**
+     * Text above this many characters is shown in a LargeTextView.
+     */
+    public static final int THRESHOLD = 64 * 1024;
+
+    /**
+     * Lines of text, fetched as they're drawn.
+     */
+    public interface Lines {
+        /**
+         * Return the number of lines.
+         *
+         * @return Number of lines.
+         */
+        int count();
+
+        /**
+         * Return a line's text.
+         *
+         * @param line Line number (from 0).
+         * @return Line text, without its line feed.
+         */
+        String get(int line);
+
+        /**
+         * Return the length of the longest line, for horizontal scrolling.
+         *
+         * @return Longest line length, in characters (or bytes).
+         */
+        int maxLength();
+    }
+
+    /**
+     * Margin between the canvas edge and the text.
+     */
+    private static final double MARGIN = 4;
+
+    /**
+     * Styles the text is drawn with.
+     */
+    private StyleTable styles;
+
+    /**
+     * Font the text is drawn in.
+     */
+    private Font font;
+
+    /**
+     * Text colour.
+     */
+    private Color textFill;
+
+    /**
+     * Background colour.
+     */
+    private Color background;
+
+    /**
+     * Height of one line.
+     */
+    private double lineHeight;
+
+    /**
+     * Width of one character.
+     */
+    private double charWidth;
+
+    /**
+     * Canvas the visible lines are drawn on.
+     */
+    private final Canvas canvas = new Canvas();
+
+    /**
+     * Vertical scroll bar; its value is the first visible line.
+     */
+    private final ScrollBar verticalBar = new ScrollBar();
+
+    /**
+     * Horizontal scroll bar; its value is in pixels.
+     */
+    private final ScrollBar horizontalBar = new ScrollBar();
+
+    /**
+     * Line count display.
+     */
+    private final Label lineCount = new Label();
+
+    /**
+     * Lines being shown.
+     */
+    private Lines lines;
+
+    /**
+     * Create an empty LargeTextView.
+     *
+     * @param styles Styles to draw the text with.
+     */
+    public LargeTextView(StyleTable styles) {
+        setStyles(styles);
+
+        // canvas fills the space left by the scroll bars
+        Pane canvasPane = new Pane(canvas);
+        canvasPane.setMinSize(0, 0);
+        canvas.widthProperty().bind(canvasPane.widthProperty());
+        canvas.heightProperty().bind(canvasPane.heightProperty());
+        canvas.widthProperty().addListener(observable -> layoutScrollBars());
+        canvas.heightProperty().addListener(observable -> layoutScrollBars());
+
+        verticalBar.setOrientation(Orientation.VERTICAL);
+        verticalBar.valueProperty().addListener(observable -> draw());
+        horizontalBar.valueProperty().addListener(observable -> draw());
+
+        // mouse wheel and trackpad scrolling
+        canvasPane.addEventHandler(ScrollEvent.SCROLL, event -> {
+            verticalBar.setValue(clamp(verticalBar.getValue() - event.getDeltaY() / lineHeight, verticalBar));
+            horizontalBar.setValue(clamp(horizontalBar.getValue() - event.getDeltaX(), horizontalBar));
+            event.consume();
+        });
+
+        // jump to line
+        TextField goTo = new TextField();
+        goTo.setPromptText("Go to line");
+        goTo.setPrefColumnCount(8);
+        goTo.setOnAction(event -> {
+            try {
+                goToLine(Integer.parseInt(goTo.getText().trim()));
+            } catch(NumberFormatException e) {
+                goTo.selectAll();
+            }
+        });
+
+        // Ctrl+G focuses the jump field
+        setOnKeyPressed(event -> {
+            if(event.isShortcutDown() && event.getCode() == KeyCode.G) {
+                goTo.requestFocus();
+                event.consume();
+            }
+        });
+
+        setTop(new HBox(8, goTo, lineCount));
+        setCenter(canvasPane);
+        setRight(verticalBar);
+        setBottom(horizontalBar);
+    }
+
+    /**
+     * Show some lines, scrolled to the top.
+     *
+     * @param lines Lines to show.
+     */
+    public void setLines(Lines lines) {
+        this.lines = lines;
+        lineCount.setText(lines.count() + " lines");
+        verticalBar.setValue(0);
+        horizontalBar.setValue(0);
+        layoutScrollBars();
+    }
+
+    /**
+     * Switch to another style table, re-measuring the font and redrawing.
+     *
+     * @param styles New style table.
+     */
+    public void setStyles(StyleTable styles) {
+        if(styles == this.styles) {
+            return;
+        }
+
+        this.styles = styles;
+        font = styles.getFont(ElementType.PREFORMATTED);
+        textFill = styles.getFill(ElementType.PREFORMATTED);
+        background = styles.getTheme().getBackground();
+
+        // measure the font once per table
+        Text sample = new Text("M");
+        sample.setFont(font);
+        lineHeight = Math.ceil(sample.getLayoutBounds().getHeight());
+        charWidth = sample.getLayoutBounds().getWidth();
+
+        if(lines == null) {
+            draw();
+        } else {
+            layoutScrollBars();
+        }
+    }
+
+    /**
+     * Show a string, split at line feeds.
+     *
+     * @param text Text to show.
+     */
+    public void setText(String text) {
+        setLines(new StringLines(text));
+    }
+
+    /**
+     * Scroll so a line is at the top of the view.
+     *
+     * @param line Line number (from 1, as shown to the user).
+     */
+    public void goToLine(int line) {
+        verticalBar.setValue(clamp(line - 1, verticalBar));
+    }
+
+    /**
+     * Update scroll bar ranges after the text or the view size changes.
+     */
+    private void layoutScrollBars() {
+        if(lines == null) {
+            return;
+        }
+
+        int visibleLines = (int) (canvas.getHeight() / lineHeight);
+        verticalBar.setMax(Math.max(0, lines.count() - visibleLines));
+        verticalBar.setVisibleAmount(visibleLines);
+        verticalBar.setBlockIncrement(Math.max(1, visibleLines - 1));
+        verticalBar.setUnitIncrement(1);
+
+        double textWidth = lines.maxLength() * charWidth + 2 * MARGIN;
+        horizontalBar.setMax(Math.max(0, textWidth - canvas.getWidth()));
+        horizontalBar.setVisibleAmount(canvas.getWidth());
+        horizontalBar.setUnitIncrement(charWidth);
+        horizontalBar.setBlockIncrement(canvas.getWidth());
+
+        draw();
+    }
+
+    /**
+     * Draw the visible lines.
+     */
+    private void draw() {
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        graphics.setFill(background);
+        graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        if(lines == null) {
+            return;
+        }
+
+        graphics.setFont(font);
+        graphics.setFill(textFill);
+        graphics.setTextAlign(TextAlignment.LEFT);
+        graphics.setTextBaseline(VPos.TOP);
+
+        int first = (int) verticalBar.getValue();
+        int visible = (int) Math.ceil(canvas.getHeight() / lineHeight) + 1;
+        int last = Math.min(lines.count(), first + visible);
+        double x = MARGIN - horizontalBar.getValue();
+
+        for(int line = first; line < last; line++) {
+            graphics.fillText(lines.get(line), x, (line - first) * lineHeight);
+        }
+    }
+
+    /**
+     * Clamp a value to a scroll bar's range.
+     *
+     * @param value Value.
+     * @param bar Scroll bar.
+     * @return Clamped value.
+     */
+    private static double clamp(double value, ScrollBar bar) {
+        return Math.max(bar.getMin(), Math.min(bar.getMax(), value));
+    }
+
+    /**
+     * Lines of a string, indexed once.
+     */
+    private static class StringLines implements Lines {
+        /**
+         * Text.
+         */
+        private final String text;
+
+        /**
+         * Offset of each line's first character, plus one past the end.
+         */
+        private final int[] starts;
+
+        /**
+         * Length of the longest line.
+         */
+        private final int maxLength;
+
+        /**
+         * Index a string's lines.
+         *
+         * @param text Text.
+         */
+        StringLines(String text) {
+            this.text = text;
+
+            // count lines
+            int count = 1;
+            for(int i = 0; i < text.length(); i++) {
+                if(text.charAt(i) == '\n') {
+                    count++;
+                }
+            }
+
+            // record where each starts
+            starts = new int[count + 1];
+            int line = 1;
+            int longest = 0;
+            for(int i = 0; i < text.length(); i++) {
+                if(text.charAt(i) == '\n') {
+                    starts[line] = i + 1;
+                    longest = Math.max(longest, i - starts[line - 1]);
+                    line++;
+                }
+            }
+            starts[count] = text.length() + 1;
+            maxLength = Math.max(longest, text.length() - starts[count - 1]);
+        }
+
+        @Override
+        public int count() {
+            return starts.length - 1;
+        }
+
+        @Override
+        public String get(int line) {
+            return text.substring(starts[line], starts[line + 1] - 1);
+        }
+
+        @Override
+        public int maxLength() {
+            return maxLength;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package browser;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Remembers the height each row of a document was laid out at, for the
+ * last few wrapping widths. Widths are rounded down to buckets by the view,
+ * so dragging a window edge back and forth keeps landing on widths whose
+ * line breaks have already been worked out.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+class LayoutCache {
+    /**
+     * Number of widths remembered.
+     */
+    private static final int MAX_WIDTHS = 8;
+
+    /**
+     * Row heights for each width, most recently used last. Unknown heights
+     * are NaN.
+     */
+    private final Map<Integer, double[]> heights = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, double[]> eldest) {
+            return size() > MAX_WIDTHS;
+        }
+    };
+
+    /**
+     * Return a row's height at a width.
+     *
+     * @param width Wrapping width (a bucket).
+     * @param row Row index.
+     * @return Height, or NaN if not known.
+     */
+    double get(int width, int row) {
+        double[] rows = heights.get(width);
+        return rows == null || row >= rows.length ? Double.NaN : rows[row];
+    }
+
+    /**
+     * Remember a row's height at a width.
+     *
+     * @param width Wrapping width (a bucket).
+     * @param row Row index.
+     * @param height Height.
+     */
+    void put(int width, int row, double height) {
+        double[] rows = heights.get(width);
+
+        // grow to fit the row
+        if(rows == null || row >= rows.length) {
+            int oldLength = rows == null ? 0 : rows.length;
+            rows = rows == null ? new double[Math.max(64, row + 1)] : Arrays.copyOf(rows, Math.max(row + 1, oldLength * 2));
+            Arrays.fill(rows, oldLength, rows.length, Double.NaN);
+            heights.put(width, rows);
+        }
+
+        rows[row] = height;
+    }
+
+    /**
+     * Move remembered heights to where their rows are in a new version of
+     * the document. Rows that are new have no height.
+     *
+     * @param size Number of rows in the new version.
+     * @param oldRow Gives the old index of each new row, or -1.
+     */
+    void remap(int size, IntUnaryOperator oldRow) {
+        for(Map.Entry<Integer, double[]> entry : heights.entrySet()) {
+            double[] rows = entry.getValue();
+            double[] moved = new double[size];
+
+            for(int row = 0; row < size; row++) {
+                int old = oldRow.applyAsInt(row);
+                moved[row] = old >= 0 && old < rows.length ? rows[old] : Double.NaN;
+            }
+
+            entry.setValue(moved);
+        }
+    }
+
+    /**
+     * Forget a row's height at every width, e.g. when an image in it has
+     * loaded.
+     *
+     * @param row Row index.
+     */
+    void forget(int row) {
+        for(double[] rows : heights.values()) {
+            if(row < rows.length) {
+                rows[row] = Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * Forget every height, e.g. when the document or fonts change.
+     */
+    void clear() {
+        heights.clear();
+    }
+}
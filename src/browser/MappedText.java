@@ -0,0 +1,111 @@
+package browser;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import gemtext.LineIndex;
+import gemtext.LineScanner;
+import network.TextDecoder;
+
+/**
+ * A large text body spilled to a temporary file and memory-mapped, with an
+ * index of where each line starts and ends. Lines are decoded only when
+ * they're asked for, so the body doesn't stay on the heap.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class MappedText implements LargeTextView.Lines {
+    /**
+     * Mapped body.
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Charset of the mapped body.
+     */
+    private final Charset charset;
+
+    /**
+     * Offset of each line's first byte.
+     */
+    private final int[] starts;
+
+    /**
+     * Offset just past each line's last byte.
+     */
+    private final int[] ends;
+
+    /**
+     * Length in bytes of the longest line.
+     */
+    private final int maxLength;
+
+    /**
+     * Spill a body to disk, map it and index its lines.
+     *
+     * @param body Body to spill.
+     * @param charset Charset the body is encoded in.
+     * @throws IOException If the temporary file can't be written or mapped.
+     */
+    public MappedText(byte[] body, Charset charset) throws IOException {
+        // line feed bytes can only be trusted in ASCII-compatible charsets
+        if(!TextDecoder.isAsciiCompatible(charset)) {
+            body = TextDecoder.decode(body, charset).getBytes(StandardCharsets.UTF_8);
+            charset = StandardCharsets.UTF_8;
+        }
+        this.charset = charset;
+
+        // index lines once
+        LineIndex index = LineScanner.getInstance().scan(body, 0, body.length);
+        starts = new int[index.size()];
+        ends = new int[index.size()];
+        int longest = 0;
+        for(int i = 0; i < index.size(); i++) {
+            starts[i] = index.getStart(i);
+            ends[i] = index.getEnd(i);
+            longest = Math.max(longest, ends[i] - starts[i]);
+        }
+        maxLength = longest;
+
+        // spill and map
+        Path file = Files.createTempFile("gemini-browser", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, body);
+
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, body.length);
+        }
+
+        // the mapping outlives the file on systems that allow it
+        try {
+            Files.delete(file);
+        } catch(IOException e) {
+            // deleted on exit instead
+        }
+    }
+
+    @Override
+    public int count() {
+        return starts.length;
+    }
+
+    @Override
+    public String get(int line) {
+        int length = ends[line] - starts[line];
+        byte[] bytes = new byte[length];
+        buffer.get(starts[line], bytes);
+        return TextDecoder.decode(bytes, charset);
+    }
+
+    @Override
+    public int maxLength() {
+        return maxLength;
+    }
+}
@@ -0,0 +1,759 @@
+package browser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import browser.PipelineStats.Stage;
+import gemtext.CompactDocument;
+import gemtext.Gemtext;
+import gemtext.StreamingGemtextParser;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import network.GeminiConnection;
+import network.MediaType;
+import network.RequestFailedException;
+import network.TextDecoder;
+import network.URL;
+import store.BlobStore;
+import store.DocumentCache;
+
+/**
+ * Loads a page off the FX thread.
+ *
+ * A Gemtext body goes through a pipeline of stages joined by bounded
+ * queues: the network stage reads chunks from the socket, the decode stage
+ * turns them into text, and the parse stage turns that into batches of
+ * elements. When a queue is full the stage feeding it waits, so a slow
+ * stage holds back the ones before it rather than letting chunks pile up.
+ *
+ * The last stage adds element batches to the view on the FX thread, from an
+ * AnimationTimer that stops each pulse once its time budget is spent. Rows
+ * are only turned into nodes when the view lays them out. Other bodies are
+ * read whole and prepared on a worker thread.
+ *
+ * Given a {@link BlobStore}, successful bodies are stored as they finish,
+ * and a load can be served from the store instead of the network. Given a
+ * {@link DocumentCache} as well, documents are cached by the key of their
+ * body, and a stored body whose document is cached isn't parsed at all.
+ *
+ * Every listener method is called on the FX thread, and none are called
+ * once the load is cancelled.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class PageLoader {
+    /**
+     * Receives the results of a load, on the FX thread.
+     */
+    public interface Listener {
+        /**
+         * Handle the response header.
+         *
+         * @param url URL requested.
+         * @param status Status returned by the server.
+         * @param meta Header information returned by the server.
+         */
+        void headerReceived(String url, int status, String meta);
+
+        /**
+         * Prepare to show a Gemtext document as it arrives.
+         */
+        void documentStarted();
+
+        /**
+         * Show more elements of the document.
+         *
+         * @param elements Elements, in document order.
+         */
+        void elementsAdded(List<Gemtext> elements);
+
+        /**
+         * Handle the end of the document.
+         *
+         * @param document Whole document, in compact form.
+         * @param stats Measurements of the load.
+         */
+        void documentFinished(CompactDocument document, PipelineStats stats);
+
+        /**
+         * Show a plaintext body.
+         *
+         * @param text Decoded body.
+         */
+        void plaintextLoaded(String text);
+
+        /**
+         * Show a large plaintext body.
+         *
+         * @param lines Lines of the body.
+         */
+        void largeTextLoaded(LargeTextView.Lines lines);
+
+        /**
+         * Handle a body that was saved to a file.
+         *
+         * @param url URL the body came from.
+         * @param size Size of the body, in bytes.
+         */
+        void downloaded(String url, int size);
+
+        /**
+         * Handle a failed load.
+         *
+         * @param message Reason the load failed.
+         */
+        void failed(String message);
+    }
+
+    /**
+     * Size of the chunks read from the socket.
+     */
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    /**
+     * Batches each queue holds before the stage feeding it has to wait.
+     */
+    private static final int QUEUE_CAPACITY = 8;
+
+    /**
+     * Most elements passed to the view at once.
+     */
+    private static final int BATCH_ELEMENTS = 256;
+
+    /**
+     * Time the FX thread may spend adding elements in each pulse.
+     */
+    private static final long ATTACH_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(4);
+
+    /**
+     * How often a waiting stage checks whether the load was cancelled.
+     */
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Largest body kept to be stored.
+     */
+    private static final int MAX_STORED = 8 * 1024 * 1024;
+
+    /**
+     * Runs the network stage, which mostly waits on the socket.
+     */
+    private static final ExecutorService NETWORK_EXECUTOR = Executors.newCachedThreadPool(daemon("page-network"));
+
+    /**
+     * Runs the decode and parse stages and prepares other bodies.
+     */
+    private static final ExecutorService WORKER_EXECUTOR = Executors.newCachedThreadPool(daemon("page-worker"));
+
+    /**
+     * URL to load.
+     */
+    private final URL url;
+
+    /**
+     * Receives the results.
+     */
+    private final Listener listener;
+
+    /**
+     * Where bodies are stored, or null.
+     */
+    private final BlobStore store;
+
+    /**
+     * Documents by body key, or null.
+     */
+    private final DocumentCache documents;
+
+    /**
+     * Measurements of this load.
+     */
+    private final PipelineStats stats = new PipelineStats();
+
+    /**
+     * Chunks read from the socket, waiting to be decoded.
+     */
+    private final BlockingQueue<Batch<byte[]>> chunks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * Decoded text, waiting to be parsed.
+     */
+    private final BlockingQueue<Batch<String>> texts = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * Parsed elements, waiting to be added to the view.
+     */
+    private final BlockingQueue<Batch<List<Gemtext>>> elements = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * Adds elements to the view, on the FX thread.
+     */
+    private final Attacher attacher = new Attacher();
+
+    /**
+     * Open connection, once there is one.
+     */
+    private volatile GeminiConnection connection;
+
+    /**
+     * Whole document, set by the parse stage when it's done.
+     */
+    private volatile CompactDocument document;
+
+    /**
+     * Key the document is cached under, set by the network stage once the
+     * whole body is known; null if it isn't to be cached.
+     */
+    private volatile String documentKey;
+
+    /**
+     * Whether the load was cancelled.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Create a new PageLoader that neither stores bodies nor caches
+     * documents.
+     *
+     * @param url URL to load.
+     * @param listener Receives the results.
+     */
+    public PageLoader(URL url, Listener listener) {
+        this(url, listener, null, null);
+    }
+
+    /**
+     * Create a new PageLoader.
+     *
+     * @param url URL to load.
+     * @param listener Receives the results.
+     * @param store Where bodies are stored, or null.
+     * @param documents Documents by body key, or null. Only used with a store.
+     */
+    public PageLoader(URL url, Listener listener, BlobStore store, DocumentCache documents) {
+        this.url = url;
+        this.listener = listener;
+        this.store = store;
+        this.documents = store == null ? null : documents;
+
+        stats.watch(Stage.DECODE, chunks);
+        stats.watch(Stage.PARSE, texts);
+        stats.watch(Stage.ATTACH, elements);
+    }
+
+    /**
+     * Start loading.
+     */
+    public void start() {
+        NETWORK_EXECUTOR.execute(this::fetch);
+    }
+
+    /**
+     * Start loading from the store, or from the network if the URL isn't
+     * stored.
+     */
+    public void startStored() {
+        NETWORK_EXECUTOR.execute(this::load);
+    }
+
+    /**
+     * Stop loading. Must be called on the FX thread.
+     */
+    public void cancel() {
+        cancelled = true;
+        attacher.stop();
+
+        // wake the network stage if it's blocked reading
+        GeminiConnection open = connection;
+        if(open != null) {
+            open.close();
+        }
+    }
+
+    /**
+     * Return the measurements of this load.
+     *
+     * @return Measurements, updated as the load goes on.
+     */
+    public PipelineStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Network stage: connect, then stream or read the body.
+     */
+    private void fetch() {
+        try {
+            connection = new GeminiConnection(url);
+        } catch(RequestFailedException e) {
+            onFxThread(() -> listener.failed(e.getMessage()));
+            return;
+        }
+
+        // cancelled while connecting
+        if(cancelled) {
+            connection.close();
+            return;
+        }
+
+        int status = connection.getStatus();
+        String meta = connection.getHeaderInfo();
+        onFxThread(() -> listener.headerReceived(url.getURL(), status, meta));
+
+        try {
+            // only successful responses have a body
+            if(status != 20) {
+                return;
+            }
+
+            MediaType type = connection.getMediaType();
+
+            if(type.getMimeType().equals("text/gemini")) {
+                streamDocument(type.getCharset(), connection::read, meta);
+            } else {
+                byte[] body = connection.readBody();
+                WORKER_EXECUTOR.execute(() -> {
+                    store(meta, body);
+                    prepareBody(type, body);
+                });
+            }
+        }
+        // lost the connection
+        catch(IOException e) {
+            if(!cancelled) {
+                onFxThread(() -> listener.failed("Failed to communicate with the server."));
+            }
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Network stage, served from the store: show the cached document if
+     * there is one, otherwise pass the stored body through the same stages
+     * as a fetched one. Falls back to fetching if the body isn't stored.
+     */
+    private void load() {
+        BlobStore.Entry entry = store == null ? null : store.get(url.getURL());
+        if(entry == null) {
+            fetch();
+            return;
+        }
+
+        MediaType type = new MediaType(entry.getMeta());
+        boolean isGemtext = type.getMimeType().equals("text/gemini");
+        String key = entry.getKey() + "/" + type.getCharset().name();
+
+        // parsed before: skip straight to the end
+        CompactDocument cached = isGemtext && documents != null ? documents.get(key) : null;
+        if(cached != null) {
+            onFxThread(() -> {
+                listener.headerReceived(url.getURL(), 20, entry.getMeta());
+                listener.documentStarted();
+                stats.finish();
+                listener.documentFinished(cached, stats);
+            });
+            return;
+        }
+
+        byte[] body;
+        try {
+            body = store.read(entry);
+        }
+        // collected since: fetch it again
+        catch(IOException e) {
+            fetch();
+            return;
+        }
+
+        onFxThread(() -> listener.headerReceived(url.getURL(), 20, entry.getMeta()));
+
+        if(isGemtext) {
+            documentKey = key;
+            streamDocument(type.getCharset(), new ByteArrayInputStream(body)::read, null);
+        } else {
+            WORKER_EXECUTOR.execute(() -> prepareBody(type, body));
+        }
+    }
+
+    /**
+     * Network stage for Gemtext: start the later stages, then pass chunks
+     * on as they're read. A body read in full is stored before the end is
+     * passed on, so the parse stage knows the key to cache the document
+     * under. A body cut off part way is passed on as aborted, and the load
+     * fails once what did arrive is shown.
+     *
+     * @param charset Charset the body is encoded in.
+     * @param source Reads the body.
+     * @param meta META to store the body with, or null not to store it.
+     */
+    private void streamDocument(Charset charset, Source source, String meta) {
+        WORKER_EXECUTOR.execute(() -> decode(charset));
+        WORKER_EXECUTOR.execute(this::parse);
+
+        onFxThread(() -> {
+            listener.documentStarted();
+            attacher.start();
+        });
+
+        byte[] buffer = new byte[CHUNK_SIZE];
+        ByteArrayOutputStream kept = meta == null || store == null ? null : new ByteArrayOutputStream();
+        boolean complete = false;
+
+        try {
+            while(!cancelled) {
+                long start = System.nanoTime();
+                int read = source.read(buffer);
+                if(read < 0) {
+                    // the whole body arrived
+                    if(kept != null) {
+                        String key = store(meta, kept.toByteArray());
+                        documentKey = key == null ? null : key + "/" + charset.name();
+                    }
+                    complete = true;
+                    break;
+                }
+                stats.record(Stage.NETWORK, System.nanoTime() - start, 0);
+
+                byte[] chunk = Arrays.copyOf(buffer, read);
+                if(kept != null && kept.size() + read <= MAX_STORED) {
+                    kept.write(chunk, 0, read);
+                } else {
+                    kept = null;
+                }
+
+                put(chunks, Stage.DECODE, new Batch<>(chunk));
+            }
+        }
+        // lost the connection: the document ends where it was cut off
+        catch(IOException e) {
+            // fall through
+        }
+        finally {
+            put(chunks, Stage.DECODE, complete ? Batch.end() : Batch.abort());
+        }
+    }
+
+    /**
+     * Decode stage: turn chunks into text.
+     *
+     * @param charset Charset the body is encoded in.
+     */
+    private void decode(Charset charset) {
+        TextDecoder decoder = new TextDecoder(charset);
+        Batch<byte[]> chunk;
+
+        while((chunk = take(chunks)) != null) {
+            long start = System.nanoTime();
+            String text = chunk.last ? decoder.finish() : decoder.decode(chunk.items, 0, chunk.items.length);
+            stats.record(Stage.DECODE, System.nanoTime() - start, start - chunk.queued);
+
+            if(!text.isEmpty()) {
+                put(texts, Stage.PARSE, new Batch<>(text));
+            }
+
+            if(chunk.last) {
+                put(texts, Stage.PARSE, chunk.aborted ? Batch.abort() : Batch.end());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Parse stage: turn text into batches of elements, and build the
+     * compact document alongside.
+     */
+    private void parse() {
+        CompactDocument.Builder builder = new CompactDocument.Builder();
+        List<Gemtext> parsed = new ArrayList<>();
+        StreamingGemtextParser parser = new StreamingGemtextParser(element -> {
+            builder.accept(element);
+            parsed.add(element);
+        });
+
+        Batch<String> text;
+
+        while((text = take(texts)) != null) {
+            long start = System.nanoTime();
+            if(text.last) {
+                parser.finish();
+            } else {
+                parser.feed(text.items);
+            }
+            stats.record(Stage.PARSE, System.nanoTime() - start, start - text.queued);
+
+            // pass elements on in batches the FX thread can add quickly
+            for(int i = 0; i < parsed.size(); i += BATCH_ELEMENTS) {
+                List<Gemtext> batch = new ArrayList<>(parsed.subList(i, Math.min(parsed.size(), i + BATCH_ELEMENTS)));
+                put(elements, Stage.ATTACH, new Batch<>(batch));
+            }
+            parsed.clear();
+
+            // a truncated document is shown as far as it goes, never cached
+            if(text.last && text.aborted) {
+                put(elements, Stage.ATTACH, Batch.abort());
+                return;
+            }
+
+            if(text.last) {
+                document = builder.build();
+                if(documentKey != null && documents != null) {
+                    documents.put(documentKey, document);
+                }
+                put(elements, Stage.ATTACH, Batch.end());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Store a successful body, if there's a store and the body isn't too
+     * large.
+     *
+     * @param meta META the body was served with.
+     * @param body Body.
+     * @return Key it was stored under, or null if it wasn't stored.
+     */
+    private String store(String meta, byte[] body) {
+        if(store == null || body.length > MAX_STORED) {
+            return null;
+        }
+
+        try {
+            return store.put(url.getURL(), meta, body).getKey();
+        }
+        // a full or unwritable disk shouldn't stop the page showing
+        catch(IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Prepare a body that isn't Gemtext: decode or map plaintext, and save
+     * anything else to a file.
+     *
+     * @param type Media type of the body.
+     * @param body Body.
+     */
+    private void prepareBody(MediaType type, byte[] body) {
+        Charset charset = type.getCharset();
+
+        if(type.getMimeType().equals("text/plain")) {
+            // show large plaintext without building a huge Text node
+            if(body.length > LargeTextView.THRESHOLD) {
+                try {
+                    MappedText lines = new MappedText(body, charset);
+                    onFxThread(() -> listener.largeTextLoaded(lines));
+                    return;
+                }
+                // couldn't spill to disk: show it the normal way
+                catch(IOException e) {
+                    // fall through
+                }
+            }
+
+            String text = TextDecoder.decode(body, charset);
+            onFxThread(() -> listener.plaintextLoaded(text));
+        }
+
+        // last resort: download binary file
+        else {
+            Downloader.download(url.getURL(), body);
+            onFxThread(() -> listener.downloaded(url.getURL(), body.length));
+        }
+    }
+
+    /**
+     * Add a batch to a queue, waiting while the queue is full.
+     *
+     * @param queue Queue.
+     * @param consumer Stage the queue feeds.
+     * @param batch Batch to add.
+     */
+    private <T> void put(BlockingQueue<Batch<T>> queue, Stage consumer, Batch<T> batch) {
+        try {
+            while(!cancelled) {
+                if(queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    stats.sampleDepth(consumer);
+                    return;
+                }
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Take the next batch from a queue, waiting while the queue is empty.
+     *
+     * @param queue Queue.
+     * @return Next batch, or {@code null} if the load was cancelled.
+     */
+    private <T> Batch<T> take(BlockingQueue<Batch<T>> queue) {
+        try {
+            while(!cancelled) {
+                Batch<T> batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if(batch != null) {
+                    return batch;
+                }
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return null;
+    }
+
+    /**
+     * Run something on the FX thread, unless the load has been cancelled
+     * by then.
+     *
+     * @param action Action to run.
+     */
+    private void onFxThread(Runnable action) {
+        Platform.runLater(() -> {
+            if(!cancelled) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Create a factory for named daemon threads, so loads never keep the
+     * application running.
+     *
+     * @param name Thread name prefix.
+     * @return Thread factory.
+     */
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Reads a body a chunk at a time.
+     */
+    private interface Source {
+        /**
+         * Read the next chunk.
+         *
+         * @param buffer Buffer to read into.
+         * @return Number of bytes read, or -1 at the end.
+         * @throws IOException If reading fails.
+         */
+        int read(byte[] buffer) throws IOException;
+    }
+
+    /**
+     * Adds queued elements to the view a pulse at a time.
+     */
+    private class Attacher extends AnimationTimer {
+        @Override
+        public void handle(long now) {
+            long start = System.nanoTime();
+            Batch<List<Gemtext>> batch;
+
+            while(System.nanoTime() - start < ATTACH_BUDGET_NANOS && (batch = elements.poll()) != null) {
+                long added = System.nanoTime();
+
+                // cut off: leave what arrived, but don't finish the document
+                if(batch.aborted) {
+                    stop();
+                    listener.failed("Failed to communicate with the server.");
+                    return;
+                }
+
+                if(batch.last) {
+                    stop();
+                    stats.finish();
+                    listener.documentFinished(document, stats);
+                    return;
+                }
+
+                listener.elementsAdded(batch.items);
+                stats.record(Stage.ATTACH, System.nanoTime() - added, added - batch.queued);
+            }
+        }
+    }
+
+    /**
+     * Something passed between stages, stamped with when it was queued.
+     */
+    private static class Batch<T> {
+        /**
+         * Contents, or {@code null} for the end marker.
+         */
+        final T items;
+
+        /**
+         * Whether this marks the end of the body.
+         */
+        final boolean last;
+
+        /**
+         * Whether the body ended early, so what came before is incomplete.
+         */
+        final boolean aborted;
+
+        /**
+         * Time the batch was created.
+         */
+        final long queued = System.nanoTime();
+
+        /**
+         * Create a batch.
+         *
+         * @param items Contents.
+         */
+        Batch(T items) {
+            this(items, false, false);
+        }
+
+        /**
+         * Create a batch.
+         *
+         * @param items Contents.
+         * @param last Whether this marks the end of the body.
+         * @param aborted Whether the body ended early.
+         */
+        private Batch(T items, boolean last, boolean aborted) {
+            this.items = items;
+            this.last = last;
+            this.aborted = aborted;
+        }
+
+        /**
+         * Create an end marker.
+         *
+         * @return End marker.
+         */
+        static <T> Batch<T> end() {
+            return new Batch<>(null, true, false);
+        }
+
+        /**
+         * Create an end marker for a body that was cut off.
+         *
+         * @return End marker.
+         */
+        static <T> Batch<T> abort() {
+            return new Batch<>(null, true, true);
+        }
+    }
+}
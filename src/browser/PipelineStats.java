@@ -0,0 +1,222 @@
+package browser;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measurements of a page load, per pipeline stage: how many batches each
+ * stage handled, how long it spent on them, how long they waited in its
+ * input queue, and how deep that queue has been.
+ *
+ * Stages update their own counters; any thread can read them.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class PipelineStats {
+    /**
+     * Stages of a page load, in order.
+     */
+    public enum Stage {
+        /**
+         * Reading the body from the socket.
+         */
+        NETWORK,
+
+        /**
+         * Decoding bytes to text.
+         */
+        DECODE,
+
+        /**
+         * Parsing text into elements.
+         */
+        PARSE,
+
+        /**
+         * Adding elements to the view, on the FX thread.
+         */
+        ATTACH
+    }
+
+    /**
+     * Number of stages.
+     */
+    private static final int STAGES = Stage.values().length;
+
+    /**
+     * Batches handled by each stage.
+     */
+    private final AtomicLongArray batches = new AtomicLongArray(STAGES);
+
+    /**
+     * Time each stage spent working, in nanoseconds.
+     */
+    private final AtomicLongArray busy = new AtomicLongArray(STAGES);
+
+    /**
+     * Time batches waited in each stage's input queue, in nanoseconds.
+     */
+    private final AtomicLongArray waited = new AtomicLongArray(STAGES);
+
+    /**
+     * Deepest each stage's input queue has been.
+     */
+    private final AtomicIntegerArray maxDepth = new AtomicIntegerArray(STAGES);
+
+    /**
+     * Each stage's input queue, if it has one.
+     */
+    private final BlockingQueue<?>[] queues = new BlockingQueue<?>[STAGES];
+
+    /**
+     * Time the load started.
+     */
+    private final long started = System.nanoTime();
+
+    /**
+     * Time the load finished, or 0.
+     */
+    private volatile long finished;
+
+    /**
+     * Set a stage's input queue, so its depth can be read.
+     *
+     * @param stage Stage.
+     * @param queue Queue feeding the stage.
+     */
+    void watch(Stage stage, BlockingQueue<?> queue) {
+        queues[stage.ordinal()] = queue;
+    }
+
+    /**
+     * Record a batch handled by a stage.
+     *
+     * @param stage Stage.
+     * @param busyNanos Time spent on the batch.
+     * @param waitNanos Time the batch waited in the stage's input queue.
+     */
+    void record(Stage stage, long busyNanos, long waitNanos) {
+        int i = stage.ordinal();
+        batches.incrementAndGet(i);
+        busy.addAndGet(i, busyNanos);
+        waited.addAndGet(i, waitNanos);
+    }
+
+    /**
+     * Note the depth of a stage's input queue, after adding to it.
+     *
+     * @param stage Stage.
+     */
+    void sampleDepth(Stage stage) {
+        BlockingQueue<?> queue = queues[stage.ordinal()];
+        if(queue != null) {
+            maxDepth.accumulateAndGet(stage.ordinal(), queue.size(), Math::max);
+        }
+    }
+
+    /**
+     * Mark the load as finished.
+     */
+    void finish() {
+        finished = System.nanoTime();
+    }
+
+    /**
+     * Return the number of batches a stage has handled.
+     *
+     * @param stage Stage.
+     * @return Batches handled.
+     */
+    public long getBatches(Stage stage) {
+        return batches.get(stage.ordinal());
+    }
+
+    /**
+     * Return the time a stage has spent working.
+     *
+     * @param stage Stage.
+     * @return Busy time, in nanoseconds.
+     */
+    public long getBusyNanos(Stage stage) {
+        return busy.get(stage.ordinal());
+    }
+
+    /**
+     * Return the mean time batches waited in a stage's input queue.
+     *
+     * @param stage Stage.
+     * @return Mean wait, in nanoseconds.
+     */
+    public long getMeanWaitNanos(Stage stage) {
+        long count = getBatches(stage);
+        return count == 0 ? 0 : waited.get(stage.ordinal()) / count;
+    }
+
+    /**
+     * Return the current depth of a stage's input queue.
+     *
+     * @param stage Stage.
+     * @return Batches waiting, or 0 if the stage has no input queue.
+     */
+    public int getQueueDepth(Stage stage) {
+        BlockingQueue<?> queue = queues[stage.ordinal()];
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Return the deepest a stage's input queue has been.
+     *
+     * @param stage Stage.
+     * @return Most batches waiting at once.
+     */
+    public int getMaxQueueDepth(Stage stage) {
+        return maxDepth.get(stage.ordinal());
+    }
+
+    /**
+     * Return the time from the start of the load to its end, or to now if
+     * it hasn't finished.
+     *
+     * @return Elapsed time, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        long end = finished == 0 ? System.nanoTime() : finished;
+        return end - started;
+    }
+
+    /**
+     * Summarize the measurements, one stage per line.
+     *
+     * @return Summary.
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("total ").append(millis(getElapsedNanos())).append(" ms");
+
+        for(Stage stage : Stage.values()) {
+            summary.append('\n')
+                .append(stage.name().toLowerCase())
+                .append(": ").append(getBatches(stage)).append(" batches, ")
+                .append(millis(getBusyNanos(stage))).append(" ms busy, ")
+                .append(millis(getMeanWaitNanos(stage))).append(" ms mean wait, ")
+                .append("queue ").append(getQueueDepth(stage))
+                .append(" (max ").append(getMaxQueueDepth(stage)).append(')');
+        }
+
+        return summary.toString();
+    }
+
+    /**
+     * Convert nanoseconds to whole milliseconds.
+     *
+     * @param nanos Nanoseconds.
+     * @return Milliseconds.
+     */
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,115 @@
+package browser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measurements of how a document view lays itself out: how often the
+ * visible rows were reflowed for a new width, how long that took, and how
+ * often row heights came from the layout cache.
+ *
+ * Only updated and read on the FX thread.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class RenderStats {
+    /**
+     * Number of reflows.
+     */
+    private long relayouts;
+
+    /**
+     * Total time spent reflowing, in nanoseconds.
+     */
+    private long relayoutNanos;
+
+    /**
+     * Time the last reflow took, in nanoseconds.
+     */
+    private long lastRelayoutNanos;
+
+    /**
+     * Row heights found in the layout cache.
+     */
+    private long cacheHits;
+
+    /**
+     * Row heights that had to be measured.
+     */
+    private long cacheMisses;
+
+    /**
+     * Record a reflow.
+     *
+     * @param nanos Time it took.
+     */
+    void recordRelayout(long nanos) {
+        relayouts++;
+        relayoutNanos += nanos;
+        lastRelayoutNanos = nanos;
+    }
+
+    /**
+     * Record a row height lookup.
+     *
+     * @param hit Whether the height was cached.
+     */
+    void recordLookup(boolean hit) {
+        if(hit) {
+            cacheHits++;
+        } else {
+            cacheMisses++;
+        }
+    }
+
+    /**
+     * Return the number of reflows.
+     *
+     * @return Reflows.
+     */
+    public long getRelayouts() {
+        return relayouts;
+    }
+
+    /**
+     * Return the total time spent reflowing.
+     *
+     * @return Time, in nanoseconds.
+     */
+    public long getRelayoutNanos() {
+        return relayoutNanos;
+    }
+
+    /**
+     * Return the time the last reflow took.
+     *
+     * @return Time, in nanoseconds.
+     */
+    public long getLastRelayoutNanos() {
+        return lastRelayoutNanos;
+    }
+
+    /**
+     * Return the share of row heights found in the layout cache.
+     *
+     * @return Hit rate, from 0 to 1.
+     */
+    public double getCacheHitRate() {
+        long lookups = cacheHits + cacheMisses;
+        return lookups == 0 ? 0 : (double) cacheHits / lookups;
+    }
+
+    /**
+     * Summarize the measurements.
+     *
+     * @return Summary.
+     */
+    @Override
+    public String toString() {
+        return "relayout: " + relayouts + " times, last "
+            + TimeUnit.NANOSECONDS.toMicros(lastRelayoutNanos) / 1000.0 + " ms, total "
+            + TimeUnit.NANOSECONDS.toMillis(relayoutNanos) + " ms"
+            + "\nlayout cache: " + Math.round(getCacheHitRate() * 100) + "% hits ("
+            + cacheHits + " of " + (cacheHits + cacheMisses) + ")";
+    }
+}
@@ -0,0 +1,344 @@
+package browser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import gemtext.ElementType;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.FontWeight;
+
+/**
+ * How each kind of Gemtext element looks, for one theme and zoom level.
+ *
+ * Fonts and colours are resolved once, when the table is created, rather
+ * than for every element shown. The table is also written out as a
+ * stylesheet with one style class per element type, so a view can switch
+ * to another table by swapping its stylesheet; JavaFX then restyles only
+ * the nodes that exist. Tables are immutable; {@link #withZoom(double)} and
+ * {@link #withTheme(Theme)} return new ones.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public final class StyleTable {
+    /**
+     * Colour schemes.
+     */
+    public enum Theme {
+        /**
+         * Dark text on a light background.
+         */
+        LIGHT(Color.WHITE, Color.BLACK, Color.web("#555555"), Color.web("#0645ad"), Color.web("#cce0ff")),
+
+        /**
+         * Light text on a dark background.
+         */
+        DARK(Color.web("#1e1e1e"), Color.web("#dddddd"), Color.web("#aaaaaa"), Color.web("#8ab4f8"), Color.web("#264f78"));
+
+        /**
+         * Page background.
+         */
+        private final Color background;
+
+        /**
+         * Ordinary text.
+         */
+        private final Color text;
+
+        /**
+         * Block quotes.
+         */
+        private final Color quote;
+
+        /**
+         * Links.
+         */
+        private final Color link;
+
+        /**
+         * Selected rows.
+         */
+        private final Color selection;
+
+        /**
+         * Create a theme.
+         *
+         * @param background Page background.
+         * @param text Ordinary text.
+         * @param quote Block quotes.
+         * @param link Links.
+         * @param selection Selected rows.
+         */
+        Theme(Color background, Color text, Color quote, Color link, Color selection) {
+            this.background = background;
+            this.text = text;
+            this.quote = quote;
+            this.link = link;
+            this.selection = selection;
+        }
+
+        /**
+         * Return the page background colour.
+         *
+         * @return Background colour.
+         */
+        public Color getBackground() {
+            return background;
+        }
+    }
+
+    /**
+     * Table used until the user changes theme or zoom.
+     */
+    public static final StyleTable DEFAULT = new StyleTable(Theme.LIGHT, 1);
+
+    /**
+     * Smallest zoom allowed.
+     */
+    public static final double MIN_ZOOM = 0.5;
+
+    /**
+     * Largest zoom allowed.
+     */
+    public static final double MAX_ZOOM = 3;
+
+    /**
+     * Paragraph wrapping width at 100% zoom.
+     */
+    private static final double WRAPPING_WIDTH = 600;
+
+    /**
+     * Style class for each element type.
+     */
+    private static final Map<ElementType, String> STYLE_CLASSES = new EnumMap<>(ElementType.class);
+
+    static {
+        for(ElementType type : ElementType.values()) {
+            STYLE_CLASSES.put(type, "gemtext-" + type.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+        }
+    }
+
+    /**
+     * Colour scheme.
+     */
+    private final Theme theme;
+
+    /**
+     * Scale applied to every font size.
+     */
+    private final double zoom;
+
+    /**
+     * Font for each element type.
+     */
+    private final Map<ElementType, Font> fonts = new EnumMap<>(ElementType.class);
+
+    /**
+     * Text colour for each element type.
+     */
+    private final Map<ElementType, Color> fills = new EnumMap<>(ElementType.class);
+
+    /**
+     * The table as a stylesheet URL.
+     */
+    private final String stylesheet;
+
+    /**
+     * Create a style table.
+     *
+     * @param theme Colour scheme.
+     * @param zoom Scale applied to every font size (clamped to the allowed range).
+     */
+    public StyleTable(Theme theme, double zoom) {
+        this.theme = theme;
+        this.zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+
+        // resolve every font once
+        double base = Font.getDefault().getSize();
+        String family = Font.getDefault().getFamily();
+        for(ElementType type : ElementType.values()) {
+            switch(type) {
+                case HEADING1:
+                    fonts.put(type, Font.font("serif", FontWeight.BOLD, 30 * this.zoom));
+                    break;
+
+                case HEADING2:
+                    fonts.put(type, Font.font("serif", FontWeight.BOLD, 24 * this.zoom));
+                    break;
+
+                case HEADING3:
+                    fonts.put(type, Font.font("serif", FontWeight.BOLD, 16 * this.zoom));
+                    break;
+
+                case PARAGRAPH:
+                    fonts.put(type, Font.font("serif", 14 * this.zoom));
+                    break;
+
+                case BLOCK_QUOTE:
+                    fonts.put(type, Font.font("Liberation Serif", FontPosture.ITALIC, 14 * this.zoom));
+                    break;
+
+                case PREFORMATTED:
+                    fonts.put(type, Font.font("monospace", base * this.zoom));
+                    break;
+
+                // list items, links, blank lines: plain text
+                default:
+                    fonts.put(type, Font.font(family, base * this.zoom));
+                    break;
+            }
+
+            fills.put(type, type == ElementType.BLOCK_QUOTE ? theme.quote
+                : type == ElementType.LINK ? theme.link : theme.text);
+        }
+
+        stylesheet = "data:text/css;base64,"
+            + Base64.getEncoder().encodeToString(toCss().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Return the colour scheme.
+     *
+     * @return Theme.
+     */
+    public Theme getTheme() {
+        return theme;
+    }
+
+    /**
+     * Return the zoom level.
+     *
+     * @return Scale applied to every font size.
+     */
+    public double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Return the font for an element type.
+     *
+     * @param type Element type.
+     * @return Font.
+     */
+    public Font getFont(ElementType type) {
+        return fonts.get(type);
+    }
+
+    /**
+     * Return the text colour for an element type.
+     *
+     * @param type Element type.
+     * @return Colour.
+     */
+    public Color getFill(ElementType type) {
+        return fills.get(type);
+    }
+
+    /**
+     * Return the width an element type's text wraps at when there's no
+     * viewport to fit it to.
+     *
+     * @param type Element type.
+     * @return Wrapping width, or 0 if it doesn't wrap.
+     */
+    public double getWrappingWidth(ElementType type) {
+        return type == ElementType.PARAGRAPH ? WRAPPING_WIDTH * zoom : 0;
+    }
+
+    /**
+     * Return a URL for this table as a stylesheet, to add to a Scene or
+     * Parent.
+     *
+     * @return Stylesheet URL.
+     */
+    public String getStylesheet() {
+        return stylesheet;
+    }
+
+    /**
+     * Return a table like this one at another zoom level.
+     *
+     * @param zoom New zoom level.
+     * @return Style table.
+     */
+    public StyleTable withZoom(double zoom) {
+        return new StyleTable(theme, zoom);
+    }
+
+    /**
+     * Return a table like this one with another colour scheme.
+     *
+     * @param theme New theme.
+     * @return Style table.
+     */
+    public StyleTable withTheme(Theme theme) {
+        return new StyleTable(theme, zoom);
+    }
+
+    /**
+     * Return the style class for an element type.
+     *
+     * @param type Element type.
+     * @return Style class, e.g. gemtext-heading1.
+     */
+    public static String styleClass(ElementType type) {
+        return STYLE_CLASSES.get(type);
+    }
+
+    /**
+     * Write the table as CSS.
+     *
+     * @return Stylesheet text.
+     */
+    private String toCss() {
+        StringBuilder css = new StringBuilder();
+
+        // page and row backgrounds
+        css.append(".document-view, .document-view .list-cell { -fx-background-color: ")
+            .append(toCss(theme.background)).append("; }\n");
+        css.append(".document-view .list-cell:selected { -fx-background-color: ")
+            .append(toCss(theme.selection)).append("; }\n");
+
+        // one rule per element type
+        for(ElementType type : ElementType.values()) {
+            Font font = fonts.get(type);
+            String color = toCss(fills.get(type));
+
+            css.append('.').append(styleClass(type)).append(" {")
+                .append(" -fx-font-family: \"").append(font.getFamily()).append("\";")
+                .append(" -fx-font-size: ").append(font.getSize()).append("px;")
+                .append(" -fx-font-weight: ").append(isBold(type) ? "bold" : "normal").append(';')
+                .append(" -fx-font-style: ").append(type == ElementType.BLOCK_QUOTE ? "italic" : "normal").append(';')
+                .append(type == ElementType.LINK ? " -fx-text-fill: " : " -fx-fill: ").append(color).append(';')
+                .append(" }\n");
+        }
+
+        return css.toString();
+    }
+
+    /**
+     * Return whether an element type is shown in bold.
+     *
+     * @param type Element type.
+     * @return Whether it's bold.
+     */
+    private static boolean isBold(ElementType type) {
+        return type == ElementType.HEADING1 || type == ElementType.HEADING2 || type == ElementType.HEADING3;
+    }
+
+    /**
+     * Write a colour as CSS.
+     *
+     * @param color Colour.
+     * @return CSS colour, e.g. #1e1e1e.
+     */
+    private static String toCss(Color color) {
+        return String.format("#%02x%02x%02x",
+            Math.round(color.getRed() * 255), Math.round(color.getGreen() * 255), Math.round(color.getBlue() * 255));
+    }
+}
@@ -1 +1 @@
-javac --module-path ../lib --add-modules javafx.controls,javafx.fxml browser/Browser.java
+javac --module-path ../lib --add-modules javafx.controls,javafx.fxml,jdk.incubator.vector browser/Browser.java crawler/Crawler.java fetch/BatchFetch.java mirror/Mirror.java proxy/GeminiProxy.java load/LoadTest.java gemtext/VectorLineScanner.java
@@ -0,0 +1 @@
+java crawler.Crawler "$@"
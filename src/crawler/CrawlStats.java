@@ -0,0 +1,130 @@
+package crawler;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what a crawl has fetched, safely from many workers at once.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class CrawlStats {
+    /**
+     * When counting started (System.nanoTime()).
+     */
+    private final long start = System.nanoTime();
+
+    /**
+     * Responses received.
+     */
+    private final LongAdder pages = new LongAdder();
+
+    /**
+     * Body bytes received.
+     */
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * Requests that failed without a response.
+     */
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * URLs skipped because robots.txt disallows them.
+     */
+    private final LongAdder blocked = new LongAdder();
+
+    /**
+     * Count a response.
+     *
+     * @param size Body bytes received.
+     */
+    void page(long size) {
+        pages.increment();
+        bytes.add(size);
+    }
+
+    /**
+     * Count a failed request.
+     */
+    void error() {
+        errors.increment();
+    }
+
+    /**
+     * Count a URL skipped for robots.txt.
+     */
+    void blocked() {
+        blocked.increment();
+    }
+
+    /**
+     * Return the number of responses received.
+     *
+     * @return Pages.
+     */
+    public long getPages() {
+        return pages.sum();
+    }
+
+    /**
+     * Return the number of body bytes received.
+     *
+     * @return Bytes.
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Return the number of requests that failed without a response.
+     *
+     * @return Errors.
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Return the number of URLs skipped for robots.txt.
+     *
+     * @return Blocked URLs.
+     */
+    public long getBlocked() {
+        return blocked.sum();
+    }
+
+    /**
+     * Return the seconds since counting started.
+     *
+     * @return Elapsed time.
+     */
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    /**
+     * Return the average rate of responses.
+     *
+     * @return Pages per second.
+     */
+    public double getPagesPerSecond() {
+        return getPages() / Math.max(getElapsedSeconds(), 1e-9);
+    }
+
+    /**
+     * Return the average rate of body bytes.
+     *
+     * @return Bytes per second.
+     */
+    public double getBytesPerSecond() {
+        return getBytes() / Math.max(getElapsedSeconds(), 1e-9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d pages (%.1f/s), %.1f KB (%.1f KB/s), %d errors, %d blocked by robots.txt, %.1f s",
+            getPages(), getPagesPerSecond(), getBytes() / 1024.0, getBytesPerSecond() / 1024,
+            getErrors(), getBlocked(), getElapsedSeconds());
+    }
+}
@@ -0,0 +1,553 @@
+package crawler;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gemtext.GeminiLink;
+import gemtext.Gemtext;
+import gemtext.GemtextParser;
+import gemtext.LinkExtractor;
+import network.BadURLException;
+import network.GeminiConnection;
+import network.RequestFailedException;
+import network.TextDecoder;
+import network.URL;
+import search.PageIndex;
+
+/**
+ * A headless crawler for Gemini capsules.
+ *
+ * A fixed number of workers share a {@link Frontier}, which keeps them to
+ * one request at a time per host with a delay between requests, so many
+ * hosts are crawled at once while each is treated politely. Each host's
+ * robots.txt is fetched before anything else on it. Links are followed
+ * from Gemtext pages up to a depth, and the crawl stops after a page
+ * budget. Progress can be checkpointed to a file and resumed from it.
+ *
+ * Each response is printed as a line of status, body size, depth and URL.
+ * Progress (pages/s and bytes/s) is reported on standard error.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class Crawler {
+    /**
+     * Robots.txt agents this crawler answers to.
+     */
+    public static final String[] AGENTS = {"indexer", "researcher"};
+
+    /**
+     * Largest Gemtext body read, in bytes; the rest is ignored.
+     */
+    public static final int MAX_BODY = 4 * 1024 * 1024;
+
+    /**
+     * Seconds between progress reports and checkpoints.
+     */
+    private static final int REPORT_INTERVAL = 10;
+
+    /**
+     * Usage message.
+     */
+    private static final String USAGE = String.join("\n",
+        "usage: java crawler.Crawler [options] seed-url...",
+        "  --threads N        concurrent requests (default 16)",
+        "  --delay MS         wait between requests to one host (default 1000)",
+        "  --max-pages N      stop after this many requests (default no limit)",
+        "  --max-depth N      links followed from the seeds (default 5)",
+        "  --same-host        only crawl the seeds' hosts",
+        "  --timeout MS       connect and read timeout (default 15000)",
+        "  --checkpoint FILE  save progress to FILE, resuming from it if it exists",
+        "  --index DIR        add Gemtext pages to the search index in DIR");
+
+    /**
+     * URLs to fetch.
+     */
+    private final Frontier frontier;
+
+    /**
+     * Number of workers.
+     */
+    private final int threads;
+
+    /**
+     * Most requests made, counting those before a resume.
+     */
+    private long maxPages = Long.MAX_VALUE;
+
+    /**
+     * Most links followed from a seed.
+     */
+    private int maxDepth = 5;
+
+    /**
+     * Connect and read timeout, in milliseconds.
+     */
+    private int timeout = 15000;
+
+    /**
+     * Hosts crawled, or null for any.
+     */
+    private Set<String> allowedHosts;
+
+    /**
+     * Checkpoint file, or null.
+     */
+    private Path checkpoint;
+
+    /**
+     * Index to add pages to, or null.
+     */
+    private PageIndex index;
+
+    /**
+     * Where responses are listed.
+     */
+    private PrintStream out = System.out;
+
+    /**
+     * Requests started, counting those before a resume.
+     */
+    private final AtomicLong started = new AtomicLong();
+
+    /**
+     * This run's counts.
+     */
+    private final CrawlStats stats = new CrawlStats();
+
+    /**
+     * Create a crawler.
+     *
+     * @param frontier URLs to fetch.
+     * @param threads Number of workers.
+     */
+    public Crawler(Frontier frontier, int threads) {
+        this.frontier = frontier;
+        this.threads = threads;
+    }
+
+    /**
+     * Set the most requests made.
+     *
+     * @param maxPages Page budget.
+     */
+    public void setMaxPages(long maxPages) {
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Set the most links followed from a seed.
+     *
+     * @param maxDepth Depth budget.
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Set the connect and read timeout.
+     *
+     * @param timeout Timeout in milliseconds.
+     */
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Only crawl some hosts.
+     *
+     * @param allowedHosts Hostnames, or null for any.
+     */
+    public void setAllowedHosts(Set<String> allowedHosts) {
+        this.allowedHosts = allowedHosts;
+    }
+
+    /**
+     * Save progress to a file every so often, and at the end.
+     *
+     * @param checkpoint Checkpoint file, or null.
+     */
+    public void setCheckpoint(Path checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Add every Gemtext page fetched to a search index.
+     *
+     * @param index Index, or null.
+     */
+    public void setIndex(PageIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Set where responses are listed.
+     *
+     * @param out Stream.
+     */
+    public void setOutput(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Queue a seed URL.
+     *
+     * @param url URL.
+     * @return Whether it was valid and new.
+     */
+    public boolean addSeed(String url) {
+        return enqueue(url, 0);
+    }
+
+    /**
+     * Crawl until the frontier is empty or the page budget is spent.
+     *
+     * @param progress Where progress is reported, or null.
+     * @return This run's counts.
+     * @throws InterruptedException If interrupted while waiting for workers.
+     */
+    public CrawlStats run(PrintStream progress) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "crawl-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // report progress and checkpoint every so often
+        reporter.scheduleAtFixedRate(() -> {
+            if(progress != null) {
+                progress.println(stats + ", " + frontier.getQueued() + " queued on " + frontier.getHostCount() + " hosts");
+            }
+            saveCheckpoint();
+        }, REPORT_INTERVAL, REPORT_INTERVAL, TimeUnit.SECONDS);
+
+        for(int i = 0; i < threads; i++) {
+            workers.execute(this::work);
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        reporter.shutdownNow();
+        saveCheckpoint();
+        return stats;
+    }
+
+    /**
+     * Load a checkpoint, if it exists.
+     *
+     * @param file Checkpoint file.
+     * @return Whether one was loaded.
+     * @throws IOException If it can't be read.
+     */
+    public boolean resume(Path file) throws IOException {
+        if(!Files.exists(file)) {
+            return false;
+        }
+
+        for(String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(" ", 3);
+
+            if(fields[0].equals("started") && fields.length == 2) {
+                started.set(Long.parseLong(fields[1]));
+            } else if(fields[0].equals("seen") && fields.length == 2) {
+                frontier.restoreSeen(fields[1]);
+            } else if(fields[0].equals("task") && fields.length == 3) {
+                try {
+                    frontier.restore(fields[2], new URL(fields[2]).getAuthority(), Integer.parseInt(fields[1]));
+                } catch(BadURLException | NumberFormatException e) {
+                    // fall through
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Take URLs from the frontier until there are none left.
+     */
+    private void work() {
+        try {
+            Frontier.Task task;
+            while((task = frontier.take()) != null) {
+                visit(task);
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fetch a URL and queue its links, or fetch its host's robots.txt first.
+     *
+     * @param task Task.
+     */
+    private void visit(Frontier.Task task) {
+        // robots.txt comes first on every host
+        RobotsRules robots = frontier.getRobots(task.getHost());
+        if(robots == null) {
+            frontier.setRobots(task.getHost(), RobotsRules.fetch(task.getHost(), timeout, AGENTS));
+            frontier.retry(task);
+            return;
+        }
+
+        if(!robots.isAllowed(RobotsRules.path(task.getURL()))) {
+            stats.blocked();
+            frontier.finish(task, false);
+            return;
+        }
+
+        // spend the page budget
+        if(started.incrementAndGet() > maxPages) {
+            frontier.close();
+            frontier.finish(task, false);
+            return;
+        }
+
+        try {
+            fetch(task);
+        } finally {
+            frontier.finish(task, true);
+        }
+    }
+
+    /**
+     * Fetch a URL, list the response, and queue its links.
+     *
+     * @param task Task.
+     */
+    private void fetch(Frontier.Task task) {
+        try(GeminiConnection connection = new GeminiConnection(new URL(task.getURL()), timeout)) {
+            int status = connection.getStatus();
+            String meta = connection.getHeaderInfo();
+            long size = 0;
+
+            // follow redirects at the same depth
+            if(status / 10 == 3) {
+                String target = URL.resolve(task.getURL(), meta);
+                if(target != null) {
+                    enqueue(target, task.getDepth());
+                }
+            }
+
+            // read Gemtext pages for their links
+            if(status / 10 == 2 && connection.getMediaType().getMimeType().equals("text/gemini")) {
+                byte[] body = readBody(connection);
+                size = body.length;
+                Charset charset = connection.getMediaType().getCharset();
+
+                if(task.getDepth() < maxDepth) {
+                    for(GeminiLink link : links(body, charset)) {
+                        String target = URL.resolve(task.getURL(), link.getURL());
+                        if(target != null) {
+                            enqueue(target, task.getDepth() + 1);
+                        }
+                    }
+                }
+
+                if(index != null) {
+                    index.add(task.getURL(), GemtextParser.parseDocument(body, charset));
+                }
+            }
+
+            stats.page(size);
+            out.println(status + "\t" + size + "\t" + task.getDepth() + "\t" + task.getURL());
+        } catch(RequestFailedException | BadURLException | IOException e) {
+            stats.error();
+            out.println("--\t0\t" + task.getDepth() + "\t" + task.getURL());
+        }
+    }
+
+    /**
+     * Queue a URL if it's within the crawl's limits.
+     *
+     * @param url URL.
+     * @param depth Links followed from a seed to reach it.
+     * @return Whether it was queued.
+     */
+    private boolean enqueue(String url, int depth) {
+        if(depth > maxDepth) {
+            return false;
+        }
+
+        try {
+            URL parsed = new URL(url);
+            if(allowedHosts != null && !allowedHosts.contains(parsed.getAuthority())) {
+                return false;
+            }
+            return frontier.add(parsed.getURL(), parsed.getAuthority(), depth);
+        } catch(BadURLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Write the frontier's state to the checkpoint file, all at once.
+     */
+    private synchronized void saveCheckpoint() {
+        if(checkpoint == null) {
+            return;
+        }
+
+        List<String> seen = new ArrayList<>();
+        List<Frontier.Task> pending = new ArrayList<>();
+        frontier.snapshot(seen, pending);
+
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try(BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write("started " + Math.min(started.get(), maxPages) + "\n");
+            for(String url : seen) {
+                writer.write("seen " + url + "\n");
+            }
+            for(Frontier.Task task : pending) {
+                writer.write("task " + task.getDepth() + " " + task.getURL() + "\n");
+            }
+        } catch(IOException e) {
+            return;
+        }
+
+        try {
+            Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(IOException e) {
+            // the previous checkpoint still stands
+        }
+    }
+
+    /**
+     * Read a body, up to {@link #MAX_BODY} bytes.
+     *
+     * @param connection Connection positioned at the body.
+     * @return Body bytes.
+     * @throws IOException If reading fails.
+     */
+    private static byte[] readBody(GeminiConnection connection) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[16 * 1024];
+
+        int read;
+        while(body.size() < MAX_BODY && (read = connection.read(buffer)) >= 0) {
+            body.write(buffer, 0, Math.min(read, MAX_BODY - body.size()));
+        }
+
+        return body.toByteArray();
+    }
+
+    /**
+     * Find the links in a Gemtext body, skipping the full parse where the
+     * charset allows it.
+     *
+     * @param body Body.
+     * @param charset Charset it's encoded in.
+     * @return Links, in document order.
+     */
+    private static List<GeminiLink> links(byte[] body, Charset charset) {
+        if(TextDecoder.isAsciiCompatible(charset)) {
+            return new LinkExtractor().extractLinks(body, charset);
+        }
+
+        List<GeminiLink> links = new ArrayList<>();
+        for(Gemtext element : new GemtextParser(body, charset).getParsedContent()) {
+            if(element instanceof GeminiLink) {
+                links.add((GeminiLink) element);
+            }
+        }
+        return links;
+    }
+
+    /**
+     * Crawl from the command line.
+     *
+     * @param args Options, then seed URLs.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = 16;
+        long delay = 1000;
+        long maxPages = Long.MAX_VALUE;
+        int maxDepth = 5;
+        int timeout = 15000;
+        boolean sameHost = false;
+        Path checkpoint = null;
+        Path indexDirectory = null;
+        List<String> seeds = new ArrayList<>();
+
+        // parse options
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--threads": threads = Integer.parseInt(args[++i]); break;
+                    case "--delay": delay = Long.parseLong(args[++i]); break;
+                    case "--max-pages": maxPages = Long.parseLong(args[++i]); break;
+                    case "--max-depth": maxDepth = Integer.parseInt(args[++i]); break;
+                    case "--timeout": timeout = Integer.parseInt(args[++i]); break;
+                    case "--same-host": sameHost = true; break;
+                    case "--checkpoint": checkpoint = Path.of(args[++i]); break;
+                    case "--index": indexDirectory = Path.of(args[++i]); break;
+                    default:
+                        if(args[i].startsWith("--")) {
+                            throw new IllegalArgumentException(args[i]);
+                        }
+                        seeds.add(args[i]);
+                }
+            }
+        } catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            seeds.clear();
+        }
+
+        if(seeds.isEmpty() || threads < 1) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        Frontier frontier = new Frontier(delay);
+        Crawler crawler = new Crawler(frontier, threads);
+        crawler.setMaxPages(maxPages);
+        crawler.setMaxDepth(maxDepth);
+        crawler.setTimeout(timeout);
+        crawler.setCheckpoint(checkpoint);
+
+        if(sameHost) {
+            Set<String> hosts = new HashSet<>();
+            for(String seed : seeds) {
+                if(URL.isValidURL(seed.toLowerCase())) {
+                    hosts.add(new URL(seed).getAuthority());
+                }
+            }
+            crawler.setAllowedHosts(hosts);
+        }
+
+        // resume where a previous run left off, or start from the seeds
+        if(checkpoint == null || !crawler.resume(checkpoint)) {
+            for(String seed : seeds) {
+                if(!crawler.addSeed(seed)) {
+                    System.err.println("Bad Gemini URL: " + seed);
+                }
+            }
+        }
+
+        PageIndex index = indexDirectory == null ? null : new PageIndex(indexDirectory);
+        crawler.setIndex(index);
+
+        CrawlStats stats = crawler.run(System.err);
+        if(index != null) {
+            index.close();
+        }
+        System.err.println(stats);
+    }
+}
@@ -0,0 +1,442 @@
+package crawler;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The URLs a crawl has found but not yet fetched, shared by its workers.
+ *
+ * URLs are queued per host. Only one URL per host is handed out at a time,
+ * and a host isn't handed out again until a delay after its last request
+ * finishes, so however many workers there are, each host sees at most one
+ * request at a time and a steady pace. Workers wait for whichever host is
+ * ready next.
+ *
+ * Every URL is only ever queued once: an exact set of the URLs seen
+ * answers whether one is new. (Most links found are to
+ * pages already seen, and a checkpoint needs every URL seen anyway, so a
+ * Bloom filter in front of the set would only add a second hash.)
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class Frontier {
+    /**
+     * A URL to fetch.
+     */
+    public static final class Task {
+        /**
+         * URL.
+         */
+        private final String url;
+
+        /**
+         * Hostname.
+         */
+        private final String host;
+
+        /**
+         * Number of links followed from a seed to reach it.
+         */
+        private final int depth;
+
+        /**
+         * Create a task.
+         *
+         * @param url URL.
+         * @param host Hostname.
+         * @param depth Links followed from a seed.
+         */
+        Task(String url, String host, int depth) {
+            this.url = url;
+            this.host = host;
+            this.depth = depth;
+        }
+
+        /**
+         * Return the URL.
+         *
+         * @return URL.
+         */
+        public String getURL() {
+            return url;
+        }
+
+        /**
+         * Return the hostname.
+         *
+         * @return Hostname.
+         */
+        public String getHost() {
+            return host;
+        }
+
+        /**
+         * Return the number of links followed from a seed to reach it.
+         *
+         * @return Depth.
+         */
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    /**
+     * A host's queue and politeness state.
+     */
+    private static final class Host {
+        /**
+         * URLs waiting.
+         */
+        final ArrayDeque<Task> queue = new ArrayDeque<>();
+
+        /**
+         * When the next request may start (System.nanoTime()).
+         */
+        long readyAt;
+
+        /**
+         * Whether a worker has one of its URLs.
+         */
+        boolean busy;
+
+        /**
+         * Its robots.txt rules, once fetched.
+         */
+        RobotsRules robots;
+    }
+
+    /**
+     * Guards everything.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled when a host may have become ready, or the crawl ended.
+     */
+    private final Condition changed = lock.newCondition();
+
+    /**
+     * Hosts by name.
+     */
+    private final Map<String, Host> hosts = new HashMap<>();
+
+    /**
+     * Hosts that aren't busy and have URLs waiting, soonest ready first.
+     */
+    private final PriorityQueue<Host> ready = new PriorityQueue<>(Comparator.comparingLong(host -> host.readyAt));
+
+    /**
+     * Tasks handed out and not yet finished.
+     */
+    private final Set<Task> inFlight = new HashSet<>();
+
+    /**
+     * Seen URLs.
+     */
+    private final Set<String> seen = new HashSet<>();
+
+    /**
+     * Default wait between requests to a host, in nanoseconds.
+     */
+    private final long delay;
+
+    /**
+     * Number of URLs waiting.
+     */
+    private int queued;
+
+    /**
+     * Whether the crawl was stopped.
+     */
+    private boolean closed;
+
+    /**
+     * Create an empty frontier.
+     *
+     * @param delay Wait between requests to a host, in milliseconds.
+     */
+    public Frontier(long delay) {
+        this.delay = TimeUnit.MILLISECONDS.toNanos(delay);
+    }
+
+    /**
+     * Queue a URL unless it's been seen before.
+     *
+     * @param url URL, normalized.
+     * @param host Its hostname.
+     * @param depth Links followed from a seed to reach it.
+     * @return Whether it was queued.
+     */
+    public boolean add(String url, String host, int depth) {
+        lock.lock();
+        try {
+            if(closed || !markSeen(url)) {
+                return false;
+            }
+
+            enqueue(new Task(url, host, depth), false);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queue a URL again, e.g. from a checkpoint, whether or not it's been
+     * seen.
+     *
+     * @param url URL, normalized.
+     * @param host Its hostname.
+     * @param depth Links followed from a seed to reach it.
+     */
+    public void restore(String url, String host, int depth) {
+        lock.lock();
+        try {
+            markSeen(url);
+            enqueue(new Task(url, host, depth), false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record a URL as seen without queueing it, e.g. from a checkpoint.
+     *
+     * @param url URL, normalized.
+     */
+    public void restoreSeen(String url) {
+        lock.lock();
+        try {
+            markSeen(url);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait for a URL whose host is ready.
+     *
+     * @return Task, or null once nothing is queued or in flight, or the crawl was stopped.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public Task take() throws InterruptedException {
+        lock.lock();
+        try {
+            while(true) {
+                if(closed || (queued == 0 && inFlight.isEmpty())) {
+                    return null;
+                }
+
+                Host next = ready.peek();
+                if(next == null) {
+                    // everything queued is on busy hosts
+                    changed.await();
+                    continue;
+                }
+
+                long wait = next.readyAt - System.nanoTime();
+                if(wait > 0) {
+                    changed.awaitNanos(wait);
+                    continue;
+                }
+
+                ready.poll();
+                next.busy = true;
+                Task task = next.queue.poll();
+                queued--;
+                inFlight.add(task);
+                return task;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hand a task's host back.
+     *
+     * @param task Task from {@link #take()}.
+     * @param requested Whether a request was made, so the host must be left alone for a while.
+     */
+    public void finish(Task task, boolean requested) {
+        lock.lock();
+        try {
+            Host host = hosts.get(task.host);
+            long wait = requested ? Math.max(delay, TimeUnit.MILLISECONDS.toNanos(robotsDelay(host))) : 0;
+            host.readyAt = System.nanoTime() + wait;
+            host.busy = false;
+            inFlight.remove(task);
+
+            if(!host.queue.isEmpty()) {
+                ready.add(host);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Put a task back at the front of its host's queue and hand the host
+     * back, e.g. after fetching the host's robots.txt first.
+     *
+     * @param task Task from {@link #take()}.
+     */
+    public void retry(Task task) {
+        lock.lock();
+        try {
+            enqueue(task, true);
+            finish(task, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return a host's robots.txt rules.
+     *
+     * @param host Hostname.
+     * @return Rules, or null if not fetched yet.
+     */
+    public RobotsRules getRobots(String host) {
+        lock.lock();
+        try {
+            Host state = hosts.get(host);
+            return state == null ? null : state.robots;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Store a host's robots.txt rules.
+     *
+     * @param host Hostname.
+     * @param robots Rules.
+     */
+    public void setRobots(String host, RobotsRules robots) {
+        lock.lock();
+        try {
+            hosts.computeIfAbsent(host, name -> new Host()).robots = robots;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop handing out URLs. Workers waiting in {@link #take()} get null.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the number of URLs waiting.
+     *
+     * @return Queued URLs.
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return the number of hosts seen.
+     *
+     * @return Host count.
+     */
+    public int getHostCount() {
+        lock.lock();
+        try {
+            return hosts.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copy the frontier's state for a checkpoint: every URL seen, and every
+     * URL still to fetch (including those in flight, which will be fetched
+     * again on resuming).
+     *
+     * @param seenURLs Receives the seen URLs.
+     * @param pending Receives the tasks still to do.
+     */
+    public void snapshot(List<String> seenURLs, List<Task> pending) {
+        lock.lock();
+        try {
+            seenURLs.addAll(seen);
+            pending.addAll(inFlight);
+            for(Host host : hosts.values()) {
+                pending.addAll(host.queue);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mark a URL seen. Must hold the lock.
+     *
+     * @param url URL.
+     * @return Whether it's new.
+     */
+    private boolean markSeen(String url) {
+        return seen.add(url);
+    }
+
+    /**
+     * Add a task to its host's queue. Must hold the lock.
+     *
+     * @param task Task.
+     * @param first Whether to put it at the front.
+     */
+    private void enqueue(Task task, boolean first) {
+        Host host = hosts.computeIfAbsent(task.host, name -> new Host());
+        boolean wasIdle = host.queue.isEmpty() && !host.busy;
+
+        if(first) {
+            host.queue.addFirst(task);
+        } else {
+            host.queue.addLast(task);
+        }
+        queued++;
+
+        if(wasIdle) {
+            ready.add(host);
+            changed.signalAll();
+        }
+    }
+
+    /**
+     * Return the crawl delay a host's robots.txt asks for, capped so the
+     * time the host is ready again can't overflow.
+     *
+     * @param host Host.
+     * @return Delay in milliseconds, or 0.
+     */
+    private static long robotsDelay(Host host) {
+        long delay = host.robots == null ? 0 : host.robots.getCrawlDelay();
+        return Math.max(0, Math.min(delay, RobotsRules.MAX_CRAWL_DELAY));
+    }
+}
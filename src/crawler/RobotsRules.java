@@ -0,0 +1,246 @@
+package crawler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import network.BadURLException;
+import network.GeminiConnection;
+import network.RequestFailedException;
+import network.TextDecoder;
+import network.URL;
+
+/**
+ * The rules in a capsule's robots.txt that apply to a crawler, following
+ * the Gemini robots.txt companion specification: groups of rules start
+ * with User-agent lines, and the "virtual" agents indexer, researcher,
+ * archiver and webproxy stand for kinds of crawler. Rules for the named
+ * agents win over rules for "*".
+ *
+ * A path may be fetched unless a Disallow prefix matches it and no longer
+ * (or equally long) Allow prefix does.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class RobotsRules {
+    /**
+     * Rules allowing everything, e.g. when there's no robots.txt.
+     */
+    public static final RobotsRules ALLOW_ALL = new RobotsRules(new ArrayList<>(), new ArrayList<>(), 0);
+
+    /**
+     * Longest crawl delay honoured, in milliseconds: one minute. Longer
+     * ones are cut to this, so one capsule can't stall a crawl.
+     */
+    public static final long MAX_CRAWL_DELAY = 60 * 1000L;
+
+    /**
+     * Disallowed path prefixes.
+     */
+    private final List<String> disallowed;
+
+    /**
+     * Allowed path prefixes.
+     */
+    private final List<String> allowed;
+
+    /**
+     * Requested wait between requests, in milliseconds.
+     */
+    private final long crawlDelay;
+
+    /**
+     * Create rules.
+     *
+     * @param disallowed Disallowed path prefixes.
+     * @param allowed Allowed path prefixes.
+     * @param crawlDelay Wait between requests, in milliseconds.
+     */
+    private RobotsRules(List<String> disallowed, List<String> allowed, long crawlDelay) {
+        this.disallowed = disallowed;
+        this.allowed = allowed;
+        this.crawlDelay = crawlDelay;
+    }
+
+    /**
+     * Fetch a host's robots.txt and parse the rules for some agents.
+     *
+     * @param host Hostname, with the port if it isn't the default.
+     * @param timeout Connect and read timeout, in milliseconds.
+     * @param agents Agent names the caller answers to, besides "*".
+     * @return Rules, or rules allowing everything if there's no robots.txt.
+     */
+    public static RobotsRules fetch(String host, int timeout, String... agents) {
+        try(GeminiConnection connection = new GeminiConnection(new URL("gemini://" + host + "/robots.txt"), timeout)) {
+            if(connection.getStatus() / 10 != 2 || !connection.getMediaType().getMimeType().equals("text/plain")) {
+                return ALLOW_ALL;
+            }
+
+            byte[] body = connection.readBody();
+            return parse(TextDecoder.decode(body, 0, body.length, connection.getMediaType().getCharset()), agents);
+        } catch(RequestFailedException | BadURLException | IOException e) {
+            return ALLOW_ALL;
+        }
+    }
+
+    /**
+     * Parse the rules in a robots.txt that apply to some agents.
+     *
+     * @param text Contents of robots.txt.
+     * @param agents Agent names this crawler answers to, besides "*".
+     * @return Rules.
+     */
+    public static RobotsRules parse(String text, String... agents) {
+        List<String> named = new ArrayList<>();
+        for(String agent : agents) {
+            named.add(agent.toLowerCase(Locale.ROOT));
+        }
+
+        // rules for the named agents, and for everyone
+        Group specific = new Group();
+        Group general = new Group();
+
+        List<String> groupAgents = new ArrayList<>();
+        boolean inRules = false;
+
+        for(String line : text.split("\n")) {
+            // drop comments and whitespace
+            int hash = line.indexOf('#');
+            if(hash >= 0) {
+                line = line.substring(0, hash);
+            }
+            int colon = line.indexOf(':');
+            if(colon < 0) {
+                continue;
+            }
+            String field = line.substring(0, colon).strip().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).strip();
+
+            // a User-agent line after rules starts a new group
+            if(field.equals("user-agent")) {
+                if(inRules) {
+                    groupAgents.clear();
+                    inRules = false;
+                }
+                groupAgents.add(value.toLowerCase(Locale.ROOT));
+                continue;
+            }
+
+            inRules = true;
+            boolean isSpecific = groupAgents.stream().anyMatch(named::contains);
+            boolean isGeneral = groupAgents.contains("*");
+            if(isSpecific) {
+                specific.add(field, value);
+            } else if(isGeneral) {
+                general.add(field, value);
+            }
+        }
+
+        Group chosen = specific.matched ? specific : general;
+        return new RobotsRules(chosen.disallowed, chosen.allowed, chosen.crawlDelay);
+    }
+
+    /**
+     * Return whether a path may be fetched.
+     *
+     * @param path Path part of a URL, starting with '/'.
+     * @return Whether it's allowed.
+     */
+    public boolean isAllowed(String path) {
+        int disallowedLength = longestMatch(disallowed, path);
+        return disallowedLength < 0 || longestMatch(allowed, path) >= disallowedLength;
+    }
+
+    /**
+     * Return the path part of a URL, as rules are matched against.
+     *
+     * @param url URL (gemini://host/path).
+     * @return Path, starting with '/'.
+     */
+    public static String path(String url) {
+        int slash = url.indexOf('/', "gemini://".length());
+        return slash < 0 ? "/" : url.substring(slash);
+    }
+
+    /**
+     * Return the requested wait between requests.
+     *
+     * @return Crawl delay in milliseconds, at most {@link #MAX_CRAWL_DELAY},
+     *         or 0.
+     */
+    public long getCrawlDelay() {
+        return crawlDelay;
+    }
+
+    /**
+     * Return the length of the longest prefix in a list matching a path.
+     *
+     * @param prefixes Path prefixes.
+     * @param path Path.
+     * @return Length, or -1 if none match.
+     */
+    private static int longestMatch(List<String> prefixes, String path) {
+        int longest = -1;
+        for(String prefix : prefixes) {
+            if(path.startsWith(prefix)) {
+                longest = Math.max(longest, prefix.length());
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Rules gathered for one kind of agent.
+     */
+    private static class Group {
+        /**
+         * Disallowed path prefixes.
+         */
+        final List<String> disallowed = new ArrayList<>();
+
+        /**
+         * Allowed path prefixes.
+         */
+        final List<String> allowed = new ArrayList<>();
+
+        /**
+         * Wait between requests, in milliseconds.
+         */
+        long crawlDelay;
+
+        /**
+         * Whether any group applied.
+         */
+        boolean matched;
+
+        /**
+         * Add a rule.
+         *
+         * @param field Field name, lower-cased.
+         * @param value Field value.
+         */
+        void add(String field, String value) {
+            matched = true;
+
+            // an empty Disallow allows everything
+            if(field.equals("disallow") && !value.isEmpty()) {
+                disallowed.add(value);
+            } else if(field.equals("allow") && !value.isEmpty()) {
+                allowed.add(value);
+            } else if(field.equals("crawl-delay")) {
+                try {
+                    // NaN and negative delays mean nothing
+                    double seconds = Double.parseDouble(value);
+                    if(seconds >= 0) {
+                        long millis = (long) Math.min(seconds * 1000, MAX_CRAWL_DELAY);
+                        crawlDelay = Math.max(crawlDelay, millis);
+                    }
+                } catch(NumberFormatException e) {
+                    // fall through
+                }
+            }
+        }
+    }
+}
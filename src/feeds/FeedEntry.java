@@ -0,0 +1,111 @@
+package feeds;
+
+import java.nio.charset.StandardCharsets;
+
+import store.ContentHash;
+
+/**
+ * A post in a feed: a link whose caption starts with a date.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public final class FeedEntry {
+    /**
+     * URL of the feed it's in.
+     */
+    private final String feed;
+
+    /**
+     * URL of the post.
+     */
+    private final String url;
+
+    /**
+     * Date of the post, as YYYY-MM-DD.
+     */
+    private final String date;
+
+    /**
+     * Title of the post.
+     */
+    private final String title;
+
+    /**
+     * When it was first seen (ms since the epoch).
+     */
+    private final long seen;
+
+    /**
+     * Create an entry.
+     *
+     * @param feed URL of the feed.
+     * @param url URL of the post.
+     * @param date Date, as YYYY-MM-DD.
+     * @param title Title.
+     * @param seen When it was first seen.
+     */
+    public FeedEntry(String feed, String url, String date, String title, long seen) {
+        this.feed = feed;
+        this.url = url;
+        this.date = date;
+        this.title = title;
+        this.seen = seen;
+    }
+
+    /**
+     * Return the URL of the feed the post is in.
+     *
+     * @return Feed URL.
+     */
+    public String getFeed() {
+        return feed;
+    }
+
+    /**
+     * Return the URL of the post.
+     *
+     * @return URL.
+     */
+    public String getURL() {
+        return url;
+    }
+
+    /**
+     * Return the date of the post.
+     *
+     * @return Date, as YYYY-MM-DD.
+     */
+    public String getDate() {
+        return date;
+    }
+
+    /**
+     * Return the title of the post.
+     *
+     * @return Title.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Return when the post was first seen.
+     *
+     * @return Milliseconds since the epoch.
+     */
+    public long getSeen() {
+        return seen;
+    }
+
+    /**
+     * Return the hash identifying the post within its feed. Only the URL
+     * and date count, so retitling a post doesn't make it new.
+     *
+     * @return Hash.
+     */
+    public long getHash() {
+        byte[] identity = (url + " " + date).getBytes(StandardCharsets.UTF_8);
+        return ContentHash.hash(identity, 0, identity.length);
+    }
+}
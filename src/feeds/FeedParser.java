@@ -0,0 +1,83 @@
+package feeds;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import gemtext.CompactDocument;
+import gemtext.ElementType;
+import network.URL;
+
+/**
+ * Reads a page in the "gemsub" convention: its first level 1 heading is the
+ * feed's title, and each link whose caption starts with a YYYY-MM-DD date
+ * is a post. Every other line is ignored.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public final class FeedParser {
+    /**
+     * A date at the start of a caption, then the title, optionally after a
+     * dash or colon.
+     */
+    private static final Pattern DATED = Pattern.compile("^(\\d{4}-\\d{2}-\\d{2})(?:\\s*[-:]\\s*|\\s+|$)(.*)$");
+
+    /**
+     * Not instantiable.
+     */
+    private FeedParser() {
+    }
+
+    /**
+     * Return a feed's title.
+     *
+     * @param document Feed page.
+     * @return Text of the first level 1 heading, or null if there isn't one.
+     */
+    public static String getTitle(CompactDocument document) {
+        for(int i = 0; i < document.size(); i++) {
+            if(document.getType(i) == ElementType.HEADING1) {
+                return document.getText(i).replace('\t', ' ').strip();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Return a feed's posts, in page order.
+     *
+     * @param feedURL URL of the feed.
+     * @param baseURL URL the page was served from, which relative links
+     *                resolve against; the feed's URL unless redirected.
+     * @param document Feed page.
+     * @param now Current time (ms since the epoch), recorded as when each
+     *            post was seen.
+     * @return Posts. Links to other schemes are left out.
+     */
+    public static List<FeedEntry> getEntries(String feedURL, String baseURL, CompactDocument document, long now) {
+        List<FeedEntry> entries = new ArrayList<>();
+
+        for(int i = 0; i < document.size(); i++) {
+            String target = document.getURL(i);
+            if(target == null) {
+                continue;
+            }
+
+            Matcher dated = DATED.matcher(document.getText(i).strip());
+            if(!dated.matches()) {
+                continue;
+            }
+
+            String url = URL.resolve(baseURL, target);
+            if(url != null) {
+                String title = dated.group(2).replace('\t', ' ').strip();
+                entries.add(new FeedEntry(feedURL, url, dated.group(1), title.isEmpty() ? url : title, now));
+            }
+        }
+
+        return entries;
+    }
+}
@@ -0,0 +1,376 @@
+package feeds;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import crawler.Frontier;
+import gemtext.CompactDocument;
+import gemtext.GemtextParser;
+import network.BadURLException;
+import network.GeminiConnection;
+import network.RequestFailedException;
+import network.URL;
+import store.ContentHash;
+
+/**
+ * Polls subscribed feeds for new posts.
+ *
+ * Each round polls the feeds that are due, several at a time. Requests are
+ * spread over a {@link Frontier}, so each host sees one request at a time
+ * however many of its feeds are due, and one host with many feeds doesn't
+ * hold up the rest. A feed whose body hasn't changed since its last poll
+ * isn't parsed; otherwise its posts are diffed against the known ones.
+ *
+ * Each feed's next poll is its interval away, give or take a random
+ * {@link #JITTER}, so feeds subscribed together drift apart instead of all
+ * falling due in the same round.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class FeedPoller implements Closeable {
+    /**
+     * Default wait between polls of a feed: one hour.
+     */
+    public static final long DEFAULT_INTERVAL = 60 * 60 * 1000L;
+
+    /**
+     * Fraction of the interval each poll is moved by, either way.
+     */
+    public static final double JITTER = 0.2;
+
+    /**
+     * Most redirects followed to reach a feed.
+     */
+    private static final int MAX_REDIRECTS = 5;
+
+    /**
+     * Feeds polled.
+     */
+    private final Subscriptions subscriptions;
+
+    /**
+     * Number of feeds polled at once.
+     */
+    private final int threads;
+
+    /**
+     * Wait between requests to a host, in milliseconds.
+     */
+    private final long hostDelay;
+
+    /**
+     * Wait between polls of a feed, in milliseconds.
+     */
+    private final long interval;
+
+    /**
+     * Connect and read timeout, in milliseconds.
+     */
+    private int timeout = 15000;
+
+    /**
+     * Held for the whole of a round, so rounds never overlap.
+     */
+    private final Object round = new Object();
+
+    /**
+     * Runs rounds in the background, and refreshes.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Whether rounds have been started.
+     */
+    private boolean started;
+
+    /**
+     * Feeds polled in the last round.
+     */
+    private final AtomicInteger checked = new AtomicInteger();
+
+    /**
+     * Feeds found unchanged in the last round.
+     */
+    private final AtomicInteger unchanged = new AtomicInteger();
+
+    /**
+     * Feeds that couldn't be polled in the last round.
+     */
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * Posts found in the last round.
+     */
+    private final List<FeedEntry> found = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Length of the last round, in milliseconds.
+     */
+    private volatile long elapsed;
+
+    /**
+     * Create a poller.
+     *
+     * @param subscriptions Feeds to poll.
+     * @param threads Number of feeds polled at once.
+     * @param hostDelay Wait between requests to a host, in milliseconds.
+     * @param interval Wait between polls of a feed, in milliseconds.
+     */
+    public FeedPoller(Subscriptions subscriptions, int threads, long hostDelay, long interval) {
+        this.subscriptions = subscriptions;
+        this.threads = threads;
+        this.hostDelay = hostDelay;
+        this.interval = interval;
+    }
+
+    /**
+     * Set the connect and read timeout.
+     *
+     * @param timeout Timeout in milliseconds.
+     */
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Poll feeds and wait for them all. Waits for any round already
+     * running to finish first.
+     *
+     * @param all Whether to poll every feed, not just the ones due.
+     * @return Posts found that weren't known before. A feed's first poll
+     *         finds none, since everything it lists is already out.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public List<FeedEntry> poll(boolean all) throws InterruptedException {
+        synchronized(round) {
+            long start = System.nanoTime();
+            long now = System.currentTimeMillis();
+            checked.set(0);
+            unchanged.set(0);
+            failed.set(0);
+            found.clear();
+
+            List<Subscriptions.Feed> feeds = subscriptions.getFeeds();
+            Frontier frontier = new Frontier(hostDelay);
+            for(Subscriptions.Feed feed : feeds) {
+                if(!all && !feed.isDue(now)) {
+                    continue;
+                }
+
+                try {
+                    frontier.add(feed.getURL(), new URL(feed.getURL()).getHostname(), 0);
+                } catch(BadURLException e) {
+                    checked.incrementAndGet();
+                    failed.incrementAndGet();
+                    feed.failed(next(now));
+                }
+            }
+
+            ExecutorService workers = Executors.newFixedThreadPool(threads);
+            for(int i = 0; i < threads; i++) {
+                workers.execute(() -> work(frontier));
+            }
+            workers.shutdown();
+
+            try {
+                workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch(InterruptedException e) {
+                frontier.close();
+                workers.shutdownNow();
+                throw e;
+            }
+
+            elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new ArrayList<>(found);
+        }
+    }
+
+    /**
+     * Poll due feeds in the background, saving the subscriptions after
+     * each round.
+     *
+     * @param period Wait between rounds, in milliseconds.
+     * @param listener Given the posts found by each round that found any,
+     *                 on the polling thread.
+     */
+    public synchronized void start(long period, Consumer<List<FeedEntry>> listener) {
+        if(started) {
+            return;
+        }
+        started = true;
+
+        scheduler().scheduleWithFixedDelay(() -> {
+            try {
+                List<FeedEntry> added = poll(false);
+                subscriptions.save();
+                if(!added.isEmpty()) {
+                    listener.accept(added);
+                }
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch(IOException e) {
+                // fall through
+            }
+        }, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Poll every feed on the polling thread, after any round running, and
+     * save the subscriptions.
+     *
+     * @return Posts found that weren't known before, once polled.
+     */
+    public CompletableFuture<List<FeedEntry>> refresh() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<FeedEntry> added;
+            try {
+                added = poll(true);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+
+            try {
+                subscriptions.save();
+            } catch(IOException e) {
+                // the next save catches up
+            }
+            return added;
+        }, scheduler());
+    }
+
+    /**
+     * Stop polling in the background.
+     */
+    @Override
+    public synchronized void close() {
+        if(scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        started = false;
+    }
+
+    /**
+     * Return the polling thread, creating it if need be.
+     *
+     * @return Scheduler.
+     */
+    private synchronized ScheduledExecutorService scheduler() {
+        if(scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "feed-poller");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    /**
+     * Describe the last round.
+     *
+     * @return Summary.
+     */
+    public String summary() {
+        return String.format("%d feeds checked in %.1f s: %d unchanged, %d failed, %d new posts",
+            checked.get(), elapsed / 1000.0, unchanged.get(), failed.get(), found.size());
+    }
+
+    /**
+     * Take feeds from the frontier until there are none left.
+     *
+     * @param frontier Feeds due this round.
+     */
+    private void work(Frontier frontier) {
+        try {
+            Frontier.Task task;
+            while((task = frontier.take()) != null) {
+                try {
+                    Subscriptions.Feed feed = subscriptions.getFeed(task.getURL());
+                    if(feed != null) {
+                        poll(feed);
+                    }
+                } finally {
+                    frontier.finish(task, true);
+                }
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Poll one feed, following redirects.
+     *
+     * @param feed Feed.
+     */
+    private void poll(Subscriptions.Feed feed) {
+        long now = System.currentTimeMillis();
+        String url = feed.getURL();
+        checked.incrementAndGet();
+
+        try {
+            for(int redirects = 0; url != null; redirects++) {
+                try(GeminiConnection connection = new GeminiConnection(new URL(url), timeout)) {
+                    int status = connection.getStatus();
+                    if(status / 10 == 3 && redirects < MAX_REDIRECTS) {
+                        url = URL.resolve(url, connection.getHeaderInfo());
+                        continue;
+                    }
+
+                    if(status != 20 || !connection.getMediaType().getMimeType().equals("text/gemini")) {
+                        break;
+                    }
+
+                    // same bytes as last time: nothing to parse
+                    byte[] body = connection.readBody();
+                    String key = ContentHash.key(body);
+                    if(key.equals(feed.getKey())) {
+                        feed.unchanged(now, next(now));
+                        unchanged.incrementAndGet();
+                        return;
+                    }
+
+                    CompactDocument document = GemtextParser.parseDocument(body, connection.getMediaType().getCharset());
+                    boolean first = feed.getPolled() == 0;
+                    List<FeedEntry> added = feed.changed(key, FeedParser.getTitle(document),
+                        FeedParser.getEntries(feed.getURL(), url, document, now), now, next(now));
+                    if(!first) {
+                        found.addAll(added);
+                    }
+                    return;
+                }
+            }
+        } catch(RequestFailedException | BadURLException | IOException e) {
+            // fall through
+        }
+
+        failed.incrementAndGet();
+        feed.failed(next(now));
+    }
+
+    /**
+     * Pick when to poll a feed next.
+     *
+     * @param now Current time (ms since the epoch).
+     * @return Next poll time, an interval from now give or take the jitter.
+     */
+    private long next(long now) {
+        double jitter = JITTER * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return now + interval + (long) (interval * jitter);
+    }
+}
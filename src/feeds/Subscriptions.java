@@ -0,0 +1,431 @@
+package feeds;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The feeds subscribed to and the posts known from each.
+ *
+ * Each feed remembers the key of the body it last served, so a poll that
+ * gets the same bytes back can skip parsing, and the hash of every post it
+ * listed, so the posts in a changed body can be diffed against them. Only
+ * the newest {@link #MAX_ENTRIES} posts are kept to show, but every listed
+ * hash is kept, so posts past the cap aren't found again as new.
+ *
+ * Stored as three tab-separated files in a directory, for feeds, posts and
+ * listed hashes, rewritten all at once on saving.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class Subscriptions {
+    /**
+     * Most posts remembered per feed; the oldest by date are dropped.
+     */
+    public static final int MAX_ENTRIES = 100;
+
+    /**
+     * Name of the file listing the feeds.
+     */
+    private static final String FEEDS_NAME = "feeds";
+
+    /**
+     * Name of the file listing the posts.
+     */
+    private static final String ENTRIES_NAME = "entries";
+
+    /**
+     * Name of the file listing the hashes of the posts each feed lists.
+     */
+    private static final String LISTED_NAME = "listed";
+
+    /**
+     * Newest posts first, then the most recently seen.
+     */
+    private static final Comparator<FeedEntry> NEWEST_FIRST = Comparator.comparing(FeedEntry::getDate)
+        .thenComparingLong(FeedEntry::getSeen).reversed();
+
+    /**
+     * A subscribed feed.
+     */
+    public static final class Feed {
+        /**
+         * URL.
+         */
+        private final String url;
+
+        /**
+         * Title, or the URL until it's been polled.
+         */
+        private String title;
+
+        /**
+         * Key of the body last served, or "-" if never polled.
+         */
+        private String key = "-";
+
+        /**
+         * When it was last polled (ms since the epoch).
+         */
+        private long polled;
+
+        /**
+         * When it's next due to be polled (ms since the epoch).
+         */
+        private long due;
+
+        /**
+         * Posts by hash.
+         */
+        private final Map<Long, FeedEntry> entries = new LinkedHashMap<>();
+
+        /**
+         * Hashes of every post the feed listed when last changed.
+         */
+        private Set<Long> listed = new HashSet<>();
+
+        /**
+         * Create a feed.
+         *
+         * @param url URL.
+         */
+        Feed(String url) {
+            this.url = url;
+            this.title = url;
+        }
+
+        /**
+         * Return the URL.
+         *
+         * @return URL.
+         */
+        public String getURL() {
+            return url;
+        }
+
+        /**
+         * Return the title.
+         *
+         * @return Title from the feed's heading, or its URL.
+         */
+        public synchronized String getTitle() {
+            return title;
+        }
+
+        /**
+         * Return the key of the body last served.
+         *
+         * @return Key, or "-" if never polled.
+         */
+        public synchronized String getKey() {
+            return key;
+        }
+
+        /**
+         * Return when the feed was last polled.
+         *
+         * @return Milliseconds since the epoch, 0 if never.
+         */
+        public synchronized long getPolled() {
+            return polled;
+        }
+
+        /**
+         * Return whether the feed is due to be polled.
+         *
+         * @param now Current time (ms since the epoch).
+         * @return Whether it's due.
+         */
+        public synchronized boolean isDue(long now) {
+            return now >= due;
+        }
+
+        /**
+         * Record a poll that got the same body as last time.
+         *
+         * @param now Current time (ms since the epoch).
+         * @param next When to poll next.
+         */
+        public synchronized void unchanged(long now, long next) {
+            polled = now;
+            due = next;
+        }
+
+        /**
+         * Record a poll that got a new body, replacing the posts with the
+         * ones it lists. Known posts keep when they were first seen; a
+         * post is known if it was listed last time, even if it was past
+         * {@link #MAX_ENTRIES} and not kept to show.
+         *
+         * @param newKey Key of the body.
+         * @param newTitle Title from the body, or null to keep the old one.
+         * @param listed Posts the body lists.
+         * @param now Current time (ms since the epoch).
+         * @param next When to poll next.
+         * @return Posts that weren't known before.
+         */
+        public synchronized List<FeedEntry> changed(String newKey, String newTitle, List<FeedEntry> listed, long now, long next) {
+            List<FeedEntry> added = new ArrayList<>();
+            List<FeedEntry> kept = new ArrayList<>();
+            Set<Long> hashes = new HashSet<>();
+
+            // diff the listed posts against the known ones
+            for(FeedEntry entry : listed) {
+                long hash = entry.getHash();
+                hashes.add(hash);
+                FeedEntry known = entries.get(hash);
+                if(known != null) {
+                    kept.add(new FeedEntry(entry.getFeed(), entry.getURL(), entry.getDate(), entry.getTitle(), known.getSeen()));
+                } else {
+                    if(!this.listed.contains(hash)) {
+                        added.add(entry);
+                    }
+                    kept.add(entry);
+                }
+            }
+
+            kept.sort(NEWEST_FIRST);
+            entries.clear();
+            for(FeedEntry entry : kept.subList(0, Math.min(kept.size(), MAX_ENTRIES))) {
+                entries.putIfAbsent(entry.getHash(), entry);
+            }
+
+            this.listed = hashes;
+            key = newKey;
+            title = newTitle == null ? title : newTitle;
+            polled = now;
+            due = next;
+            return added;
+        }
+
+        /**
+         * Record a failed poll.
+         *
+         * @param next When to try again.
+         */
+        public synchronized void failed(long next) {
+            due = next;
+        }
+
+        /**
+         * Return the known posts.
+         *
+         * @return Posts, newest first.
+         */
+        public synchronized List<FeedEntry> getEntries() {
+            return new ArrayList<>(entries.values());
+        }
+
+        /**
+         * Return the hashes of every post the feed listed when last changed.
+         *
+         * @return Hashes.
+         */
+        synchronized Set<Long> getListed() {
+            return new HashSet<>(listed);
+        }
+
+        /**
+         * Write the feed as a line of the feeds file.
+         *
+         * @return Tab-separated fields.
+         */
+        synchronized String toLine() {
+            return url + "\t" + key + "\t" + polled + "\t" + due + "\t" + title;
+        }
+    }
+
+    /**
+     * Directory holding the files.
+     */
+    private final Path directory;
+
+    /**
+     * Feeds by URL, in the order subscribed.
+     */
+    private final Map<String, Feed> feeds = new LinkedHashMap<>();
+
+    /**
+     * Load the subscriptions in a directory, or start with none if it
+     * doesn't exist.
+     *
+     * @param directory Directory holding the files.
+     * @throws IOException If they exist but can't be read.
+     */
+    public Subscriptions(Path directory) throws IOException {
+        this.directory = directory;
+
+        Path feedsFile = directory.resolve(FEEDS_NAME);
+        if(Files.exists(feedsFile)) {
+            for(String line : Files.readAllLines(feedsFile, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", 5);
+                if(line.startsWith("#") || fields.length != 5) {
+                    continue;
+                }
+
+                try {
+                    Feed feed = new Feed(fields[0]);
+                    feed.key = fields[1];
+                    feed.polled = Long.parseLong(fields[2]);
+                    feed.due = Long.parseLong(fields[3]);
+                    feed.title = fields[4];
+                    feeds.put(feed.url, feed);
+                } catch(NumberFormatException e) {
+                    // fall through
+                }
+            }
+        }
+
+        Path entriesFile = directory.resolve(ENTRIES_NAME);
+        if(Files.exists(entriesFile)) {
+            for(String line : Files.readAllLines(entriesFile, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", 5);
+                Feed feed = fields.length == 5 ? feeds.get(fields[0]) : null;
+                if(line.startsWith("#") || feed == null) {
+                    continue;
+                }
+
+                try {
+                    FeedEntry entry = new FeedEntry(fields[0], fields[3], fields[2], fields[4], Long.parseLong(fields[1]));
+                    feed.entries.put(entry.getHash(), entry);
+                    feed.listed.add(entry.getHash());
+                } catch(NumberFormatException e) {
+                    // fall through
+                }
+            }
+        }
+
+        Path listedFile = directory.resolve(LISTED_NAME);
+        if(Files.exists(listedFile)) {
+            for(String line : Files.readAllLines(listedFile, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", 2);
+                Feed feed = fields.length == 2 ? feeds.get(fields[0]) : null;
+                if(line.startsWith("#") || feed == null) {
+                    continue;
+                }
+
+                try {
+                    feed.listed.add(Long.parseUnsignedLong(fields[1], 16));
+                } catch(NumberFormatException e) {
+                    // fall through
+                }
+            }
+        }
+    }
+
+    /**
+     * Subscribe to a feed. It's due to be polled straight away.
+     *
+     * @param url URL of the feed.
+     * @return Whether it wasn't subscribed already.
+     */
+    public synchronized boolean subscribe(String url) {
+        return feeds.putIfAbsent(url, new Feed(url)) == null;
+    }
+
+    /**
+     * Unsubscribe from a feed, forgetting its posts.
+     *
+     * @param url URL of the feed.
+     * @return Whether it was subscribed.
+     */
+    public synchronized boolean unsubscribe(String url) {
+        return feeds.remove(url) != null;
+    }
+
+    /**
+     * Return a feed.
+     *
+     * @param url URL of the feed.
+     * @return Feed, or null if not subscribed.
+     */
+    public synchronized Feed getFeed(String url) {
+        return feeds.get(url);
+    }
+
+    /**
+     * Return every feed.
+     *
+     * @return Feeds, in the order subscribed.
+     */
+    public synchronized List<Feed> getFeeds() {
+        return new ArrayList<>(feeds.values());
+    }
+
+    /**
+     * Return the newest posts across every feed.
+     *
+     * @param limit Most posts to return.
+     * @return Posts, newest first.
+     */
+    public synchronized List<FeedEntry> getEntries(int limit) {
+        List<FeedEntry> all = new ArrayList<>();
+        for(Feed feed : feeds.values()) {
+            all.addAll(feed.getEntries());
+        }
+
+        all.sort(NEWEST_FIRST);
+        return all.subList(0, Math.min(limit, all.size()));
+    }
+
+    /**
+     * Write the subscriptions out, replacing each file all at once.
+     *
+     * @throws IOException If they can't be written.
+     */
+    public synchronized void save() throws IOException {
+        Files.createDirectories(directory);
+
+        List<String> feedLines = new ArrayList<>();
+        List<String> entryLines = new ArrayList<>();
+        List<String> listedLines = new ArrayList<>();
+        for(Feed feed : feeds.values()) {
+            feedLines.add(feed.toLine());
+            for(FeedEntry entry : feed.getEntries()) {
+                entryLines.add(entry.getFeed() + "\t" + entry.getSeen() + "\t" + entry.getDate() + "\t" + entry.getURL() + "\t" + entry.getTitle());
+            }
+            for(long hash : feed.getListed()) {
+                listedLines.add(feed.getURL() + "\t" + Long.toHexString(hash));
+            }
+        }
+
+        write(FEEDS_NAME, "# url\tkey\tpolled\tdue\ttitle", feedLines);
+        write(ENTRIES_NAME, "# feed\tseen\tdate\turl\ttitle", entryLines);
+        write(LISTED_NAME, "# feed\thash", listedLines);
+    }
+
+    /**
+     * Replace one of the files all at once.
+     *
+     * @param name File name.
+     * @param header Header comment.
+     * @param lines Lines.
+     * @throws IOException If it can't be written.
+     */
+    private void write(String name, String header, List<String> lines) throws IOException {
+        Path file = directory.resolve(name);
+        Path temporary = file.resolveSibling(name + ".tmp");
+
+        try(BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write(header);
+            writer.newLine();
+            for(String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
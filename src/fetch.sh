@@ -0,0 +1 @@
+java fetch.BatchFetch "$@"
@@ -0,0 +1,256 @@
+package fetch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import network.BadURLException;
+import network.GeminiConnection;
+import network.RequestFailedException;
+import network.URL;
+
+/**
+ * Fetches a list of URLs from the command line, several at a time, without
+ * the GUI. URLs are read one per line from a file or standard input (blank
+ * lines and lines starting with '#' are skipped). Each body is streamed as
+ * it arrives, either to a file under an output directory or to standard
+ * output as frames (see {@link FramedSink}), along with its status, META
+ * and timing.
+ *
+ * Redirects aren't followed; they're reported like any other response.
+ * The exit status is 1 if any request failed without a response.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class BatchFetch {
+    /**
+     * Size of the buffer each body is read through.
+     */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Usage message.
+     */
+    private static final String USAGE = String.join("\n",
+        "usage: java fetch.BatchFetch [options] [url-file]",
+        "  url-file          URLs, one per line (default: standard input)",
+        "  --parallel N      concurrent requests (default 8)",
+        "  --output DIR      write bodies under DIR and log to DIR/" + DirectorySink.LOG_NAME,
+        "                    (default: framed records on standard output)",
+        "  --timeout MS      connect and read timeout (default 15000)");
+
+    /**
+     * Where responses go.
+     */
+    private final Sink sink;
+
+    /**
+     * Number of requests at once.
+     */
+    private final int parallelism;
+
+    /**
+     * Connect and read timeout, in milliseconds.
+     */
+    private final int timeout;
+
+    /**
+     * Requests that failed without a response.
+     */
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * Body bytes received.
+     */
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Create a batch fetcher.
+     *
+     * @param sink Where responses go.
+     * @param parallelism Number of requests at once.
+     * @param timeout Connect and read timeout, in milliseconds.
+     */
+    BatchFetch(Sink sink, int parallelism, int timeout) {
+        this.sink = sink;
+        this.parallelism = parallelism;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Create a batch fetcher that writes responses to a stream as frames.
+     *
+     * @param out Stream.
+     * @param parallelism Number of requests at once.
+     * @param timeout Connect and read timeout, in milliseconds.
+     * @return Batch fetcher.
+     */
+    public static BatchFetch framed(OutputStream out, int parallelism, int timeout) {
+        return new BatchFetch(new FramedSink(out), parallelism, timeout);
+    }
+
+    /**
+     * Fetch every URL read from a reader. URLs are read as requests finish,
+     * so the list can be any length.
+     *
+     * @param urls URLs, one per line.
+     * @return Number of URLs read.
+     * @throws IOException If reading the list fails.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public int run(BufferedReader urls) throws IOException, InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        Semaphore slots = new Semaphore(parallelism);
+        int id = 0;
+
+        try {
+            String line;
+            while((line = urls.readLine()) != null) {
+                line = line.strip();
+                if(line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                // wait for a free worker, so the list isn't read ahead
+                slots.acquire();
+                int number = ++id;
+                String url = line;
+                workers.execute(() -> {
+                    try {
+                        fetch(number, url);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            sink.close();
+        }
+
+        return id;
+    }
+
+    /**
+     * Fetch one URL into the sink.
+     *
+     * @param id Number of the URL.
+     * @param url URL.
+     */
+    private void fetch(int id, String url) {
+        long start = System.nanoTime();
+
+        try {
+            try(GeminiConnection connection = new GeminiConnection(new URL(url), timeout)) {
+                sink.header(id, connection.url(), connection.getStatus(), connection.getHeaderInfo(), System.nanoTime() - start);
+
+                // stream the body through
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long size = 0;
+                int read;
+                while((read = connection.read(buffer)) >= 0) {
+                    if(read > 0) {
+                        sink.body(id, buffer, read);
+                        size += read;
+                    }
+                }
+
+                bytes.addAndGet(size);
+                sink.end(id, size, System.nanoTime() - start);
+            } catch(RequestFailedException | BadURLException | IOException e) {
+                failures.incrementAndGet();
+                sink.failed(id, url, e.getMessage(), System.nanoTime() - start);
+            }
+        } catch(IOException e) {
+            // the sink itself failed; nothing left to report to
+            failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Return the number of requests that failed without a response.
+     *
+     * @return Failures.
+     */
+    public int getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Return the number of body bytes received.
+     *
+     * @return Bytes.
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Fetch URLs from the command line.
+     *
+     * @param args Options, then an optional file of URLs.
+     */
+    public static void main(String[] args) throws Exception {
+        int parallelism = 8;
+        int timeout = 15000;
+        Path output = null;
+        Path input = null;
+
+        // parse options
+        boolean valid = true;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--parallel": parallelism = Integer.parseInt(args[++i]); break;
+                    case "--output": output = Path.of(args[++i]); break;
+                    case "--timeout": timeout = Integer.parseInt(args[++i]); break;
+                    default:
+                        if(args[i].startsWith("--") || input != null) {
+                            valid = false;
+                        } else if(!args[i].equals("-")) {
+                            input = Path.of(args[i]);
+                        }
+                }
+            }
+        } catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            valid = false;
+        }
+
+        if(!valid || parallelism < 1) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        // framed records on stdout, or files under a directory
+        PrintStream stdout = System.out;
+        BatchFetch fetch = output == null
+            ? framed(stdout, parallelism, timeout)
+            : new BatchFetch(new DirectorySink(output), parallelism, timeout);
+
+        long start = System.nanoTime();
+        int count;
+        try(BufferedReader urls = input == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            count = fetch.run(urls);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%d URLs, %d failed, %.1f KB in %.1f s%n",
+            count, fetch.getFailures(), fetch.getBytes() / 1024.0, seconds);
+        System.exit(fetch.getFailures() > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,169 @@
+package fetch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import browser.Downloader;
+
+/**
+ * Writes each successful response's body to a file under a directory, at
+ * host/path (see {@link Downloader#localPath}), and logs every response
+ * to fetch.log in the directory as a tab-separated line: id, status, body
+ * size, time to header and total time (milliseconds), URL, and META or an
+ * error message.
+ *
+ * Bodies are streamed to a temporary file and moved into place once
+ * complete, so an interrupted fetch never leaves a partial file behind.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+class DirectorySink implements Sink {
+    /**
+     * Name of the log file.
+     */
+    static final String LOG_NAME = "fetch.log";
+
+    /**
+     * Directory written to.
+     */
+    private final Path directory;
+
+    /**
+     * Log of responses.
+     */
+    private final BufferedWriter log;
+
+    /**
+     * Responses still arriving, by id.
+     */
+    private final Map<Integer, Response> responses = new ConcurrentHashMap<>();
+
+    /**
+     * A response being written.
+     */
+    private static class Response {
+        /**
+         * URL requested.
+         */
+        String url;
+
+        /**
+         * Status.
+         */
+        int status;
+
+        /**
+         * META.
+         */
+        String meta;
+
+        /**
+         * Time to the header.
+         */
+        long headerNanos;
+
+        /**
+         * Temporary file the body is written to, or null.
+         */
+        Path temporary;
+
+        /**
+         * Where the body goes once complete.
+         */
+        Path file;
+
+        /**
+         * Open temporary file, or null.
+         */
+        OutputStream out;
+    }
+
+    /**
+     * Write responses under a directory.
+     *
+     * @param directory Directory, created if needed.
+     * @throws IOException If the directory or log can't be created.
+     */
+    DirectorySink(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        log = Files.newBufferedWriter(directory.resolve(LOG_NAME), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void header(int id, String url, int status, String meta, long headerNanos) throws IOException {
+        Response response = new Response();
+        response.url = url;
+        response.status = status;
+        response.meta = meta;
+        response.headerNanos = headerNanos;
+
+        // only successful responses have bodies
+        if(status / 10 == 2) {
+            response.file = Downloader.localPath(directory, url);
+            Files.createDirectories(response.file.getParent());
+            response.temporary = Files.createTempFile(response.file.getParent(), ".fetch", ".tmp");
+            response.out = Files.newOutputStream(response.temporary);
+        }
+
+        responses.put(id, response);
+    }
+
+    @Override
+    public void body(int id, byte[] buffer, int length) throws IOException {
+        Response response = responses.get(id);
+        if(response.out != null) {
+            response.out.write(buffer, 0, length);
+        }
+    }
+
+    @Override
+    public void end(int id, long size, long totalNanos) throws IOException {
+        Response response = responses.remove(id);
+
+        if(response.out != null) {
+            response.out.close();
+            Files.move(response.temporary, response.file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        log(id + "\t" + response.status + "\t" + size + "\t" + FramedSink.millis(response.headerNanos) + "\t"
+            + FramedSink.millis(totalNanos) + "\t" + response.url + "\t" + FramedSink.oneLine(response.meta));
+    }
+
+    @Override
+    public void failed(int id, String url, String message, long totalNanos) throws IOException {
+        // drop anything written so far
+        Response response = responses.remove(id);
+        if(response != null && response.out != null) {
+            response.out.close();
+            Files.deleteIfExists(response.temporary);
+        }
+
+        log(id + "\t--\t0\t-\t" + FramedSink.millis(totalNanos) + "\t" + url + "\t" + FramedSink.oneLine(message));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    /**
+     * Write a line to the log.
+     *
+     * @param line Line.
+     * @throws IOException If writing fails.
+     */
+    private synchronized void log(String line) throws IOException {
+        log.write(line);
+        log.newLine();
+        log.flush();
+    }
+}
@@ -0,0 +1,101 @@
+package fetch;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Writes responses to one stream as frames, so bodies can be streamed
+ * while several responses arrive at once. Every frame starts with a line
+ * of space-separated fields:
+ *
+ * <pre>
+ * H id status header-ms url meta    response header
+ * D id length                       then length body bytes and a line feed
+ * E id size total-ms                end of the response
+ * F id total-ms url message         request failed
+ * </pre>
+ *
+ * Frames for different responses may be interleaved; the id (the URL's
+ * line number in the input) says which each belongs to. Times are in
+ * milliseconds.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+class FramedSink implements Sink {
+    /**
+     * Stream written to.
+     */
+    private final OutputStream out;
+
+    /**
+     * Write frames to a stream.
+     *
+     * @param out Stream.
+     */
+    FramedSink(OutputStream out) {
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+    }
+
+    @Override
+    public synchronized void header(int id, String url, int status, String meta, long headerNanos) throws IOException {
+        line("H " + id + " " + status + " " + millis(headerNanos) + " " + url + " " + oneLine(meta));
+    }
+
+    @Override
+    public synchronized void body(int id, byte[] buffer, int length) throws IOException {
+        line("D " + id + " " + length);
+        out.write(buffer, 0, length);
+        out.write('\n');
+    }
+
+    @Override
+    public synchronized void end(int id, long size, long totalNanos) throws IOException {
+        line("E " + id + " " + size + " " + millis(totalNanos));
+        out.flush();
+    }
+
+    @Override
+    public synchronized void failed(int id, String url, String message, long totalNanos) throws IOException {
+        line("F " + id + " " + millis(totalNanos) + " " + url + " " + oneLine(message));
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Write a frame line.
+     *
+     * @param line Line, without its line feed.
+     * @throws IOException If writing fails.
+     */
+    private void line(String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Format a duration.
+     *
+     * @param nanos Duration in nanoseconds.
+     * @return Milliseconds, to three decimal places.
+     */
+    static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    /**
+     * Keep a field on one line.
+     *
+     * @param text Field.
+     * @return Field with line breaks replaced by spaces.
+     */
+    static String oneLine(String text) {
+        return text == null ? "" : text.replace('\r', ' ').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,63 @@
+package fetch;
+
+import java.io.IOException;
+
+/**
+ * Where {@link BatchFetch} sends responses. Called from many fetching
+ * threads at once, with each response identified by its number in the
+ * input; an implementation must keep them apart.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+interface Sink {
+    /**
+     * A response header arrived.
+     *
+     * @param id Number of the URL in the input, from 1.
+     * @param url URL requested.
+     * @param status Status.
+     * @param meta META.
+     * @param headerNanos Time from starting the request to the header.
+     * @throws IOException If writing fails.
+     */
+    void header(int id, String url, int status, String meta, long headerNanos) throws IOException;
+
+    /**
+     * Part of a body arrived.
+     *
+     * @param id Number of the URL.
+     * @param buffer Buffer holding the data.
+     * @param length Number of bytes, from the start of the buffer.
+     * @throws IOException If writing fails.
+     */
+    void body(int id, byte[] buffer, int length) throws IOException;
+
+    /**
+     * A response is complete.
+     *
+     * @param id Number of the URL.
+     * @param size Body bytes received.
+     * @param totalNanos Time from starting the request to the end of the body.
+     * @throws IOException If writing fails.
+     */
+    void end(int id, long size, long totalNanos) throws IOException;
+
+    /**
+     * A request failed before or during the response.
+     *
+     * @param id Number of the URL.
+     * @param url URL requested.
+     * @param message What went wrong.
+     * @param totalNanos Time from starting the request to the failure.
+     * @throws IOException If writing fails.
+     */
+    void failed(int id, String url, String message, long totalNanos) throws IOException;
+
+    /**
+     * Finish writing, once every response is complete.
+     *
+     * @throws IOException If writing fails.
+     */
+    void close() throws IOException;
+}
@@ -1,13 +1,21 @@
 package gemtext;
 
-import javafx.scene.Node;
-import javafx.scene.text.Text;
-
+/**
+ * A blank line.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
 public class BlankLine implements Gemtext {
 
     @Override
-    public Node render() {
-        return new Text("\n");
-    } 
+    public ElementType getType() {
+        return ElementType.BLANK_LINE;
+    }
+
+    @Override
+    public String getText() {
+        return "";
+    }
     
 }
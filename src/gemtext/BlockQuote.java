@@ -1,38 +1,33 @@
 package gemtext;
 
-import javafx.scene.Node;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontPosture;
-import javafx.scene.text.Text;
-
 /**
  * A block quote.
  * 
  * @author Hayden Walker
- * @version 2024-02-28
+ * @version 2026-10-19
  */
 public class BlockQuote implements Gemtext {
     /**
      * Block quote content.
      */
-    private Text text;
-
+    private final String text;
+    
     /**
-     * Create a new block quote.
+     * Create a new BlockQuote.
      * 
      * @param content Quote content.
      */
     public BlockQuote(String content) {
-        text = new Text(content);
-        text.setFont(Font.font("Liberation Serif", FontPosture.ITALIC, 14));
+        text = content;
     }
 
-    /**
-     * Render the quote as a JavaFX node.
-     */
     @Override
-    public Node render() {
+    public ElementType getType() {
+        return ElementType.BLOCK_QUOTE;
+    }
+
+    @Override
+    public String getText() {
         return text;
     }
-    
 }
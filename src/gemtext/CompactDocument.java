@@ -0,0 +1,420 @@
+package gemtext;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A parsed Gemtext document stored in columns.
+ *
+ * All element text lives in one backing string. Each element is a row in
+ * parallel primitive arrays: its type, the offset and length of its text,
+ * and the offset and length of its link target (-1 if it isn't a link).
+ * Element objects are only created when an element is asked for.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class CompactDocument {
+    /**
+     * Element types, indexed by ordinal.
+     */
+    private static final ElementType[] TYPES = ElementType.values();
+
+    /**
+     * Text of every element, back to back.
+     */
+    private final String text;
+
+    /**
+     * Type of each element (ElementType ordinal).
+     */
+    private final byte[] types;
+
+    /**
+     * Offset of each element's text.
+     */
+    private final int[] starts;
+
+    /**
+     * Length of each element's text.
+     */
+    private final int[] lengths;
+
+    /**
+     * Offset of each link's target, or -1.
+     */
+    private final int[] linkStarts;
+
+    /**
+     * Length of each link's target.
+     */
+    private final int[] linkLengths;
+
+    /**
+     * Number of elements.
+     */
+    private final int size;
+
+    /**
+     * Create a document from a builder's columns.
+     *
+     * @param builder Builder.
+     */
+    private CompactDocument(Builder builder) {
+        size = builder.size;
+        text = builder.text.toString();
+        types = Arrays.copyOf(builder.types, size);
+        starts = Arrays.copyOf(builder.starts, size);
+        lengths = Arrays.copyOf(builder.lengths, size);
+        linkStarts = Arrays.copyOf(builder.linkStarts, size);
+        linkLengths = Arrays.copyOf(builder.linkLengths, size);
+    }
+
+    /**
+     * Build a compact document from a list of elements.
+     *
+     * @param elements Elements.
+     * @return Compact document.
+     */
+    public static CompactDocument of(List<Gemtext> elements) {
+        Builder builder = new Builder();
+        for(Gemtext element : elements) {
+            builder.accept(element);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Return the number of elements.
+     *
+     * @return Number of elements.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return an element's type.
+     *
+     * @param index Element index.
+     * @return Element type.
+     */
+    public ElementType getType(int index) {
+        return TYPES[types[checkIndex(index)]];
+    }
+
+    /**
+     * Return an element's text.
+     *
+     * @param index Element index.
+     * @return Element text.
+     */
+    public String getText(int index) {
+        checkIndex(index);
+        return text.substring(starts[index], starts[index] + lengths[index]);
+    }
+
+    /**
+     * Return a link's target.
+     *
+     * @param index Element index.
+     * @return Link target, or {@code null} if the element isn't a link.
+     */
+    public String getURL(int index) {
+        checkIndex(index);
+        if(linkStarts[index] < 0) {
+            return null;
+        }
+        return text.substring(linkStarts[index], linkStarts[index] + linkLengths[index]);
+    }
+
+    /**
+     * Return the offset of an element's text in the backing text.
+     *
+     * @param index Element index.
+     * @return Offset.
+     */
+    public int getStart(int index) {
+        return starts[checkIndex(index)];
+    }
+
+    /**
+     * Return the length of an element's text.
+     *
+     * @param index Element index.
+     * @return Length.
+     */
+    public int getLength(int index) {
+        return lengths[checkIndex(index)];
+    }
+
+    /**
+     * Return the backing text holding every element's text (and link
+     * targets), for searching without creating substrings.
+     *
+     * @return Backing text.
+     */
+    public String getBackingText() {
+        return text;
+    }
+
+    /**
+     * Return the element whose text contains an offset in the backing text.
+     *
+     * @param offset Offset in the backing text.
+     * @return Element index, or -1 if the offset is before the first element.
+     */
+    public int elementAt(int offset) {
+        int index = Arrays.binarySearch(starts, 0, size, offset);
+
+        // not an exact start: the element starting before the offset
+        if(index < 0) {
+            index = -index - 2;
+        }
+
+        // several empty elements can share a start; take the last
+        while(index >= 0 && index + 1 < size && starts[index + 1] == offset) {
+            index++;
+        }
+
+        return index;
+    }
+
+    /**
+     * Hash an element's type, text and link target, without creating
+     * substrings.
+     *
+     * @param index Element index.
+     * @return Hash.
+     */
+    int hashElement(int index) {
+        checkIndex(index);
+        int hash = types[index];
+        hash = hashRange(hash, starts[index], lengths[index]);
+        if(linkStarts[index] >= 0) {
+            hash = hashRange(hash * 31 + 1, linkStarts[index], linkLengths[index]);
+        }
+        return hash;
+    }
+
+    /**
+     * Return whether an element equals an element of another document: same
+     * type, text and link target.
+     *
+     * @param index Element index in this document.
+     * @param other Other document.
+     * @param otherIndex Element index in the other document.
+     * @return Whether they're equal.
+     */
+    boolean sameElement(int index, CompactDocument other, int otherIndex) {
+        checkIndex(index);
+        other.checkIndex(otherIndex);
+
+        return types[index] == other.types[otherIndex]
+            && lengths[index] == other.lengths[otherIndex]
+            && linkLengths[index] == other.linkLengths[otherIndex]
+            && (linkStarts[index] < 0) == (other.linkStarts[otherIndex] < 0)
+            && text.regionMatches(starts[index], other.text, other.starts[otherIndex], lengths[index])
+            && (linkStarts[index] < 0
+                || text.regionMatches(linkStarts[index], other.text, other.linkStarts[otherIndex], linkLengths[index]));
+    }
+
+    /**
+     * Continue a hash over part of the backing text.
+     *
+     * @param hash Hash so far.
+     * @param start Offset of the first character.
+     * @param length Number of characters.
+     * @return Hash.
+     */
+    private int hashRange(int hash, int start, int length) {
+        for(int i = start; i < start + length; i++) {
+            hash = hash * 31 + text.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Create a view of one element.
+     *
+     * @param index Element index.
+     * @return New element object.
+     */
+    public Gemtext get(int index) {
+        String content = getText(index);
+
+        switch(getType(index)) {
+            case HEADING1:
+                return new Heading1(content);
+            case HEADING2:
+                return new Heading2(content);
+            case HEADING3:
+                return new Heading3(content);
+            case LINK:
+                return new GeminiLink(content, getURL(index));
+            case LIST_ITEM:
+                return new ListItem(content);
+            case BLOCK_QUOTE:
+                return new BlockQuote(content);
+            case PREFORMATTED:
+                return new PreformattedText(content);
+            case BLANK_LINE:
+                return new BlankLine();
+            default:
+                return new Paragraph(content);
+        }
+    }
+
+    /**
+     * Visit the elements in a range, e.g. the lines currently on screen.
+     *
+     * @param from First element (inclusive).
+     * @param to Last element (exclusive); clamped to the document size.
+     * @param visitor Receives each element's view in order.
+     */
+    public void forEachInRange(int from, int to, Consumer<Gemtext> visitor) {
+        int end = Math.min(to, size);
+        for(int i = Math.max(from, 0); i < end; i++) {
+            visitor.accept(get(i));
+        }
+    }
+
+    /**
+     * Return a read-only list view of the document. Elements are created as
+     * they're accessed, and not kept.
+     *
+     * @return List view.
+     */
+    public List<Gemtext> asList() {
+        return new AbstractList<Gemtext>() {
+            @Override
+            public Gemtext get(int index) {
+                return CompactDocument.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Check that an index is in range.
+     *
+     * @param index Index.
+     * @return The index.
+     * @throws IndexOutOfBoundsException If out of range.
+     */
+    private int checkIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Element " + index + " of " + size);
+        }
+        return index;
+    }
+
+    /**
+     * Builds a CompactDocument one element at a time.
+     */
+    public static class Builder implements Consumer<Gemtext> {
+        /**
+         * Initial column capacity.
+         */
+        private static final int INITIAL_CAPACITY = 64;
+
+        /**
+         * Backing text.
+         */
+        private StringBuilder text = new StringBuilder();
+
+        /**
+         * Type column.
+         */
+        private byte[] types = new byte[INITIAL_CAPACITY];
+
+        /**
+         * Text offset column.
+         */
+        private int[] starts = new int[INITIAL_CAPACITY];
+
+        /**
+         * Text length column.
+         */
+        private int[] lengths = new int[INITIAL_CAPACITY];
+
+        /**
+         * Link target offset column.
+         */
+        private int[] linkStarts = new int[INITIAL_CAPACITY];
+
+        /**
+         * Link target length column.
+         */
+        private int[] linkLengths = new int[INITIAL_CAPACITY];
+
+        /**
+         * Number of elements added.
+         */
+        private int size;
+
+        /**
+         * Add an element.
+         *
+         * @param element Element to add.
+         */
+        @Override
+        public void accept(Gemtext element) {
+            String url = element instanceof GeminiLink ? ((GeminiLink) element).getURL() : null;
+            add(element.getType(), element.getText(), url);
+        }
+
+        /**
+         * Add an element.
+         *
+         * @param type Element type.
+         * @param content Element text.
+         * @param url Link target, or {@code null} if not a link.
+         */
+        public void add(ElementType type, String content, String url) {
+            // grow columns
+            if(size == types.length) {
+                int capacity = types.length * 2;
+                types = Arrays.copyOf(types, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                linkStarts = Arrays.copyOf(linkStarts, capacity);
+                linkLengths = Arrays.copyOf(linkLengths, capacity);
+            }
+
+            types[size] = (byte) type.ordinal();
+            starts[size] = text.length();
+            lengths[size] = content.length();
+            text.append(content);
+
+            // links captioned with their target share its text
+            if(url == null) {
+                linkStarts[size] = -1;
+            } else if(url.equals(content)) {
+                linkStarts[size] = starts[size];
+                linkLengths[size] = lengths[size];
+            } else {
+                linkStarts[size] = text.length();
+                linkLengths[size] = url.length();
+                text.append(url);
+            }
+
+            size++;
+        }
+
+        /**
+         * Build the document.
+         *
+         * @return Compact document.
+         */
+        public CompactDocument build() {
+            return new CompactDocument(this);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package gemtext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The differences between two versions of a document, as the runs of
+ * elements that were removed from the old version and inserted in the new.
+ *
+ * Elements common to the start and end are skipped first, since reloads
+ * usually change little. The rest are compared by hash with Myers'
+ * algorithm, confirming each hash match against the text. If the versions
+ * differ by more than {@link #MAX_EDITS} elements, the middle is treated as
+ * replaced outright.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public final class DocumentDiff {
+    /**
+     * Most removed plus inserted elements searched for before giving up on
+     * a minimal diff.
+     */
+    public static final int MAX_EDITS = 1000;
+
+    /**
+     * A run of removed elements and the run inserted in their place. Either
+     * run may be empty.
+     */
+    public static final class Hunk {
+        /**
+         * Index of the first removed element, in the old version.
+         */
+        private final int oldStart;
+
+        /**
+         * Number of removed elements.
+         */
+        private final int oldLength;
+
+        /**
+         * Index of the first inserted element, in the new version.
+         */
+        private final int newStart;
+
+        /**
+         * Number of inserted elements.
+         */
+        private final int newLength;
+
+        /**
+         * Create a hunk.
+         *
+         * @param oldStart Index of the first removed element.
+         * @param oldLength Number of removed elements.
+         * @param newStart Index of the first inserted element.
+         * @param newLength Number of inserted elements.
+         */
+        Hunk(int oldStart, int oldLength, int newStart, int newLength) {
+            this.oldStart = oldStart;
+            this.oldLength = oldLength;
+            this.newStart = newStart;
+            this.newLength = newLength;
+        }
+
+        /**
+         * Return the index of the first removed element.
+         *
+         * @return Index in the old version.
+         */
+        public int getOldStart() {
+            return oldStart;
+        }
+
+        /**
+         * Return the number of removed elements.
+         *
+         * @return Number removed.
+         */
+        public int getOldLength() {
+            return oldLength;
+        }
+
+        /**
+         * Return the index of the first inserted element.
+         *
+         * @return Index in the new version.
+         */
+        public int getNewStart() {
+            return newStart;
+        }
+
+        /**
+         * Return the number of inserted elements.
+         *
+         * @return Number inserted.
+         */
+        public int getNewLength() {
+            return newLength;
+        }
+
+        @Override
+        public String toString() {
+            return "-" + oldStart + "," + oldLength + " +" + newStart + "," + newLength;
+        }
+    }
+
+    /**
+     * Changed runs, in document order.
+     */
+    private final List<Hunk> hunks;
+
+    /**
+     * Index in the old version of each element of the new, or -1 if inserted.
+     */
+    private final int[] oldIndices;
+
+    /**
+     * Index in the new version of each element of the old, or -1 if removed.
+     */
+    private final int[] newIndices;
+
+    /**
+     * Create a diff from its element mapping.
+     *
+     * @param oldIndices Old index of each new element, or -1.
+     * @param oldSize Number of elements in the old version.
+     */
+    private DocumentDiff(int[] oldIndices, int oldSize) {
+        this.oldIndices = oldIndices;
+        newIndices = new int[oldSize];
+        Arrays.fill(newIndices, -1);
+
+        List<Hunk> runs = new ArrayList<>();
+        int oldPosition = 0;
+        int newPosition = 0;
+
+        // the gaps between kept elements are the hunks
+        for(int i = 0; i <= oldIndices.length; i++) {
+            int old = i < oldIndices.length ? oldIndices[i] : oldSize;
+            if(old < 0) {
+                continue;
+            }
+
+            if(old > oldPosition || i > newPosition) {
+                runs.add(new Hunk(oldPosition, old - oldPosition, newPosition, i - newPosition));
+            }
+
+            if(i < oldIndices.length) {
+                newIndices[old] = i;
+            }
+            oldPosition = old + 1;
+            newPosition = i + 1;
+        }
+
+        hunks = Collections.unmodifiableList(runs);
+    }
+
+    /**
+     * Compare two versions of a document.
+     *
+     * @param before Old version.
+     * @param after New version.
+     * @return Differences.
+     */
+    public static DocumentDiff compute(CompactDocument before, CompactDocument after) {
+        int oldSize = before.size();
+        int newSize = after.size();
+        int[] oldIndices = new int[newSize];
+        Arrays.fill(oldIndices, -1);
+
+        // common prefix
+        int prefix = 0;
+        while(prefix < oldSize && prefix < newSize && before.sameElement(prefix, after, prefix)) {
+            oldIndices[prefix] = prefix;
+            prefix++;
+        }
+
+        // common suffix
+        int suffix = 0;
+        while(suffix < oldSize - prefix && suffix < newSize - prefix
+                && before.sameElement(oldSize - 1 - suffix, after, newSize - 1 - suffix)) {
+            oldIndices[newSize - 1 - suffix] = oldSize - 1 - suffix;
+            suffix++;
+        }
+
+        // diff the middle
+        new Middle(before, after, prefix, oldSize - prefix - suffix, newSize - prefix - suffix).match(oldIndices);
+
+        return new DocumentDiff(oldIndices, oldSize);
+    }
+
+    /**
+     * Return the changed runs.
+     *
+     * @return Hunks, in document order.
+     */
+    public List<Hunk> getHunks() {
+        return hunks;
+    }
+
+    /**
+     * Return whether the versions are identical.
+     *
+     * @return Whether nothing changed.
+     */
+    public boolean isUnchanged() {
+        return hunks.isEmpty();
+    }
+
+    /**
+     * Return where an element of the new version was in the old.
+     *
+     * @param newIndex Index in the new version.
+     * @return Index in the old version, or -1 if it was inserted.
+     */
+    public int getOldIndex(int newIndex) {
+        return oldIndices[newIndex];
+    }
+
+    /**
+     * Return where an element of the old version is in the new.
+     *
+     * @param oldIndex Index in the old version.
+     * @return Index in the new version, or -1 if it was removed.
+     */
+    public int getNewIndex(int oldIndex) {
+        return newIndices[oldIndex];
+    }
+
+    /**
+     * Myers' diff over the part of two versions between their common prefix
+     * and suffix.
+     */
+    private static class Middle {
+        /**
+         * Old version.
+         */
+        private final CompactDocument before;
+
+        /**
+         * New version.
+         */
+        private final CompactDocument after;
+
+        /**
+         * Index of the first element compared, in both versions.
+         */
+        private final int offset;
+
+        /**
+         * Hashes of the old elements compared.
+         */
+        private final int[] oldHashes;
+
+        /**
+         * Hashes of the new elements compared.
+         */
+        private final int[] newHashes;
+
+        /**
+         * Set up a diff.
+         *
+         * @param before Old version.
+         * @param after New version.
+         * @param offset Index of the first element to compare.
+         * @param oldLength Number of old elements to compare.
+         * @param newLength Number of new elements to compare.
+         */
+        Middle(CompactDocument before, CompactDocument after, int offset, int oldLength, int newLength) {
+            this.before = before;
+            this.after = after;
+            this.offset = offset;
+
+            oldHashes = new int[oldLength];
+            for(int i = 0; i < oldLength; i++) {
+                oldHashes[i] = before.hashElement(offset + i);
+            }
+
+            newHashes = new int[newLength];
+            for(int i = 0; i < newLength; i++) {
+                newHashes[i] = after.hashElement(offset + i);
+            }
+        }
+
+        /**
+         * Find a shortest edit script and record the elements it keeps.
+         * Nothing is recorded if the script would be too long.
+         *
+         * @param oldIndices Old index of each new element, filled in for
+         *                   kept elements.
+         */
+        void match(int[] oldIndices) {
+            int n = oldHashes.length;
+            int m = newHashes.length;
+            if(n == 0 || m == 0) {
+                return;
+            }
+
+            // furthest x reached on each diagonal k = x - y
+            int max = Math.min(n + m, MAX_EDITS);
+            int center = max + 1;
+            int[] v = new int[2 * max + 3];
+            List<int[]> trace = new ArrayList<>();
+            int edits = -1;
+
+            for(int d = 0; d <= max && edits < 0; d++) {
+                // keep this round's starting points for the backtrack
+                trace.add(Arrays.copyOfRange(v, center - d, center + d + 1));
+
+                for(int k = -d; k <= d; k += 2) {
+                    int x;
+                    if(k == -d || (k != d && v[center + k - 1] < v[center + k + 1])) {
+                        x = v[center + k + 1]; // insertion
+                    } else {
+                        x = v[center + k - 1] + 1; // removal
+                    }
+
+                    // follow matching elements
+                    int y = x - k;
+                    while(x < n && y < m && same(x, y)) {
+                        x++;
+                        y++;
+                    }
+
+                    v[center + k] = x;
+                    if(x >= n && y >= m) {
+                        edits = d;
+                        break;
+                    }
+                }
+            }
+
+            // too different: everything in the middle is replaced
+            if(edits < 0) {
+                return;
+            }
+
+            // walk back from the end, recording matched elements
+            int x = n;
+            int y = m;
+            for(int d = edits; d > 0; d--) {
+                int[] start = trace.get(d);
+                int k = x - y;
+                int previousK = (k == -d || (k != d && start[k - 1 + d] < start[k + 1 + d])) ? k + 1 : k - 1;
+                int previousX = start[previousK + d];
+                int previousY = previousX - previousK;
+
+                while(x > previousX && y > previousY) {
+                    x--;
+                    y--;
+                    oldIndices[offset + y] = offset + x;
+                }
+
+                x = previousX;
+                y = previousY;
+            }
+
+            while(x > 0 && y > 0) {
+                x--;
+                y--;
+                oldIndices[offset + y] = offset + x;
+            }
+        }
+
+        /**
+         * Return whether two elements are equal.
+         *
+         * @param x Old element, relative to the offset.
+         * @param y New element, relative to the offset.
+         * @return Whether they're equal.
+         */
+        private boolean same(int x, int y) {
+            return oldHashes[x] == newHashes[y] && before.sameElement(offset + x, after, offset + y);
+        }
+    }
+}
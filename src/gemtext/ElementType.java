@@ -0,0 +1,19 @@
+package gemtext;
+
+/**
+ * Types of Gemtext line.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public enum ElementType {
+    HEADING1,
+    HEADING2,
+    HEADING3,
+    PARAGRAPH,
+    LINK,
+    LIST_ITEM,
+    BLOCK_QUOTE,
+    PREFORMATTED,
+    BLANK_LINE
+}
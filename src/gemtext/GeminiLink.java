@@ -1,30 +1,62 @@
 package gemtext;
 
-import javafx.scene.Node;
-import javafx.scene.control.Hyperlink;
-
+/**
+ * A link line.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
 public class GeminiLink implements Gemtext {
-
-    private String url;
-    private Hyperlink link;
-
+    /**
+     * Link target, as written in the document.
+     */
+    private final String url;
+
+    /**
+     * Text displayed for the link.
+     */
+    private final String caption;
+
+    /**
+     * Create a new link with a caption.
+     * 
+     * @param caption Link caption.
+     * @param url Link target.
+     */
     public GeminiLink(String caption, String url) {
         this.url = url;
-
-        link = new Hyperlink(caption);
+        this.caption = caption;
     }
 
+    /**
+     * Create a new link, captioned with its target.
+     * 
+     * @param url Link target.
+     */
     public GeminiLink(String url) {
         this(url, url);
     }
 
+    /**
+     * Return the link target.
+     * 
+     * @return Link target.
+     */
     public String getURL() {
         return url;
     }
 
     @Override
-    public Node render() {
-        return link;
+    public ElementType getType() {
+        return ElementType.LINK;
+    }
+
+    /**
+     * Return the link caption.
+     */
+    @Override
+    public String getText() {
+        return caption;
     }
     
 }
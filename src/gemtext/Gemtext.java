@@ -1,18 +1,24 @@
 package gemtext;
 
-import javafx.scene.Node;
-
 /**
- * A displayable Gemtext element.
+ * A parsed Gemtext element. Elements are immutable and don't depend on
+ * JavaFX; the browser builds nodes for them when they're displayed.
  * 
  * @author Hayden Walker
- * @version 2024-02-14
+ * @version 2026-10-19
  */
 public interface Gemtext {
     /**
-     * Return the Gemtext element rendered as a JavaFX Node.
+     * Return the type of element.
+     * 
+     * @return Element type.
+     */
+    public ElementType getType();
+
+    /**
+     * Return the element's text content.
      * 
-     * @return Rendered element as a JavaFX Node.
+     * @return Text content.
      */
-    public Node render();
-}
\ No newline at end of file
+    public String getText();
+}
@@ -1,13 +1,16 @@
 package gemtext;
 
-import java.util.ArrayList;
+import java.nio.charset.Charset;
 import java.util.List;
 
+import network.MediaType;
+import network.TextDecoder;
+
 /**
  * Parses Gemtext.
  * 
  * @author Hayden Walker
- * @version 2024-02-28
+ * @version 2026-10-19
  */
 public class GemtextParser {
     /**
@@ -16,175 +19,149 @@ public class GemtextParser {
     private List<Gemtext> parsedContent;
 
     /**
-     * Create a new GemtextParser.
+     * Create a new GemtextParser. Content is decoded as UTF-8.
      * 
      * @param content Gemtext content to parse.
      */
     public GemtextParser(Byte[] content) {
-        // initialize list
-        parsedContent = new ArrayList<Gemtext>();
-
-        // split content into lines
-        String[] lines = makePlaintext(content).split("\n");
-
-        // store preformatted content
-        boolean preformatted = false;
-        StringBuilder preformattedBuffer = new StringBuilder();
-
-        // parse each line
-        for(String line : lines) {
-            // start preformatted content
-            if(line.startsWith("```") && !preformatted) {
-                preformatted = true;
-                continue;
-            }
-
-            // end preformatted content
-            else if(line.startsWith("```")) {
-                preformatted = false;
-                parsedContent.add(new PreformattedText(preformattedBuffer.toString()));
-                preformattedBuffer = new StringBuilder(); // clear buffer       
-                continue; // move onto next line         
-            }
-
-            // preformatted lines get appended to buffer
-            if(preformatted) {
-                preformattedBuffer.append(line);
-                preformattedBuffer.append("\n");
-                continue;
-            }
-
-            // append blank line
-            if(line.equals("")) {
-                parsedContent.add(new BlankLine());
-                continue;
-            }
-
-            // parse based on first character
-            switch(line.charAt(0)) {
-                // parse a heading
-                case '#':
-                    parsedContent.add(parseHeading(line));
-                    break;
-
-                // parse a link
-                case '=':
-                    parsedContent.add(parseLink(line));
-                    break;
-                
-                // parse a list
-                case '*':
-                    parsedContent.add(new ListItem(line.substring(2)));
-                    break;
-
-                // parse a block quote
-                case '>':
-                    parsedContent.add(new BlockQuote(line.substring(1)));
-                    break;
-                                
-                // paragraph text
-                default:
-                    parsedContent.add(new Paragraph(line));
-                    break;
-
-            } 
+        this(unbox(content), MediaType.DEFAULT_CHARSET);
+    }
+
+    /**
+     * Create a new GemtextParser. Large documents are parsed in parallel.
+     * 
+     * @param content Gemtext content to parse.
+     * @param charset Charset the content is encoded in.
+     */
+    public GemtextParser(byte[] content, Charset charset) {
+        if(ParallelGemtextParser.shouldParallelize(content.length, charset)) {
+            parsedContent = new ParallelGemtextParser().parse(content, charset);
+            return;
         }
+
+        LineParser parser = new LineParser(false);
+        parseLines(content, charset, parser);
+        parsedContent = parser.getElements();
     }
 
     /**
-     * Return parsed Gemtext.
+     * Create a new GemtextParser.
      * 
-     * @return Parsed Gemtext.
+     * @param text Decoded Gemtext to parse.
      */
-    public List<Gemtext> getParsedContent() {
-        return parsedContent;
+    public GemtextParser(String text) {
+        parse(text);
     }
 
     /**
-     * Parse a hyperlink.
+     * Parse decoded Gemtext on this thread.
      * 
-     * @param string Line to parse.
-     * @return Hyperlink.
+     * @param text Gemtext to parse.
      */
-    private Gemtext parseLink(String string) {
-        
-        StringBuilder url = new StringBuilder();
-        StringBuilder caption = new StringBuilder();
-        int index = 2; // start after =>
-
-        // advance to next non-space
-        while(index < string.length() && string.charAt(index) == ' ') {
-            index++;
-        }
+    private void parse(String text) {
+        LineParser parser = new LineParser(false);
+        parseLines(text, parser);
+        parsedContent = parser.getElements();
+    }
 
-        // read URL
-        while(index < string.length() && string.charAt(index) != ' ') {
-            url.append(string.charAt(index++));
-        }
+    /**
+     * Parse Gemtext into a compact document.
+     * 
+     * @param text Decoded Gemtext to parse.
+     * @return Compact document.
+     */
+    public static CompactDocument parseDocument(String text) {
+        CompactDocument.Builder builder = new CompactDocument.Builder();
+        parseLines(text, new LineParser(false, builder));
+        return builder.build();
+    }
 
-        // advance to next non-space
-        while(index < string.length() && string.charAt(index) == ' ') {
-            index++;
+    /**
+     * Parse Gemtext into a compact document. Large documents are parsed in
+     * parallel.
+     * 
+     * @param content Gemtext content to parse.
+     * @param charset Charset the content is encoded in.
+     * @return Compact document.
+     */
+    public static CompactDocument parseDocument(byte[] content, Charset charset) {
+        if(ParallelGemtextParser.shouldParallelize(content.length, charset)) {
+            return CompactDocument.of(new ParallelGemtextParser().parse(content, charset));
         }
 
-        if(index >= string.length()) {
-            return new GeminiLink(url.toString());
+        CompactDocument.Builder builder = new CompactDocument.Builder();
+        parseLines(content, charset, new LineParser(false, builder));
+        return builder.build();
+    }
+
+    /**
+     * Feed each line of some Gemtext to a parser. Trailing line feeds don't
+     * start new lines, and empty text is a single blank line.
+     * 
+     * @param text Gemtext.
+     * @param parser Parser.
+     */
+    private static void parseLines(String text, LineParser parser) {
+        int end = text.length();
+        while(end > 0 && text.charAt(end - 1) == '\n') {
+            end--;
         }
 
-        while(index < string.length()) {
-            caption.append(string.charAt(index++));
+        if(text.isEmpty()) {
+            parser.parseLine("");
+            return;
         }
 
-        return new GeminiLink(caption.toString(), url.toString());
+        parser.parseLines(text.substring(0, end));
     }
 
     /**
-     * Parse a heading.
+     * Feed each line of an encoded Gemtext body to a parser, scanning the
+     * bytes for lines when the charset allows it.
      * 
-     * @param string Heading to parse.
-     * @return Heading object.
+     * @param content Gemtext content.
+     * @param charset Charset the content is encoded in.
+     * @param parser Parser.
      */
-    private Gemtext parseHeading(String string) {
-        // calculate heading level (number of # characters)
-        int headingLevel = 0;
-        int index = 0;
-        while(index < string.length() && string.charAt(index) != ' ') {
-            headingLevel++;
-            index++;
+    private static void parseLines(byte[] content, Charset charset, LineParser parser) {
+        // line feed bytes can't be trusted in other charsets
+        if(!TextDecoder.isAsciiCompatible(charset)) {
+            parseLines(TextDecoder.decode(content, charset), parser);
+            return;
         }
 
-        // create and return headings
-        switch(headingLevel) {
-            // heading 1
-            case 1:
-                return new Heading1(string.substring(2));
-            
-            // heading 2
-            case 2:
-                return new Heading2(string.substring(3));
-
-            // heading 3 (and above)
-            default:
-                return new Heading3(string.substring(4));
-        }      
-    }
+        if(content.length == 0) {
+            parser.parseLine("");
+            return;
+        }
 
+        int end = LineScanner.trimTrailingNewlines(content, 0, content.length);
+        parser.parseLines(content, 0, end, charset);
+    }
 
+    /**
+     * Return parsed Gemtext.
+     * 
+     * @return Parsed Gemtext.
+     */
+    public List<Gemtext> getParsedContent() {
+        return parsedContent;
+    }
 
     /**
-     * Convert the content to plaintext.
+     * Convert boxed content to a primitive array.
      * 
      * @param content Content.
-     * @return Content as a String.
+     * @return Content as a byte array.
      */
-    private String makePlaintext(Byte[] content) {
-        StringBuilder sb = new StringBuilder();
+    private static byte[] unbox(Byte[] content) {
+        byte[] bytes = new byte[content.length];
 
-        for(Byte b : content) {
-            sb.append((char) b.intValue());
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = content[i];
         }
 
-        return sb.toString();
+        return bytes;
     }
 
 }
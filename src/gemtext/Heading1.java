@@ -1,37 +1,33 @@
 package gemtext;
 
-import javafx.scene.Node;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
-import javafx.scene.text.Text;
-
 /**
  * A first-level heading.
  * 
  * @author Hayden Walker
- * @version 2024-02-28
+ * @version 2026-10-19
  */
 public class Heading1 implements Gemtext {
     /**
      * Heading's text content.
      */
-    private Text text;
+    private final String text;
     
     /**
-     * Create a new Heading1 object.
+     * Create a new Heading1.
      * 
      * @param content Heading content.
      */
     public Heading1(String content) {
-        text = new Text(content);
-        text.setFont(Font.font("serif", FontWeight.BOLD, 30));
+        text = content;
+    }
+
+    @Override
+    public ElementType getType() {
+        return ElementType.HEADING1;
     }
 
-    /**
-     * Return the heading as a JavaFX Node.
-     */
     @Override
-    public Node render() {
+    public String getText() {
         return text;
     }
 }
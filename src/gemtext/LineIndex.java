@@ -0,0 +1,104 @@
+package gemtext;
+
+import java.util.Arrays;
+
+/**
+ * Where each line of a Gemtext body starts and ends, and what kind of line
+ * it is. Offsets are byte offsets into the scanned buffer.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class LineIndex {
+    /**
+     * Offset of each line's first byte.
+     */
+    private int[] starts;
+
+    /**
+     * Offset just past each line's last byte (the line feed isn't included).
+     */
+    private int[] ends;
+
+    /**
+     * Kind of each line (LineKind ordinal).
+     */
+    private byte[] kinds;
+
+    /**
+     * Number of lines.
+     */
+    private int size;
+
+    /**
+     * Create an empty index.
+     * 
+     * @param capacity Expected number of lines.
+     */
+    LineIndex(int capacity) {
+        capacity = Math.max(capacity, 16);
+        starts = new int[capacity];
+        ends = new int[capacity];
+        kinds = new byte[capacity];
+    }
+
+    /**
+     * Add a line.
+     * 
+     * @param start Offset of the line's first byte.
+     * @param end Offset just past the line's last byte.
+     * @param kind Line kind.
+     */
+    void add(int start, int end, LineKind kind) {
+        if(size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+        }
+
+        starts[size] = start;
+        ends[size] = end;
+        kinds[size] = (byte) kind.ordinal();
+        size++;
+    }
+
+    /**
+     * Return the number of lines.
+     * 
+     * @return Number of lines.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the offset of a line's first byte.
+     * 
+     * @param line Line number.
+     * @return Start offset.
+     */
+    public int getStart(int line) {
+        return starts[line];
+    }
+
+    /**
+     * Return the offset just past a line's last byte.
+     * 
+     * @param line Line number.
+     * @return End offset.
+     */
+    public int getEnd(int line) {
+        return ends[line];
+    }
+
+    /**
+     * Return a line's kind.
+     * 
+     * @param line Line number.
+     * @return Line kind.
+     */
+    public LineKind getKind(int line) {
+        return LineKind.of(kinds[line]);
+    }
+}
@@ -0,0 +1,100 @@
+package gemtext;
+
+/**
+ * Kinds of Gemtext line, told apart by their leading token.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public enum LineKind {
+    /**
+     * Any other line: a paragraph.
+     */
+    TEXT,
+
+    /**
+     * An empty line.
+     */
+    BLANK,
+
+    /**
+     * Starts with #.
+     */
+    HEADING,
+
+    /**
+     * Starts with =>.
+     */
+    LINK,
+
+    /**
+     * Starts with "* ".
+     */
+    LIST_ITEM,
+
+    /**
+     * Starts with >.
+     */
+    QUOTE,
+
+    /**
+     * Starts with three backticks.
+     */
+    FENCE;
+
+    /**
+     * Kinds, indexed by ordinal.
+     */
+    private static final LineKind[] KINDS = values();
+
+    /**
+     * Return the kind with an ordinal.
+     * 
+     * @param ordinal Ordinal.
+     * @return Line kind.
+     */
+    static LineKind of(int ordinal) {
+        return KINDS[ordinal];
+    }
+
+    /**
+     * Classify a line by its first three characters.
+     * 
+     * @param c0 First character, or -1 if the line is empty.
+     * @param c1 Second character, or -1.
+     * @param c2 Third character, or -1.
+     * @return Line kind.
+     */
+    static LineKind classify(int c0, int c1, int c2) {
+        switch(c0) {
+            case -1:
+                return BLANK;
+            case '#':
+                return HEADING;
+            case '=':
+                return c1 == '>' ? LINK : TEXT;
+            case '*':
+                return c1 == ' ' ? LIST_ITEM : TEXT;
+            case '>':
+                return QUOTE;
+            case '`':
+                return c1 == '`' && c2 == '`' ? FENCE : TEXT;
+            default:
+                return TEXT;
+        }
+    }
+
+    /**
+     * Classify a line.
+     * 
+     * @param line Line, without its line feed.
+     * @return Line kind.
+     */
+    public static LineKind classify(String line) {
+        int length = line.length();
+        return classify(
+            length > 0 ? line.charAt(0) : -1,
+            length > 1 ? line.charAt(1) : -1,
+            length > 2 ? line.charAt(2) : -1);
+    }
+}
@@ -0,0 +1,295 @@
+package gemtext;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import network.TextDecoder;
+
+/**
+ * Parses Gemtext one line at a time.
+ *
+ * A LineParser can start partway through a document, inside a preformatted
+ * block. Lines before the block's closing fence are then kept aside as the
+ * head, for whoever parsed the previous part of the document to join on.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+class LineParser {
+    /**
+     * Parsed elements, if collecting them in a list.
+     */
+    private List<Gemtext> elements;
+
+    /**
+     * Receives each element as it's parsed.
+     */
+    private Consumer<Gemtext> sink;
+
+    /**
+     * Whether the current line is inside a preformatted block.
+     */
+    private boolean preformatted;
+
+    /**
+     * Content of the current preformatted block.
+     */
+    private StringBuilder preformattedBuffer;
+
+    /**
+     * Whether parsing started inside a preformatted block.
+     */
+    private boolean startedPreformatted;
+
+    /**
+     * Preformatted content before the first closing fence, if parsing started
+     * inside a block and the block was closed.
+     */
+    private String head;
+
+    /**
+     * Create a new LineParser that collects elements in a list.
+     *
+     * @param preformatted Whether the first line is inside a preformatted block.
+     */
+    LineParser(boolean preformatted) {
+        this(preformatted, null);
+        elements = new ArrayList<Gemtext>();
+        sink = elements::add;
+    }
+
+    /**
+     * Create a new LineParser that passes elements to a sink.
+     *
+     * @param preformatted Whether the first line is inside a preformatted block.
+     * @param sink Receives each element as it's parsed.
+     */
+    LineParser(boolean preformatted, Consumer<Gemtext> sink) {
+        this.preformatted = preformatted;
+        this.sink = sink;
+        startedPreformatted = preformatted;
+        preformattedBuffer = new StringBuilder();
+    }
+
+    /**
+     * Parse every line of some text. Every line feed ends a line; the text
+     * after the last line feed is a line if it isn't empty.
+     *
+     * @param text Text to parse.
+     */
+    void parseLines(String text) {
+        int start = 0;
+        int newline;
+
+        while((newline = text.indexOf('\n', start)) >= 0) {
+            parseLine(text.substring(start, newline));
+            start = newline + 1;
+        }
+
+        if(start < text.length()) {
+            parseLine(text.substring(start));
+        }
+    }
+
+    /**
+     * Parse every line in part of a buffer. Lines are found and classified
+     * on the raw bytes, and only each line's text is decoded.
+     *
+     * @param content Buffer.
+     * @param from Offset to start at (a line start).
+     * @param to Offset to stop at.
+     * @param charset Charset the content is encoded in (ASCII-compatible).
+     */
+    void parseLines(byte[] content, int from, int to, Charset charset) {
+        LineIndex lines = LineScanner.getInstance().scan(content, from, to);
+
+        for(int i = 0; i < lines.size(); i++) {
+            int start = lines.getStart(i);
+            String line = TextDecoder.decode(content, start, lines.getEnd(i) - start, charset);
+            parseLine(line, lines.getKind(i));
+        }
+    }
+
+    /**
+     * Parse the next line.
+     *
+     * @param line Line, without its line feed.
+     */
+    void parseLine(String line) {
+        parseLine(line, LineKind.classify(line));
+    }
+
+    /**
+     * Parse the next line, already classified.
+     *
+     * @param line Line, without its line feed.
+     * @param kind Kind of line.
+     */
+    void parseLine(String line, LineKind kind) {
+        // start preformatted content
+        if(kind == LineKind.FENCE && !preformatted) {
+            preformatted = true;
+            return;
+        }
+
+        // end preformatted content
+        else if(kind == LineKind.FENCE) {
+            preformatted = false;
+
+            // the block started before this parser did
+            if(startedPreformatted && head == null) {
+                head = preformattedBuffer.toString();
+            } else {
+                sink.accept(new PreformattedText(preformattedBuffer.toString()));
+            }
+
+            preformattedBuffer = new StringBuilder(); // clear buffer
+            return; // move onto next line
+        }
+
+        // preformatted lines get appended to buffer
+        if(preformatted) {
+            preformattedBuffer.append(line);
+            preformattedBuffer.append("\n");
+            return;
+        }
+
+        // parse based on leading token
+        switch(kind) {
+            // append blank line
+            case BLANK:
+                sink.accept(new BlankLine());
+                break;
+
+            // parse a heading
+            case HEADING:
+                sink.accept(parseHeading(line));
+                break;
+
+            // parse a link
+            case LINK:
+                sink.accept(parseLink(line));
+                break;
+
+            // parse a list
+            case LIST_ITEM:
+                sink.accept(new ListItem(line.substring(2)));
+                break;
+
+            // parse a block quote
+            case QUOTE:
+                sink.accept(new BlockQuote(line.substring(1)));
+                break;
+
+            // paragraph text
+            default:
+                sink.accept(new Paragraph(line));
+                break;
+        }
+    }
+
+    /**
+     * Return the elements parsed so far. Content of a preformatted block that
+     * hasn't been closed isn't included.
+     *
+     * @return Parsed elements, or {@code null} if elements went to a sink.
+     */
+    List<Gemtext> getElements() {
+        return elements;
+    }
+
+    /**
+     * Return preformatted content before the first closing fence.
+     *
+     * @return Head content, or {@code null} if parsing didn't start inside a
+     *         preformatted block or the block wasn't closed.
+     */
+    String getHead() {
+        return head;
+    }
+
+    /**
+     * Return the content of the preformatted block still open.
+     *
+     * @return Open block's content, or {@code null} if no block is open.
+     */
+    String getOpenBlock() {
+        return preformatted ? preformattedBuffer.toString() : null;
+    }
+
+    /**
+     * Parse a hyperlink.
+     *
+     * @param string Line to parse.
+     * @return Hyperlink.
+     */
+    static Gemtext parseLink(String string) {
+
+        StringBuilder url = new StringBuilder();
+        StringBuilder caption = new StringBuilder();
+        int index = 2; // start after =>
+
+        // advance to next non-space
+        while(index < string.length() && string.charAt(index) == ' ') {
+            index++;
+        }
+
+        // read URL
+        while(index < string.length() && string.charAt(index) != ' ') {
+            url.append(string.charAt(index++));
+        }
+
+        // advance to next non-space
+        while(index < string.length() && string.charAt(index) == ' ') {
+            index++;
+        }
+
+        if(index >= string.length()) {
+            return new GeminiLink(url.toString());
+        }
+
+        while(index < string.length()) {
+            caption.append(string.charAt(index++));
+        }
+
+        return new GeminiLink(caption.toString(), url.toString());
+    }
+
+    /**
+     * Parse a heading.
+     *
+     * @param string Heading to parse.
+     * @return Heading object.
+     */
+    static Gemtext parseHeading(String string) {
+        // calculate heading level (number of # characters)
+        int headingLevel = 0;
+        while(headingLevel < string.length() && string.charAt(headingLevel) == '#') {
+            headingLevel++;
+        }
+
+        // skip whitespace between the #s and the text
+        int index = headingLevel;
+        while(index < string.length() && Character.isWhitespace(string.charAt(index))) {
+            index++;
+        }
+        String content = string.substring(index);
+
+        // create and return headings
+        switch(headingLevel) {
+            // heading 1
+            case 1:
+                return new Heading1(content);
+
+            // heading 2
+            case 2:
+                return new Heading2(content);
+
+            // heading 3 (and above)
+            default:
+                return new Heading3(content);
+        }
+    }
+}
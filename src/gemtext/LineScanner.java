@@ -0,0 +1,172 @@
+package gemtext;
+
+/**
+ * Splits a Gemtext body into lines and classifies each line's leading token,
+ * working directly on the bytes. Only valid for ASCII-compatible charsets,
+ * where a line feed byte is always a line feed.
+ *
+ * Subclasses supply the search for line feeds. By default a portable SWAR
+ * scanner reads eight bytes at a time. The Vector API scanner is opt-in:
+ * it's only used when the JVM is started with --add-modules
+ * jdk.incubator.vector, which none of the launch scripts pass. In the
+ * benchmark baseline it was slower than the SWAR scanner, so it stays off
+ * until it's shown to win on the target machine.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public abstract class LineScanner {
+    /**
+     * Expected average line length, for sizing the index.
+     */
+    private static final int AVERAGE_LINE = 40;
+
+    /**
+     * Scanner used by getInstance().
+     */
+    private static final LineScanner INSTANCE = createInstance();
+
+    /**
+     * Return the scanner for this JVM: the Vector API scanner if the
+     * incubator module was added, otherwise the SWAR scanner.
+     * 
+     * @return Line scanner.
+     */
+    public static LineScanner getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return the portable scanner, which doesn't need the Vector API.
+     * 
+     * @return Line scanner.
+     */
+    public static LineScanner portable() {
+        return new SwarLineScanner();
+    }
+
+    /**
+     * Index the lines in part of a buffer. Every line feed ends a line; the
+     * text after the last line feed is a line if it isn't empty.
+     * 
+     * @param content Buffer.
+     * @param from Offset to start at (a line start).
+     * @param to Offset to stop at.
+     * @return Line index.
+     */
+    public LineIndex scan(byte[] content, int from, int to) {
+        Indexer indexer = new Indexer(content, from, (to - from) / AVERAGE_LINE);
+        findNewlines(content, from, to, indexer);
+
+        // the text after the last line feed
+        if(indexer.start < to) {
+            indexer.newline(to);
+        }
+
+        return indexer.index;
+    }
+
+    /**
+     * Return the end of a body's last line: trailing line feeds don't start
+     * new lines.
+     * 
+     * @param content Buffer.
+     * @param from Start of the body.
+     * @param to End of the body.
+     * @return End of the last line.
+     */
+    public static int trimTrailingNewlines(byte[] content, int from, int to) {
+        while(to > from && content[to - 1] == '\n') {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * Find every line feed in part of a buffer, in order.
+     * 
+     * @param content Buffer.
+     * @param from Offset to search from.
+     * @param to Offset to search to (exclusive).
+     * @param sink Receives the offset of each line feed.
+     */
+    protected abstract void findNewlines(byte[] content, int from, int to, NewlineSink sink);
+
+    /**
+     * Receives line feed offsets from findNewlines().
+     */
+    protected interface NewlineSink {
+        /**
+         * Handle a line feed.
+         * 
+         * @param offset Offset of the line feed.
+         */
+        void newline(int offset);
+    }
+
+    /**
+     * Turns line feed offsets into an index of classified lines.
+     */
+    private static class Indexer implements NewlineSink {
+        /**
+         * Buffer being scanned.
+         */
+        private final byte[] content;
+
+        /**
+         * Index being built.
+         */
+        private final LineIndex index;
+
+        /**
+         * Start of the current line.
+         */
+        private int start;
+
+        /**
+         * Create a new Indexer.
+         * 
+         * @param content Buffer being scanned.
+         * @param start Start of the first line.
+         * @param capacity Expected number of lines.
+         */
+        Indexer(byte[] content, int start, int capacity) {
+            this.content = content;
+            this.start = start;
+            index = new LineIndex(capacity);
+        }
+
+        @Override
+        public void newline(int end) {
+            // classify by the leading token
+            int length = end - start;
+            LineKind kind = LineKind.classify(
+                length > 0 ? content[start] : -1,
+                length > 1 ? content[start + 1] : -1,
+                length > 2 ? content[start + 2] : -1);
+            index.add(start, end, kind);
+
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Pick a scanner. The Vector API scanner is loaded reflectively so this
+     * class works when the incubator module isn't present, which is the
+     * default; see the class comment.
+     * 
+     * @return Line scanner.
+     */
+    private static LineScanner createInstance() {
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (LineScanner) Class.forName("gemtext.VectorLineScanner")
+                    .getDeclaredConstructor().newInstance();
+            } catch(ReflectiveOperationException | LinkageError e) {
+                // fall through to the portable scanner
+            }
+        }
+
+        return new SwarLineScanner();
+    }
+}
@@ -0,0 +1,187 @@
+package gemtext;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import network.TextDecoder;
+
+/**
+ * Finds the links in a Gemtext body without parsing anything else.
+ *
+ * The body is scanned for line feeds with a {@link LineScanner}; only the
+ * first bytes of each line are looked at, and only link lines outside
+ * preformatted blocks are read in full. Links are reported as byte offsets,
+ * so nothing is allocated unless the caller asks for it. Only valid for
+ * ASCII-compatible charsets.
+ *
+ * Targets and captions are split the same way as the parser splits them.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class LinkExtractor {
+    /**
+     * Receives each link found.
+     */
+    public interface LinkVisitor {
+        /**
+         * Handle a link. If the link has no caption, captionStart equals
+         * captionEnd.
+         *
+         * @param content Buffer being scanned.
+         * @param urlStart Offset of the target's first byte.
+         * @param urlEnd Offset just past the target's last byte.
+         * @param captionStart Offset of the caption's first byte.
+         * @param captionEnd Offset just past the caption's last byte.
+         */
+        void link(byte[] content, int urlStart, int urlEnd, int captionStart, int captionEnd);
+    }
+
+    /**
+     * Scanner used to find line feeds.
+     */
+    private LineScanner scanner;
+
+    /**
+     * Create a link extractor using the fastest scanner available.
+     */
+    public LinkExtractor() {
+        this(LineScanner.getInstance());
+    }
+
+    /**
+     * Create a link extractor using a specific scanner.
+     *
+     * @param scanner Scanner used to find line feeds.
+     */
+    public LinkExtractor(LineScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    /**
+     * Visit every link in part of a buffer.
+     *
+     * @param content Buffer.
+     * @param from Offset to start at (a line start).
+     * @param to Offset to stop at.
+     * @param visitor Receives each link.
+     */
+    public void extract(byte[] content, int from, int to, LinkVisitor visitor) {
+        LinkFinder finder = new LinkFinder(content, from, visitor);
+        scanner.findNewlines(content, from, to, finder);
+
+        // the text after the last line feed
+        if(finder.start < to) {
+            finder.newline(to);
+        }
+    }
+
+    /**
+     * Return every link in a body as GeminiLink objects.
+     *
+     * @param content Gemtext body.
+     * @param charset Charset the body is encoded in (ASCII-compatible).
+     * @return Links, in document order.
+     */
+    public List<GeminiLink> extractLinks(byte[] content, Charset charset) {
+        List<GeminiLink> links = new ArrayList<>();
+
+        extract(content, 0, content.length, (bytes, urlStart, urlEnd, captionStart, captionEnd) -> {
+            String url = TextDecoder.decode(bytes, urlStart, urlEnd - urlStart, charset);
+
+            // links without a caption are captioned with their target
+            if(captionStart == captionEnd) {
+                links.add(new GeminiLink(url));
+            } else {
+                String caption = TextDecoder.decode(bytes, captionStart, captionEnd - captionStart, charset);
+                links.add(new GeminiLink(caption, url));
+            }
+        });
+
+        return links;
+    }
+
+    /**
+     * Looks at the start of each line for fences and links.
+     */
+    private static class LinkFinder implements LineScanner.NewlineSink {
+        /**
+         * Buffer being scanned.
+         */
+        private final byte[] content;
+
+        /**
+         * Receives each link.
+         */
+        private final LinkVisitor visitor;
+
+        /**
+         * Start of the current line.
+         */
+        private int start;
+
+        /**
+         * Whether the current line is inside a preformatted block.
+         */
+        private boolean preformatted;
+
+        /**
+         * Create a new LinkFinder.
+         *
+         * @param content Buffer being scanned.
+         * @param start Start of the first line.
+         * @param visitor Receives each link.
+         */
+        LinkFinder(byte[] content, int start, LinkVisitor visitor) {
+            this.content = content;
+            this.start = start;
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void newline(int end) {
+            int length = end - start;
+
+            // toggle preformatting on fences
+            if(length >= 3 && content[start] == '`' && content[start + 1] == '`' && content[start + 2] == '`') {
+                preformatted = !preformatted;
+            }
+
+            // link line
+            else if(!preformatted && length >= 2 && content[start] == '=' && content[start + 1] == '>') {
+                readLink(start + 2, end);
+            }
+
+            start = end + 1;
+        }
+
+        /**
+         * Split a link line into target and caption, as the parser does.
+         *
+         * @param index Offset just after the =>.
+         * @param end End of the line.
+         */
+        private void readLink(int index, int end) {
+            // advance to next non-space
+            while(index < end && content[index] == ' ') {
+                index++;
+            }
+
+            // read URL
+            int urlStart = index;
+            while(index < end && content[index] != ' ') {
+                index++;
+            }
+            int urlEnd = index;
+
+            // advance to next non-space
+            while(index < end && content[index] == ' ') {
+                index++;
+            }
+
+            // the rest is the caption
+            visitor.link(content, urlStart, urlEnd, index, end);
+        }
+    }
+}
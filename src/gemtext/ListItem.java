@@ -1,18 +1,33 @@
 package gemtext;
 
-import javafx.scene.Node;
-import javafx.scene.text.Text;
-
+/**
+ * A list item.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
 public class ListItem implements Gemtext {
+    /**
+     * List item's text content.
+     */
+    private final String text;
     
-    private Text text;
-
+    /**
+     * Create a new ListItem.
+     * 
+     * @param content List item content.
+     */
     public ListItem(String content) {
-        text = new Text(content);
+        text = content;
+    }
+
+    @Override
+    public ElementType getType() {
+        return ElementType.LIST_ITEM;
     }
 
     @Override
-    public Node render() {
+    public String getText() {
         return text;
     }
 }
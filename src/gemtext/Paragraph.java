@@ -1,20 +1,16 @@
 package gemtext;
 
-import javafx.scene.Node;
-import javafx.scene.text.Font;
-import javafx.scene.text.Text;
-
 /**
  * A paragraph.
  * 
  * @author Hayden Walker
- * @version 2024-02-28
+ * @version 2026-10-19
  */
 public class Paragraph implements Gemtext {
     /**
      * Paragraph text.
      */
-    private Text text;
+    private final String text;
     
     /**
      * Create a new Paragraph.
@@ -22,16 +18,16 @@ public class Paragraph implements Gemtext {
      * @param content Paragraph content.
      */
     public Paragraph(String content) {
-        text = new Text(content);
-        text.setFont(Font.font("serif", 14));
-        text.setWrappingWidth(600);
+        text = content;
+    }
+
+    @Override
+    public ElementType getType() {
+        return ElementType.PARAGRAPH;
     }
 
-    /**
-     * Render the paragraph as a JavaFX Node.
-     */
     @Override
-    public Node render() {
+    public String getText() {
         return text;
     }
 }
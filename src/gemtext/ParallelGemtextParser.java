@@ -0,0 +1,284 @@
+package gemtext;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import network.TextDecoder;
+
+/**
+ * Parses large Gemtext documents on a ForkJoinPool.
+ *
+ * The body is split into chunks at line feeds. A first parallel pass counts
+ * the preformatting fences in each chunk; a prefix pass over those counts
+ * gives the state each chunk starts in. A second parallel pass scans, decodes
+ * and parses each chunk, and the results are merged in order, joining
+ * preformatted blocks that span chunks.
+ *
+ * Produces the same elements as the sequential parser.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class ParallelGemtextParser {
+    /**
+     * Documents smaller than this are parsed sequentially.
+     */
+    public static final int PARALLEL_THRESHOLD = 512 * 1024;
+
+    /**
+     * Smallest chunk worth handing to a worker.
+     */
+    private static final int MIN_CHUNK = 64 * 1024;
+
+    /**
+     * Chunks per worker, so uneven chunks still balance.
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    /**
+     * Pool to parse on.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Create a parser using the common pool.
+     */
+    public ParallelGemtextParser() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a parser using a specific pool.
+     *
+     * @param pool Pool to parse on.
+     */
+    public ParallelGemtextParser(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Return whether a document should be parsed in parallel. Only
+     * ASCII-compatible charsets can be split at line feed bytes.
+     *
+     * @param length Document length in bytes.
+     * @param charset Document charset.
+     * @return {@code true} if worth parsing in parallel.
+     */
+    public static boolean shouldParallelize(int length, Charset charset) {
+        return length >= PARALLEL_THRESHOLD
+            && ForkJoinPool.getCommonPoolParallelism() > 1
+            && TextDecoder.isAsciiCompatible(charset);
+    }
+
+    /**
+     * Parse a document.
+     *
+     * @param content Gemtext content.
+     * @param charset Charset the content is encoded in (ASCII-compatible).
+     * @return Parsed elements.
+     */
+    public List<Gemtext> parse(byte[] content, Charset charset) {
+        // trailing line feeds produce no lines
+        int end = LineScanner.trimTrailingNewlines(content, 0, content.length);
+
+        // nothing but line feeds
+        if(end == 0) {
+            List<Gemtext> elements = new ArrayList<>();
+            if(content.length == 0) {
+                elements.add(new BlankLine());
+            }
+            return elements;
+        }
+
+        int[] bounds = split(content, end);
+        int chunks = bounds.length - 1;
+
+        // count fences in each chunk
+        int[] fences = new int[chunks];
+        forEachChunk(chunks, i -> fences[i] = countFences(content, bounds[i], bounds[i + 1]));
+
+        // prefix pass: is each chunk's first line inside a preformatted block?
+        boolean[] startsPreformatted = new boolean[chunks];
+        boolean preformatted = false;
+        for(int i = 0; i < chunks; i++) {
+            startsPreformatted[i] = preformatted;
+            preformatted ^= (fences[i] % 2 == 1);
+        }
+
+        // decode and parse each chunk
+        LineParser[] parsers = new LineParser[chunks];
+        forEachChunk(chunks, i -> {
+            LineParser parser = new LineParser(startsPreformatted[i]);
+            parser.parseLines(content, bounds[i], bounds[i + 1], charset);
+            parsers[i] = parser;
+        });
+
+        return merge(parsers, startsPreformatted);
+    }
+
+    /**
+     * Split a document into chunks ending at line feeds.
+     *
+     * @param content Document.
+     * @param end End of the document's last line.
+     * @return Chunk boundaries; chunk i is [bounds[i], bounds[i + 1]).
+     */
+    private int[] split(byte[] content, int end) {
+        int target = Math.max(MIN_CHUNK, end / (pool.getParallelism() * CHUNKS_PER_WORKER));
+
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+
+        int position = target;
+        while(position < end) {
+            // advance to the end of the line
+            while(position < end && content[position - 1] != '\n') {
+                position++;
+            }
+
+            if(position >= end) {
+                break;
+            }
+
+            bounds.add(position);
+            position += target;
+        }
+        bounds.add(end);
+
+        int[] array = new int[bounds.size()];
+        for(int i = 0; i < array.length; i++) {
+            array[i] = bounds.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Count lines starting with a preformatting fence.
+     *
+     * @param content Document.
+     * @param start Start of the chunk (a line start).
+     * @param end End of the chunk.
+     * @return Number of fences.
+     */
+    private static int countFences(byte[] content, int start, int end) {
+        int count = 0;
+        boolean lineStart = true;
+
+        for(int i = start; i < end; i++) {
+            if(lineStart && i + 2 < end && content[i] == '`' && content[i + 1] == '`' && content[i + 2] == '`') {
+                count++;
+            }
+            lineStart = content[i] == '\n';
+        }
+
+        return count;
+    }
+
+    /**
+     * Merge parsed chunks in order.
+     *
+     * @param parsers Parser for each chunk.
+     * @param startsPreformatted Whether each chunk started in a preformatted block.
+     * @return Merged elements.
+     */
+    private static List<Gemtext> merge(LineParser[] parsers, boolean[] startsPreformatted) {
+        int size = 0;
+        for(LineParser parser : parsers) {
+            size += parser.getElements().size() + 1;
+        }
+
+        List<Gemtext> elements = new ArrayList<>(size);
+        StringBuilder openBlock = null;
+
+        for(int i = 0; i < parsers.length; i++) {
+            LineParser parser = parsers[i];
+
+            if(startsPreformatted[i]) {
+                // the block wasn't closed in this chunk: the whole chunk is preformatted
+                if(parser.getHead() == null) {
+                    openBlock.append(parser.getOpenBlock());
+                    continue;
+                }
+
+                // close the block that started in an earlier chunk
+                openBlock.append(parser.getHead());
+                elements.add(new PreformattedText(openBlock.toString()));
+                openBlock = null;
+            }
+
+            elements.addAll(parser.getElements());
+
+            // block left open for the next chunk
+            if(parser.getOpenBlock() != null) {
+                openBlock = new StringBuilder(parser.getOpenBlock());
+            }
+        }
+
+        // an unclosed block at the end is dropped, as in the sequential parser
+        return elements;
+    }
+
+    /**
+     * Run a task for every chunk on the pool.
+     *
+     * @param chunks Number of chunks.
+     * @param task Task, given the chunk index.
+     */
+    private void forEachChunk(int chunks, IntConsumer task) {
+        pool.invoke(new ChunkAction(0, chunks, task));
+    }
+
+    /**
+     * Runs a task over a range of chunks, splitting the range in half until
+     * each action has one chunk.
+     */
+    private static class ChunkAction extends RecursiveAction {
+        /**
+         * Serialization version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * First chunk (inclusive).
+         */
+        private final int from;
+
+        /**
+         * Last chunk (exclusive).
+         */
+        private final int to;
+
+        /**
+         * Task to run for each chunk.
+         */
+        private final IntConsumer task;
+
+        /**
+         * Create a new ChunkAction.
+         *
+         * @param from First chunk (inclusive).
+         * @param to Last chunk (exclusive).
+         * @param task Task to run for each chunk.
+         */
+        ChunkAction(int from, int to, IntConsumer task) {
+            this.from = from;
+            this.to = to;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1) {
+                task.accept(from);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkAction(from, middle, task), new ChunkAction(middle, to, task));
+        }
+    }
+}
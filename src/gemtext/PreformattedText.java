@@ -1,36 +1,33 @@
 package gemtext;
 
-import javafx.scene.Node;
-import javafx.scene.text.Font;
-import javafx.scene.text.Text;
-
 /**
  * A block of preformatted text.
  * 
  * @author Hayden Walker
- * @version 2024-02-28
+ * @version 2026-10-19
  */
 public class PreformattedText implements Gemtext {
     /**
      * Preformatted block's content.
      */
-    private Text text;
-   
+    private final String text;
+    
     /**
-     * Create a new block of preformatted text.
+     * Create a new PreformattedText.
      * 
      * @param content Preformatted text.
      */
     public PreformattedText(String content) {
-        text = new Text(content);
-        text.setFont(Font.font("monospace"));
+        text = content;
     }
 
-    /**
-     * Return the preformatted text as a JavaFX Node.
-     */
     @Override
-    public Node render() {
+    public ElementType getType() {
+        return ElementType.PREFORMATTED;
+    }
+
+    @Override
+    public String getText() {
         return text;
-    }   
+    }
 }
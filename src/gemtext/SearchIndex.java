@@ -0,0 +1,315 @@
+package gemtext;
+
+import java.util.Arrays;
+
+/**
+ * Finds text in a compact document, ignoring case. Matches are offsets in
+ * the document's backing text, and only count if they lie within one
+ * element's text (not across elements, and not in link targets).
+ *
+ * Large documents can be indexed by trigram with {@link #build()}: every
+ * position in the backing text is filed under a hash of the three
+ * characters starting there. A query then only checks the positions filed
+ * under its rarest trigram, instead of scanning the whole text. Shorter
+ * queries are found with a scan of a lower-cased copy kept alongside the
+ * index. Short documents, and large ones not indexed yet, are simply
+ * scanned.
+ *
+ * Building takes a while on a large document, so it's meant to be done on
+ * a worker thread, and the index handed over once built. Searching isn't
+ * safe while building.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class SearchIndex {
+    /**
+     * Documents with less backing text than this are scanned, not indexed.
+     */
+    public static final int MIN_INDEXED_LENGTH = 64 * 1024;
+
+    /**
+     * Number of bits in a trigram's bucket number.
+     */
+    private static final int BUCKET_BITS = 16;
+
+    /**
+     * Length of the indexed substrings.
+     */
+    private static final int GRAM = 3;
+
+    /**
+     * Document being searched.
+     */
+    private final CompactDocument document;
+
+    /**
+     * The document's backing text.
+     */
+    private final String text;
+
+    /**
+     * The backing text in lower case, once indexed.
+     */
+    private String lowerText;
+
+    /**
+     * Where each bucket's positions start in positions, plus the end.
+     */
+    private int[] bucketStarts;
+
+    /**
+     * Every trigram position, grouped by bucket, ascending in each.
+     */
+    private int[] positions;
+
+    /**
+     * Create a search index for a document. Nothing is indexed until
+     * {@link #build()}.
+     *
+     * @param document Document to search.
+     */
+    public SearchIndex(CompactDocument document) {
+        this.document = document;
+        text = document.getBackingText();
+    }
+
+    /**
+     * Return the document being searched.
+     *
+     * @return Document.
+     */
+    public CompactDocument getDocument() {
+        return document;
+    }
+
+    /**
+     * Find every match of a query.
+     *
+     * @param query Text to find.
+     * @return Offsets of the matches in the backing text, ascending.
+     */
+    public int[] find(String query) {
+        if(query.isEmpty()) {
+            return new int[0];
+        }
+
+        String lower = toLowerCase(query);
+
+        if(positions == null) {
+            return scan(lower);
+        }
+
+        if(query.length() < GRAM) {
+            return scanIndexed(lower);
+        }
+
+        // only look where the rarest trigram occurs
+        int best = 0;
+        int bestBucket = bucket(lower, 0);
+        for(int i = 1; i + GRAM <= lower.length(); i++) {
+            int b = bucket(lower, i);
+            if(bucketSize(b) < bucketSize(bestBucket)) {
+                best = i;
+                bestBucket = b;
+            }
+        }
+
+        int[] matches = new int[16];
+        int count = 0;
+        for(int p = bucketStarts[bestBucket]; p < bucketStarts[bestBucket + 1]; p++) {
+            int start = positions[p] - best;
+            if(start >= 0 && matchesAt(start, lower)) {
+                if(count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = start;
+            }
+        }
+
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Narrow the matches of a query down to the matches of a longer query
+     * starting with it, e.g. as the user keeps typing.
+     *
+     * @param previous Matches of a prefix of the query.
+     * @param query Text to find.
+     * @return Offsets of the matches in the backing text, ascending.
+     */
+    public int[] refine(int[] previous, String query) {
+        String lower = toLowerCase(query);
+        int[] matches = new int[previous.length];
+        int count = 0;
+
+        for(int start : previous) {
+            if(matchesAt(start, lower)) {
+                matches[count++] = start;
+            }
+        }
+
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Return whether searches use the trigram index.
+     *
+     * @return Whether it's built.
+     */
+    public boolean isBuilt() {
+        return positions != null;
+    }
+
+    /**
+     * Index every trigram position, bucket by bucket, if the document is
+     * large enough to be worth it.
+     */
+    public void build() {
+        if(positions != null || text.length() < MIN_INDEXED_LENGTH) {
+            return;
+        }
+
+        lowerText = toLowerCase(text);
+        int count = Math.max(0, text.length() - GRAM + 1);
+        int[] buckets = new int[count];
+
+        // count each bucket's positions
+        bucketStarts = new int[(1 << BUCKET_BITS) + 1];
+        for(int i = 0; i < count; i++) {
+            buckets[i] = bucket(lowerText, i);
+            bucketStarts[buckets[i] + 1]++;
+        }
+        for(int b = 0; b < 1 << BUCKET_BITS; b++) {
+            bucketStarts[b + 1] += bucketStarts[b];
+        }
+
+        // file positions in order, so each bucket is ascending
+        positions = new int[count];
+        int[] next = Arrays.copyOf(bucketStarts, 1 << BUCKET_BITS);
+        for(int i = 0; i < count; i++) {
+            positions[next[buckets[i]]++] = i;
+        }
+    }
+
+    /**
+     * Scan the whole text for a query.
+     *
+     * @param lower Query, in lower case.
+     * @return Offsets of the matches, ascending.
+     */
+    private int[] scan(String lower) {
+        int[] matches = new int[16];
+        int count = 0;
+        char first = lower.charAt(0);
+
+        for(int i = 0; i + lower.length() <= text.length(); i++) {
+            if(Character.toLowerCase(text.charAt(i)) == first && matchesAt(i, lower)) {
+                if(count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = i;
+            }
+        }
+
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Scan the lower-cased text for a short query.
+     *
+     * @param lower Query, in lower case.
+     * @return Offsets of the matches, ascending.
+     */
+    private int[] scanIndexed(String lower) {
+        int[] matches = new int[16];
+        int count = 0;
+
+        for(int i = lowerText.indexOf(lower); i >= 0; i = lowerText.indexOf(lower, i + 1)) {
+            if(inElement(i, lower.length())) {
+                if(count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = i;
+            }
+        }
+
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Return whether a query matches at an offset, within one element.
+     *
+     * @param start Offset in the backing text.
+     * @param lower Query, in lower case.
+     * @return Whether it matches.
+     */
+    private boolean matchesAt(int start, String lower) {
+        if(start + lower.length() > text.length()) {
+            return false;
+        }
+
+        if(lowerText != null) {
+            if(!lowerText.startsWith(lower, start)) {
+                return false;
+            }
+        } else {
+            for(int i = 0; i < lower.length(); i++) {
+                if(Character.toLowerCase(text.charAt(start + i)) != lower.charAt(i)) {
+                    return false;
+                }
+            }
+        }
+
+        return inElement(start, lower.length());
+    }
+
+    /**
+     * Return whether a range of the backing text is inside one element's
+     * text.
+     *
+     * @param start Offset of the range.
+     * @param length Length of the range.
+     * @return Whether it's inside an element.
+     */
+    private boolean inElement(int start, int length) {
+        int element = document.elementAt(start);
+        return element >= 0 && start + length <= document.getStart(element) + document.getLength(element);
+    }
+
+    /**
+     * Return the number of positions in a bucket.
+     *
+     * @param bucket Bucket.
+     * @return Number of positions.
+     */
+    private int bucketSize(int bucket) {
+        return bucketStarts[bucket + 1] - bucketStarts[bucket];
+    }
+
+    /**
+     * Return the bucket for the trigram at an offset.
+     *
+     * @param s Text, in lower case.
+     * @param i Offset of the trigram.
+     * @return Bucket number.
+     */
+    private static int bucket(String s, int i) {
+        int hash = s.charAt(i) * 961 + s.charAt(i + 1) * 31 + s.charAt(i + 2);
+        return (hash * 0x9E3779B1) >>> (32 - BUCKET_BITS);
+    }
+
+    /**
+     * Lower-case a query one character at a time, as the text is compared.
+     *
+     * @param query Query.
+     * @return Query in lower case.
+     */
+    private static String toLowerCase(String query) {
+        char[] chars = query.toCharArray();
+        for(int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,111 @@
+package gemtext;
+
+import java.util.function.Consumer;
+
+/**
+ * Parses Gemtext as it arrives, a piece of text at a time. Elements are
+ * passed to a sink as soon as their line is complete.
+ *
+ * The result is the same as parsing the whole text at once: trailing line
+ * feeds don't start new lines, so empty lines are held back until a line
+ * with content follows them, and a preformatted block that's never closed
+ * is dropped.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class StreamingGemtextParser {
+    /**
+     * Parses complete lines.
+     */
+    private LineParser parser;
+
+    /**
+     * Text of the line that hasn't been ended yet.
+     */
+    private StringBuilder partial;
+
+    /**
+     * Empty lines held back until a non-empty line follows.
+     */
+    private int pendingEmpty;
+
+    /**
+     * Whether any text has been fed.
+     */
+    private boolean started;
+
+    /**
+     * Create a new StreamingGemtextParser.
+     *
+     * @param sink Receives each element as it's parsed.
+     */
+    public StreamingGemtextParser(Consumer<Gemtext> sink) {
+        parser = new LineParser(false, sink);
+        partial = new StringBuilder();
+    }
+
+    /**
+     * Parse the next piece of text. Lines may be split across pieces.
+     *
+     * @param text Next piece of text.
+     */
+    public void feed(String text) {
+        if(!text.isEmpty()) {
+            started = true;
+        }
+
+        int start = 0;
+        int newline;
+
+        while((newline = text.indexOf('\n', start)) >= 0) {
+            // join with the start of the line from the previous piece
+            if(partial.length() > 0) {
+                partial.append(text, start, newline);
+                line(partial.toString());
+                partial.setLength(0);
+            } else {
+                line(text.substring(start, newline));
+            }
+
+            start = newline + 1;
+        }
+
+        partial.append(text, start, text.length());
+    }
+
+    /**
+     * Parse whatever's left after the last piece.
+     */
+    public void finish() {
+        // empty text is a single blank line
+        if(!started) {
+            parser.parseLine("");
+            return;
+        }
+
+        if(partial.length() > 0) {
+            line(partial.toString());
+            partial.setLength(0);
+        }
+    }
+
+    /**
+     * Handle a complete line, holding back empty ones.
+     *
+     * @param line Line, without its line feed.
+     */
+    private void line(String line) {
+        if(line.isEmpty()) {
+            pendingEmpty++;
+            return;
+        }
+
+        // the empty lines weren't trailing after all
+        for(; pendingEmpty > 0; pendingEmpty--) {
+            parser.parseLine("");
+        }
+
+        parser.parseLine(line);
+    }
+}
@@ -0,0 +1,56 @@
+package gemtext;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Finds line feeds eight bytes at a time, using bit tricks on longs
+ * (SIMD within a register).
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+class SwarLineScanner extends LineScanner {
+    /**
+     * Reads little-endian longs out of a byte array.
+     */
+    private static final VarHandle LONGS =
+        MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * A line feed in every byte.
+     */
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+
+    /**
+     * 0x7F in every byte.
+     */
+    private static final long LOW_SEVEN = 0x7F7F7F7F7F7F7F7FL;
+
+    @Override
+    protected void findNewlines(byte[] content, int from, int to, NewlineSink sink) {
+        int index = from;
+
+        // eight bytes at a time
+        while(index + Long.BYTES <= to) {
+            long word = (long) LONGS.get(content, index) ^ NEWLINES;
+
+            // set the high bit of exactly the bytes that are zero (were line feeds)
+            long zeros = ~(((word & LOW_SEVEN) + LOW_SEVEN) | word | LOW_SEVEN);
+            while(zeros != 0) {
+                sink.newline(index + (Long.numberOfTrailingZeros(zeros) >>> 3));
+                zeros &= zeros - 1; // clear lowest set bit
+            }
+
+            index += Long.BYTES;
+        }
+
+        // the remaining bytes one at a time
+        for(; index < to; index++) {
+            if(content[index] == '\n') {
+                sink.newline(index);
+            }
+        }
+    }
+}
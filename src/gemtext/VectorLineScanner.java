@@ -0,0 +1,42 @@
+package gemtext;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Finds line feeds a vector at a time with the incubating Vector API.
+ * Compile and run with --add-modules jdk.incubator.vector.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+class VectorLineScanner extends LineScanner {
+    /**
+     * Widest byte vector the CPU supports, capped at 256 bits: converting
+     * 512-bit masks to longs measured slower than two 256-bit compares.
+     */
+    private static final VectorSpecies<Byte> SPECIES =
+        ByteVector.SPECIES_PREFERRED.vectorBitSize() > 256 ? ByteVector.SPECIES_256 : ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    protected void findNewlines(byte[] content, int from, int to, NewlineSink sink) {
+        int index = from;
+        int length = SPECIES.length();
+
+        // a vector at a time
+        for(; index + length <= to; index += length) {
+            long mask = ByteVector.fromArray(SPECIES, content, index).eq((byte) '\n').toLong();
+            while(mask != 0) {
+                sink.newline(index + Long.numberOfTrailingZeros(mask));
+                mask &= mask - 1; // clear lowest set bit
+            }
+        }
+
+        // the remaining bytes one at a time
+        for(; index < to; index++) {
+            if(content[index] == '\n') {
+                sink.newline(index);
+            }
+        }
+    }
+}
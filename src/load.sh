@@ -0,0 +1 @@
+java load.LoadTest "$@"
@@ -0,0 +1,338 @@
+package load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import network.BadURLException;
+import network.GeminiConnection;
+import network.LoopbackServer;
+import network.RequestFailedException;
+import network.URL;
+
+/**
+ * Puts load on a capsule and reports how long each part of a request took.
+ *
+ * URLs are read one per line from a file or standard input and requested
+ * in turn, so repeating a line weights the mix towards it; or, with
+ * --loopback, pages of a given size are served by an in-process
+ * {@link LoopbackServer}. Requests run for a duration either closed loop
+ * (each worker sends its next request when the last ends) or open loop (a
+ * fixed rate, however slowly the server answers).
+ *
+ * Each phase (DNS lookup, TCP connect, TLS handshake, first byte after the
+ * request, and the whole request) goes into a {@link LatencyHistogram}.
+ * Open loop, the whole request is timed from when it was due to start, so
+ * time spent queued behind a slow server counts against it rather than
+ * being left out.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class LoadTest {
+    /**
+     * Names of the phases timed, in report order.
+     */
+    private static final String[] PHASES = {"dns", "connect", "handshake", "first byte", "complete"};
+
+    /**
+     * Size of the buffer bodies are read through.
+     */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Usage message.
+     */
+    private static final String USAGE = String.join("\n",
+        "usage: java load.LoadTest [options] [url-file]",
+        "  url-file          URLs requested in turn, one per line (default: standard input)",
+        "  --loopback SIZE   request SIZE-byte pages from an in-process server instead",
+        "  --latency MS      loopback server delay before each response (default 0)",
+        "  --bandwidth B     loopback server bytes per second per response (default: no limit)",
+        "  --concurrency N   requests at once (default 8)",
+        "  --duration S      seconds to measure for (default 10)",
+        "  --warmup S        seconds to run first without measuring (default 2)",
+        "  --rate R          start R requests per second, however long they take",
+        "                    (default: start each as another finishes)",
+        "  --timeout MS      connect and read timeout (default 15000)");
+
+    /**
+     * URLs requested in turn.
+     */
+    private final List<String> urls;
+
+    /**
+     * Requests at once.
+     */
+    private final int concurrency;
+
+    /**
+     * Requests started per second, or 0 for closed loop.
+     */
+    private final double rate;
+
+    /**
+     * Connect and read timeout, in milliseconds.
+     */
+    private final int timeout;
+
+    /**
+     * Latency of each phase, in the order of {@link #PHASES}.
+     */
+    private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+
+    /**
+     * Responses by status.
+     */
+    private final AtomicLongArray statuses = new AtomicLongArray(100);
+
+    /**
+     * Requests that failed without a response, by reason.
+     */
+    private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Index of the next URL.
+     */
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * Body bytes received.
+     */
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * How long the requests ran, in nanoseconds.
+     */
+    private long elapsed;
+
+    /**
+     * Create a load test.
+     *
+     * @param urls URLs requested in turn.
+     * @param concurrency Requests at once.
+     * @param rate Requests started per second, or 0 for closed loop.
+     * @param timeout Connect and read timeout, in milliseconds.
+     */
+    LoadTest(List<String> urls, int concurrency, double rate, int timeout) {
+        this.urls = urls;
+        this.concurrency = concurrency;
+        this.rate = rate;
+        this.timeout = timeout;
+
+        for(int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Send requests for a while, then wait for the last to finish.
+     *
+     * @param duration How long to start requests for, in milliseconds.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    void run(long duration) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(duration);
+
+        if(rate > 0) {
+            // start each request on time, queueing it if every worker is busy
+            double interval = 1e9 / rate;
+            for(long i = 0; ; i++) {
+                long due = start + (long) (i * interval);
+                if(due >= end) {
+                    break;
+                }
+
+                long wait = due - System.nanoTime();
+                if(wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                workers.execute(() -> request(due));
+            }
+        } else {
+            // each worker starts its next request when the last ends
+            for(int i = 0; i < concurrency; i++) {
+                workers.execute(() -> {
+                    while(System.nanoTime() < end) {
+                        request(System.nanoTime());
+                    }
+                });
+            }
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        elapsed = System.nanoTime() - start;
+    }
+
+    /**
+     * Request the next URL and record how it went.
+     *
+     * @param due When the request was due to start (System.nanoTime()).
+     */
+    private void request(long due) {
+        String url = urls.get((int) (next.getAndIncrement() % urls.size()));
+
+        try(GeminiConnection connection = new GeminiConnection(new URL(url), timeout)) {
+            // read the body through, as a client would
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int read;
+            while((read = connection.read(buffer)) >= 0) {
+                size += read;
+            }
+            long done = System.nanoTime();
+
+            phases[0].record(connection.getResolveNanos());
+            phases[1].record(connection.getConnectNanos());
+            phases[2].record(connection.getHandshakeNanos());
+            phases[3].record(connection.getHeaderNanos());
+            phases[4].record(done - due);
+            statuses.incrementAndGet(connection.getStatus());
+            bytes.addAndGet(size);
+        } catch(RequestFailedException | BadURLException | IOException e) {
+            failures.computeIfAbsent(String.valueOf(e.getMessage()), reason -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * Describe the requests: throughput, latency percentiles by phase and
+     * outcomes.
+     *
+     * @return Report.
+     */
+    String report() {
+        long responses = phases[4].getCount();
+        long failed = 0;
+        for(AtomicLong count : failures.values()) {
+            failed += count.get();
+        }
+
+        double seconds = elapsed / 1e9;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%d requests in %.1f s: %.1f responses/s, %.2f MB/s, %d failed%n",
+            responses + failed, seconds, responses / seconds, bytes.get() / seconds / (1024 * 1024), failed));
+
+        // latency by phase
+        report.append(String.format("%n%-12s %10s %10s %10s %10s %10s%n", "phase (ms)", "mean", "p50", "p99", "p99.9", "max"));
+        for(int i = 0; i < PHASES.length; i++) {
+            LatencyHistogram phase = phases[i];
+            report.append(String.format("%-12s %10.3f %10.3f %10.3f %10.3f %10.3f%n", PHASES[i],
+                phase.getMean() / 1e6, phase.getPercentile(50) / 1e6, phase.getPercentile(99) / 1e6,
+                phase.getPercentile(99.9) / 1e6, phase.getMax() / 1e6));
+        }
+
+        // outcomes
+        report.append('\n');
+        for(int status = 0; status < statuses.length(); status++) {
+            if(statuses.get(status) > 0) {
+                report.append(String.format("status %02d: %d%n", status, statuses.get(status)));
+            }
+        }
+        for(Map.Entry<String, AtomicLong> failure : new TreeMap<>(failures).entrySet()) {
+            report.append(String.format("failed (%s): %d%n", failure.getKey(), failure.getValue().get()));
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Run a load test from the command line.
+     *
+     * @param args Options, then an optional file of URLs.
+     */
+    public static void main(String[] args) throws Exception {
+        int concurrency = 8;
+        long duration = 10000;
+        long warmup = 2000;
+        double rate = 0;
+        int timeout = 15000;
+        int loopback = -1;
+        long latency = 0;
+        long bandwidth = 0;
+        Path input = null;
+
+        // parse options
+        boolean valid = true;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--loopback": loopback = Integer.parseInt(args[++i]); break;
+                    case "--latency": latency = Long.parseLong(args[++i]); break;
+                    case "--bandwidth": bandwidth = Long.parseLong(args[++i]); break;
+                    case "--concurrency": concurrency = Integer.parseInt(args[++i]); break;
+                    case "--duration": duration = (long) (Double.parseDouble(args[++i]) * 1000); break;
+                    case "--warmup": warmup = (long) (Double.parseDouble(args[++i]) * 1000); break;
+                    case "--rate": rate = Double.parseDouble(args[++i]); break;
+                    case "--timeout": timeout = Integer.parseInt(args[++i]); break;
+                    default:
+                        if(args[i].startsWith("--") || input != null) {
+                            valid = false;
+                        } else if(!args[i].equals("-")) {
+                            input = Path.of(args[i]);
+                        }
+                }
+            }
+        } catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            valid = false;
+        }
+
+        if(!valid || concurrency < 1 || duration <= 0 || rate < 0) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        // URLs from a file, or a page on a loopback server
+        List<String> urls = new ArrayList<>();
+        LoopbackServer server = null;
+        if(loopback >= 0) {
+            server = new LoopbackServer().serve("/", new LoopbackServer.Script(20, "text/gemini")
+                .withBodySize(loopback).withLatency(latency).withBandwidth(bandwidth));
+            urls.add(server.url("/"));
+        } else {
+            try(BufferedReader lines = input == null
+                    ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                    : Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                String line;
+                while((line = lines.readLine()) != null) {
+                    line = line.strip();
+                    if(!line.isEmpty() && !line.startsWith("#")) {
+                        urls.add(line);
+                    }
+                }
+            }
+        }
+
+        if(urls.isEmpty()) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        // warm up the JIT, connections and DNS cache, then measure afresh
+        if(warmup > 0) {
+            new LoadTest(urls, concurrency, rate, timeout).run(warmup);
+        }
+        LoadTest test = new LoadTest(urls, concurrency, rate, timeout);
+        test.run(duration);
+        System.out.print(test.report());
+
+        if(server != null) {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1 @@
+java mirror.Mirror "$@"
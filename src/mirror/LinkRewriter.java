@@ -0,0 +1,63 @@
+package mirror;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.function.UnaryOperator;
+
+import gemtext.LinkExtractor;
+import network.TextDecoder;
+
+/**
+ * Rewrites the link targets in a Gemtext body, leaving every other byte as
+ * it was. Links are found with a {@link LinkExtractor}, so only link lines
+ * outside preformatted blocks are touched.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class LinkRewriter {
+    /**
+     * Not instantiable.
+     */
+    private LinkRewriter() {
+    }
+
+    /**
+     * Rewrite a body's link targets.
+     *
+     * @param body Gemtext body.
+     * @param charset Charset it's encoded in. Bodies in charsets that
+     *                aren't ASCII-compatible are returned as they are.
+     * @param rewrite Gives the new target for each target, or null to keep it.
+     * @return Rewritten body, or the same array if nothing changed.
+     */
+    public static byte[] rewrite(byte[] body, Charset charset, UnaryOperator<String> rewrite) {
+        if(!TextDecoder.isAsciiCompatible(charset)) {
+            return body;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length + body.length / 8);
+        int[] copied = {0};
+
+        new LinkExtractor().extract(body, 0, body.length, (content, urlStart, urlEnd, captionStart, captionEnd) -> {
+            String target = TextDecoder.decode(content, urlStart, urlEnd - urlStart, charset);
+            String replacement = rewrite.apply(target);
+            if(replacement == null || replacement.equals(target)) {
+                return;
+            }
+
+            // copy up to the target, then the new target
+            out.write(content, copied[0], urlStart - copied[0]);
+            byte[] encoded = replacement.getBytes(charset);
+            out.write(encoded, 0, encoded.length);
+            copied[0] = urlEnd;
+        });
+
+        if(copied[0] == 0) {
+            return body;
+        }
+
+        out.write(body, copied[0], body.length - copied[0]);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,295 @@
+package mirror;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What a mirror holds: for each URL, the hash and size of the body last
+ * fetched, when it was fetched and last changed, and how long to wait
+ * before fetching it again.
+ *
+ * The wait adapts to how often a page changes. It starts at
+ * {@link #INITIAL_INTERVAL}, doubles each time the page is found
+ * unchanged and halves each time it has changed, between
+ * {@link #MIN_INTERVAL} and {@link #MAX_INTERVAL}.
+ *
+ * Stored as a tab-separated file, rewritten all at once on saving.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class Manifest {
+    /**
+     * Shortest wait between fetches of a page.
+     */
+    public static final long MIN_INTERVAL = 60 * 60 * 1000L;
+
+    /**
+     * Wait before fetching a new page again.
+     */
+    public static final long INITIAL_INTERVAL = 24 * 60 * 60 * 1000L;
+
+    /**
+     * Longest wait between fetches of a page.
+     */
+    public static final long MAX_INTERVAL = 30 * 24 * 60 * 60 * 1000L;
+
+    /**
+     * A mirrored URL.
+     */
+    public static final class Entry {
+        /**
+         * URL.
+         */
+        private final String url;
+
+        /**
+         * Hash of the body, in hex.
+         */
+        private String hash;
+
+        /**
+         * Body size in bytes.
+         */
+        private long size;
+
+        /**
+         * When it was last fetched (ms since the epoch).
+         */
+        private long fetched;
+
+        /**
+         * When its body last changed (ms since the epoch).
+         */
+        private long changed;
+
+        /**
+         * Wait before fetching it again, in milliseconds.
+         */
+        private long interval;
+
+        /**
+         * Create an entry.
+         *
+         * @param url URL.
+         * @param hash Body hash.
+         * @param size Body size.
+         * @param fetched When last fetched.
+         * @param changed When last changed.
+         * @param interval Wait before the next fetch.
+         */
+        Entry(String url, String hash, long size, long fetched, long changed, long interval) {
+            this.url = url;
+            this.hash = hash;
+            this.size = size;
+            this.fetched = fetched;
+            this.changed = changed;
+            this.interval = interval;
+        }
+
+        /**
+         * Return the URL.
+         *
+         * @return URL.
+         */
+        public String getURL() {
+            return url;
+        }
+
+        /**
+         * Return the hash of the body last fetched.
+         *
+         * @return Hash, in hex.
+         */
+        public synchronized String getHash() {
+            return hash;
+        }
+
+        /**
+         * Return the size of the body last fetched.
+         *
+         * @return Size in bytes.
+         */
+        public synchronized long getSize() {
+            return size;
+        }
+
+        /**
+         * Return when the page was last fetched.
+         *
+         * @return Milliseconds since the epoch.
+         */
+        public synchronized long getFetched() {
+            return fetched;
+        }
+
+        /**
+         * Return when the page last changed.
+         *
+         * @return Milliseconds since the epoch.
+         */
+        public synchronized long getChanged() {
+            return changed;
+        }
+
+        /**
+         * Return the wait before fetching the page again.
+         *
+         * @return Milliseconds.
+         */
+        public synchronized long getInterval() {
+            return interval;
+        }
+
+        /**
+         * Return whether the page is due to be fetched again.
+         *
+         * @param now Current time (ms since the epoch).
+         * @return Whether it's due.
+         */
+        public synchronized boolean isDue(long now) {
+            return now >= fetched + interval;
+        }
+
+        /**
+         * Record a fetch, adapting the wait before the next one.
+         *
+         * @param newHash Hash of the body fetched.
+         * @param newSize Size of the body fetched.
+         * @param now Current time (ms since the epoch).
+         * @return Whether the body changed.
+         */
+        public synchronized boolean record(String newHash, long newSize, long now) {
+            boolean isChanged = !newHash.equals(hash);
+
+            if(isChanged) {
+                interval = Math.max(MIN_INTERVAL, interval / 2);
+                changed = now;
+            } else {
+                interval = Math.min(MAX_INTERVAL, interval * 2);
+            }
+
+            hash = newHash;
+            size = newSize;
+            fetched = now;
+            return isChanged;
+        }
+
+        /**
+         * Write the entry as a line of the manifest.
+         *
+         * @return Tab-separated fields.
+         */
+        synchronized String toLine() {
+            return url + "\t" + hash + "\t" + size + "\t" + fetched + "\t" + changed + "\t" + interval;
+        }
+    }
+
+    /**
+     * Manifest file.
+     */
+    private final Path file;
+
+    /**
+     * Entries by URL.
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Load a manifest, or start an empty one if the file doesn't exist.
+     *
+     * @param file Manifest file.
+     * @throws IOException If it exists but can't be read.
+     */
+    public Manifest(Path file) throws IOException {
+        this.file = file;
+
+        if(!Files.exists(file)) {
+            return;
+        }
+
+        for(String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            if(line.startsWith("#") || fields.length != 6) {
+                continue;
+            }
+
+            try {
+                entries.put(fields[0], new Entry(fields[0], fields[1], Long.parseLong(fields[2]),
+                    Long.parseLong(fields[3]), Long.parseLong(fields[4]), Long.parseLong(fields[5])));
+            } catch(NumberFormatException e) {
+                // fall through
+            }
+        }
+    }
+
+    /**
+     * Return a URL's entry.
+     *
+     * @param url URL.
+     * @return Entry, or null if it isn't mirrored.
+     */
+    public Entry get(String url) {
+        return entries.get(url);
+    }
+
+    /**
+     * Record the first fetch of a URL.
+     *
+     * @param url URL.
+     * @param hash Body hash.
+     * @param size Body size.
+     * @param now Current time (ms since the epoch).
+     * @return New entry.
+     */
+    public Entry add(String url, String hash, long size, long now) {
+        Entry entry = new Entry(url, hash, size, now, now, INITIAL_INTERVAL);
+        entries.put(url, entry);
+        return entry;
+    }
+
+    /**
+     * Forget a URL, e.g. when it's gone.
+     *
+     * @param url URL.
+     */
+    public void remove(String url) {
+        entries.remove(url);
+    }
+
+    /**
+     * Return every entry.
+     *
+     * @return Entries, in no particular order.
+     */
+    public List<Entry> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Write the manifest out, replacing the file all at once.
+     *
+     * @throws IOException If it can't be written.
+     */
+    public synchronized void save() throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try(BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write("# url\thash\tsize\tfetched\tchanged\tinterval\n");
+            for(Entry entry : entries.values()) {
+                writer.write(entry.toLine());
+                writer.newLine();
+            }
+        }
+
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,446 @@
+package mirror;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import browser.Downloader;
+import crawler.Frontier;
+import crawler.RobotsRules;
+import network.BadURLException;
+import network.GeminiConnection;
+import network.RequestFailedException;
+import network.URL;
+
+/**
+ * Keeps local copies of capsules up to date, from the command line.
+ *
+ * Everything under each root URL's folder is copied to directory/host/path
+ * (see {@link Downloader#localPath}), with links between mirrored pages
+ * rewritten to relative paths so the copy can be browsed locally. A
+ * {@link Manifest} in the directory records each URL's body hash and
+ * fetch history. Later runs only fetch pages that are due by their
+ * adaptive schedule (plus pages newly linked from those), and a body whose
+ * hash hasn't changed is never written again.
+ *
+ * Requests are spread over a {@link Frontier}, so several capsules are
+ * mirrored at once but each host sees one request at a time, and each
+ * host's robots.txt rules for archivers are honoured.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class Mirror {
+    /**
+     * Name of the manifest file in the mirror directory.
+     */
+    public static final String MANIFEST_NAME = ".mirror-manifest";
+
+    /**
+     * Robots.txt agents a mirror answers to.
+     */
+    public static final String[] AGENTS = {"archiver"};
+
+    /**
+     * Usage message.
+     */
+    private static final String USAGE = String.join("\n",
+        "usage: java mirror.Mirror [options] directory root-url...",
+        "  --threads N    concurrent requests, one per host (default 4)",
+        "  --delay MS     wait between requests to one host (default 250)",
+        "  --timeout MS   connect and read timeout (default 15000)",
+        "  --all          fetch every page, even those not due");
+
+    /**
+     * Mirror directory.
+     */
+    private final Path directory;
+
+    /**
+     * What's been mirrored.
+     */
+    private final Manifest manifest;
+
+    /**
+     * URLs to fetch this run.
+     */
+    private final Frontier frontier;
+
+    /**
+     * Folder URLs of the roots; only URLs under them are mirrored.
+     */
+    private final List<String> scopes = new ArrayList<>();
+
+    /**
+     * Connect and read timeout, in milliseconds.
+     */
+    private int timeout = 15000;
+
+    /**
+     * Where each URL's outcome is listed.
+     */
+    private PrintStream out = System.out;
+
+    /**
+     * Pages fetched for the first time.
+     */
+    private final AtomicInteger added = new AtomicInteger();
+
+    /**
+     * Pages fetched that had changed.
+     */
+    private final AtomicInteger changed = new AtomicInteger();
+
+    /**
+     * Pages fetched that hadn't changed.
+     */
+    private final AtomicInteger unchanged = new AtomicInteger();
+
+    /**
+     * Pages not due, so not fetched.
+     */
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    /**
+     * Pages that are gone, so were removed.
+     */
+    private final AtomicInteger removed = new AtomicInteger();
+
+    /**
+     * Requests that failed.
+     */
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * Body bytes received.
+     */
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Open a mirror directory.
+     *
+     * @param directory Mirror directory, created if needed.
+     * @param delay Wait between requests to one host, in milliseconds.
+     * @throws IOException If the directory or manifest can't be read.
+     */
+    public Mirror(Path directory, long delay) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        manifest = new Manifest(directory.resolve(MANIFEST_NAME));
+        frontier = new Frontier(delay);
+    }
+
+    /**
+     * Set the connect and read timeout.
+     *
+     * @param timeout Timeout in milliseconds.
+     */
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Set where each URL's outcome is listed.
+     *
+     * @param out Stream.
+     */
+    public void setOutput(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Return the manifest.
+     *
+     * @return Manifest.
+     */
+    public Manifest getManifest() {
+        return manifest;
+    }
+
+    /**
+     * Mirror everything under some roots: fetch what's due, and anything
+     * newly linked from it.
+     *
+     * @param roots Root URLs.
+     * @param threads Number of requests at once.
+     * @param all Whether to fetch pages that aren't due too.
+     * @throws IOException If the manifest can't be saved.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void run(List<String> roots, int threads, boolean all) throws IOException, InterruptedException {
+        for(String root : roots) {
+            scopes.add(new URL(root).getFolderURL());
+        }
+
+        // queue what's due; remember the rest so links to it are skipped
+        long now = System.currentTimeMillis();
+        for(Manifest.Entry entry : manifest.getEntries()) {
+            if(!inScope(entry.getURL())) {
+                continue;
+            }
+
+            if(all || entry.isDue(now)) {
+                enqueue(entry.getURL());
+            } else {
+                frontier.restoreSeen(entry.getURL());
+                skipped.incrementAndGet();
+            }
+        }
+        for(String root : roots) {
+            enqueue(root);
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for(int i = 0; i < threads; i++) {
+            workers.execute(this::work);
+        }
+        workers.shutdown();
+
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            manifest.save();
+        }
+    }
+
+    /**
+     * Take URLs from the frontier until there are none left.
+     */
+    private void work() {
+        try {
+            Frontier.Task task;
+            while((task = frontier.take()) != null) {
+                // robots.txt comes first on every host
+                RobotsRules robots = frontier.getRobots(task.getHost());
+                if(robots == null) {
+                    frontier.setRobots(task.getHost(), RobotsRules.fetch(task.getHost(), timeout, AGENTS));
+                    frontier.retry(task);
+                } else if(!robots.isAllowed(RobotsRules.path(task.getURL()))) {
+                    frontier.finish(task, false);
+                } else {
+                    try {
+                        fetch(task.getURL());
+                    } finally {
+                        frontier.finish(task, true);
+                    }
+                }
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fetch a URL and update its local copy if it changed.
+     *
+     * @param url URL.
+     */
+    private void fetch(String url) {
+        try(GeminiConnection connection = new GeminiConnection(new URL(url), timeout)) {
+            int status = connection.getStatus();
+            Path file = Downloader.localPath(directory, url);
+
+            // follow redirects within the mirror
+            if(status / 10 == 3) {
+                String target = URL.resolve(url, connection.getHeaderInfo());
+                if(target != null) {
+                    enqueue(target);
+                }
+                return;
+            }
+
+            // gone for good
+            if(status == 51 || status == 52) {
+                boolean wasMirrored = manifest.get(url) != null;
+                manifest.remove(url);
+                Files.deleteIfExists(file);
+                if(wasMirrored) {
+                    removed.incrementAndGet();
+                    out.println("removed\t" + url);
+                }
+                return;
+            }
+
+            // anything else might be temporary; try again next time
+            if(status / 10 != 2) {
+                failed.incrementAndGet();
+                out.println("failed\t" + url + "\t" + status + " " + connection.getHeaderInfo());
+                return;
+            }
+
+            byte[] body = connection.readBody();
+            bytes.addAndGet(body.length);
+            String hash = hash(body);
+            long now = System.currentTimeMillis();
+
+            // links are followed (and rewritten) whether or not the page changed
+            byte[] local = body;
+            if(connection.getMediaType().getMimeType().equals("text/gemini")) {
+                local = rewriteLinks(url, file, body, connection.getMediaType().getCharset());
+            }
+
+            Manifest.Entry entry = manifest.get(url);
+            boolean isNew = entry == null;
+            boolean isChanged = isNew ? true : entry.record(hash, body.length, now);
+            if(isNew) {
+                manifest.add(url, hash, body.length, now);
+            }
+
+            // only write what changed, or went missing locally
+            if(isChanged || !Files.exists(file)) {
+                Downloader.save(file, local);
+            }
+
+            (isNew ? added : isChanged ? changed : unchanged).incrementAndGet();
+            out.println((isNew ? "added" : isChanged ? "changed" : "unchanged") + "\t" + url);
+        } catch(RequestFailedException | BadURLException | IOException e) {
+            failed.incrementAndGet();
+            out.println("failed\t" + url + "\t" + e.getMessage());
+        }
+    }
+
+    /**
+     * Queue the pages a Gemtext body links to within the mirror, and point
+     * those links at their local copies.
+     *
+     * @param url URL of the page.
+     * @param file Local copy of the page.
+     * @param body Body.
+     * @param charset Charset of the body.
+     * @return Body with rewritten links.
+     */
+    private byte[] rewriteLinks(String url, Path file, byte[] body, Charset charset) {
+        return LinkRewriter.rewrite(body, charset, target -> {
+            String resolved = URL.resolve(url, target);
+            if(resolved == null) {
+                return null;
+            }
+
+            try {
+                String normalized = new URL(resolved).getURL();
+                if(!inScope(normalized)) {
+                    return resolved;
+                }
+
+                enqueue(normalized);
+                Path linked = Downloader.localPath(directory, normalized);
+                return file.getParent().relativize(linked).toString().replace('\\', '/');
+            } catch(BadURLException | IOException e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Queue a URL if it's within the mirror and hasn't been seen this run.
+     *
+     * @param url URL.
+     */
+    private void enqueue(String url) {
+        try {
+            URL parsed = new URL(url);
+            if(inScope(parsed.getURL())) {
+                frontier.add(parsed.getURL(), parsed.getAuthority(), 0);
+            }
+        } catch(BadURLException e) {
+            // fall through
+        }
+    }
+
+    /**
+     * Return whether a URL is under one of the roots.
+     *
+     * @param url Normalized URL.
+     * @return Whether it's mirrored.
+     */
+    private boolean inScope(String url) {
+        for(String scope : scopes) {
+            if(url.startsWith(scope)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Summarize this run.
+     *
+     * @return Counts of each outcome.
+     */
+    public String summary() {
+        return String.format("%d added, %d changed, %d unchanged, %d not due, %d removed, %d failed, %.1f KB fetched",
+            added.get(), changed.get(), unchanged.get(), skipped.get(), removed.get(), failed.get(), bytes.get() / 1024.0);
+    }
+
+    /**
+     * Hash a body.
+     *
+     * @param body Body.
+     * @return SHA-256 hash, in hex.
+     */
+    static String hash(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Mirror capsules from the command line.
+     *
+     * @param args Options, the mirror directory, then root URLs.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = 4;
+        long delay = 250;
+        int timeout = 15000;
+        boolean all = false;
+        List<String> positional = new ArrayList<>();
+
+        // parse options
+        boolean valid = true;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--threads": threads = Integer.parseInt(args[++i]); break;
+                    case "--delay": delay = Long.parseLong(args[++i]); break;
+                    case "--timeout": timeout = Integer.parseInt(args[++i]); break;
+                    case "--all": all = true; break;
+                    default:
+                        valid &= !args[i].startsWith("--");
+                        positional.add(args[i]);
+                }
+            }
+        } catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            valid = false;
+        }
+
+        List<String> roots = positional.size() < 2 ? List.of() : positional.subList(1, positional.size());
+        for(String root : roots) {
+            valid &= URL.isValidURL(root.toLowerCase());
+        }
+
+        if(!valid || roots.isEmpty() || threads < 1) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        Mirror mirror = new Mirror(Path.of(positional.get(0)), delay);
+        mirror.setTimeout(timeout);
+        mirror.run(roots, threads, all);
+        System.err.println(mirror.summary());
+    }
+}
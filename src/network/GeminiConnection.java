@@ -0,0 +1,364 @@
+package network;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+
+/**
+ * An open connection to a Gemini server. The response header is read when
+ * the connection is made; the body is left on the socket to be read as it
+ * arrives, rather than all at once as {@link GeminiRequest} does.
+ *
+ * If a proxy is set, every connection goes to it instead, sending the full
+ * URL as usual; a Gemini proxy fetches whatever host the URL names.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class GeminiConnection implements Closeable {
+    /**
+     * End-of-line characters (CRLF).
+     */
+    private static final String EOL = "\r\n";
+
+    /**
+     * Longest header allowed: status, space, 1024 bytes of META and CRLF.
+     */
+    private static final int MAX_HEADER_LENGTH = 2 + 1 + 1024 + 2;
+
+    /**
+     * Proxy every connection goes through, or null to connect directly.
+     */
+    private static volatile InetSocketAddress proxy;
+
+    /**
+     * Socket connected to the server.
+     */
+    private SSLSocket socket;
+
+    /**
+     * Response body stream, positioned after the header.
+     */
+    private InputStream in;
+
+    /**
+     * URL requested.
+     */
+    private String url;
+
+    /**
+     * Status returned by the server.
+     */
+    private int status;
+
+    /**
+     * Header information (META) returned by the server.
+     */
+    private String meta;
+
+    /**
+     * Time taken to look up the host, in nanoseconds.
+     */
+    private long resolveNanos;
+
+    /**
+     * Time taken to open the TCP connection, in nanoseconds.
+     */
+    private long connectNanos;
+
+    /**
+     * Time taken by the TLS handshake, in nanoseconds.
+     */
+    private long handshakeNanos;
+
+    /**
+     * Time from sending the request to reading the header, in nanoseconds.
+     */
+    private long headerNanos;
+
+    /**
+     * Connect to a server, send a request and read the response header.
+     *
+     * @param url URL (gemini://hostname/resource) to request.
+     * @throws RequestFailedException If the connection fails or the header is malformed.
+     */
+    public GeminiConnection(URL url) throws RequestFailedException {
+        this(url, 0);
+    }
+
+    /**
+     * Connect to a server, send a request and read the response header,
+     * giving up if the server is slow to connect or to send anything.
+     *
+     * @param url URL (gemini://hostname/resource) to request.
+     * @param timeout Longest wait in milliseconds to connect and for each read, or 0 to wait forever.
+     * @throws RequestFailedException If the connection fails, times out or the header is malformed.
+     */
+    public GeminiConnection(URL url, int timeout) throws RequestFailedException {
+        this.url = url.getURL();
+
+        SSLContext context;
+
+        // attempt to create the SSL context
+        try {
+            context = GeminiRequest.createSSLContext();
+        }
+        // failed to create SSL context
+        catch(KeyManagementException | NoSuchAlgorithmException e) {
+            throw new RequestFailedException("Failed to create SSL context.");
+        }
+
+        // attempt to open the SSL client socket
+        long start = System.nanoTime();
+        try {
+            socket = (SSLSocket) context.getSocketFactory().createSocket();
+
+            // look the host up (resolved here, so it can be timed)
+            InetSocketAddress via = proxy;
+            InetSocketAddress address = via == null ? new InetSocketAddress(url.getHostname(), url.getPort())
+                : new InetSocketAddress(via.getHostString(), via.getPort());
+            if(address.isUnresolved()) {
+                throw new UnknownHostException(address.getHostString());
+            }
+            long resolved = System.nanoTime();
+            resolveNanos = resolved - start;
+
+            socket.connect(address, timeout);
+            socket.setSoTimeout(timeout);
+            connectNanos = System.nanoTime() - resolved;
+        }
+        // failed: unknown host
+        catch(UnknownHostException e) {
+            close();
+            throw new RequestFailedException("Unknown host: " + url.getHostname());
+        }
+        // failed: other reason
+        catch(IOException e) {
+            close();
+            throw new RequestFailedException("Failed to open SSL socket.");
+        }
+
+        // send the request and read the header
+        try {
+            long connected = System.nanoTime();
+            socket.startHandshake();
+            long handshaken = System.nanoTime();
+            handshakeNanos = handshaken - connected;
+
+            OutputStream out = socket.getOutputStream();
+            out.write((this.url + EOL).getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            in = new BufferedInputStream(socket.getInputStream());
+            parseHeader(readHeader());
+            headerNanos = System.nanoTime() - handshaken;
+        }
+        // failed to send request or receive header
+        catch(IOException e) {
+            close();
+            throw new RequestFailedException("Failed to communicate with the server.");
+        }
+        // malformed header
+        catch(RequestFailedException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Send every later connection through a proxy, or directly again.
+     *
+     * @param host Proxy host, or null to connect directly.
+     * @param port Proxy port.
+     */
+    public static void setProxy(String host, int port) {
+        proxy = host == null ? null : InetSocketAddress.createUnresolved(host, port);
+    }
+
+    /**
+     * Return the proxy connections go through.
+     *
+     * @return Proxy as host:port, or null if connecting directly.
+     */
+    public static String getProxy() {
+        InetSocketAddress via = proxy;
+        return via == null ? null : via.getHostString() + ":" + via.getPort();
+    }
+
+    /**
+     * Return the URL requested.
+     *
+     * @return URL requested.
+     */
+    public String url() {
+        return url;
+    }
+
+    /**
+     * Return the status returned by the server.
+     *
+     * @return The status returned by the server.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Return the header information (META) returned by the server.
+     *
+     * @return The header information returned by the server.
+     */
+    public String getHeaderInfo() {
+        return meta;
+    }
+
+    /**
+     * Return the media type of a successful response.
+     *
+     * @return The media type parsed from the header.
+     */
+    public MediaType getMediaType() {
+        return new MediaType(meta);
+    }
+
+    /**
+     * Return how long looking up the host took.
+     *
+     * @return Nanoseconds.
+     */
+    public long getResolveNanos() {
+        return resolveNanos;
+    }
+
+    /**
+     * Return how long opening the TCP connection took.
+     *
+     * @return Nanoseconds.
+     */
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * Return how long the TLS handshake took.
+     *
+     * @return Nanoseconds.
+     */
+    public long getHandshakeNanos() {
+        return handshakeNanos;
+    }
+
+    /**
+     * Return how long the server took to answer: from sending the request
+     * to reading the response header, which holds the first bytes back.
+     *
+     * @return Nanoseconds.
+     */
+    public long getHeaderNanos() {
+        return headerNanos;
+    }
+
+    /**
+     * Read the next part of the body.
+     *
+     * @param buffer Buffer to read into.
+     * @return Number of bytes read, or -1 at the end of the body.
+     * @throws IOException If reading fails.
+     */
+    public int read(byte[] buffer) throws IOException {
+        return in.read(buffer);
+    }
+
+    /**
+     * Read the rest of the body.
+     *
+     * @return Remaining body bytes.
+     * @throws IOException If reading fails.
+     */
+    public byte[] readBody() throws IOException {
+        return in.readAllBytes();
+    }
+
+    /**
+     * Close the connection. A read blocked on another thread fails.
+     */
+    @Override
+    public void close() {
+        if(socket == null) {
+            return;
+        }
+
+        try {
+            socket.close();
+        } catch(IOException e) {
+            // nothing left to do with it
+        }
+    }
+
+    /**
+     * Read the header line, without its CRLF.
+     *
+     * @return Header bytes.
+     * @throws IOException If reading fails.
+     */
+    private byte[] readHeader() throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+
+        int b;
+        while((b = in.read()) != '\n') {
+            if(b < 0 || header.size() >= MAX_HEADER_LENGTH) {
+                throw new RequestFailedException("Malformed response header.");
+            }
+            header.write(b);
+        }
+
+        // drop the carriage return
+        byte[] bytes = header.toByteArray();
+        int length = bytes.length;
+        if(length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+
+        byte[] line = new byte[length];
+        System.arraycopy(bytes, 0, line, 0, length);
+        return line;
+    }
+
+    /**
+     * Split the header line into status and META.
+     *
+     * @param header Header bytes, without the CRLF.
+     */
+    private void parseHeader(byte[] header) {
+        if(header.length < 2 || !isDigit(header[0]) || !isDigit(header[1])) {
+            throw new RequestFailedException("Malformed response header.");
+        }
+
+        status = (header[0] - '0') * 10 + (header[1] - '0');
+
+        // skip the space between the status and META (header is UTF-8)
+        int start = header.length > 2 && header[2] == ' ' ? 3 : 2;
+        meta = new String(header, start, header.length - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return whether a byte is an ASCII digit.
+     *
+     * @param b Byte.
+     * @return Whether it's a digit.
+     */
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -4,8 +4,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocket;
@@ -19,14 +21,9 @@ import java.security.SecureRandom;
  * A Gemini request.
  * 
  * @author Hayden Walker
- * @version 2024-02-26
+ * @version 2026-10-19
  */
 public class GeminiRequest {
-    /**
-     * The port used for Gemini requests.
-     */
-    private static final int GEMINI_PORT = 1965;
-
     /**
      * End-of-line characters (CRLF).
      */
@@ -38,7 +35,12 @@ public class GeminiRequest {
     private static final int STATUS_DIGITS = 2;
 
     /**
-     * Content returned by the server.
+     * Body returned by the server.
+     */
+    private byte[] body;
+
+    /**
+     * Boxed copy of the body, created on demand by getContent().
      */
     private Byte[] content;
 
@@ -65,6 +67,18 @@ public class GeminiRequest {
      * @throws RequestFailedException If the server rejects the request or any other issue is encountered.
      */
     public GeminiRequest(String host, String url) throws RequestFailedException {
+        this(host, URL.DEFAULT_PORT, url);
+    }
+
+    /**
+     * Create a new Gemini request to a server on any port.
+     * 
+     * @param host Server to send request to.
+     * @param port Port the server listens on.
+     * @param url Resource to request.
+     * @throws RequestFailedException If the server rejects the request or any other issue is encountered.
+     */
+    public GeminiRequest(String host, int port, String url) throws RequestFailedException {
 
         SSLContext context;
         SSLSocket socket;
@@ -81,7 +95,7 @@ public class GeminiRequest {
         // attempt to open the SSL client socket
         try {
             SSLSocketFactory factory = context.getSocketFactory();
-            socket = (SSLSocket) factory.createSocket(host, GEMINI_PORT);        
+            socket = (SSLSocket) factory.createSocket(host, port);        
         } 
         // failed: unknown host
         catch(UnknownHostException e) {
@@ -124,7 +138,33 @@ public class GeminiRequest {
      * @param url URL (gemini://hostname/resource) to request.
      */
     public GeminiRequest(URL url) {
-        this(url.getHostname(), url.getURL());
+        this(url.getHostname(), url.getPort(), url.getURL());
+    }
+
+    /**
+     * Create a request that's already been answered, for a response read
+     * some other way.
+     */
+    private GeminiRequest() {
+    }
+
+    /**
+     * Create a request from a whole response that's already been read.
+     * 
+     * @param url URL that was requested.
+     * @param returned Bytes returned by the server: header, then body.
+     * @return Request holding the response.
+     * @throws RequestFailedException If the header is malformed.
+     */
+    public static GeminiRequest fromResponse(String url, byte[] returned) throws RequestFailedException {
+        GeminiRequest request = new GeminiRequest();
+        try {
+            request.parseContent(returned);
+        } catch(ArrayIndexOutOfBoundsException e) {
+            throw new RequestFailedException("Malformed response header.");
+        }
+        request.url = url;
+        return request;
     }
 
     /**
@@ -133,9 +173,35 @@ public class GeminiRequest {
      * @return The content returned by the server.
      */
     public Byte[] getContent() {
+        // box the body the first time it's asked for
+        if(content == null && body != null) {
+            content = new Byte[body.length];
+            for(int i = 0; i < body.length; i++) {
+                content[i] = body[i];
+            }
+        }
+
         return content;
     }
 
+    /**
+     * Return the body returned by the server, without boxing it.
+     * 
+     * @return The body returned by the server.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Return the media type of a successful response.
+     * 
+     * @return The media type parsed from the header.
+     */
+    public MediaType getMediaType() {
+        return new MediaType(type);
+    }
+
     /**
      * Return the status returned by the server.
      * 
@@ -163,7 +229,7 @@ public class GeminiRequest {
      * @throws KeyManagementException If initialization of SSLContext fails.
      * @throws NoSuchAlgorithmException If SSLContext doesn't support TLS.
      */
-    private SSLContext createSSLContext() throws NoSuchAlgorithmException, KeyManagementException {
+    static SSLContext createSSLContext() throws NoSuchAlgorithmException, KeyManagementException {
         // create an SSLContext for TLS
         SSLContext context = SSLContext.getInstance("TLS");
 
@@ -198,6 +264,7 @@ public class GeminiRequest {
         // initialize instance variables to default values
         status = 0;
         type = "";
+        body = null;
         content = null;
 
         int index = 0; // start parsing at first byte
@@ -214,21 +281,18 @@ public class GeminiRequest {
             index++;
         }
 
-        // parse the content type
-        StringBuilder contentType = new StringBuilder();
-        while((char) returned[index] != '\r') { // advance until carriage return
-            contentType.append((char) returned[index++]);
+        // parse the content type (header is UTF-8)
+        int start = index;
+        while(returned[index] != '\r') { // advance until carriage return
+            index++;
         }
-        type = contentType.toString();
+        type = new String(returned, start, index - start, StandardCharsets.UTF_8);
         
         index++; // jump over the carriage return character
         index++; // jump over the line feed character
 
         // load the content
-        content = new Byte[returned.length - index];
-        for(int i = 0; i < content.length; i++) {
-            content[i] = returned[index++];
-        }
+        body = Arrays.copyOfRange(returned, index, returned.length);
     }
     
     /**
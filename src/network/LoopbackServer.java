@@ -0,0 +1,455 @@
+package network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+
+/**
+ * An in-process Gemini server on the loopback interface, for tests and
+ * benchmarks that shouldn't depend on live capsules.
+ *
+ * It listens on an ephemeral port with a self-signed certificate and
+ * answers each path with a {@link Script}: any status and META, a body of
+ * any size, sent all at once or in chunks, after a delay, at a limited
+ * rate, or cut off part way (abruptly, without the TLS close_notify a
+ * finished response ends with, as when a server crashes or a connection
+ * drops). Paths without a script get 51; request lines
+ * that aren't URLs get 59 unless scripted as they are.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class LoopbackServer implements Closeable {
+    /**
+     * Keystore password; the key guards nothing.
+     */
+    private static final char[] PASSWORD = "loopback".toCharArray();
+
+    /**
+     * Longest request line: a 1024-byte URL and CRLF.
+     */
+    private static final int MAX_REQUEST_LENGTH = 1024 + 2;
+
+    /**
+     * Wait before cutting a connection off, in milliseconds, so the client
+     * has read what was sent: a reset can discard data not yet read.
+     */
+    private static final long RESET_DELAY = 100;
+
+    /**
+     * Shared by every server in the process, since generating one is slow.
+     */
+    private static SSLContext context;
+
+    /**
+     * How to answer a request.
+     */
+    public static final class Script {
+        /**
+         * Status.
+         */
+        private final int status;
+
+        /**
+         * Header information (META).
+         */
+        private final String meta;
+
+        /**
+         * Body.
+         */
+        private final byte[] body;
+
+        /**
+         * Bytes written at a time, or 0 for the whole body at once.
+         */
+        private final int chunkSize;
+
+        /**
+         * Wait before the header, in milliseconds.
+         */
+        private final long latency;
+
+        /**
+         * Most body bytes sent per second, or 0 for no limit.
+         */
+        private final long bytesPerSecond;
+
+        /**
+         * Body bytes sent before the connection is closed, or -1 for all.
+         */
+        private final long closeAfter;
+
+        /**
+         * Create a script answering with a header and no body.
+         *
+         * @param status Status.
+         * @param meta META.
+         */
+        public Script(int status, String meta) {
+            this(status, meta, new byte[0], 0, 0, 0, -1);
+        }
+
+        /**
+         * Create a script.
+         *
+         * @param status Status.
+         * @param meta META.
+         * @param body Body.
+         * @param chunkSize Bytes written at a time, or 0.
+         * @param latency Wait before the header, in milliseconds.
+         * @param bytesPerSecond Rate limit, or 0.
+         * @param closeAfter Body bytes sent before closing, or -1.
+         */
+        private Script(int status, String meta, byte[] body, int chunkSize, long latency, long bytesPerSecond, long closeAfter) {
+            this.status = status;
+            this.meta = meta;
+            this.body = body;
+            this.chunkSize = chunkSize;
+            this.latency = latency;
+            this.bytesPerSecond = bytesPerSecond;
+            this.closeAfter = closeAfter;
+        }
+
+        /**
+         * Return a copy with a body.
+         *
+         * @param body Body.
+         * @return Script.
+         */
+        public Script withBody(byte[] body) {
+            return new Script(status, meta, body, chunkSize, latency, bytesPerSecond, closeAfter);
+        }
+
+        /**
+         * Return a copy with a UTF-8 body.
+         *
+         * @param body Body text.
+         * @return Script.
+         */
+        public Script withBody(String body) {
+            return withBody(body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Return a copy with a body of filler text, in lines.
+         *
+         * @param size Body size in bytes.
+         * @return Script.
+         */
+        public Script withBodySize(int size) {
+            byte[] filler = new byte[size];
+            for(int i = 0; i < size; i++) {
+                filler[i] = i % 64 == 63 ? (byte) '\n' : (byte) ('a' + i % 26);
+            }
+            return withBody(filler);
+        }
+
+        /**
+         * Return a copy that writes the body a chunk at a time.
+         *
+         * @param size Bytes per chunk.
+         * @return Script.
+         */
+        public Script withChunks(int size) {
+            return new Script(status, meta, body, size, latency, bytesPerSecond, closeAfter);
+        }
+
+        /**
+         * Return a copy that waits before answering.
+         *
+         * @param millis Wait before the header, in milliseconds.
+         * @return Script.
+         */
+        public Script withLatency(long millis) {
+            return new Script(status, meta, body, chunkSize, millis, bytesPerSecond, closeAfter);
+        }
+
+        /**
+         * Return a copy that sends the body no faster than a rate.
+         *
+         * @param rate Most bytes per second.
+         * @return Script.
+         */
+        public Script withBandwidth(long rate) {
+            return new Script(status, meta, body, chunkSize, latency, rate, closeAfter);
+        }
+
+        /**
+         * Return a copy that closes the connection part way through the
+         * body.
+         *
+         * @param bytes Body bytes sent first.
+         * @return Script.
+         */
+        public Script withCloseAfter(long bytes) {
+            return new Script(status, meta, body, chunkSize, latency, bytesPerSecond, bytes);
+        }
+
+        /**
+         * Write the response.
+         *
+         * @param out Client stream.
+         * @return Whether the whole body was written, rather than cut off.
+         * @throws IOException If writing fails.
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        private boolean write(OutputStream out) throws IOException, InterruptedException {
+            Thread.sleep(latency);
+            out.write((status + " " + meta + "\r\n").getBytes(StandardCharsets.UTF_8));
+
+            long length = closeAfter < 0 ? body.length : Math.min(closeAfter, body.length);
+            int chunk = chunkSize > 0 ? chunkSize : body.length;
+            if(bytesPerSecond > 0) {
+                // small enough chunks that the rate is kept smoothly
+                chunk = (int) Math.max(1, Math.min(chunk, bytesPerSecond / 20));
+            }
+
+            long start = System.nanoTime();
+            for(int sent = 0; sent < length; ) {
+                int size = (int) Math.min(chunk, length - sent);
+                out.write(body, sent, size);
+                out.flush();
+                sent += size;
+
+                // wait until the bytes sent so far are due
+                if(bytesPerSecond > 0) {
+                    long due = start + sent * 1_000_000_000L / bytesPerSecond;
+                    long wait = due - System.nanoTime();
+                    if(wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                }
+            }
+            out.flush();
+
+            return length == body.length;
+        }
+    }
+
+    /**
+     * Listening socket. TLS is layered over each connection accepted, so
+     * the plain socket underneath can be cut off without closing TLS.
+     */
+    private final ServerSocket server;
+
+    /**
+     * Answers connections.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * Scripts by path, or by whole request line.
+     */
+    private final Map<String, Script> scripts = new ConcurrentHashMap<>();
+
+    /**
+     * Request lines received, in order.
+     */
+    private final List<String> requests = new ArrayList<>();
+
+    /**
+     * Start a server on an ephemeral loopback port.
+     *
+     * @throws IOException If the certificate or socket can't be created.
+     */
+    public LoopbackServer() throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        // generate the certificate now, so failing to shows up here
+        sharedContext();
+        server = new ServerSocket(0, 64, loopback);
+        workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "loopback-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        workers.execute(this::accept);
+    }
+
+    /**
+     * Answer a path with a script.
+     *
+     * @param path Path, such as "/index.gmi", or a whole request line.
+     * @param script How to answer.
+     * @return This server.
+     */
+    public LoopbackServer serve(String path, Script script) {
+        scripts.put(path, script);
+        return this;
+    }
+
+    /**
+     * Return the port listened on.
+     *
+     * @return Port.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Return the URL of a path on this server.
+     *
+     * @param path Path, starting with '/'.
+     * @return URL.
+     */
+    public String url(String path) {
+        return "gemini://127.0.0.1:" + getPort() + path;
+    }
+
+    /**
+     * Return the request lines received so far.
+     *
+     * @return Requests, in order.
+     */
+    public List<String> getRequests() {
+        synchronized(requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    /**
+     * Stop listening, cutting off any connection in progress.
+     */
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch(IOException e) {
+            // fall through
+        }
+        workers.shutdownNow();
+    }
+
+    /**
+     * Accept connections until closed.
+     */
+    private void accept() {
+        while(!server.isClosed()) {
+            try {
+                Socket client = server.accept();
+                workers.execute(() -> answer(client));
+            } catch(SocketException e) {
+                // closed while waiting
+                return;
+            } catch(IOException e) {
+                // fall through
+            }
+        }
+    }
+
+    /**
+     * Read a request and answer it by its script.
+     *
+     * @param client Plain client socket.
+     */
+    private void answer(Socket client) {
+        try(Socket plain = client) {
+            SSLSocket socket = (SSLSocket) sharedContext().getSocketFactory().createSocket(plain, null, true);
+            socket.startHandshake();
+
+            String request = readRequest(socket.getInputStream());
+            synchronized(requests) {
+                requests.add(request == null ? "" : request);
+            }
+
+            if(script(request).write(socket.getOutputStream())) {
+                socket.close();
+            } else {
+                // cut off: reset the connection instead of closing TLS
+                Thread.sleep(RESET_DELAY);
+                plain.setSoLinger(true, 0);
+            }
+        } catch(IOException | InterruptedException e) {
+            // the client went away, or the server closed
+        }
+    }
+
+    /**
+     * Find the script for a request line.
+     *
+     * @param request Request line, or null if malformed.
+     * @return Script.
+     */
+    private Script script(String request) {
+        if(request == null) {
+            return new Script(59, "Bad request");
+        }
+
+        Script exact = scripts.get(request);
+        if(exact != null) {
+            return exact;
+        }
+
+        if(!URL.isValidURL(request.toLowerCase())) {
+            return new Script(59, "Bad request");
+        }
+
+        // match on the path, whatever host the URL names
+        int start = request.indexOf('/', "gemini://".length());
+        Script script = scripts.get(start < 0 ? "/" : request.substring(start));
+        return script == null ? new Script(51, "Not found") : script;
+    }
+
+    /**
+     * Read the request line, without its CRLF.
+     *
+     * @param in Client stream.
+     * @return Request line, or null if it's malformed.
+     * @throws IOException If reading fails.
+     */
+    private static String readRequest(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        int b;
+        while((b = in.read()) != '\n') {
+            if(b < 0 || line.size() >= MAX_REQUEST_LENGTH) {
+                return null;
+            }
+            if(b != '\r') {
+                line.write(b);
+            }
+        }
+
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return the context every server shares, generating its certificate
+     * the first time.
+     *
+     * @return Context.
+     * @throws IOException If the certificate can't be generated.
+     */
+    private static synchronized SSLContext sharedContext() throws IOException {
+        if(context == null) {
+            Path directory = Files.createTempDirectory("loopback-server");
+            Path keystore = directory.resolve("loopback.p12");
+            context = ServerContext.create(keystore, PASSWORD, "127.0.0.1");
+
+            // the context holds the key now
+            Files.deleteIfExists(keystore);
+            Files.deleteIfExists(directory);
+        }
+        return context;
+    }
+}
@@ -0,0 +1,131 @@
+package network;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A MIME type parsed from the META field of a successful response,
+ * e.g. {@code text/gemini; charset=utf-8; lang=en}.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class MediaType {
+    /**
+     * Charset used when a text response doesn't specify one (required by the spec).
+     */
+    public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+
+    /**
+     * Type and subtype, e.g. text/gemini.
+     */
+    private String mimeType;
+
+    /**
+     * Parameters (charset, lang, ...) keyed by lowercase name.
+     */
+    private Map<String, String> parameters;
+
+    /**
+     * Parse a media type.
+     *
+     * @param meta META field of the response header.
+     */
+    public MediaType(String meta) {
+        parameters = new HashMap<>();
+
+        // no META means text/gemini
+        if(meta == null || meta.isBlank()) {
+            mimeType = "text/gemini";
+            return;
+        }
+
+        String[] tokens = meta.split(";");
+        mimeType = tokens[0].trim().toLowerCase();
+
+        // parse name=value parameters
+        for(int i = 1; i < tokens.length; i++) {
+            int equals = tokens[i].indexOf('=');
+            if(equals < 0) {
+                continue;
+            }
+
+            String name = tokens[i].substring(0, equals).trim().toLowerCase();
+            String value = tokens[i].substring(equals + 1).trim();
+
+            // strip optional quotes
+            if(value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+
+            parameters.put(name, value);
+        }
+    }
+
+    /**
+     * Return the type and subtype, e.g. text/gemini.
+     *
+     * @return MIME type without parameters.
+     */
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * Return a parameter's value.
+     *
+     * @param name Parameter name.
+     * @return Parameter value, or {@code null} if not present.
+     */
+    public String getParameter(String name) {
+        return parameters.get(name.toLowerCase());
+    }
+
+    /**
+     * Return all parameters.
+     *
+     * @return Unmodifiable map of parameters.
+     */
+    public Map<String, String> getParameters() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    /**
+     * Return whether this is a text/* type.
+     *
+     * @return {@code true} if text.
+     */
+    public boolean isText() {
+        return mimeType.startsWith("text/");
+    }
+
+    /**
+     * Return the charset named by the charset parameter. Falls back to UTF-8 if
+     * the parameter is missing or names a charset this JVM doesn't support.
+     *
+     * @return Charset to decode the body with.
+     */
+    public Charset getCharset() {
+        String name = parameters.get("charset");
+
+        if(name == null) {
+            return DEFAULT_CHARSET;
+        }
+
+        try {
+            return Charset.forName(name);
+        } catch(IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return DEFAULT_CHARSET;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return mimeType + parameters;
+    }
+}
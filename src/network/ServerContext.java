@@ -0,0 +1,109 @@
+package network;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+/**
+ * TLS contexts for serving Gemini. Capsules are expected to use
+ * self-signed certificates (clients trust on first use), so a keystore can
+ * be generated on the spot with the JDK's keytool.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public final class ServerContext {
+    /**
+     * Days a generated certificate is valid for.
+     */
+    private static final int VALIDITY_DAYS = 3650;
+
+    /**
+     * Alias of the key in generated keystores.
+     */
+    private static final String ALIAS = "gemini";
+
+    /**
+     * Not instantiable.
+     */
+    private ServerContext() {
+    }
+
+    /**
+     * Create a server context from a PKCS#12 keystore, generating a
+     * self-signed one first if it doesn't exist.
+     *
+     * @param keystore Keystore file.
+     * @param password Keystore and key password.
+     * @param hostname Name the certificate is made out to, if generated.
+     * @return Context whose server sockets present the keystore's key.
+     * @throws IOException If the keystore can't be generated or read.
+     */
+    public static SSLContext create(Path keystore, char[] password, String hostname) throws IOException {
+        if(!Files.exists(keystore)) {
+            generate(keystore, password, hostname);
+        }
+
+        try(InputStream in = Files.newInputStream(keystore)) {
+            KeyStore keys = KeyStore.getInstance("PKCS12");
+            keys.load(in, password);
+
+            KeyManagerFactory managers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            managers.init(keys, password);
+
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(managers.getKeyManagers(), null, null);
+            return context;
+        } catch(GeneralSecurityException e) {
+            throw new IOException("Unusable keystore: " + keystore, e);
+        }
+    }
+
+    /**
+     * Generate a PKCS#12 keystore holding a new key and a self-signed
+     * certificate for it.
+     *
+     * @param keystore Keystore file to create.
+     * @param password Keystore and key password.
+     * @param hostname Name the certificate is made out to.
+     * @throws IOException If keytool can't be run or fails.
+     */
+    public static void generate(Path keystore, char[] password, String hostname) throws IOException {
+        Path parent = keystore.toAbsolutePath().getParent();
+        if(parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        Path keytool = Path.of(System.getProperty("java.home"), "bin", "keytool");
+        String secret = new String(password);
+        // addresses go in an IP alternative name, hostnames in a DNS one
+        String name = hostname.matches("[0-9.]+|.*:.*") ? "ip:" + hostname : "dns:" + hostname;
+        Process process = new ProcessBuilder(keytool.toString(), "-genkeypair",
+            "-keystore", keystore.toString(), "-storetype", "PKCS12",
+            "-storepass", secret, "-keypass", secret, "-alias", ALIAS,
+            "-keyalg", "EC", "-groupname", "secp256r1",
+            "-dname", "CN=" + hostname, "-ext", "SAN=" + name,
+            "-validity", Integer.toString(VALIDITY_DAYS))
+            .redirectErrorStream(true)
+            .start();
+
+        // keytool only says anything if it fails
+        String output = new String(process.getInputStream().readAllBytes());
+        try {
+            if(process.waitFor() != 0) {
+                Files.deleteIfExists(keystore);
+                throw new IOException("keytool failed: " + output.strip());
+            }
+        } catch(InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted generating a certificate.");
+        }
+    }
+}
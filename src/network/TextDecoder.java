@@ -0,0 +1,245 @@
+package network;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes response bodies to text.
+ *
+ * The static {@link #decode(byte[], Charset)} decodes a complete body in one
+ * pass. An instance decodes a body chunk by chunk, carrying multi-byte
+ * sequences that are split across chunks over to the next call.
+ *
+ * Pure-ASCII input in an ASCII-compatible charset skips the decoder and is
+ * copied straight into a String.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TextDecoder {
+    /**
+     * Longest byte sequence any supported charset needs for one character.
+     */
+    private static final int MAX_SEQUENCE = 8;
+
+    /**
+     * Charset being decoded.
+     */
+    private Charset charset;
+
+    /**
+     * Decoder, created on the first non-ASCII chunk.
+     */
+    private CharsetDecoder decoder;
+
+    /**
+     * Bytes left over from the previous chunk (an incomplete sequence).
+     */
+    private ByteBuffer leftover;
+
+    /**
+     * Create a new incremental decoder.
+     *
+     * @param charset Charset to decode.
+     */
+    public TextDecoder(Charset charset) {
+        this.charset = charset;
+        leftover = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Decode the next chunk of the body.
+     *
+     * @param chunk Buffer holding the chunk.
+     * @param offset Offset of the chunk in the buffer.
+     * @param length Length of the chunk.
+     * @return Text decoded so far from this chunk.
+     */
+    public String decode(byte[] chunk, int offset, int length) {
+        // fast path: nothing carried over and the chunk is plain ASCII
+        if(!leftover.hasRemaining() && isAsciiCompatible(charset) && isAscii(chunk, offset, length)) {
+            return new String(chunk, offset, length, StandardCharsets.ISO_8859_1);
+        }
+
+        if(decoder == null) {
+            decoder = newDecoder(charset);
+        }
+
+        CharBuffer out = CharBuffer.allocate(outputSize(leftover.remaining() + length));
+        ByteBuffer in = ByteBuffer.wrap(chunk, offset, length);
+
+        // finish the sequence split across the previous chunk first
+        if(leftover.hasRemaining()) {
+            int carried = leftover.remaining();
+            int borrowed = Math.min(length, MAX_SEQUENCE);
+
+            ByteBuffer joined = ByteBuffer.allocate(carried + borrowed);
+            joined.put(leftover);
+            joined.put(chunk, offset, borrowed);
+            joined.flip();
+
+            out = decodeInto(joined, out);
+
+            // still incomplete: keep everything for the next chunk
+            if(joined.position() < carried) {
+                keepLeftover(joined);
+                return out.flip().toString();
+            }
+
+            // skip the bytes of this chunk the joined buffer already consumed
+            in.position(offset + joined.position() - carried);
+        }
+
+        out = decodeInto(in, out);
+        keepLeftover(in);
+
+        return out.flip().toString();
+    }
+
+    /**
+     * Finish decoding. Any incomplete sequence left over is replaced.
+     *
+     * @return Remaining text.
+     */
+    public String finish() {
+        if(decoder == null) {
+            return "";
+        }
+
+        CharBuffer out = CharBuffer.allocate(outputSize(leftover.remaining()));
+        decoder.decode(leftover, out, true);
+        decoder.flush(out);
+        decoder.reset();
+        keepLeftover(leftover); // now empty
+        return out.flip().toString();
+    }
+
+    /**
+     * Decode as much input as possible, growing the output buffer if needed.
+     *
+     * @param in Input bytes.
+     * @param out Output buffer.
+     * @return Output buffer (possibly reallocated).
+     */
+    private CharBuffer decodeInto(ByteBuffer in, CharBuffer out) {
+        while(decoder.decode(in, out, false).isOverflow()) {
+            CharBuffer bigger = CharBuffer.allocate(out.capacity() * 2);
+            bigger.put(out.flip());
+            out = bigger;
+        }
+        return out;
+    }
+
+    /**
+     * Store the unconsumed bytes of a buffer for the next chunk.
+     *
+     * @param in Buffer with an incomplete sequence remaining.
+     */
+    private void keepLeftover(ByteBuffer in) {
+        leftover = ByteBuffer.allocate(Math.max(MAX_SEQUENCE, in.remaining()));
+        leftover.put(in);
+        leftover.flip();
+    }
+
+    /**
+     * Decode a complete body.
+     *
+     * @param body Body bytes.
+     * @param charset Charset to decode.
+     * @return Decoded text.
+     */
+    public static String decode(byte[] body, Charset charset) {
+        return decode(body, 0, body.length, charset);
+    }
+
+    /**
+     * Decode part of a buffer in a single pass.
+     *
+     * @param body Buffer to decode.
+     * @param offset Offset to start at.
+     * @param length Number of bytes to decode.
+     * @param charset Charset to decode.
+     * @return Decoded text.
+     */
+    public static String decode(byte[] body, int offset, int length, Charset charset) {
+        // fast path for ASCII content
+        if(isAsciiCompatible(charset) && isAscii(body, offset, length)) {
+            return new String(body, offset, length, StandardCharsets.ISO_8859_1);
+        }
+
+        CharsetDecoder decoder = newDecoder(charset);
+        CharBuffer out = CharBuffer.allocate(outputSize(length));
+        ByteBuffer in = ByteBuffer.wrap(body, offset, length);
+
+        CoderResult result = decoder.decode(in, out, true);
+        if(result.isOverflow()) {
+            // can only happen for charsets with unusual expansion; fall back
+            return new String(body, offset, length, charset);
+        }
+        decoder.flush(out);
+
+        return out.flip().toString();
+    }
+
+    /**
+     * Return whether every byte in a range is 7-bit ASCII.
+     *
+     * @param bytes Buffer.
+     * @param offset Start of range.
+     * @param length Length of range.
+     * @return {@code true} if every byte is ASCII.
+     */
+    public static boolean isAscii(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        for(int i = offset; i < end; i++) {
+            if(bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return whether a charset encodes ASCII characters as themselves.
+     *
+     * @param charset Charset.
+     * @return {@code true} if ASCII-compatible.
+     */
+    public static boolean isAsciiCompatible(Charset charset) {
+        String name = charset.name();
+        return charset.equals(StandardCharsets.UTF_8)
+            || charset.equals(StandardCharsets.US_ASCII)
+            || charset.equals(StandardCharsets.ISO_8859_1)
+            || name.startsWith("ISO-8859-")
+            || name.startsWith("windows-125");
+    }
+
+    /**
+     * Create a decoder that replaces malformed input rather than failing.
+     *
+     * @param charset Charset.
+     * @return New decoder.
+     */
+    private static CharsetDecoder newDecoder(Charset charset) {
+        return charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Upper bound on the number of chars a number of bytes can decode to.
+     * Every supported charset produces at most one char per byte, plus the
+     * replacement for a trailing malformed sequence.
+     *
+     * @param bytes Number of bytes.
+     * @return Output buffer size.
+     */
+    private static int outputSize(int bytes) {
+        return bytes + 1;
+    }
+}
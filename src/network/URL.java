@@ -4,7 +4,7 @@ package network;
  * Parses and stores URLs.
  * 
  * @author Hayden Walker
- * @version 2024-02-27
+ * @version 2026-10-19
  */
 public class URL {
     /**
@@ -12,16 +12,31 @@ public class URL {
      */
     private static final String URL_FORMAT = "^gemini://[a-zA-Z0-9.]+[/[a-zA-Z0-9.]*]*\\??.*$";
 
+    /**
+     * Regular expression to match URLs that start with a scheme.
+     */
+    private static final String SCHEME_FORMAT = "^[a-zA-Z][a-zA-Z0-9+.-]*:.*$";
+
     /**
      * URL prefix.
      */
     private static final String PREFIX = "gemini://";
 
+    /**
+     * Port used when the URL doesn't name one.
+     */
+    public static final int DEFAULT_PORT = 1965;
+
     /**
      * Store the hostname.
      */
     private String hostname;
 
+    /**
+     * Store the port.
+     */
+    private int port = DEFAULT_PORT;
+
     /**
      * Folder on server, e.g. /img/
      */
@@ -59,7 +74,7 @@ public class URL {
 
 
     /**
-     * Parse the hostname, folder, and file from a URL.
+     * Parse the hostname, port, folder, and file from a URL.
      * 
      * @param url URL to parse.
      * @return Hostname.
@@ -79,6 +94,17 @@ public class URL {
             url.charAt(fileIndex) != '/' && fileIndex > PREFIX.length() + hostname.length() - 1; 
             fileIndex--) {}
 
+        // split off a port, dropping it if it's the default
+        int colon = hostname.indexOf(':');
+        if(colon >= 0) {
+            String digits = hostname.substring(colon + 1);
+            if(!digits.matches("[0-9]{1,5}") || Integer.parseInt(digits) > 65535) {
+                throw new BadURLException("Invalid port: " + digits);
+            }
+            port = Integer.parseInt(digits);
+            hostname = hostname.substring(0, colon);
+        }
+
         if(++fileIndex < url.length()) {
             file = url.substring(fileIndex);
         }
@@ -100,13 +126,31 @@ public class URL {
         return hostname;
     }
 
+    /**
+     * Return the port.
+     * 
+     * @return The port, {@link #DEFAULT_PORT} unless the URL names another.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Return the hostname, followed by the port if it isn't the default.
+     * 
+     * @return The hostname and port, as written in the URL.
+     */
+    public String getAuthority() {
+        return port == DEFAULT_PORT ? hostname : hostname + ":" + port;
+    }
+
     /**
      * Return the URL.
      * 
      * @return The URL.
      */
     public String getURL() {
-        return PREFIX + hostname + folder + file;
+        return PREFIX + getAuthority() + folder + file;
     }
 
     public String getFile() {
@@ -118,7 +162,7 @@ public class URL {
      * @return Folder URL
      */
     public String getFolderURL() {
-        return PREFIX + hostname + folder;
+        return PREFIX + getAuthority() + folder;
     }
 
     /**
@@ -131,4 +175,49 @@ public class URL {
         return url.matches(URL_FORMAT);
     }
 
+    /**
+     * Resolve a link on a page to a complete URL: complete URLs are kept,
+     * paths starting with '/' are on the page's server, and anything else
+     * without a scheme is in the page's folder.
+     * 
+     * @param base URL of the page the link is on.
+     * @param link Link target.
+     * @return Complete URL, or {@code null} if it isn't a Gemini URL.
+     */
+    public static String resolve(String base, String link) {
+        // valid (complete) url
+        if(isValidURL(link)) {
+            return link;
+        }
+
+        // a URL with another scheme
+        if(link.matches(SCHEME_FORMAT)) {
+            return null;
+        }
+
+        URL current;
+        try {
+            current = new URL(base);
+        } catch(BadURLException e) {
+            return null;
+        }
+
+        // full path on same server
+        if(link.startsWith("/")) {
+            String rootURL = PREFIX + current.getAuthority() + link;
+            if(isValidURL(rootURL)) {
+                return rootURL;
+            }
+        }
+
+        // local url, without a leading ./
+        String localURL = current.getFolderURL();
+        if(!localURL.endsWith("/")) {
+            localURL += "/";
+        }
+        localURL += link.startsWith("./") ? link.substring(2) : link;
+
+        return isValidURL(localURL) ? localURL : null;
+    }
+
 }
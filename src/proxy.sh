@@ -0,0 +1 @@
+java proxy.GeminiProxy "$@"
@@ -0,0 +1,559 @@
+package proxy;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+
+import network.BadURLException;
+import network.GeminiConnection;
+import network.RequestFailedException;
+import network.ServerContext;
+import network.URL;
+import store.BlobStore;
+import store.TieredCache;
+
+/**
+ * A caching Gemini proxy, for many browsers fetching the same capsules.
+ *
+ * Clients connect over TLS and send a full URL, as to any Gemini server;
+ * the proxy answers successful responses from a shared {@link BlobStore}
+ * while they're fresh, and fetches from the capsule otherwise. Requests
+ * for a URL already being fetched wait for that fetch rather than making
+ * their own, so a page everyone opens at once is fetched once. If the
+ * capsule can't be reached, a stale copy is served instead of an error.
+ *
+ * Only successful responses are stored; redirects, inputs and errors are
+ * passed through as they are. Bodies over {@link #MAX_BODY} are refused.
+ *
+ * Each request is logged as a line of time, client, outcome (HIT, MISS,
+ * SHARED, STALE or REFUSED), status, latency, body size and URL.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class GeminiProxy {
+    /**
+     * Largest body proxied, in bytes.
+     */
+    public static final int MAX_BODY = 64 * 1024 * 1024;
+
+    /**
+     * Longest request line: a 1024-byte URL and CRLF.
+     */
+    private static final int MAX_REQUEST_LENGTH = 1024 + 2;
+
+    /**
+     * End-of-line characters (CRLF).
+     */
+    private static final String EOL = "\r\n";
+
+    /**
+     * Size of the buffer bodies are read through.
+     */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Wait between saving the store and trimming it to size, in seconds.
+     */
+    private static final long MAINTENANCE_PERIOD = 60;
+
+    /**
+     * Usage message.
+     */
+    private static final String USAGE = String.join("\n",
+        "usage: java proxy.GeminiProxy [options]",
+        "  --bind ADDRESS    address to listen on (default 127.0.0.1)",
+        "  --port N          port to listen on (default 1966)",
+        "  --keystore FILE   PKCS#12 keystore, generated if missing",
+        "                    (default ~/.gemini-browser/proxy.p12)",
+        "  --password TEXT   keystore password (default gemini-proxy)",
+        "  --store DIR       response store (default ~/.gemini-browser/proxy-store)",
+        "  --store-mb N      most megabytes stored (default 1024)",
+        "  --max-age S       seconds a stored response is served for (default 600)",
+        "  --threads N       requests handled at once (default 32)",
+        "  --timeout MS      upstream and client timeout (default 15000)",
+        "  --log FILE        access log (default: standard output)");
+
+    /**
+     * What became of a request, as logged.
+     */
+    enum Outcome {
+        /** Served from the store. */
+        HIT,
+        /** Fetched from the capsule. */
+        MISS,
+        /** Served from another client's fetch of the same URL. */
+        SHARED,
+        /** Served from the store after the capsule couldn't be reached. */
+        STALE,
+        /** Not a request the proxy serves. */
+        REFUSED
+    }
+
+    /**
+     * A response to pass back to clients.
+     */
+    private static final class Response {
+        /**
+         * Status.
+         */
+        private final int status;
+
+        /**
+         * Header information (META).
+         */
+        private final String meta;
+
+        /**
+         * Body, empty unless the status is 20.
+         */
+        private final byte[] body;
+
+        /**
+         * Create a response.
+         *
+         * @param status Status.
+         * @param meta META.
+         * @param body Body.
+         */
+        Response(int status, String meta, byte[] body) {
+            this.status = status;
+            this.meta = meta;
+            this.body = body;
+        }
+
+        /**
+         * Return the status.
+         *
+         * @return Status.
+         */
+        int getStatus() {
+            return status;
+        }
+
+        /**
+         * Return the header information.
+         *
+         * @return META.
+         */
+        String getMeta() {
+            return meta;
+        }
+
+        /**
+         * Return the body.
+         *
+         * @return Body.
+         */
+        byte[] getBody() {
+            return body;
+        }
+    }
+
+    /**
+     * A response and how it was come by.
+     */
+    private static final class Served {
+        /**
+         * Response.
+         */
+        private final Response response;
+
+        /**
+         * How it was come by.
+         */
+        private final Outcome outcome;
+
+        /**
+         * Pair a response with its outcome.
+         *
+         * @param response Response.
+         * @param outcome Outcome.
+         */
+        Served(Response response, Outcome outcome) {
+            this.response = response;
+            this.outcome = outcome;
+        }
+    }
+
+    /**
+     * Successful responses, by URL.
+     */
+    private final BlobStore store;
+
+    /**
+     * Longest a stored response is served for, in milliseconds.
+     */
+    private final long maxAge;
+
+    /**
+     * Upstream and client timeout, in milliseconds.
+     */
+    private final int timeout;
+
+    /**
+     * Where requests are logged.
+     */
+    private final PrintStream log;
+
+    /**
+     * Fetches in progress, by URL.
+     */
+    private final Map<String, CompletableFuture<Response>> fetching = new ConcurrentHashMap<>();
+
+    /**
+     * Requests by outcome.
+     */
+    private final AtomicLong[] outcomes = new AtomicLong[Outcome.values().length];
+
+    /**
+     * Body bytes sent to clients.
+     */
+    private final AtomicLong sent = new AtomicLong();
+
+    /**
+     * Body bytes fetched from capsules.
+     */
+    private final AtomicLong fetched = new AtomicLong();
+
+    /**
+     * Create a proxy.
+     *
+     * @param store Where successful responses are kept.
+     * @param maxAge Longest a stored response is served for, in milliseconds.
+     * @param timeout Upstream and client timeout, in milliseconds.
+     * @param log Where requests are logged.
+     */
+    public GeminiProxy(BlobStore store, long maxAge, int timeout, PrintStream log) {
+        this.store = store;
+        this.maxAge = maxAge;
+        this.timeout = timeout;
+        this.log = log;
+
+        for(int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Accept and answer connections until the socket is closed.
+     *
+     * @param server Listening socket.
+     * @param workers Where connections are handled.
+     * @throws IOException If accepting fails other than by closing.
+     */
+    public void serve(SSLServerSocket server, ExecutorService workers) throws IOException {
+        while(!server.isClosed()) {
+            SSLSocket client;
+            try {
+                client = (SSLSocket) server.accept();
+            } catch(SocketException e) {
+                // closed while waiting
+                return;
+            }
+
+            try {
+                workers.execute(() -> handle(client));
+            } catch(RejectedExecutionException e) {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * Answer one connection: read the request, find a response and send it.
+     *
+     * @param client Client socket.
+     */
+    private void handle(SSLSocket client) {
+        long start = System.nanoTime();
+        String address = client.getInetAddress().getHostAddress();
+
+        try(SSLSocket socket = client) {
+            socket.setSoTimeout(timeout);
+            socket.startHandshake();
+
+            String request = readRequest(socket.getInputStream());
+            Served served = request == null
+                ? new Served(new Response(59, "Bad request", new byte[0]), Outcome.REFUSED)
+                : answer(request);
+
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+            Response response = served.response;
+            out.write((response.getStatus() + " " + response.getMeta() + EOL).getBytes(StandardCharsets.UTF_8));
+            out.write(response.getBody());
+            out.flush();
+
+            outcomes[served.outcome.ordinal()].incrementAndGet();
+            sent.addAndGet(response.getBody().length);
+            log.printf("%s %s %s %d %d ms %d %s%n", Instant.now(), address, served.outcome, response.getStatus(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), response.getBody().length, request == null ? "-" : request);
+        } catch(IOException e) {
+            // the client went away; nothing to answer
+        }
+    }
+
+    /**
+     * Find the response to a request line.
+     *
+     * @param request Request line, without the CRLF.
+     * @return Response and how it was come by.
+     */
+    private Served answer(String request) {
+        String url;
+        try {
+            url = new URL(request).getURL();
+        } catch(BadURLException e) {
+            return new Served(new Response(53, "Proxy request refused", new byte[0]), Outcome.REFUSED);
+        }
+
+        // fresh in the store
+        BlobStore.Entry entry = store.get(url);
+        if(entry != null && System.currentTimeMillis() - entry.getStored() < maxAge) {
+            Response stored = read(entry);
+            if(stored != null) {
+                return new Served(stored, Outcome.HIT);
+            }
+        }
+
+        // join a fetch already under way, or start one
+        CompletableFuture<Response> mine = new CompletableFuture<>();
+        CompletableFuture<Response> shared = fetching.putIfAbsent(url, mine);
+        if(shared != null) {
+            try {
+                return new Served(shared.join(), Outcome.SHARED);
+            } catch(CompletionException e) {
+                return new Served(new Response(43, "Proxy error", new byte[0]), Outcome.SHARED);
+            }
+        }
+
+        try {
+            Response response = fetch(url);
+
+            // the capsule failed, but there's an old copy
+            if(response.getStatus() == 43 && entry != null) {
+                Response stale = read(entry);
+                if(stale != null) {
+                    mine.complete(stale);
+                    return new Served(stale, Outcome.STALE);
+                }
+            }
+
+            mine.complete(response);
+            return new Served(response, Outcome.MISS);
+        } catch(RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            fetching.remove(url, mine);
+        }
+    }
+
+    /**
+     * Fetch a URL from its capsule, storing it if successful.
+     *
+     * @param url URL.
+     * @return Response, 43 if the capsule couldn't be reached.
+     */
+    private Response fetch(String url) {
+        try(GeminiConnection connection = new GeminiConnection(new URL(url), timeout)) {
+            if(connection.getStatus() != 20) {
+                return new Response(connection.getStatus(), connection.getHeaderInfo(), new byte[0]);
+            }
+
+            // read it all, so it can be stored and shared
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while((read = connection.read(buffer)) >= 0) {
+                if(body.size() + read > MAX_BODY) {
+                    return new Response(43, "Response too large to proxy", new byte[0]);
+                }
+                body.write(buffer, 0, read);
+            }
+
+            byte[] bytes = body.toByteArray();
+            fetched.addAndGet(bytes.length);
+            store.put(url, connection.getHeaderInfo(), bytes);
+            return new Response(20, connection.getHeaderInfo(), bytes);
+        } catch(RequestFailedException | BadURLException | IOException e) {
+            return new Response(43, "Upstream request failed", new byte[0]);
+        }
+    }
+
+    /**
+     * Read a stored response.
+     *
+     * @param entry Stored entry.
+     * @return Response, or null if the body can't be read.
+     */
+    private Response read(BlobStore.Entry entry) {
+        try {
+            return new Response(20, entry.getMeta(), store.read(entry));
+        } catch(IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read the request line, without its CRLF.
+     *
+     * @param in Client stream.
+     * @return Request line, or null if it's malformed.
+     * @throws IOException If reading fails.
+     */
+    private static String readRequest(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        int b;
+        while((b = in.read()) != '\n') {
+            if(b < 0 || line.size() >= MAX_REQUEST_LENGTH) {
+                return null;
+            }
+            if(b != '\r') {
+                line.write(b);
+            }
+        }
+
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return the number of requests with an outcome.
+     *
+     * @param outcome Outcome.
+     * @return Requests.
+     */
+    long getCount(Outcome outcome) {
+        return outcomes[outcome.ordinal()].get();
+    }
+
+    /**
+     * Describe the requests answered so far.
+     *
+     * @return Summary.
+     */
+    public String summary() {
+        long total = 0;
+        StringBuilder counts = new StringBuilder();
+        for(Outcome outcome : Outcome.values()) {
+            long count = getCount(outcome);
+            total += count;
+            counts.append(", ").append(count).append(' ').append(outcome.name().toLowerCase());
+        }
+
+        return String.format("%d requests%s; %.1f MB sent, %.1f MB fetched; store: %s",
+            total, counts, sent.get() / (1024.0 * 1024), fetched.get() / (1024.0 * 1024), store);
+    }
+
+    /**
+     * Run a proxy from the command line.
+     *
+     * @param args Options.
+     */
+    public static void main(String[] args) throws Exception {
+        Path home = Path.of(System.getProperty("user.home"), ".gemini-browser");
+        String bind = "127.0.0.1";
+        int port = 1966;
+        Path keystore = home.resolve("proxy.p12");
+        String password = "gemini-proxy";
+        Path directory = home.resolve("proxy-store");
+        long storeBytes = 1024L * 1024 * 1024;
+        long maxAge = 600 * 1000L;
+        int threads = 32;
+        int timeout = 15000;
+        Path logFile = null;
+
+        // parse options
+        boolean valid = true;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--bind": bind = args[++i]; break;
+                    case "--port": port = Integer.parseInt(args[++i]); break;
+                    case "--keystore": keystore = Path.of(args[++i]); break;
+                    case "--password": password = args[++i]; break;
+                    case "--store": directory = Path.of(args[++i]); break;
+                    case "--store-mb": storeBytes = Long.parseLong(args[++i]) * 1024 * 1024; break;
+                    case "--max-age": maxAge = Long.parseLong(args[++i]) * 1000; break;
+                    case "--threads": threads = Integer.parseInt(args[++i]); break;
+                    case "--timeout": timeout = Integer.parseInt(args[++i]); break;
+                    case "--log": logFile = Path.of(args[++i]); break;
+                    default: valid = false;
+                }
+            }
+        } catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            valid = false;
+        }
+
+        if(!valid || threads < 1 || port < 0 || port > 65535) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        SSLContext context = ServerContext.create(keystore, password.toCharArray(), bind);
+        BlobStore store = new BlobStore(directory, new TieredCache(storeBytes / 16, storeBytes / 16));
+        PrintStream log = logFile == null ? System.out
+            : new PrintStream(new FileOutputStream(logFile.toFile(), true), true, StandardCharsets.UTF_8);
+        GeminiProxy proxy = new GeminiProxy(store, maxAge, timeout, log);
+
+        SSLServerSocket server = (SSLServerSocket) context.getServerSocketFactory()
+            .createServerSocket(port, threads, InetAddress.getByName(bind));
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+
+        // keep the store within its size and its references on disk
+        long maxBytes = storeBytes;
+        int wait = timeout;
+        ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor();
+        maintenance.scheduleWithFixedDelay(() -> {
+            try {
+                store.trim(maxBytes);
+                store.save();
+            } catch(IOException e) {
+                // fall through
+            }
+        }, MAINTENANCE_PERIOD, MAINTENANCE_PERIOD, TimeUnit.SECONDS);
+
+        // on Ctrl+C: stop accepting, finish what's in hand, save the store
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+                maintenance.shutdownNow();
+                workers.shutdown();
+                workers.awaitTermination(wait, TimeUnit.MILLISECONDS);
+                store.trim(maxBytes);
+                store.close();
+            } catch(IOException | InterruptedException e) {
+                // fall through
+            }
+            System.err.println(proxy.summary());
+            log.flush();
+        }));
+
+        System.err.println("Proxying on " + bind + ":" + server.getLocalPort() + ", storing in " + directory);
+        proxy.serve(server, workers);
+    }
+}
@@ -1 +1,4 @@
-java --module-path ../lib --add-modules javafx.controls,javafx.fxml browser.Browser
+# Gemtext lines are scanned with the portable SWAR scanner. To try the
+# Vector API scanner instead, add jdk.incubator.vector to --add-modules
+# (compile.sh already builds it); it isn't faster on every machine.
+java --module-path ../lib --add-modules javafx.controls,javafx.fxml browser.Browser "$@"
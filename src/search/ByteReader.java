@@ -0,0 +1,125 @@
+package search;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads what a {@link ByteWriter} wrote.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+class ByteReader {
+    /**
+     * Buffer being read.
+     */
+    private final byte[] bytes;
+
+    /**
+     * Offset of the next byte.
+     */
+    private int position;
+
+    /**
+     * End of the readable range.
+     */
+    private final int limit;
+
+    /**
+     * Read part of a buffer.
+     *
+     * @param bytes Buffer.
+     * @param offset Offset to start at.
+     * @param length Number of bytes readable.
+     */
+    ByteReader(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        position = offset;
+        limit = offset + length;
+    }
+
+    /**
+     * Return whether there's anything left to read.
+     *
+     * @return Whether bytes remain.
+     */
+    boolean hasRemaining() {
+        return position < limit;
+    }
+
+    /**
+     * Return the number of bytes left to read.
+     *
+     * @return Bytes remaining.
+     */
+    int remaining() {
+        return limit - position;
+    }
+
+    /**
+     * Return the offset of the next byte.
+     *
+     * @return Position.
+     */
+    int position() {
+        return position;
+    }
+
+    /**
+     * Skip some bytes.
+     *
+     * @param count Number of bytes.
+     */
+    void skip(int count) {
+        position += count;
+    }
+
+    /**
+     * Read a variable-length integer, as written by the shortest
+     * encoding of a non-negative value.
+     *
+     * @return Value.
+     * @throws IllegalStateException If the data is truncated or malformed.
+     */
+    int readVarInt() {
+        int value = 0;
+
+        for(int shift = 0; shift < 32; shift += 7) {
+            if(position >= limit) {
+                throw new IllegalStateException("Truncated index data.");
+            }
+
+            byte b = bytes[position++];
+            // a fifth byte holds bits 28-31; bit 31 would make it negative
+            if(shift == 28 && (b & 0x78) != 0) {
+                break;
+            }
+
+            value |= (b & 0x7F) << shift;
+            if(b >= 0) {
+                // the writer never pads with a trailing zero group
+                if(b == 0 && shift > 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+
+        throw new IllegalStateException("Malformed index data.");
+    }
+
+    /**
+     * Read a length-prefixed UTF-8 string.
+     *
+     * @return String.
+     */
+    String readString() {
+        int length = readVarInt();
+        if(length > limit - position) {
+            throw new IllegalStateException("Truncated index data.");
+        }
+
+        String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+}
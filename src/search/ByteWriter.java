@@ -0,0 +1,106 @@
+package search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer for writing index data: variable-length integers
+ * (7 bits per byte, low bits first) and length-prefixed UTF-8 strings.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+class ByteWriter {
+    /**
+     * Bytes written so far, then spare capacity.
+     */
+    private byte[] bytes;
+
+    /**
+     * Number of bytes written.
+     */
+    private int size;
+
+    /**
+     * Create an empty writer.
+     */
+    ByteWriter() {
+        bytes = new byte[32];
+    }
+
+    /**
+     * Write a non-negative integer in as few bytes as it needs.
+     *
+     * @param value Value.
+     */
+    void writeVarInt(int value) {
+        ensure(5);
+        while((value & ~0x7F) != 0) {
+            bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+    }
+
+    /**
+     * Write a string as its UTF-8 length and bytes.
+     *
+     * @param value String.
+     */
+    void writeString(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(utf8.length);
+        writeBytes(utf8, 0, utf8.length);
+    }
+
+    /**
+     * Write raw bytes.
+     *
+     * @param source Buffer holding the bytes.
+     * @param offset Offset of the first byte.
+     * @param length Number of bytes.
+     */
+    void writeBytes(byte[] source, int offset, int length) {
+        ensure(length);
+        System.arraycopy(source, offset, bytes, size, length);
+        size += length;
+    }
+
+    /**
+     * Write everything in another writer.
+     *
+     * @param other Writer to copy.
+     */
+    void writeBytes(ByteWriter other) {
+        writeBytes(other.bytes, 0, other.size);
+    }
+
+    /**
+     * Return the number of bytes written.
+     *
+     * @return Size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Return a copy of the bytes written.
+     *
+     * @return Bytes.
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * Make room for more bytes.
+     *
+     * @param extra Bytes about to be written.
+     */
+    private void ensure(int extra) {
+        if(size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
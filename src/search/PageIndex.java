@@ -0,0 +1,573 @@
+package search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import gemtext.CompactDocument;
+import gemtext.ElementType;
+
+/**
+ * A full-text index of the pages the user has visited, kept on disk.
+ *
+ * Pages are added as they're parsed, and indexed on a background thread so
+ * adding never blocks the caller. New pages are buffered in memory (and are
+ * searchable straight away) until {@link #FLUSH_DOCUMENTS} have built up,
+ * then written out as an immutable segment file. When there are more than
+ * {@link #MAX_SEGMENTS} segments, a second background thread merges the
+ * smallest neighbouring few into one, dropping pages that have since been
+ * visited again.
+ *
+ * Every version of a page gets a new document number, and only the latest
+ * version of each URL is searched. Results are ranked with BM25.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class PageIndex implements Closeable {
+    /**
+     * Number of buffered pages written out as a segment.
+     */
+    public static final int FLUSH_DOCUMENTS = 16;
+
+    /**
+     * Number of segments allowed before some are merged.
+     */
+    public static final int MAX_SEGMENTS = 8;
+
+    /**
+     * Number of neighbouring segments merged at a time.
+     */
+    public static final int MERGE_FACTOR = 4;
+
+    /**
+     * BM25 term frequency saturation.
+     */
+    private static final double K1 = 1.2;
+
+    /**
+     * BM25 document length normalization.
+     */
+    private static final double B = 0.75;
+
+    /**
+     * Segment file extension.
+     */
+    private static final String SUFFIX = ".seg";
+
+    /**
+     * Directory holding the segment files.
+     */
+    private final Path directory;
+
+    /**
+     * Indexes pages and writes segments.
+     */
+    private final ExecutorService indexer = daemonExecutor("page-indexer");
+
+    /**
+     * Merges segments.
+     */
+    private final ExecutorService merger = daemonExecutor("page-index-merger");
+
+    /**
+     * Guards changes to the segments and pending.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Segments on disk, in document number order. Never modified; replaced.
+     */
+    private volatile List<Segment> segments;
+
+    /**
+     * The buffered pages as a segment, or null if there are none.
+     */
+    private volatile Segment pending;
+
+    /**
+     * Pages not yet written out. Used only by the indexer.
+     */
+    private SegmentBuilder buffer = new SegmentBuilder();
+
+    /**
+     * Next document number. Used only by the indexer.
+     */
+    private int nextDocId;
+
+    /**
+     * Next segment file number.
+     */
+    private final AtomicInteger nextSegment = new AtomicInteger();
+
+    /**
+     * Latest document number of each URL.
+     */
+    private final Map<String, Integer> latest = new ConcurrentHashMap<>();
+
+    /**
+     * Document numbers that are the latest version of their URL.
+     */
+    private final Set<Integer> live = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Open the index in a directory, creating it if needed.
+     *
+     * @param directory Directory for the segment files.
+     * @throws IOException If the directory can't be created or listed.
+     */
+    public PageIndex(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        // load every readable segment, skipping broken ones
+        List<Segment> loaded = new ArrayList<>();
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for(Path file : files) {
+                nextSegment.set(Math.max(nextSegment.get(), segmentNumber(file) + 1));
+                try {
+                    Segment segment = Segment.load(file);
+                    if(segment.getDocumentCount() > 0) {
+                        loaded.add(segment);
+                    }
+                } catch(IOException | IllegalStateException e) {
+                    // fall through
+                }
+            }
+        }
+
+        // a merge interrupted before its inputs were deleted leaves them
+        // beside the merged segment. That's written after them, and its
+        // document numbers overlap theirs (not always covering them, since
+        // pages dropped at the edges of the run narrow it), so the newest
+        // segment wins wherever two overlap
+        loaded.sort(Comparator.comparingInt((Segment segment) -> segmentNumber(segment.getFile())).reversed());
+        List<Segment> kept = new ArrayList<>();
+        for(Segment segment : loaded) {
+            if(overlapsAny(segment, kept)) {
+                Files.deleteIfExists(segment.getFile());
+            } else {
+                kept.add(segment);
+            }
+        }
+        kept.sort(Comparator.comparingInt(Segment::getFirstDocId));
+        segments = Collections.unmodifiableList(kept);
+
+        // later versions of a URL replace earlier ones
+        for(Segment segment : kept) {
+            for(int i = 0; i < segment.getDocumentCount(); i++) {
+                makeLatest(segment.getURL(i), segment.getDocId(i));
+            }
+            nextDocId = segment.getLastDocId() + 1;
+        }
+    }
+
+    /**
+     * Add a page to the index in the background, replacing any earlier
+     * version of it.
+     *
+     * @param url Page URL.
+     * @param document Parsed page.
+     */
+    public void add(String url, CompactDocument document) {
+        indexer.execute(() -> index(url, document));
+    }
+
+    /**
+     * Search the latest version of every page.
+     *
+     * @param query Words to search for.
+     * @param limit Most results to return.
+     * @return Pages containing any of the words, best first.
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>();
+        Tokenizer.forEachTerm(query, terms::add);
+
+        List<Segment> searched = new ArrayList<>();
+        synchronized(lock) {
+            searched.addAll(segments);
+            if(pending != null) {
+                searched.add(pending);
+            }
+        }
+
+        // collection statistics
+        int documents = 0;
+        long totalLength = 0;
+        for(Segment segment : searched) {
+            for(int i = 0; i < segment.getDocumentCount(); i++) {
+                if(live.contains(segment.getDocId(i))) {
+                    documents++;
+                    totalLength += segment.getLength(i);
+                }
+            }
+        }
+
+        if(terms.isEmpty() || documents == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        double averageLength = (double) totalLength / documents;
+        Map<Integer, Double> scores = new HashMap<>();
+        Map<Integer, Segment> owners = new HashMap<>();
+
+        for(String term : terms) {
+            // count the live pages containing the term
+            int[] docFrequency = {0};
+            for(Segment segment : searched) {
+                int t = segment.indexOf(term);
+                if(t >= 0) {
+                    segment.forEachPosting(t, (docId, frequency) -> {
+                        if(live.contains(docId)) {
+                            docFrequency[0]++;
+                        }
+                    });
+                }
+            }
+
+            // score each of them
+            double idf = Math.log(1 + (documents - docFrequency[0] + 0.5) / (docFrequency[0] + 0.5));
+            for(Segment segment : searched) {
+                int t = segment.indexOf(term);
+                if(t < 0) {
+                    continue;
+                }
+
+                segment.forEachPosting(t, (docId, frequency) -> {
+                    if(!live.contains(docId)) {
+                        return;
+                    }
+
+                    int length = segment.getLength(segment.indexOf(docId));
+                    double norm = K1 * (1 - B + B * length / averageLength);
+                    scores.merge(docId, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                    owners.put(docId, segment);
+                });
+            }
+        }
+
+        // keep the best few, newer pages winning ties
+        Comparator<Map.Entry<Integer, Double>> order = Map.Entry.<Integer, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Integer, Double>> best = new PriorityQueue<>(order);
+        for(Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            best.add(entry);
+            if(best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(best.size());
+        while(!best.isEmpty()) {
+            Map.Entry<Integer, Double> entry = best.poll();
+            Segment segment = owners.get(entry.getKey());
+            int i = segment.indexOf(entry.getKey());
+            hits.add(new SearchHit(segment.getURL(i), segment.getTitle(i), entry.getValue()));
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    /**
+     * Return the number of pages searched.
+     *
+     * @return Number of URLs indexed.
+     */
+    public int size() {
+        return live.size();
+    }
+
+    /**
+     * Return the number of segments on disk.
+     *
+     * @return Segment count.
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Wait for pages added so far to be indexed and written out, and for
+     * any merges they cause.
+     */
+    public void flush() {
+        await(indexer.submit(this::writeBuffer));
+        await(merger.submit(() -> {}));
+    }
+
+    /**
+     * Write out buffered pages and stop the background threads.
+     */
+    @Override
+    public void close() {
+        flush();
+        indexer.shutdown();
+        merger.shutdown();
+    }
+
+    /**
+     * Index a page. Runs on the indexer.
+     *
+     * @param url Page URL.
+     * @param document Parsed page.
+     */
+    private void index(String url, CompactDocument document) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int[] length = {0};
+        String title = null;
+
+        for(int i = 0; i < document.size(); i++) {
+            ElementType type = document.getType(i);
+            if(type == ElementType.BLANK_LINE) {
+                continue;
+            }
+
+            // the first heading names the page
+            if(title == null && (type == ElementType.HEADING1 || type == ElementType.HEADING2 || type == ElementType.HEADING3)) {
+                title = document.getText(i).strip();
+            }
+
+            Tokenizer.forEachTerm(document.getText(i), term -> {
+                frequencies.merge(term, 1, Integer::sum);
+                length[0]++;
+            });
+        }
+
+        int docId = nextDocId++;
+        buffer.addDocument(docId, length[0], url, title == null || title.isEmpty() ? url : title);
+        buffer.addTerms(docId, frequencies);
+
+        // live before it's published, so a merge can't drop it
+        makeLatest(url, docId);
+        if(buffer.getDocumentCount() >= FLUSH_DOCUMENTS) {
+            writeBuffer();
+        } else {
+            pending = new Segment(buffer.toByteArray(), null);
+        }
+    }
+
+    /**
+     * Write the buffered pages out as a segment. Runs on the indexer. If
+     * writing fails, the pages stay buffered and are tried again later.
+     */
+    private void writeBuffer() {
+        if(buffer.getDocumentCount() == 0) {
+            return;
+        }
+
+        byte[] data = buffer.toByteArray();
+        Path file;
+        try {
+            file = write(data);
+        } catch(IOException e) {
+            pending = new Segment(data, null);
+            return;
+        }
+
+        // the segment replaces the buffer
+        synchronized(lock) {
+            segments = append(segments, new Segment(data, file));
+            pending = null;
+        }
+        buffer = new SegmentBuilder();
+
+        if(segments.size() > MAX_SEGMENTS) {
+            merger.execute(this::merge);
+        }
+    }
+
+    /**
+     * Merge segments until there are few enough. Runs on the merger.
+     */
+    private void merge() {
+        while(segments.size() > MAX_SEGMENTS) {
+            List<Segment> current = segments;
+
+            // merge the neighbours that are smallest together
+            int start = 0;
+            long smallest = Long.MAX_VALUE;
+            for(int i = 0; i + MERGE_FACTOR <= current.size(); i++) {
+                long size = 0;
+                for(int j = i; j < i + MERGE_FACTOR; j++) {
+                    size += current.get(j).getByteSize();
+                }
+                if(size < smallest) {
+                    smallest = size;
+                    start = i;
+                }
+            }
+            List<Segment> run = current.subList(start, start + MERGE_FACTOR);
+
+            // copy the live pages, in document number order
+            SegmentBuilder merged = new SegmentBuilder();
+            for(Segment segment : run) {
+                for(int i = 0; i < segment.getDocumentCount(); i++) {
+                    if(live.contains(segment.getDocId(i))) {
+                        merged.addDocument(segment.getDocId(i), segment.getLength(i), segment.getURL(i), segment.getTitle(i));
+                    }
+                }
+            }
+            for(Segment segment : run) {
+                for(int t = 0; t < segment.getTermCount(); t++) {
+                    String term = segment.getTerm(t);
+                    segment.forEachPosting(t, (docId, frequency) -> {
+                        if(live.contains(docId)) {
+                            merged.addPosting(term, docId, frequency);
+                        }
+                    });
+                }
+            }
+
+            Segment replacement = null;
+            if(merged.getDocumentCount() > 0) {
+                byte[] data = merged.toByteArray();
+                try {
+                    replacement = new Segment(data, write(data));
+                } catch(IOException e) {
+                    return;
+                }
+            }
+
+            // only the indexer appends meanwhile, so the run is still in place
+            synchronized(lock) {
+                List<Segment> updated = new ArrayList<>(segments);
+                int at = updated.indexOf(run.get(0));
+                updated.subList(at, at + MERGE_FACTOR).clear();
+                if(replacement != null) {
+                    updated.add(at, replacement);
+                }
+                segments = Collections.unmodifiableList(updated);
+            }
+
+            for(Segment segment : run) {
+                try {
+                    Files.deleteIfExists(segment.getFile());
+                } catch(IOException e) {
+                    // fall through
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a new segment file, all at once.
+     *
+     * @param data Encoded segment.
+     * @return Segment file.
+     * @throws IOException If it can't be written.
+     */
+    private Path write(byte[] data) throws IOException {
+        Path file = directory.resolve(String.format("%010d", nextSegment.getAndIncrement()) + SUFFIX);
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        Files.write(temporary, data);
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    /**
+     * Make a document the version of its URL that's searched.
+     *
+     * @param url URL.
+     * @param docId Document number.
+     */
+    private void makeLatest(String url, int docId) {
+        live.add(docId);
+        Integer previous = latest.put(url, docId);
+        if(previous != null) {
+            live.remove(previous);
+        }
+    }
+
+    /**
+     * Return whether a segment's document numbers overlap any of some
+     * others'.
+     *
+     * @param segment Segment.
+     * @param others Other segments.
+     * @return Whether they overlap.
+     */
+    private static boolean overlapsAny(Segment segment, List<Segment> others) {
+        for(Segment other : others) {
+            if(segment.getFirstDocId() <= other.getLastDocId() && other.getFirstDocId() <= segment.getLastDocId()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return a list with one more segment on the end.
+     *
+     * @param list Segments.
+     * @param segment Segment to add.
+     * @return New list.
+     */
+    private static List<Segment> append(List<Segment> list, Segment segment) {
+        List<Segment> updated = new ArrayList<>(list);
+        updated.add(segment);
+        return Collections.unmodifiableList(updated);
+    }
+
+    /**
+     * Return the number in a segment file's name.
+     *
+     * @param file Segment file.
+     * @return Number, or -1 if it has none.
+     */
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(0, name.length() - SUFFIX.length()));
+        } catch(NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Wait for a background task.
+     *
+     * @param task Task.
+     */
+    private static void await(Future<?> task) {
+        try {
+            task.get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Create a single background thread that won't keep the program open.
+     *
+     * @param name Thread name.
+     * @return Executor.
+     */
+    private static ExecutorService daemonExecutor(String name) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
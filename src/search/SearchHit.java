@@ -0,0 +1,69 @@
+package search;
+
+/**
+ * A page found by a {@link PageIndex} search.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public final class SearchHit {
+    /**
+     * Page URL.
+     */
+    private final String url;
+
+    /**
+     * Page title.
+     */
+    private final String title;
+
+    /**
+     * Relevance; higher is better.
+     */
+    private final double score;
+
+    /**
+     * Create a hit.
+     *
+     * @param url Page URL.
+     * @param title Page title.
+     * @param score Relevance.
+     */
+    SearchHit(String url, String title, double score) {
+        this.url = url;
+        this.title = title;
+        this.score = score;
+    }
+
+    /**
+     * Return the page URL.
+     *
+     * @return URL.
+     */
+    public String getURL() {
+        return url;
+    }
+
+    /**
+     * Return the page title: its first heading, or its URL.
+     *
+     * @return Title.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Return the relevance of the page to the query.
+     *
+     * @return Score; higher is better.
+     */
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s) %.3f", title, url, score);
+    }
+}
@@ -0,0 +1,324 @@
+package search;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * An immutable piece of a {@link PageIndex}: a table of documents and a
+ * sorted dictionary of terms, each with the documents it appears in.
+ *
+ * Postings are stored as they are on disk, one (document gap, frequency)
+ * pair of variable-length integers per document, and are only decoded
+ * while being read. The dictionary is decoded once, when the segment is
+ * loaded.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+final class Segment {
+    /**
+     * First bytes of every segment.
+     */
+    static final byte[] MAGIC = {'G', 'M', 'I', 'X'};
+
+    /**
+     * Format version.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Receives decoded postings.
+     */
+    interface PostingVisitor {
+        /**
+         * Visit a posting.
+         *
+         * @param docId Document number.
+         * @param frequency Number of times the term appears in it.
+         */
+        void accept(int docId, int frequency);
+    }
+
+    /**
+     * File the segment was loaded from, or null.
+     */
+    private final Path file;
+
+    /**
+     * Encoded segment.
+     */
+    private final byte[] data;
+
+    /**
+     * Document numbers, ascending.
+     */
+    private final int[] docIds;
+
+    /**
+     * Number of terms in each document.
+     */
+    private final int[] lengths;
+
+    /**
+     * URL of each document.
+     */
+    private final String[] urls;
+
+    /**
+     * Title of each document.
+     */
+    private final String[] titles;
+
+    /**
+     * Terms, ascending.
+     */
+    private final String[] terms;
+
+    /**
+     * Number of documents each term appears in.
+     */
+    private final int[] docFrequencies;
+
+    /**
+     * Offset of each term's postings in the data.
+     */
+    private final int[] offsets;
+
+    /**
+     * Length in bytes of each term's postings.
+     */
+    private final int[] sizes;
+
+    /**
+     * Decode a segment's document table and dictionary.
+     *
+     * @param data Encoded segment.
+     * @param file File it came from, or null.
+     * @throws IllegalStateException If the data is not a valid segment.
+     */
+    Segment(byte[] data, Path file) {
+        this.data = data;
+        this.file = file;
+
+        // header
+        if(data.length < MAGIC.length || !Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new IllegalStateException("Not an index segment.");
+        }
+        ByteReader in = new ByteReader(data, MAGIC.length, data.length - MAGIC.length);
+        if(in.readVarInt() != VERSION) {
+            throw new IllegalStateException("Unsupported index segment version.");
+        }
+
+        // document table
+        int docCount = readCount(in);
+        docIds = new int[docCount];
+        lengths = new int[docCount];
+        urls = new String[docCount];
+        titles = new String[docCount];
+        int docId = 0;
+        for(int i = 0; i < docCount; i++) {
+            docId += in.readVarInt();
+            docIds[i] = docId;
+            lengths[i] = in.readVarInt();
+            urls[i] = in.readString();
+            titles[i] = in.readString();
+        }
+
+        // term dictionary, skipping over the postings
+        int termCount = readCount(in);
+        terms = new String[termCount];
+        docFrequencies = new int[termCount];
+        offsets = new int[termCount];
+        sizes = new int[termCount];
+        for(int i = 0; i < termCount; i++) {
+            terms[i] = in.readString();
+            docFrequencies[i] = in.readVarInt();
+            sizes[i] = in.readVarInt();
+            offsets[i] = in.position();
+            if(sizes[i] > data.length - offsets[i]) {
+                throw new IllegalStateException("Truncated index data.");
+            }
+            in.skip(sizes[i]);
+        }
+    }
+
+    /**
+     * Load a segment from a file.
+     *
+     * @param file Segment file.
+     * @return Segment.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalStateException If the file is not a valid segment.
+     */
+    static Segment load(Path file) throws IOException {
+        return new Segment(Files.readAllBytes(file), file);
+    }
+
+    /**
+     * Return the file the segment was loaded from.
+     *
+     * @return File, or null if it was built in memory.
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Return the size of the encoded segment.
+     *
+     * @return Size in bytes.
+     */
+    int getByteSize() {
+        return data.length;
+    }
+
+    /**
+     * Return the number of documents in the segment.
+     *
+     * @return Document count.
+     */
+    int getDocumentCount() {
+        return docIds.length;
+    }
+
+    /**
+     * Return a document's number.
+     *
+     * @param index Index in the document table.
+     * @return Document number.
+     */
+    int getDocId(int index) {
+        return docIds[index];
+    }
+
+    /**
+     * Return a document's length.
+     *
+     * @param index Index in the document table.
+     * @return Number of terms.
+     */
+    int getLength(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * Return a document's URL.
+     *
+     * @param index Index in the document table.
+     * @return URL.
+     */
+    String getURL(int index) {
+        return urls[index];
+    }
+
+    /**
+     * Return a document's title.
+     *
+     * @param index Index in the document table.
+     * @return Title.
+     */
+    String getTitle(int index) {
+        return titles[index];
+    }
+
+    /**
+     * Find a document in the document table.
+     *
+     * @param docId Document number.
+     * @return Index in the document table, or a negative number.
+     */
+    int indexOf(int docId) {
+        return Arrays.binarySearch(docIds, docId);
+    }
+
+    /**
+     * Return the lowest document number in the segment.
+     *
+     * @return Document number, or -1 if the segment is empty.
+     */
+    int getFirstDocId() {
+        return docIds.length == 0 ? -1 : docIds[0];
+    }
+
+    /**
+     * Return the highest document number in the segment.
+     *
+     * @return Document number, or -1 if the segment is empty.
+     */
+    int getLastDocId() {
+        return docIds.length == 0 ? -1 : docIds[docIds.length - 1];
+    }
+
+    /**
+     * Return the number of terms in the dictionary.
+     *
+     * @return Term count.
+     */
+    int getTermCount() {
+        return terms.length;
+    }
+
+    /**
+     * Return a term from the dictionary.
+     *
+     * @param index Index in the dictionary.
+     * @return Term.
+     */
+    String getTerm(int index) {
+        return terms[index];
+    }
+
+    /**
+     * Find a term in the dictionary.
+     *
+     * @param term Term.
+     * @return Index in the dictionary, or a negative number.
+     */
+    int indexOf(String term) {
+        return Arrays.binarySearch(terms, term);
+    }
+
+    /**
+     * Return the number of documents a term appears in.
+     *
+     * @param index Index in the dictionary.
+     * @return Document frequency.
+     */
+    int getDocFrequency(int index) {
+        return docFrequencies[index];
+    }
+
+    /**
+     * Decode a term's postings, in ascending document number order.
+     *
+     * @param index Index in the dictionary.
+     * @param visitor Receives each posting.
+     */
+    void forEachPosting(int index, PostingVisitor visitor) {
+        ByteReader in = new ByteReader(data, offsets[index], sizes[index]);
+        int docId = 0;
+        while(in.hasRemaining()) {
+            docId += in.readVarInt();
+            visitor.accept(docId, in.readVarInt());
+        }
+    }
+
+    /**
+     * Read the number of entries in a table. Every entry takes at least a
+     * byte, so a count larger than what's left is corrupt, and is rejected
+     * before anything is allocated for it.
+     *
+     * @param in Segment data.
+     * @return Count.
+     * @throws IllegalStateException If the count can't be right.
+     */
+    private static int readCount(ByteReader in) {
+        int count = in.readVarInt();
+        if(count > in.remaining()) {
+            throw new IllegalStateException("Truncated index data.");
+        }
+        return count;
+    }
+}
@@ -0,0 +1,134 @@
+package search;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects documents and postings and encodes them as a {@link Segment}.
+ * Documents and each term's postings must be added in ascending document
+ * number order.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+class SegmentBuilder {
+    /**
+     * One term's postings so far.
+     */
+    private static class TermPostings {
+        /**
+         * Encoded (document gap, frequency) pairs.
+         */
+        final ByteWriter bytes = new ByteWriter();
+
+        /**
+         * Last document number written.
+         */
+        int lastDoc;
+
+        /**
+         * Number of documents written.
+         */
+        int docFrequency;
+    }
+
+    /**
+     * Postings by term, in term order.
+     */
+    private final TreeMap<String, TermPostings> terms = new TreeMap<>();
+
+    /**
+     * Encoded document table.
+     */
+    private final ByteWriter docs = new ByteWriter();
+
+    /**
+     * Number of documents added.
+     */
+    private int docCount;
+
+    /**
+     * Last document number added.
+     */
+    private int lastDoc;
+
+    /**
+     * Add a document to the document table.
+     *
+     * @param docId Document number, greater than any added before.
+     * @param length Number of terms in the document.
+     * @param url Page URL.
+     * @param title Page title.
+     */
+    void addDocument(int docId, int length, String url, String title) {
+        docs.writeVarInt(docId - lastDoc);
+        docs.writeVarInt(length);
+        docs.writeString(url);
+        docs.writeString(title);
+        lastDoc = docId;
+        docCount++;
+    }
+
+    /**
+     * Add a document's terms, counting how often each appears.
+     *
+     * @param docId Document number, greater than any added before.
+     * @param frequencies Number of times each term appears.
+     */
+    void addTerms(int docId, Map<String, Integer> frequencies) {
+        for(Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            addPosting(entry.getKey(), docId, entry.getValue());
+        }
+    }
+
+    /**
+     * Record that a term appears in a document.
+     *
+     * @param term Term.
+     * @param docId Document number, greater than any added for this term.
+     * @param frequency Number of times it appears.
+     */
+    void addPosting(String term, int docId, int frequency) {
+        TermPostings postings = terms.computeIfAbsent(term, t -> new TermPostings());
+        postings.bytes.writeVarInt(docId - postings.lastDoc);
+        postings.bytes.writeVarInt(frequency);
+        postings.lastDoc = docId;
+        postings.docFrequency++;
+    }
+
+    /**
+     * Return the number of documents added.
+     *
+     * @return Document count.
+     */
+    int getDocumentCount() {
+        return docCount;
+    }
+
+    /**
+     * Encode everything added as a segment.
+     *
+     * @return Segment bytes.
+     */
+    byte[] toByteArray() {
+        ByteWriter out = new ByteWriter();
+        out.writeBytes(Segment.MAGIC, 0, Segment.MAGIC.length);
+        out.writeVarInt(Segment.VERSION);
+
+        // document table
+        out.writeVarInt(docCount);
+        out.writeBytes(docs);
+
+        // term dictionary, each term followed by its postings
+        out.writeVarInt(terms.size());
+        for(Map.Entry<String, TermPostings> entry : terms.entrySet()) {
+            TermPostings postings = entry.getValue();
+            out.writeString(entry.getKey());
+            out.writeVarInt(postings.docFrequency);
+            out.writeVarInt(postings.bytes.size());
+            out.writeBytes(postings.bytes);
+        }
+
+        return out.toByteArray();
+    }
+}
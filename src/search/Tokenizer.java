@@ -0,0 +1,61 @@
+package search;
+
+import java.util.function.Consumer;
+
+/**
+ * Splits text into index terms: runs of letters and digits, lower-cased.
+ * Terms shorter than {@link #MIN_LENGTH} or longer than {@link #MAX_LENGTH}
+ * are dropped.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public final class Tokenizer {
+    /**
+     * Shortest term indexed.
+     */
+    public static final int MIN_LENGTH = 2;
+
+    /**
+     * Longest term indexed.
+     */
+    public static final int MAX_LENGTH = 64;
+
+    /**
+     * Not instantiable.
+     */
+    private Tokenizer() {
+    }
+
+    /**
+     * Pass each term in some text to a consumer, in order.
+     *
+     * @param text Text.
+     * @param sink Receives each term.
+     */
+    public static void forEachTerm(String text, Consumer<String> sink) {
+        int length = text.length();
+        int i = 0;
+
+        while(i < length) {
+            // skip to the start of a term
+            while(i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+
+            // find its end
+            int start = i;
+            while(i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+
+            if(i - start >= MIN_LENGTH && i - start <= MAX_LENGTH) {
+                char[] term = new char[i - start];
+                for(int j = 0; j < term.length; j++) {
+                    term[j] = Character.toLowerCase(text.charAt(start + j));
+                }
+                sink.accept(new String(term));
+            }
+        }
+    }
+}
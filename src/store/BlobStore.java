@@ -0,0 +1,609 @@
+package store;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Response bodies stored on disk by content. Each distinct body is written
+ * once, as a file named by its {@link ContentHash} key, and each URL holds
+ * only a reference to it along with the META it was served with. Bodies
+ * served by many URLs (mirrors, a folder and its index.gmi, an image linked
+ * from many pages) take the space of one.
+ *
+ * Each body counts the URLs referring to it. A body nobody refers to any
+ * more is left in place until {@link #gc()}, so a URL that's removed and
+ * stored again in between doesn't rewrite it. Since the hash isn't
+ * cryptographic, a body whose key is already taken is compared byte by
+ * byte, and stored under the next free variant of the key if it differs.
+ *
+ * The references are kept in a tab-separated file, rewritten all at once
+ * on saving. Bodies written since the last save that nothing refers to are
+ * found and collected when the store is next opened.
+ *
+ * Given a {@link TieredCache}, bodies are read through it: bodies stored
+ * or read recently are served from memory, and so are the byte-by-byte
+ * comparisons of bodies stored again.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class BlobStore implements Closeable {
+    /**
+     * Name of the file holding the references.
+     */
+    private static final String REFERENCES_NAME = "refs";
+
+    /**
+     * Name of the directory holding the bodies.
+     */
+    private static final String BLOBS_NAME = "blobs";
+
+    /**
+     * A URL's reference to a stored body.
+     */
+    public static final class Entry {
+        /**
+         * URL.
+         */
+        private final String url;
+
+        /**
+         * Key of the body.
+         */
+        private final String key;
+
+        /**
+         * META the body was served with.
+         */
+        private final String meta;
+
+        /**
+         * Body size in bytes.
+         */
+        private final long size;
+
+        /**
+         * When it was stored (ms since the epoch).
+         */
+        private final long stored;
+
+        /**
+         * Create an entry.
+         *
+         * @param url URL.
+         * @param key Key of the body.
+         * @param meta META.
+         * @param size Body size.
+         * @param stored When it was stored.
+         */
+        Entry(String url, String key, String meta, long size, long stored) {
+            this.url = url;
+            this.key = key;
+            this.meta = meta;
+            this.size = size;
+            this.stored = stored;
+        }
+
+        /**
+         * Return the URL.
+         *
+         * @return URL.
+         */
+        public String getURL() {
+            return url;
+        }
+
+        /**
+         * Return the key of the body. Equal keys mean equal bodies.
+         *
+         * @return Key.
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Return the META the body was served with.
+         *
+         * @return META.
+         */
+        public String getMeta() {
+            return meta;
+        }
+
+        /**
+         * Return the size of the body.
+         *
+         * @return Size in bytes.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Return when the body was stored.
+         *
+         * @return Milliseconds since the epoch.
+         */
+        public long getStored() {
+            return stored;
+        }
+
+        /**
+         * Write the entry as a line of the references file.
+         *
+         * @return Tab-separated fields.
+         */
+        String toLine() {
+            return url + "\t" + key + "\t" + size + "\t" + stored + "\t" + meta;
+        }
+    }
+
+    /**
+     * A body on disk.
+     */
+    private static final class Blob {
+        /**
+         * Size in bytes.
+         */
+        final long size;
+
+        /**
+         * Number of URLs referring to it.
+         */
+        int references;
+
+        /**
+         * Create a blob.
+         *
+         * @param size Size in bytes.
+         */
+        Blob(long size) {
+            this.size = size;
+        }
+    }
+
+    /**
+     * File holding the references.
+     */
+    private final Path referencesFile;
+
+    /**
+     * Directory holding the bodies.
+     */
+    private final Path blobDirectory;
+
+    /**
+     * Bodies kept in memory by key, or null.
+     */
+    private final TieredCache cache;
+
+    /**
+     * Entries by URL, least recently stored first.
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * Bodies on disk, by key.
+     */
+    private final Map<String, Blob> blobs = new HashMap<>();
+
+    /**
+     * Keys of bodies nothing refers to, waiting to be collected.
+     */
+    private final Set<String> garbage = new HashSet<>();
+
+    /**
+     * Bytes of bodies on disk.
+     */
+    private long storedBytes;
+
+    /**
+     * Bytes of bodies referred to, counting a body once per URL.
+     */
+    private long referencedBytes;
+
+    /**
+     * Whether the references changed since the last save.
+     */
+    private boolean dirty;
+
+    /**
+     * Open a store, creating it if the directory doesn't exist.
+     *
+     * @param directory Directory holding the store.
+     * @throws IOException If it can't be read or created.
+     */
+    public BlobStore(Path directory) throws IOException {
+        this(directory, null);
+    }
+
+    /**
+     * Open a store that reads through a cache, creating it if the directory
+     * doesn't exist.
+     *
+     * @param directory Directory holding the store.
+     * @param cache Bodies kept in memory, or null.
+     * @throws IOException If it can't be read or created.
+     */
+    public BlobStore(Path directory, TieredCache cache) throws IOException {
+        this.cache = cache;
+        referencesFile = directory.resolve(REFERENCES_NAME);
+        blobDirectory = directory.resolve(BLOBS_NAME);
+        Files.createDirectories(blobDirectory);
+
+        // find every body on disk
+        try(DirectoryStream<Path> prefixes = Files.newDirectoryStream(blobDirectory)) {
+            for(Path prefix : prefixes) {
+                try(DirectoryStream<Path> files = Files.newDirectoryStream(prefix)) {
+                    for(Path file : files) {
+                        String name = file.getFileName().toString();
+
+                        // left behind by an interrupted write
+                        if(name.endsWith(".tmp")) {
+                            Files.deleteIfExists(file);
+                            continue;
+                        }
+
+                        long size = Files.size(file);
+                        blobs.put(name, new Blob(size));
+                        storedBytes += size;
+                    }
+                }
+            }
+        }
+
+        // load references to them
+        if(Files.exists(referencesFile)) {
+            for(String line : Files.readAllLines(referencesFile, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t", 5);
+                if(line.startsWith("#") || fields.length != 5 || !blobs.containsKey(fields[1])) {
+                    continue;
+                }
+
+                try {
+                    Entry entry = new Entry(fields[0], fields[1], fields[4], Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+                    entries.put(entry.url, entry);
+                    reference(entry);
+                } catch(NumberFormatException e) {
+                    // fall through
+                }
+            }
+        }
+
+        // bodies written without a saved reference
+        for(Map.Entry<String, Blob> blob : blobs.entrySet()) {
+            if(blob.getValue().references == 0) {
+                garbage.add(blob.getKey());
+            }
+        }
+    }
+
+    /**
+     * Store a URL's body, replacing whatever the URL referred to before.
+     * The body is only written if no URL has stored the same bytes.
+     *
+     * @param url URL.
+     * @param meta META the body was served with.
+     * @param body Body. It may be kept by the cache, so it must not be
+     *             changed afterwards.
+     * @return New entry for the URL.
+     * @throws IOException If the body can't be written.
+     */
+    public Entry put(String url, String meta, byte[] body) throws IOException {
+        // hash outside the lock
+        String key = ContentHash.key(body);
+        meta = meta.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ');
+
+        synchronized(this) {
+            key = write(key, body);
+
+            // move the URL to the end, as the most recently stored
+            Entry entry = new Entry(url, key, meta, body.length, System.currentTimeMillis());
+            Entry old = entries.remove(url);
+            entries.put(url, entry);
+            reference(entry);
+            if(old != null) {
+                release(old);
+            }
+
+            dirty = true;
+            return entry;
+        }
+    }
+
+    /**
+     * Return a URL's entry.
+     *
+     * @param url URL.
+     * @return Entry, or null if the URL isn't stored.
+     */
+    public synchronized Entry get(String url) {
+        return entries.get(url);
+    }
+
+    /**
+     * Read a stored body. A body served from the cache is the cached array
+     * itself and must not be changed.
+     *
+     * @param entry Entry referring to the body.
+     * @return Body.
+     * @throws IOException If it can't be read, e.g. if it was collected.
+     */
+    public byte[] read(Entry entry) throws IOException {
+        return read(entry.key);
+    }
+
+    /**
+     * Forget a URL. Its body is collected by the next {@link #gc()} if no
+     * other URL refers to it.
+     *
+     * @param url URL.
+     * @return Whether the URL was stored.
+     */
+    public synchronized boolean remove(String url) {
+        Entry entry = entries.remove(url);
+        if(entry == null) {
+            return false;
+        }
+
+        release(entry);
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Return the number of URLs referring to a body.
+     *
+     * @param key Key of the body.
+     * @return Number of references, 0 if it isn't stored.
+     */
+    public synchronized int getReferences(String key) {
+        Blob blob = blobs.get(key);
+        return blob == null ? 0 : blob.references;
+    }
+
+    /**
+     * Delete every body nothing refers to.
+     *
+     * @return Number of bodies deleted.
+     * @throws IOException If one can't be deleted.
+     */
+    public synchronized int gc() throws IOException {
+        int deleted = 0;
+
+        for(String key : new ArrayList<>(garbage)) {
+            Files.deleteIfExists(blobPath(key));
+            if(cache != null) {
+                cache.remove(key);
+            }
+            storedBytes -= blobs.remove(key).size;
+            garbage.remove(key);
+            deleted++;
+        }
+
+        return deleted;
+    }
+
+    /**
+     * Forget the URLs stored longest ago until the bodies still referred
+     * to fit in a budget, then collect the bodies left unreferenced.
+     *
+     * @param maxBytes Budget for stored bodies, in bytes.
+     * @return Number of URLs forgotten.
+     * @throws IOException If a body can't be deleted.
+     */
+    public synchronized int trim(long maxBytes) throws IOException {
+        gc();
+        if(storedBytes <= maxBytes) {
+            return 0;
+        }
+
+        List<Entry> oldest = new ArrayList<>(entries.values());
+
+        int removed = 0;
+        for(Entry entry : oldest) {
+            if(storedBytes <= maxBytes) {
+                break;
+            }
+
+            remove(entry.url);
+            removed++;
+
+            // the body is only freed by its last reference
+            if(!garbage.isEmpty()) {
+                gc();
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Return the number of URLs stored.
+     *
+     * @return Number of entries.
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Return the number of distinct bodies referred to.
+     *
+     * @return Number of bodies.
+     */
+    public synchronized int getBlobCount() {
+        return blobs.size() - garbage.size();
+    }
+
+    /**
+     * Return the space taken by bodies on disk, including any not yet
+     * collected.
+     *
+     * @return Bytes.
+     */
+    public synchronized long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * Return the space the bodies would take if each URL had its own copy.
+     *
+     * @return Bytes.
+     */
+    public synchronized long getReferencedBytes() {
+        return referencedBytes;
+    }
+
+    /**
+     * Write the references out, replacing the file all at once.
+     *
+     * @throws IOException If they can't be written.
+     */
+    public synchronized void save() throws IOException {
+        if(!dirty) {
+            return;
+        }
+
+        Path temporary = referencesFile.resolveSibling(REFERENCES_NAME + ".tmp");
+
+        try(BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write("# url\tkey\tsize\tstored\tmeta\n");
+            for(Entry entry : entries.values()) {
+                writer.write(entry.toLine());
+                writer.newLine();
+            }
+        }
+
+        Files.move(temporary, referencesFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+    }
+
+    /**
+     * Collect unreferenced bodies and save the references.
+     *
+     * @throws IOException If either fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        gc();
+        save();
+    }
+
+    /**
+     * Describe how much deduplication saves.
+     *
+     * @return Summary.
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("%d URLs, %d bodies, %.1f KB stored for %.1f KB referenced",
+            entries.size(), getBlobCount(), storedBytes / 1024.0, referencedBytes / 1024.0);
+    }
+
+    /**
+     * Find or write the file for a body.
+     *
+     * @param key Key the body hashes to.
+     * @param body Body.
+     * @return Key it's stored under: the given key, or a variant of it if
+     *         a different body already has that key.
+     * @throws IOException If the body can't be written or compared.
+     */
+    private String write(String key, byte[] body) throws IOException {
+        for(int variant = 0; ; variant++) {
+            String candidate = variant == 0 ? key : key + "." + variant;
+            Path file = blobPath(candidate);
+
+            // a new body
+            if(!blobs.containsKey(candidate)) {
+                Files.createDirectories(file.getParent());
+                Path temporary = file.resolveSibling(candidate + ".tmp");
+                Files.write(temporary, body);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                blobs.put(candidate, new Blob(body.length));
+                storedBytes += body.length;
+                if(cache != null) {
+                    cache.put(candidate, body);
+                }
+                return candidate;
+            }
+
+            // the same bytes are already stored
+            if(Arrays.equals(read(candidate), body)) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * Read a body through the cache.
+     *
+     * @param key Key.
+     * @return Body.
+     * @throws IOException If it can't be read.
+     */
+    private byte[] read(String key) throws IOException {
+        byte[] body = cache == null ? null : cache.get(key);
+        if(body == null) {
+            body = Files.readAllBytes(blobPath(key));
+            if(cache != null) {
+                cache.put(key, body);
+            }
+        }
+        return body;
+    }
+
+    /**
+     * Count a reference to an entry's body.
+     *
+     * @param entry Entry.
+     */
+    private void reference(Entry entry) {
+        Blob blob = blobs.get(entry.key);
+        if(blob.references++ == 0) {
+            garbage.remove(entry.key);
+        }
+        referencedBytes += entry.size;
+    }
+
+    /**
+     * Drop a reference to an entry's body.
+     *
+     * @param entry Entry.
+     */
+    private void release(Entry entry) {
+        Blob blob = blobs.get(entry.key);
+        if(--blob.references == 0) {
+            garbage.add(entry.key);
+        }
+        referencedBytes -= entry.size;
+    }
+
+    /**
+     * Return the file a body is stored in. Bodies are spread over
+     * subdirectories by the first two characters of their key.
+     *
+     * @param key Key.
+     * @return File.
+     */
+    private Path blobPath(String key) {
+        return blobDirectory.resolve(key.substring(0, 2)).resolve(key);
+    }
+}
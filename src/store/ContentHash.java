@@ -0,0 +1,156 @@
+package store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * A fast 64-bit hash of a body, used to tell identical bodies apart without
+ * comparing them byte by byte. This is XXH64 with a seed of zero, reading
+ * eight bytes at a time. It isn't cryptographic, so anything that must not
+ * be fooled by a crafted collision compares the bytes as well.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public final class ContentHash {
+    /**
+     * XXH64 prime 1.
+     */
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+
+    /**
+     * XXH64 prime 2.
+     */
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+
+    /**
+     * XXH64 prime 3.
+     */
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+
+    /**
+     * XXH64 prime 4.
+     */
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+
+    /**
+     * XXH64 prime 5.
+     */
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    /**
+     * Reads little-endian longs out of a byte array.
+     */
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Reads little-endian ints out of a byte array.
+     */
+    private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Not instantiable.
+     */
+    private ContentHash() {
+    }
+
+    /**
+     * Return the key a body is stored under: its hash and its length, in hex.
+     *
+     * @param body Body.
+     * @return Key, safe to use as a file name.
+     */
+    public static String key(byte[] body) {
+        return String.format("%016x-%x", hash(body, 0, body.length), body.length);
+    }
+
+    /**
+     * Hash part of an array.
+     *
+     * @param bytes Array.
+     * @param offset Offset of the first byte.
+     * @param length Number of bytes.
+     * @return Hash.
+     */
+    public static long hash(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        long hash;
+
+        // four lanes over each 32-byte stripe
+        if(length >= 32) {
+            long v1 = PRIME1 + PRIME2;
+            long v2 = PRIME2;
+            long v3 = 0;
+            long v4 = -PRIME1;
+
+            for(int limit = end - 32; i <= limit; i += 32) {
+                v1 = round(v1, (long) LONGS.get(bytes, i));
+                v2 = round(v2, (long) LONGS.get(bytes, i + 8));
+                v3 = round(v3, (long) LONGS.get(bytes, i + 16));
+                v4 = round(v4, (long) LONGS.get(bytes, i + 24));
+            }
+
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = merge(hash, v1);
+            hash = merge(hash, v2);
+            hash = merge(hash, v3);
+            hash = merge(hash, v4);
+        } else {
+            hash = PRIME5;
+        }
+
+        hash += length;
+
+        // the tail: longs, then an int, then bytes
+        for(; i + 8 <= end; i += 8) {
+            hash ^= round(0, (long) LONGS.get(bytes, i));
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+        }
+
+        if(i + 4 <= end) {
+            hash ^= ((int) INTS.get(bytes, i) & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            i += 4;
+        }
+
+        for(; i < end; i++) {
+            hash ^= (bytes[i] & 0xFF) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+        }
+
+        // mix the last bits through
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    /**
+     * Mix eight bytes into a lane.
+     *
+     * @param lane Lane.
+     * @param input Bytes, as a long.
+     * @return New lane.
+     */
+    private static long round(long lane, long input) {
+        lane += input * PRIME2;
+        lane = Long.rotateLeft(lane, 31);
+        return lane * PRIME1;
+    }
+
+    /**
+     * Fold a lane into the hash.
+     *
+     * @param hash Hash.
+     * @param lane Lane.
+     * @return New hash.
+     */
+    private static long merge(long hash, long lane) {
+        hash ^= round(0, lane);
+        return hash * PRIME1 + PRIME4;
+    }
+}
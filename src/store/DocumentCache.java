@@ -0,0 +1,166 @@
+package store;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import gemtext.CompactDocument;
+
+/**
+ * Parsed documents kept in memory by the key of the body they were parsed
+ * from, so a body seen again (under the same URL or any other) is shown
+ * without being decoded and parsed again. Keys are usually a
+ * {@link BlobStore.Entry} key with the charset appended, since the same
+ * bytes decode differently in different charsets.
+ *
+ * The least recently used documents are dropped once the cache holds more
+ * than its budget. A document's weight is estimated from the length of its
+ * text and its number of elements.
+ *
+ * Thread-safe.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class DocumentCache {
+    /**
+     * Estimated bytes each element takes beyond its text.
+     */
+    private static final int ELEMENT_BYTES = 17;
+
+    /**
+     * Documents, least recently used first.
+     */
+    private final LinkedHashMap<String, CompactDocument> documents = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Most bytes the documents may take.
+     */
+    private final long budget;
+
+    /**
+     * Bytes the documents take.
+     */
+    private long weight;
+
+    /**
+     * Lookups that found a document.
+     */
+    private long hits;
+
+    /**
+     * Lookups that didn't.
+     */
+    private long misses;
+
+    /**
+     * Create an empty cache.
+     *
+     * @param budget Most bytes the documents may take.
+     */
+    public DocumentCache(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Return the document parsed from a body.
+     *
+     * @param key Key of the body.
+     * @return Document, or null if it isn't cached.
+     */
+    public synchronized CompactDocument get(String key) {
+        CompactDocument document = documents.get(key);
+
+        if(document == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+
+        return document;
+    }
+
+    /**
+     * Cache the document parsed from a body. Documents larger than the
+     * whole budget aren't cached.
+     *
+     * @param key Key of the body.
+     * @param document Document.
+     */
+    public synchronized void put(String key, CompactDocument document) {
+        long size = weigh(document);
+        if(size > budget) {
+            return;
+        }
+
+        CompactDocument old = documents.put(key, document);
+        if(old != null) {
+            weight -= weigh(old);
+        }
+        weight += size;
+
+        // drop the least recently used until it fits
+        Iterator<Map.Entry<String, CompactDocument>> oldest = documents.entrySet().iterator();
+        while(weight > budget) {
+            weight -= weigh(oldest.next().getValue());
+            oldest.remove();
+        }
+    }
+
+    /**
+     * Return the number of documents cached.
+     *
+     * @return Number of documents.
+     */
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * Return the bytes the documents are estimated to take.
+     *
+     * @return Bytes.
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Return the number of lookups that found a document.
+     *
+     * @return Hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Return the number of lookups that didn't find a document.
+     *
+     * @return Misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Describe what's cached and how often it's been used.
+     *
+     * @return Summary.
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("%d documents (%.1f KB), %d hits, %d misses",
+            documents.size(), weight / 1024.0, hits, misses);
+    }
+
+    /**
+     * Estimate the bytes a document takes.
+     *
+     * @param document Document.
+     * @return Bytes.
+     */
+    private static long weigh(CompactDocument document) {
+        return 2L * document.getBackingText().length() + (long) ELEMENT_BYTES * document.size();
+    }
+}
@@ -0,0 +1,394 @@
+package store;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Bodies kept in memory in two tiers. The hot tier holds the most recently
+ * used bodies as they are. When it's over its budget, the least recently
+ * used body is compressed with a {@link Deflater} into the cold tier, which
+ * has a budget of its own and drops its least recently used bodies when
+ * full. A body found in the cold tier is decompressed and moved back to
+ * the hot tier.
+ *
+ * Gemtext usually shrinks to a third or less, so the cold tier holds
+ * several times the pages the same memory would hold raw. Bodies that
+ * don't shrink (most images) are kept in the cold tier as they are.
+ *
+ * Thread-safe. Bodies returned from the hot tier are the cached arrays
+ * themselves and must not be changed.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TieredCache {
+    /**
+     * A body in the cold tier.
+     */
+    private static final class Cold {
+        /**
+         * Compressed body, or the body itself if it didn't compress.
+         */
+        final byte[] data;
+
+        /**
+         * Size of the body.
+         */
+        final int length;
+
+        /**
+         * Create a cold entry.
+         *
+         * @param data Compressed body, or the body itself.
+         * @param length Size of the body.
+         */
+        Cold(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+
+        /**
+         * Return whether the body is compressed.
+         *
+         * @return Whether it's compressed.
+         */
+        boolean isCompressed() {
+            return data.length < length;
+        }
+    }
+
+    /**
+     * Uncompressed bodies, least recently used first.
+     */
+    private final LinkedHashMap<String, byte[]> hot = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Compressed bodies, least recently used first.
+     */
+    private final LinkedHashMap<String, Cold> cold = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Compresses bodies moving to the cold tier. Reused, since each one
+     * holds native memory.
+     */
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+
+    /**
+     * Decompresses bodies leaving the cold tier.
+     */
+    private final Inflater inflater = new Inflater();
+
+    /**
+     * Most bytes the hot tier may hold.
+     */
+    private final long hotBudget;
+
+    /**
+     * Most bytes the cold tier may hold, after compression.
+     */
+    private final long coldBudget;
+
+    /**
+     * Bytes the hot tier holds.
+     */
+    private long hotBytes;
+
+    /**
+     * Bytes the cold tier holds, after compression.
+     */
+    private long coldBytes;
+
+    /**
+     * Bytes the cold tier's bodies take uncompressed.
+     */
+    private long coldRawBytes;
+
+    /**
+     * Lookups found in the hot tier.
+     */
+    private long hotHits;
+
+    /**
+     * Lookups found in the cold tier.
+     */
+    private long coldHits;
+
+    /**
+     * Lookups found in neither.
+     */
+    private long misses;
+
+    /**
+     * Create an empty cache.
+     *
+     * @param hotBudget Most bytes the hot tier may hold.
+     * @param coldBudget Most bytes the cold tier may hold, after compression.
+     */
+    public TieredCache(long hotBudget, long coldBudget) {
+        this.hotBudget = hotBudget;
+        this.coldBudget = coldBudget;
+    }
+
+    /**
+     * Return a body.
+     *
+     * @param key Key.
+     * @return Body, or null if it isn't cached.
+     */
+    public synchronized byte[] get(String key) {
+        byte[] body = hot.get(key);
+        if(body != null) {
+            hotHits++;
+            return body;
+        }
+
+        Cold entry = cold.remove(key);
+        if(entry == null) {
+            misses++;
+            return null;
+        }
+
+        coldBytes -= entry.data.length;
+        coldRawBytes -= entry.length;
+        body = inflate(entry);
+
+        // unreadable: treat it as never cached
+        if(body == null) {
+            misses++;
+            return null;
+        }
+
+        coldHits++;
+        add(key, body);
+        return body;
+    }
+
+    /**
+     * Cache a body in the hot tier, replacing any body cached under its
+     * key. Bodies larger than the hot tier go straight to the cold tier.
+     *
+     * @param key Key.
+     * @param body Body. It must not be changed afterwards.
+     */
+    public synchronized void put(String key, byte[] body) {
+        remove(key);
+        add(key, body);
+    }
+
+    /**
+     * Drop a body from both tiers.
+     *
+     * @param key Key.
+     */
+    public synchronized void remove(String key) {
+        byte[] body = hot.remove(key);
+        if(body != null) {
+            hotBytes -= body.length;
+        }
+
+        Cold entry = cold.remove(key);
+        if(entry != null) {
+            coldBytes -= entry.data.length;
+            coldRawBytes -= entry.length;
+        }
+    }
+
+    /**
+     * Return the number of bodies in the hot tier.
+     *
+     * @return Number of bodies.
+     */
+    public synchronized int getHotCount() {
+        return hot.size();
+    }
+
+    /**
+     * Return the number of bodies in the cold tier.
+     *
+     * @return Number of bodies.
+     */
+    public synchronized int getColdCount() {
+        return cold.size();
+    }
+
+    /**
+     * Return the bytes the hot tier holds.
+     *
+     * @return Bytes.
+     */
+    public synchronized long getHotBytes() {
+        return hotBytes;
+    }
+
+    /**
+     * Return the bytes the cold tier holds, after compression.
+     *
+     * @return Bytes.
+     */
+    public synchronized long getColdBytes() {
+        return coldBytes;
+    }
+
+    /**
+     * Return how many times smaller the cold tier's bodies are than they
+     * would be uncompressed.
+     *
+     * @return Compression ratio, 1 if the cold tier is empty.
+     */
+    public synchronized double getCompressionRatio() {
+        return coldBytes == 0 ? 1 : (double) coldRawBytes / coldBytes;
+    }
+
+    /**
+     * Return the number of lookups found in the hot tier.
+     *
+     * @return Hits.
+     */
+    public synchronized long getHotHits() {
+        return hotHits;
+    }
+
+    /**
+     * Return the number of lookups found in the cold tier.
+     *
+     * @return Hits.
+     */
+    public synchronized long getColdHits() {
+        return coldHits;
+    }
+
+    /**
+     * Return the number of lookups found in neither tier.
+     *
+     * @return Misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Describe each tier and how often it's hit.
+     *
+     * @return Summary.
+     */
+    @Override
+    public synchronized String toString() {
+        long lookups = Math.max(1, hotHits + coldHits + misses);
+        return String.format("hot %d bodies, %.1f KB, %.0f%% hits; cold %d bodies, %.1f KB (%.1fx compressed), %.0f%% hits; %d misses",
+            hot.size(), hotBytes / 1024.0, 100.0 * hotHits / lookups,
+            cold.size(), coldBytes / 1024.0, getCompressionRatio(), 100.0 * coldHits / lookups, misses);
+    }
+
+    /**
+     * Add a body to the hot tier, moving the least recently used bodies to
+     * the cold tier until it fits.
+     *
+     * @param key Key, not in either tier.
+     * @param body Body.
+     */
+    private void add(String key, byte[] body) {
+        if(body.length > hotBudget) {
+            demote(key, body);
+            return;
+        }
+
+        hot.put(key, body);
+        hotBytes += body.length;
+
+        Iterator<Map.Entry<String, byte[]>> oldest = hot.entrySet().iterator();
+        while(hotBytes > hotBudget) {
+            Map.Entry<String, byte[]> entry = oldest.next();
+            oldest.remove();
+            hotBytes -= entry.getValue().length;
+            demote(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Compress a body into the cold tier, dropping the least recently used
+     * bodies until it fits.
+     *
+     * @param key Key, not in either tier.
+     * @param body Body.
+     */
+    private void demote(String key, byte[] body) {
+        Cold entry = new Cold(deflate(body), body.length);
+        if(entry.data.length > coldBudget) {
+            return;
+        }
+
+        cold.put(key, entry);
+        coldBytes += entry.data.length;
+        coldRawBytes += entry.length;
+
+        Iterator<Cold> oldest = cold.values().iterator();
+        while(coldBytes > coldBudget) {
+            Cold dropped = oldest.next();
+            oldest.remove();
+            coldBytes -= dropped.data.length;
+            coldRawBytes -= dropped.length;
+        }
+    }
+
+    /**
+     * Compress a body.
+     *
+     * @param body Body.
+     * @return Compressed body, or the body itself if it doesn't get smaller.
+     */
+    private byte[] deflate(byte[] body) {
+        deflater.reset();
+        deflater.setInput(body);
+        deflater.finish();
+
+        // anything that doesn't fit in less than the body isn't worth it
+        byte[] out = new byte[Math.max(64, Math.min(body.length - 1, body.length / 2))];
+        int size = 0;
+        while(!deflater.finished()) {
+            if(size == out.length) {
+                if(out.length >= body.length - 1) {
+                    return body;
+                }
+                out = Arrays.copyOf(out, Math.min(body.length - 1, out.length * 2));
+            }
+            size += deflater.deflate(out, size, out.length - size);
+        }
+
+        return size < body.length ? Arrays.copyOf(out, size) : body;
+    }
+
+    /**
+     * Decompress a cold body.
+     *
+     * @param entry Cold entry.
+     * @return Body, or null if it can't be decompressed.
+     */
+    private byte[] inflate(Cold entry) {
+        if(!entry.isCompressed()) {
+            return entry.data;
+        }
+
+        inflater.reset();
+        inflater.setInput(entry.data);
+        byte[] body = new byte[entry.length];
+
+        try {
+            int size = 0;
+            while(size < body.length && !inflater.finished()) {
+                int inflated = inflater.inflate(body, size, body.length - size);
+                if(inflated == 0 && inflater.needsInput()) {
+                    return null;
+                }
+                size += inflated;
+            }
+            return size == body.length ? body : null;
+        } catch(DataFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fetch.BatchFetch;
+import network.LoopbackServer;
+import network.LoopbackServer.Script;
+
+/**
+ * JUnit tests for batch fetching: several responses at once against a
+ * {@link LoopbackServer}, written as interleaved frames.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TestBatchFetch {
+    /**
+     * Test that every response comes back whole from the framed output,
+     * however its frames were interleaved with the others'.
+     */
+    @Test
+    public void testFramed() throws Exception {
+        // a body full of line feeds and things that look like frames
+        byte[] tricky = "D 1 5\nE 1 0 0\n\n\nH 2 20 0 x y\n".getBytes(StandardCharsets.UTF_8);
+        byte[] big = bytes(200_000, 1);
+        byte[] other = bytes(150_000, 2);
+        byte[] empty = new byte[0];
+
+        try(LoopbackServer server = new LoopbackServer()) {
+            server.serve("/big.gmi", new Script(20, "text/gemini").withBody(big).withChunks(4096).withBandwidth(2_000_000));
+            server.serve("/other.gmi", new Script(20, "text/plain; charset=utf-8").withBody(other).withChunks(1000).withBandwidth(2_000_000));
+            server.serve("/tricky.txt", new Script(20, "text/plain").withBody(tricky).withChunks(3).withLatency(50));
+            server.serve("/empty.gmi", new Script(20, "text/gemini"));
+            server.serve("/input", new Script(10, "Your name?").withLatency(100));
+
+            List<String> urls = List.of(
+                server.url("/big.gmi"),
+                server.url("/other.gmi"),
+                server.url("/tricky.txt"),
+                server.url("/empty.gmi"),
+                server.url("/input"),
+                server.url("/missing.gmi"),
+                "gemini://");
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            BatchFetch fetch = BatchFetch.framed(out, 4, 5000);
+            String list = "# comment\n\n" + String.join("\n", urls) + "\n";
+            assertEquals(urls.size(), fetch.run(new BufferedReader(new StringReader(list))));
+            assertEquals(1, fetch.getFailures());
+
+            Map<Integer, Response> responses = parse(out.toByteArray());
+            assertEquals(urls.size(), responses.size());
+
+            // ids are line numbers among the URLs
+            check(responses.get(1), urls.get(0), 20, "text/gemini", big);
+            check(responses.get(2), urls.get(1), 20, "text/plain; charset=utf-8", other);
+            check(responses.get(3), urls.get(2), 20, "text/plain", tricky);
+            check(responses.get(4), urls.get(3), 20, "text/gemini", empty);
+            check(responses.get(5), urls.get(4), 10, "Your name?", empty);
+            check(responses.get(6), urls.get(5), 51, null, empty);
+
+            Response failed = responses.get(7);
+            assertTrue(failed.failed);
+            assertEquals(-1, failed.status);
+            assertEquals("gemini://", failed.url);
+
+            // every body byte is counted once
+            assertEquals(200_000 + 150_000 + tricky.length, fetch.getBytes());
+
+            // the two slow bodies were streamed at the same time
+            assertTrue(responses.get(1).firstFrame < responses.get(2).lastFrame
+                && responses.get(2).firstFrame < responses.get(1).lastFrame);
+        }
+    }
+
+    /**
+     * Check a response parsed from the frames.
+     *
+     * @param response Response.
+     * @param url URL it was for.
+     * @param status Expected status.
+     * @param meta Expected META, or null not to check it.
+     * @param body Expected body.
+     */
+    private static void check(Response response, String url, int status, String meta, byte[] body) {
+        assertFalse(response.failed, response.url);
+        assertTrue(response.ended, url);
+        assertEquals(url, response.url);
+        assertEquals(status, response.status);
+        if(meta != null) {
+            assertEquals(meta, response.meta);
+        }
+        assertEquals(body.length, response.size);
+        assertArrayEquals(body, response.body.toByteArray());
+    }
+
+    /**
+     * Make a body that differs from any made with another seed, so bytes
+     * landing in the wrong response are caught.
+     *
+     * @param size Size.
+     * @param seed Seed.
+     * @return Body.
+     */
+    private static byte[] bytes(int size, int seed) {
+        byte[] body = new byte[size];
+        for(int i = 0; i < size; i++) {
+            body[i] = (byte) (i * 31 + seed * 7 + i / 251);
+        }
+        return body;
+    }
+
+    /**
+     * Parse framed output into responses, checking the frames are well
+     * formed on the way.
+     *
+     * @param frames Output.
+     * @return Responses by id.
+     */
+    private static Map<Integer, Response> parse(byte[] frames) {
+        Map<Integer, Response> responses = new HashMap<>();
+        int position = 0;
+        int frame = 0;
+
+        while(position < frames.length) {
+            int end = position;
+            while(frames[end] != '\n') {
+                end++;
+            }
+            String line = new String(frames, position, end - position, StandardCharsets.UTF_8);
+            position = end + 1;
+            int number = ++frame;
+
+            String[] fields = line.split(" ", 6);
+            int id = Integer.parseInt(fields[1]);
+            Response response = responses.computeIfAbsent(id, key -> new Response(number));
+            response.lastFrame = number;
+            assertFalse(response.ended || response.failed, "frame after the end: " + line);
+
+            switch(fields[0]) {
+                case "H":
+                    assertEquals(-1, response.status, "second header: " + line);
+                    response.status = Integer.parseInt(fields[2]);
+                    Double.parseDouble(fields[3]);
+                    response.url = fields[4];
+                    response.meta = fields.length > 5 ? fields[5] : "";
+                    break;
+                case "D":
+                    int length = Integer.parseInt(fields[2]);
+                    assertTrue(length > 0, line);
+                    response.body.write(frames, position, length);
+                    position += length;
+                    assertEquals('\n', frames[position++], "body not followed by a line feed");
+                    break;
+                case "E":
+                    assertNotEquals(-1, response.status, "end before header: " + line);
+                    response.size = Long.parseLong(fields[2]);
+                    Double.parseDouble(fields[3]);
+                    response.ended = true;
+                    break;
+                case "F":
+                    Double.parseDouble(fields[2]);
+                    response.url = fields[3];
+                    response.failed = true;
+                    break;
+                default:
+                    fail("unknown frame: " + line);
+            }
+        }
+
+        return responses;
+    }
+
+    /**
+     * A response put back together from frames.
+     */
+    private static class Response {
+        /**
+         * Number of its first frame.
+         */
+        final int firstFrame;
+
+        /**
+         * Number of its last frame.
+         */
+        int lastFrame;
+
+        /**
+         * Status, or -1 before the header.
+         */
+        int status = -1;
+
+        /**
+         * URL.
+         */
+        String url;
+
+        /**
+         * META.
+         */
+        String meta;
+
+        /**
+         * Body.
+         */
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        /**
+         * Size given by the end frame.
+         */
+        long size = -1;
+
+        /**
+         * Whether it ended.
+         */
+        boolean ended;
+
+        /**
+         * Whether it failed.
+         */
+        boolean failed;
+
+        /**
+         * Start a response.
+         *
+         * @param firstFrame Number of its first frame.
+         */
+        Response(int firstFrame) {
+            this.firstFrame = firstFrame;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Random;
+
+import gemtext.CompactDocument;
+import gemtext.GemtextParser;
+import store.BlobStore;
+import store.ContentHash;
+import store.DocumentCache;
+import store.TieredCache;
+
+/**
+ * JUnit tests for the content-addressed body store and the caches in
+ * front of it.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TestBlobStore {
+    /**
+     * Directory for the store, emptied after each test.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test the hash against known XXH64 values.
+     */
+    @Test
+    public void testContentHash() {
+        assertEquals(0xEF46DB3751D8E999L, ContentHash.hash(new byte[0], 0, 0));
+        assertEquals(0x44BC2CF5AD770999L, ContentHash.hash("abc".getBytes(StandardCharsets.US_ASCII), 0, 3));
+
+        byte[] long1 = "0123456789abcdef0123456789abcdef0123456789".getBytes(StandardCharsets.US_ASCII);
+        byte[] long2 = long1.clone();
+        long2[40] = 'x';
+        assertEquals(ContentHash.key(long1), ContentHash.key(long1.clone()));
+        assertNotEquals(ContentHash.key(long1), ContentHash.key(long2));
+        assertTrue(ContentHash.key(long1).endsWith("-2a"));
+    }
+
+    /**
+     * Test that identical bodies are stored once, and collected once
+     * nothing refers to them.
+     */
+    @Test
+    public void testDeduplication() throws IOException {
+        byte[] page = "# Home\n=> a.gmi A\n".getBytes(StandardCharsets.UTF_8);
+        byte[] other = "# Other\n".getBytes(StandardCharsets.UTF_8);
+
+        BlobStore store = new BlobStore(directory);
+        BlobStore.Entry root = store.put("gemini://example.org/", "text/gemini", page);
+        BlobStore.Entry index = store.put("gemini://example.org/index.gmi", "text/gemini", page.clone());
+        assertEquals(root.getKey(), index.getKey());
+        assertEquals(1, store.getBlobCount());
+        assertEquals(2, store.getReferences(root.getKey()));
+        assertEquals(page.length, store.getStoredBytes());
+        assertEquals(2L * page.length, store.getReferencedBytes());
+
+        // replacing one reference keeps the shared body
+        store.put("gemini://example.org/", "text/gemini; lang=en", other);
+        assertEquals(1, store.getReferences(root.getKey()));
+        assertEquals(0, store.gc());
+        assertArrayEquals(page, store.read(store.get("gemini://example.org/index.gmi")));
+        store.close();
+
+        // references survive reopening
+        BlobStore reopened = new BlobStore(directory);
+        assertEquals("text/gemini; lang=en", reopened.get("gemini://example.org/").getMeta());
+        assertEquals(2, reopened.getBlobCount());
+
+        // the last reference frees the body
+        assertTrue(reopened.remove("gemini://example.org/index.gmi"));
+        assertEquals(0, reopened.getReferences(root.getKey()));
+        assertEquals(1, reopened.gc());
+        assertEquals(other.length, reopened.getStoredBytes());
+        assertThrows(IOException.class, () -> reopened.read(root));
+    }
+
+    /**
+     * Test that the oldest URLs are forgotten to fit a budget.
+     */
+    @Test
+    public void testTrim() throws IOException {
+        BlobStore store = new BlobStore(directory);
+        store.put("gemini://example.org/1", "text/plain", new byte[100]);
+        store.put("gemini://example.org/2", "text/plain", new byte[200]);
+        store.put("gemini://example.org/3", "text/plain", new byte[300]);
+
+        assertEquals(1, store.trim(500));
+        assertNull(store.get("gemini://example.org/1"));
+        assertEquals(500, store.getStoredBytes());
+    }
+
+    /**
+     * Test that the least recently used documents are dropped first.
+     */
+    @Test
+    public void testDocumentCache() {
+        CompactDocument document = GemtextParser.parseDocument("# Title\nSome text\n");
+        DocumentCache cache = new DocumentCache(3 * (2L * document.getBackingText().length() + 17 * document.size()));
+
+        cache.put("a", document);
+        cache.put("b", document);
+        cache.put("c", document);
+        assertSame(document, cache.get("a"));
+
+        // "b" is now the least recently used
+        cache.put("d", document);
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertEquals(3, cache.size());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * Test that cold bodies are compressed and come back intact.
+     */
+    @Test
+    public void testTieredCache() {
+        StringBuilder page = new StringBuilder();
+        for(int i = 0; i < 100; i++) {
+            page.append("=> gemini://example.org/log/").append(i).append(".gmi Entry ").append(i).append('\n');
+        }
+        byte[] a = page.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] b = page.toString().replace("Entry", "Post").getBytes(StandardCharsets.UTF_8);
+
+        // room for one body in the hot tier
+        TieredCache cache = new TieredCache(a.length, a.length);
+        cache.put("a", a);
+        cache.put("b", b);
+        assertEquals(1, cache.getHotCount());
+        assertEquals(1, cache.getColdCount());
+        assertTrue(cache.getCompressionRatio() > 3);
+
+        // "a" was moved to the cold tier; getting it moves "b" there
+        assertArrayEquals(a, cache.get("a"));
+        assertSame(cache.get("a"), cache.get("a"));
+        assertArrayEquals(b, cache.get("b"));
+        assertNull(cache.get("c"));
+        assertEquals(2, cache.getColdHits());
+        assertEquals(2, cache.getHotHits());
+        assertEquals(1, cache.getMisses());
+
+        // bodies that don't compress are kept as they are
+        byte[] noise = new byte[1000];
+        new Random(1).nextBytes(noise);
+        TieredCache small = new TieredCache(0, 2000);
+        small.put("noise", noise);
+        assertEquals(1000, small.getColdBytes());
+        assertArrayEquals(noise, small.get("noise"));
+    }
+
+    /**
+     * Test that the store reads through its cache.
+     */
+    @Test
+    public void testReadThrough() throws IOException {
+        TieredCache cache = new TieredCache(1024, 1024);
+        BlobStore store = new BlobStore(directory, cache);
+        byte[] page = "# Cached\n".getBytes(StandardCharsets.UTF_8);
+
+        BlobStore.Entry entry = store.put("gemini://example.org/", "text/gemini", page);
+        assertSame(page, store.read(entry));
+        assertEquals(1, cache.getHotHits());
+
+        // collected bodies leave the cache too
+        store.remove("gemini://example.org/");
+        store.gc();
+        assertNull(cache.get(entry.getKey()));
+    }
+}
@@ -0,0 +1,84 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import crawler.Frontier;
+import crawler.RobotsRules;
+
+/**
+ * JUnit tests for the crawler's frontier and robots.txt rules. These make
+ * no requests.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TestCrawler {
+    /**
+     * Test which robots.txt groups and rules apply.
+     */
+    @Test
+    public void testRobotsRules() {
+        String robots = String.join("\n",
+            "# comment",
+            "User-agent: *",
+            "Disallow: /",
+            "",
+            "User-agent: archiver",
+            "User-agent: indexer",
+            "Disallow: /private",
+            "Allow: /private/ok",
+            "Crawl-delay: 2.5");
+
+        RobotsRules indexer = RobotsRules.parse(robots, "indexer");
+        assertTrue(indexer.isAllowed("/"));
+        assertFalse(indexer.isAllowed("/private/secret.gmi"));
+        assertTrue(indexer.isAllowed("/private/ok/page.gmi"));
+        assertEquals(2500, indexer.getCrawlDelay());
+
+        // nonsense delays are ignored, and huge ones capped
+        assertEquals(0, RobotsRules.parse("User-agent: *\nCrawl-delay: NaN\n", "indexer").getCrawlDelay());
+        assertEquals(0, RobotsRules.parse("User-agent: *\nCrawl-delay: -5\n", "indexer").getCrawlDelay());
+        assertEquals(RobotsRules.MAX_CRAWL_DELAY,
+            RobotsRules.parse("User-agent: *\nCrawl-delay: 1e300\n", "indexer").getCrawlDelay());
+        assertEquals(RobotsRules.MAX_CRAWL_DELAY,
+            RobotsRules.parse("User-agent: *\nCrawl-delay: Infinity\n", "indexer").getCrawlDelay());
+
+        // everyone else falls back to *
+        RobotsRules other = RobotsRules.parse(robots, "researcher");
+        assertFalse(other.isAllowed("/index.gmi"));
+
+        assertTrue(RobotsRules.parse("", "indexer").isAllowed("/anything"));
+        assertTrue(RobotsRules.parse("User-agent: *\nDisallow:\n", "indexer").isAllowed("/"));
+    }
+
+    /**
+     * Test deduplication and one request at a time per host.
+     */
+    @Test
+    public void testFrontier() throws InterruptedException {
+        Frontier frontier = new Frontier(60_000);
+        assertTrue(frontier.add("gemini://a.example/1", "a.example", 0));
+        assertTrue(frontier.add("gemini://a.example/2", "a.example", 1));
+        assertTrue(frontier.add("gemini://b.example/", "b.example", 0));
+        assertFalse(frontier.add("gemini://a.example/1", "a.example", 2));
+        assertEquals(3, frontier.getQueued());
+
+        // both hosts are handed out once
+        Frontier.Task first = frontier.take();
+        Frontier.Task second = frontier.take();
+        assertNotEquals(first.getHost(), second.getHost());
+
+        // without a request, a host is ready straight away; with one, it waits
+        Frontier.Task a = first.getHost().equals("a.example") ? first : second;
+        Frontier.Task b = a == first ? second : first;
+        frontier.finish(a, false);
+        Frontier.Task next = frontier.take();
+        assertEquals("gemini://a.example/2", next.getURL());
+        assertEquals(1, next.getDepth());
+
+        frontier.finish(b, true);
+        frontier.finish(next, true);
+        assertNull(frontier.take());
+    }
+}
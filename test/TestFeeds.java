@@ -0,0 +1,131 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import feeds.FeedEntry;
+import feeds.FeedParser;
+import feeds.Subscriptions;
+import gemtext.CompactDocument;
+import gemtext.GemtextParser;
+
+/**
+ * JUnit tests for reading feeds and finding their new posts.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TestFeeds {
+    /**
+     * URL of the feed used in the tests.
+     */
+    private static final String FEED = "gemini://example.org/log/";
+
+    /**
+     * Directory for the subscriptions, emptied after each test.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that only dated links are posts, resolved against the page.
+     */
+    @Test
+    public void testParser() {
+        CompactDocument page = GemtextParser.parseDocument(String.join("\n",
+            "# My gemlog",
+            "=> about.gmi About me",
+            "=> 2026-10-19-post.gmi 2026-10-19 - Second post",
+            "=> gemini://other.org/first.gmi 2026-10-01 First post",
+            "=> https://example.com/ 2026-10-02 Elsewhere",
+            "* 2026-10-03 not a link",
+            "=> /bare.gmi 2026-09-30",
+            ""));
+
+        assertEquals("My gemlog", FeedParser.getTitle(page));
+
+        List<FeedEntry> entries = FeedParser.getEntries(FEED, FEED, page, 5);
+        assertEquals(3, entries.size());
+        assertEquals("gemini://example.org/log/2026-10-19-post.gmi", entries.get(0).getURL());
+        assertEquals("2026-10-19", entries.get(0).getDate());
+        assertEquals("Second post", entries.get(0).getTitle());
+        assertEquals("gemini://other.org/first.gmi", entries.get(1).getURL());
+        assertEquals("gemini://example.org/bare.gmi", entries.get(2).getTitle());
+        assertEquals(FEED, entries.get(2).getFeed());
+    }
+
+    /**
+     * Test that posts are diffed against the known ones and saved.
+     */
+    @Test
+    public void testChanges() throws IOException {
+        Subscriptions subscriptions = new Subscriptions(directory);
+        assertTrue(subscriptions.subscribe(FEED));
+        assertFalse(subscriptions.subscribe(FEED));
+        Subscriptions.Feed feed = subscriptions.getFeed(FEED);
+        assertTrue(feed.isDue(0));
+
+        FeedEntry first = new FeedEntry(FEED, "gemini://example.org/log/1.gmi", "2026-10-01", "One", 1);
+        FeedEntry second = new FeedEntry(FEED, "gemini://example.org/log/2.gmi", "2026-10-02", "Two", 2);
+        assertEquals(1, feed.changed("k1", "Log", List.of(first), 1, 100).size());
+        assertFalse(feed.isDue(99));
+
+        // a retitled post isn't new
+        FeedEntry retitled = new FeedEntry(FEED, first.getURL(), first.getDate(), "One, edited", 2);
+        List<FeedEntry> added = feed.changed("k2", "Log", List.of(second, retitled), 2, 200);
+        assertEquals(1, added.size());
+        assertSame(second, added.get(0));
+        assertEquals(1, feed.getEntries().get(1).getSeen());
+        assertEquals("One, edited", feed.getEntries().get(1).getTitle());
+        subscriptions.save();
+
+        Subscriptions loaded = new Subscriptions(directory);
+        Subscriptions.Feed reloaded = loaded.getFeed(FEED);
+        assertEquals("Log", reloaded.getTitle());
+        assertEquals("k2", reloaded.getKey());
+        assertFalse(reloaded.isDue(199));
+        List<FeedEntry> entries = loaded.getEntries(10);
+        assertEquals(2, entries.size());
+        assertEquals("Two", entries.get(0).getTitle());
+
+        assertTrue(loaded.unsubscribe(FEED));
+        assertTrue(loaded.getEntries(10).isEmpty());
+    }
+
+    /**
+     * Test that posts past the cap aren't found again as new, even after
+     * saving and loading.
+     */
+    @Test
+    public void testLongFeed() throws IOException {
+        Subscriptions subscriptions = new Subscriptions(directory);
+        subscriptions.subscribe(FEED);
+        Subscriptions.Feed feed = subscriptions.getFeed(FEED);
+
+        List<FeedEntry> posts = new ArrayList<>();
+        for(int i = 0; i < 150; i++) {
+            posts.add(new FeedEntry(FEED, "gemini://example.org/log/" + i + ".gmi",
+                String.format("2026-%02d-%02d", 1 + i / 28, 1 + i % 28), "Post " + i, 1));
+        }
+        assertEquals(150, feed.changed("k1", "Log", posts, 1, 100).size());
+        assertEquals(Subscriptions.MAX_ENTRIES, feed.getEntries().size());
+
+        // one real new post among the 150 old ones
+        FeedEntry latest = new FeedEntry(FEED, "gemini://example.org/log/new.gmi", "2026-10-19", "New", 2);
+        posts.add(latest);
+        List<FeedEntry> added = feed.changed("k2", "Log", posts, 2, 200);
+        assertEquals(List.of(latest), added);
+
+        subscriptions.save();
+        Subscriptions.Feed reloaded = new Subscriptions(directory).getFeed(FEED);
+        FeedEntry another = new FeedEntry(FEED, "gemini://example.org/log/another.gmi", "2026-10-20", "Another", 3);
+        posts.add(another);
+        assertEquals(List.of(another), reloaded.changed("k3", "Log", posts, 3, 300));
+    }
+}
@@ -0,0 +1,236 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+
+import network.GeminiRequest;
+import network.LoopbackServer;
+import network.LoopbackServer.Script;
+import network.ServerContext;
+import proxy.GeminiProxy;
+import store.BlobStore;
+
+/**
+ * JUnit tests for GeminiProxy, in front of a loopback server.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TestGeminiProxy {
+    /**
+     * How long the proxy serves stored responses for, in milliseconds.
+     */
+    private static final long MAX_AGE = 1000;
+
+    /**
+     * Directory for the proxy's certificate.
+     */
+    @TempDir
+    static Path keys;
+
+    /**
+     * Directory for the proxy's store, emptied after each test.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * The proxy's TLS context, generated once.
+     */
+    private static SSLContext context;
+
+    /**
+     * Capsule behind the proxy.
+     */
+    private LoopbackServer upstream;
+
+    /**
+     * Proxy's listening socket.
+     */
+    private SSLServerSocket server;
+
+    /**
+     * Proxy's workers.
+     */
+    private ExecutorService workers;
+
+    /**
+     * Proxy's log.
+     */
+    private ByteArrayOutputStream log;
+
+    /**
+     * Generate the proxy's certificate.
+     *
+     * @throws IOException If it can't be generated.
+     */
+    @BeforeAll
+    public static void createContext() throws IOException {
+        context = ServerContext.create(keys.resolve("proxy.p12"), "password".toCharArray(), "127.0.0.1");
+    }
+
+    /**
+     * Start a capsule, and a proxy with an empty store in front of it.
+     *
+     * @throws IOException If either can't be started.
+     */
+    @BeforeEach
+    public void start() throws IOException {
+        upstream = new LoopbackServer()
+            .serve("/page.gmi", new Script(20, "text/gemini").withBody("# Page\n"))
+            .serve("/slow.gmi", new Script(20, "text/gemini").withBody("# Slow\n").withLatency(500));
+
+        log = new ByteArrayOutputStream();
+        GeminiProxy proxy = new GeminiProxy(new BlobStore(directory), MAX_AGE, 5000,
+            new PrintStream(log, true, StandardCharsets.UTF_8));
+        server = (SSLServerSocket) context.getServerSocketFactory().createServerSocket(0, 64, InetAddress.getLoopbackAddress());
+        workers = Executors.newFixedThreadPool(16);
+
+        Thread accept = new Thread(() -> {
+            try {
+                proxy.serve(server, workers);
+            } catch(IOException e) {
+                // fall through
+            }
+        });
+        accept.setDaemon(true);
+        accept.start();
+    }
+
+    /**
+     * Stop the proxy and the capsule.
+     *
+     * @throws IOException If the socket can't be closed.
+     */
+    @AfterEach
+    public void stop() throws IOException {
+        server.close();
+        workers.shutdownNow();
+        upstream.close();
+    }
+
+    /**
+     * Test that requests for a URL being fetched share the one fetch.
+     */
+    @Test
+    public void testCoalescing() throws Exception {
+        int clients = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<GeminiRequest>> requests = new ArrayList<>();
+        for(int i = 0; i < clients; i++) {
+            requests.add(pool.submit(() -> {
+                go.await();
+                return request("/slow.gmi");
+            }));
+        }
+        go.countDown();
+
+        for(Future<GeminiRequest> request : requests) {
+            assertEquals(20, request.get().getStatus());
+            assertEquals("# Slow\n", new String(request.get().getBody(), StandardCharsets.UTF_8));
+        }
+        pool.shutdown();
+
+        // one fetch; everyone else waited for it (or, arriving late, found it stored)
+        assertEquals(1, upstreamRequests("/slow.gmi"));
+        assertEquals(1, count("MISS"));
+        assertTrue(count("SHARED") >= 1, log.toString(StandardCharsets.UTF_8));
+        assertEquals(clients - 1, count("SHARED") + count("HIT"));
+    }
+
+    /**
+     * Test that stored responses are served while fresh, fetched again
+     * once not, and served stale if the capsule is gone.
+     */
+    @Test
+    public void testFreshness() throws Exception {
+        assertEquals(20, request("/page.gmi").getStatus());
+        assertEquals(20, request("/page.gmi").getStatus());
+        assertEquals(1, count("MISS"));
+        assertEquals(1, count("HIT"));
+        assertEquals(1, upstreamRequests("/page.gmi"));
+
+        // too old: fetched again
+        Thread.sleep(MAX_AGE + 100);
+        assertEquals(20, request("/page.gmi").getStatus());
+        assertEquals(2, count("MISS"));
+        assertEquals(2, upstreamRequests("/page.gmi"));
+
+        // too old, and the capsule is down: the old copy beats an error
+        Thread.sleep(MAX_AGE + 100);
+        upstream.close();
+        GeminiRequest stale = request("/page.gmi");
+        assertEquals(20, stale.getStatus());
+        assertEquals("# Page\n", new String(stale.getBody(), StandardCharsets.UTF_8));
+        assertEquals(1, count("STALE"));
+
+        // never stored: nothing to fall back on
+        assertEquals(43, request("/slow.gmi").getStatus());
+    }
+
+    /**
+     * Test that bodies too large to hold are refused, and not stored.
+     */
+    @Test
+    public void testTooLarge() throws Exception {
+        upstream.serve("/huge.gmi", new Script(20, "text/gemini").withBodySize(GeminiProxy.MAX_BODY + 1).withChunks(64 * 1024));
+
+        GeminiRequest refused = request("/huge.gmi");
+        assertEquals(43, refused.getStatus());
+        assertEquals("Response too large to proxy", refused.getHeaderInfo());
+
+        assertEquals(43, request("/huge.gmi").getStatus());
+        assertEquals(0, count("HIT"));
+        assertEquals(2, upstreamRequests("/huge.gmi"));
+    }
+
+    /**
+     * Request a path of the capsule through the proxy.
+     *
+     * @param path Path on the capsule.
+     * @return Response.
+     */
+    private GeminiRequest request(String path) {
+        return new GeminiRequest("127.0.0.1", server.getLocalPort(), upstream.url(path));
+    }
+
+    /**
+     * Return the number of times the capsule was asked for a path.
+     *
+     * @param path Path.
+     * @return Requests.
+     */
+    private long upstreamRequests(String path) {
+        return upstream.getRequests().stream().filter(request -> request.endsWith(path)).count();
+    }
+
+    /**
+     * Return the number of requests the proxy logged with an outcome.
+     *
+     * @param outcome Outcome, e.g. HIT.
+     * @return Requests.
+     */
+    private long count(String outcome) {
+        return log.toString(StandardCharsets.UTF_8).lines()
+            .filter(line -> line.split(" ")[2].equals(outcome))
+            .count();
+    }
+}
@@ -3,23 +3,60 @@ package test;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.*;
 
+import java.io.IOException;
+
+import network.GeminiConnection;
 import network.GeminiRequest;
+import network.LoopbackServer;
+import network.LoopbackServer.Script;
+import network.RequestFailedException;
 import network.URL;
 
 /**
- * JUnit tests for GeminiRequest.
+ * JUnit tests for GeminiRequest and GeminiConnection, against a loopback
+ * server.
  * 
  * @author Hayden Walker
- * @version 2024-02-27
+ * @version 2026-10-19
  */
 public class TestGeminiRequest {
+    /**
+     * Server answering every test.
+     */
+    private static LoopbackServer server;
+
+    /**
+     * Start the server and script its pages.
+     *
+     * @throws IOException If it can't be started.
+     */
+    @BeforeAll
+    public static void startServer() throws IOException {
+        server = new LoopbackServer()
+            .serve("/", new Script(20, "text/gemini").withBody("# Home\n=> /test.txt Test\n"))
+            .serve("/test.txt", new Script(20, "text/plain").withBody("Plain text.\n"))
+            .serve("/oldblog.gmi", new Script(20, "text/gemini").withBodySize(4096).withChunks(100))
+            .serve("/large.gmi", new Script(20, "text/gemini").withBodySize(1024 * 1024).withChunks(1000))
+            .serve("/slow.gmi", new Script(20, "text/gemini").withBodySize(20000).withBandwidth(100000))
+            .serve("/cut.gmi", new Script(20, "text/gemini").withBodySize(10000).withCloseAfter(3000))
+            .serve("/late.gmi", new Script(20, "text/gemini").withLatency(2000));
+    }
+
+    /**
+     * Stop the server.
+     */
+    @AfterAll
+    public static void stopServer() {
+        server.close();
+    }
+
     /**
      * Test making a bad Gemini request.
      */
     @Test
     public void testBadRequest(){
         // create a bad request
-        GeminiRequest badRequest = new GeminiRequest("gemini.haywalk.ca", "zork");
+        GeminiRequest badRequest = new GeminiRequest("127.0.0.1", server.getPort(), "zork");
         
         // should return status 59
         assertEquals(badRequest.getStatus(), 59);
@@ -31,11 +68,12 @@ public class TestGeminiRequest {
     @Test
     public void testGemtextRequest() {
         // create a new request
-        GeminiRequest gemtextRequest = new GeminiRequest("gemini.haywalk.ca", "gemini://gemini.haywalk.ca/");
+        GeminiRequest gemtextRequest = new GeminiRequest("127.0.0.1", server.getPort(), server.url("/"));
 
         // should return status 20 and type text/gemini
         assertEquals(gemtextRequest.getStatus(), 20);
         assertEquals(gemtextRequest.getHeaderInfo(), "text/gemini"); 
+        assertEquals("# Home\n=> /test.txt Test\n", new String(gemtextRequest.getBody()));
     }
 
     /**
@@ -44,7 +82,7 @@ public class TestGeminiRequest {
     @Test
     public void testPlaintextRequest() {
         // create a new request
-        GeminiRequest gemtextRequest = new GeminiRequest("gemini.haywalk.ca", "gemini://gemini.haywalk.ca/test.txt");
+        GeminiRequest gemtextRequest = new GeminiRequest("127.0.0.1", server.getPort(), server.url("/test.txt"));
 
         // should return status 20 and type text/plain
         assertEquals(gemtextRequest.getStatus(), 20);
@@ -52,16 +90,17 @@ public class TestGeminiRequest {
     }
 
     /**
-     * Test a request to gemini.circumlunar.space.
+     * Test a large body sent in many small chunks.
      */
     @Test
-    public void testProjectGeminiCapsule() {
+    public void testLargeChunkedBody() {
         // create a new request
-        GeminiRequest gemtextRequest = new GeminiRequest("gemini.circumlunar.space", "gemini://gemini.circumlunar.space/");
+        GeminiRequest gemtextRequest = new GeminiRequest(new URL(server.url("/large.gmi")));
 
-        // should return status 20 and type text/gemini
+        // should return status 20 and the whole body
         assertEquals(gemtextRequest.getStatus(), 20);
         assertEquals(gemtextRequest.getHeaderInfo(), "text/gemini"); 
+        assertEquals(1024 * 1024, gemtextRequest.getBody().length);
     }
 
     /**
@@ -70,11 +109,47 @@ public class TestGeminiRequest {
     @Test
     public void testURLRequest() {
         // create a new URL and a new GeminiRequest
-        URL url = new URL("gemini://gemini.haywalk.ca/oldblog.gmi");
+        URL url = new URL(server.url("/oldblog.gmi"));
         GeminiRequest urlRequest = new GeminiRequest(url);
 
         // should return status 20 and type text/gemini
         assertEquals(urlRequest.getStatus(), 20);
         assertEquals(urlRequest.getHeaderInfo(), "text/gemini"); 
+        assertEquals(4096, urlRequest.getBody().length);
+    }
+
+    /**
+     * Test streaming a throttled body, and a body cut off part way.
+     *
+     * @throws IOException If reading fails.
+     */
+    @Test
+    public void testStreamedBodies() throws IOException {
+        // 20 KB at 100 KB/s takes about 200 ms
+        long start = System.nanoTime();
+        try(GeminiConnection connection = new GeminiConnection(new URL(server.url("/slow.gmi")), 5000)) {
+            assertEquals(20, connection.getStatus());
+            assertEquals(20000, connection.readBody().length);
+        }
+        assertTrue(System.nanoTime() - start >= 150_000_000L);
+
+        // a connection cut off part way fails, rather than passing for a whole body
+        try(GeminiConnection connection = new GeminiConnection(new URL(server.url("/cut.gmi")), 5000)) {
+            assertEquals(20, connection.getStatus());
+            assertThrows(IOException.class, connection::readBody);
+        }
+
+        // missing pages
+        try(GeminiConnection connection = new GeminiConnection(new URL(server.url("/missing.gmi")), 5000)) {
+            assertEquals(51, connection.getStatus());
+        }
+    }
+
+    /**
+     * Test giving up on a server slower than the timeout.
+     */
+    @Test
+    public void testTimeout() {
+        assertThrows(RequestFailedException.class, () -> new GeminiConnection(new URL(server.url("/late.gmi")), 200));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,367 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import gemtext.CompactDocument;
+import gemtext.DocumentDiff;
+import gemtext.ElementType;
+import gemtext.GeminiLink;
+import gemtext.Gemtext;
+import gemtext.GemtextParser;
+import gemtext.LineIndex;
+import gemtext.LinkExtractor;
+import gemtext.LineKind;
+import gemtext.LineScanner;
+import gemtext.ParallelGemtextParser;
+import gemtext.SearchIndex;
+import gemtext.StreamingGemtextParser;
+
+/**
+ * JUnit tests for GemtextParser. These run without JavaFX.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TestGemtextParser {
+    /**
+     * A document using every line type.
+     */
+    private static final String DOCUMENT = String.join("\n",
+        "# Title",
+        "## Section",
+        "### Subsection",
+        "Some text.",
+        "",
+        "=> gemini://example.org/ Example",
+        "=>   /relative",
+        "* item",
+        ">quote",
+        "```alt text",
+        "# not a heading",
+        "=> not a link",
+        "```",
+        "after");
+
+    /**
+     * Test the type and text of each parsed element.
+     */
+    @Test
+    public void testElements() {
+        List<Gemtext> parsed = new GemtextParser(DOCUMENT).getParsedContent();
+
+        ElementType[] types = {
+            ElementType.HEADING1, ElementType.HEADING2, ElementType.HEADING3,
+            ElementType.PARAGRAPH, ElementType.BLANK_LINE, ElementType.LINK,
+            ElementType.LINK, ElementType.LIST_ITEM, ElementType.BLOCK_QUOTE,
+            ElementType.PREFORMATTED, ElementType.PARAGRAPH
+        };
+
+        // check types
+        assertEquals(types.length, parsed.size());
+        for(int i = 0; i < types.length; i++) {
+            assertEquals(types[i], parsed.get(i).getType(), "element " + i);
+        }
+
+        // check text
+        assertEquals("Title", parsed.get(0).getText());
+        assertEquals("Subsection", parsed.get(2).getText());
+        assertEquals("item", parsed.get(7).getText());
+        assertEquals("quote", parsed.get(8).getText());
+        assertEquals("# not a heading\n=> not a link\n", parsed.get(9).getText());
+    }
+
+    /**
+     * Test link targets and captions.
+     */
+    @Test
+    public void testLinks() {
+        List<Gemtext> parsed = new GemtextParser(DOCUMENT).getParsedContent();
+
+        // link with a caption
+        GeminiLink link = (GeminiLink) parsed.get(5);
+        assertEquals("gemini://example.org/", link.getURL());
+        assertEquals("Example", link.getText());
+
+        // link without a caption is captioned with its URL
+        GeminiLink bare = (GeminiLink) parsed.get(6);
+        assertEquals("/relative", bare.getURL());
+        assertEquals("/relative", bare.getText());
+    }
+
+    /**
+     * Test that the parallel parser gives the same result as the sequential
+     * parser, including preformatted blocks that span chunks.
+     */
+    @Test
+    public void testParallelParse() {
+        // build a large document with long preformatted blocks
+        StringBuilder document = new StringBuilder();
+        for(int i = 0; i < 20000; i++) {
+            document.append(DOCUMENT).append("\n");
+            if(i % 1000 == 0) {
+                document.append("```\n");
+                for(int j = 0; j < 5000; j++) {
+                    document.append("log line ").append(j).append("\n");
+                }
+                document.append("```\n");
+            }
+        }
+        document.append("\n\n");
+
+        String text = document.toString();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        List<Gemtext> sequential = new GemtextParser(text).getParsedContent();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<Gemtext> parallel = new ParallelGemtextParser(pool).parse(bytes, StandardCharsets.UTF_8);
+        pool.shutdown();
+
+        // compare element by element
+        assertEquals(sequential.size(), parallel.size());
+        for(int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getType(), parallel.get(i).getType(), "element " + i);
+            assertEquals(sequential.get(i).getText(), parallel.get(i).getText(), "element " + i);
+        }
+    }
+
+    /**
+     * Test that the compact document holds the same elements as the list.
+     */
+    @Test
+    public void testStreamingParse() {
+        String[] documents = { DOCUMENT, DOCUMENT + "\n\n\n", "", "\n", "a\n\n\nb", "```\nunclosed\n\n" };
+        Random random = new Random(1);
+
+        for(String text : documents) {
+            List<Gemtext> expected = new GemtextParser(text).getParsedContent();
+
+            // feed the text in random-sized pieces
+            List<Gemtext> streamed = new ArrayList<>();
+            StreamingGemtextParser parser = new StreamingGemtextParser(streamed::add);
+            int start = 0;
+            while(start < text.length()) {
+                int end = Math.min(text.length(), start + 1 + random.nextInt(8));
+                parser.feed(text.substring(start, end));
+                start = end;
+            }
+            parser.finish();
+
+            assertEquals(expected.size(), streamed.size(), text);
+            for(int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getType(), streamed.get(i).getType(), "element " + i);
+                assertEquals(expected.get(i).getText(), streamed.get(i).getText(), "element " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testCompactDocument() {
+        List<Gemtext> parsed = new GemtextParser(DOCUMENT).getParsedContent();
+        CompactDocument document = GemtextParser.parseDocument(DOCUMENT);
+
+        assertEquals(parsed.size(), document.size());
+        for(int i = 0; i < parsed.size(); i++) {
+            assertEquals(parsed.get(i).getType(), document.getType(i), "element " + i);
+            assertEquals(parsed.get(i).getText(), document.getText(i), "element " + i);
+            assertEquals(parsed.get(i).getText(), document.get(i).getText(), "element " + i);
+        }
+
+        // link targets
+        assertEquals("gemini://example.org/", document.getURL(5));
+        assertEquals("/relative", document.getURL(6));
+        assertNull(document.getURL(0));
+
+        // offsets map back to elements
+        assertEquals(3, document.elementAt(document.getStart(3) + 2));
+
+        // visiting a range
+        StringBuilder visited = new StringBuilder();
+        document.forEachInRange(7, 9, element -> visited.append(element.getText()));
+        assertEquals("itemquote", visited.toString());
+    }
+
+    /**
+     * Test the byte-level line scanners against splitting a String.
+     */
+    @Test
+    public void testDocumentDiff() {
+        CompactDocument before = GemtextParser.parseDocument(DOCUMENT);
+
+        // identical
+        assertTrue(DocumentDiff.compute(before, GemtextParser.parseDocument(DOCUMENT)).isUnchanged());
+
+        // one line changed: one hunk replacing one element
+        String edited = DOCUMENT.replace("* item", "* changed item");
+        DocumentDiff diff = DocumentDiff.compute(before, GemtextParser.parseDocument(edited));
+        assertEquals(1, diff.getHunks().size());
+        assertEquals(1, diff.getHunks().get(0).getOldLength());
+        assertEquals(1, diff.getHunks().get(0).getNewLength());
+
+        // random edits: applying the hunks to the old version gives the new
+        Random random = new Random(7);
+        List<String> lines = new ArrayList<>();
+        for(int i = 0; i < 300; i++) {
+            lines.add(random.nextInt(4) == 0 ? "=> gemini://example.org/" + random.nextInt(20) : "line " + random.nextInt(50));
+        }
+        for(int round = 0; round < 20; round++) {
+            List<String> changed = new ArrayList<>(lines);
+            for(int edit = 0; edit < 15; edit++) {
+                int at = random.nextInt(changed.size());
+                switch(random.nextInt(3)) {
+                    case 0: changed.remove(at); break;
+                    case 1: changed.add(at, "new line " + random.nextInt(1000)); break;
+                    default: changed.set(at, "changed " + random.nextInt(1000)); break;
+                }
+            }
+
+            CompactDocument oldDocument = GemtextParser.parseDocument(String.join("\n", lines));
+            CompactDocument newDocument = GemtextParser.parseDocument(String.join("\n", changed));
+            DocumentDiff result = DocumentDiff.compute(oldDocument, newDocument);
+
+            List<String> applied = new ArrayList<>();
+            int position = 0;
+            for(DocumentDiff.Hunk hunk : result.getHunks()) {
+                for(; position < hunk.getOldStart(); position++) {
+                    applied.add(oldDocument.getText(position));
+                }
+                for(int i = 0; i < hunk.getNewLength(); i++) {
+                    applied.add(newDocument.getText(hunk.getNewStart() + i));
+                }
+                position += hunk.getOldLength();
+            }
+            for(; position < oldDocument.size(); position++) {
+                applied.add(oldDocument.getText(position));
+            }
+
+            assertEquals(newDocument.asList().size(), applied.size());
+            for(int i = 0; i < applied.size(); i++) {
+                assertEquals(newDocument.getText(i), applied.get(i), "element " + i);
+                int old = result.getOldIndex(i);
+                if(old >= 0) {
+                    assertEquals(oldDocument.getText(old), newDocument.getText(i));
+                    assertEquals(i, result.getNewIndex(old));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSearchIndex() {
+        // large enough to be indexed
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 4000; i++) {
+            text.append(DOCUMENT.replace("Title", "Title " + i)).append("\n");
+        }
+        CompactDocument document = GemtextParser.parseDocument(text.toString());
+        assertTrue(document.getBackingText().length() >= SearchIndex.MIN_INDEXED_LENGTH);
+        SearchIndex index = new SearchIndex(document);
+
+        // scanned until built, then indexed: the same matches either way
+        for(int pass = 0; pass < 2; pass++) {
+            assertEquals(pass == 1, index.isBuilt());
+            checkSearch(document, index);
+            index.build();
+        }
+
+        // narrowing as the user types
+        assertArrayEquals(index.find("title 123"), index.refine(index.find("title 12"), "title 123"));
+    }
+
+    /**
+     * Check a search index finds every case-insensitive match inside an
+     * element's text, for a few queries.
+     *
+     * @param document Document searched.
+     * @param index Index of it.
+     */
+    private static void checkSearch(CompactDocument document, SearchIndex index) {
+        for(String query : new String[] { "title 12", "ITEM", "e", "Ex", "quote", "relative", "nothing here" }) {
+            // expected: every case-insensitive match inside an element's text
+            List<Integer> expected = new ArrayList<>();
+            for(int i = 0; i < document.size(); i++) {
+                String element = document.getText(i).toLowerCase();
+                for(int at = element.indexOf(query.toLowerCase()); at >= 0; at = element.indexOf(query.toLowerCase(), at + 1)) {
+                    expected.add(document.getStart(i) + at);
+                }
+            }
+
+            int[] found = index.find(query);
+            assertEquals(expected.size(), found.length, query);
+            for(int i = 0; i < found.length; i++) {
+                assertEquals((int) expected.get(i), found[i], query);
+            }
+        }
+    }
+
+    @Test
+    public void testLineScanner() {
+        // random lines built from leading tokens, with lengths crossing word
+        // and vector boundaries
+        String[] tokens = { "", "# ", "=> ", "* ", ">", "```", "=", "*", "`` " };
+        Random random = new Random(4911);
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 2000; i++) {
+            text.append(tokens[random.nextInt(tokens.length)]);
+            text.append("x".repeat(random.nextInt(150)));
+            text.append('\n');
+        }
+        text.append("last line");
+
+        String string = text.toString();
+        byte[] bytes = string.getBytes(StandardCharsets.US_ASCII);
+        String[] lines = string.split("\n", -1);
+
+        for(LineScanner scanner : new LineScanner[] { LineScanner.portable(), LineScanner.getInstance() }) {
+            LineIndex index = scanner.scan(bytes, 0, bytes.length);
+
+            assertEquals(lines.length, index.size());
+            for(int i = 0; i < lines.length; i++) {
+                String line = string.substring(index.getStart(i), index.getEnd(i));
+                assertEquals(lines[i], line, "line " + i);
+                assertEquals(LineKind.classify(lines[i]), index.getKind(i), "line " + i);
+            }
+        }
+    }
+
+    /**
+     * Test that the link extractor finds the same links as the parser.
+     */
+    @Test
+    public void testLinkExtractor() {
+        // shared corpus, plus awkward link lines
+        String corpus = String.join("\n",
+            DOCUMENT,
+            "=>",
+            "=> ",
+            "=>gemini://example.org/no-space",
+            "=> url-with-trailing-spaces   ",
+            "=> url\tcaption with a tab",
+            "=> gemini://example.org/caf\u00E9 caf\u00E9 \u2713",
+            "```",
+            "=> gemini://example.org/inside-an-unclosed-block");
+        byte[] bytes = corpus.getBytes(StandardCharsets.UTF_8);
+
+        // links found by the parser
+        List<GeminiLink> expected = new ArrayList<>();
+        for(Gemtext element : new GemtextParser(corpus).getParsedContent()) {
+            if(element instanceof GeminiLink) {
+                expected.add((GeminiLink) element);
+            }
+        }
+
+        List<GeminiLink> extracted = new LinkExtractor().extractLinks(bytes, StandardCharsets.UTF_8);
+
+        assertEquals(expected.size(), extracted.size());
+        for(int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getURL(), extracted.get(i).getURL(), "link " + i);
+            assertEquals(expected.get(i).getText(), extracted.get(i).getText(), "link " + i);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import load.LatencyHistogram;
+
+/**
+ * JUnit tests for LatencyHistogram.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TestLatencyHistogram {
+    /**
+     * Test percentiles stay within the histogram's precision.
+     */
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+
+        // 1 ms to 10 s, evenly
+        for(long millis = 1; millis <= 10000; millis++) {
+            histogram.record(millis * 1_000_000);
+        }
+
+        assertEquals(10000, histogram.getCount());
+        assertEquals(5000.5e6, histogram.getMean(), 1e3);
+        assertEquals(10_000_000_000L, histogram.getMax());
+        assertEquals(5000e6, histogram.getPercentile(50), 5000e6 / 64);
+        assertEquals(9900e6, histogram.getPercentile(99), 9900e6 / 64);
+        assertEquals(9990e6, histogram.getPercentile(99.9), 9990e6 / 64);
+        assertEquals(histogram.getMax(), histogram.getPercentile(100));
+
+        // never understated
+        assertTrue(histogram.getPercentile(50) >= 5000e6);
+
+        // small values are exact
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(42_000);
+        small.record(43_000);
+        assertEquals(42_000, small.getPercentile(50));
+        assertEquals(43_000, small.getPercentile(99));
+    }
+
+    /**
+     * Test adding one histogram to another.
+     */
+    @Test
+    public void testAdd() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for(int i = 0; i < 90; i++) {
+            fast.record(1_000_000);
+        }
+        for(int i = 0; i < 10; i++) {
+            slow.record(100_000_000);
+        }
+
+        fast.add(slow);
+        assertEquals(100, fast.getCount());
+        assertEquals(100_000_000, fast.getMax());
+        assertEquals(1_000_000, fast.getPercentile(90), 1_000_000 / 64);
+        assertEquals(100_000_000, fast.getPercentile(91), 100_000_000 / 64);
+    }
+}
@@ -0,0 +1,164 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import browser.Downloader;
+import mirror.LinkRewriter;
+import mirror.Manifest;
+import mirror.Mirror;
+import network.LoopbackServer;
+import network.LoopbackServer.Script;
+
+/**
+ * JUnit tests for mirroring: local paths, link rewriting, the manifest,
+ * and whole runs against a {@link LoopbackServer}.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TestMirror {
+    /**
+     * Directory for mirrored files, emptied after each test.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test where URLs are copied to.
+     */
+    @Test
+    public void testLocalPath() throws IOException {
+        assertEquals(directory.resolve("example.org/index.gmi"), Downloader.localPath(directory, "gemini://example.org/"));
+        assertEquals(directory.resolve("example.org/log/post.gmi"), Downloader.localPath(directory, "gemini://example.org/log/post.gmi"));
+        assertEquals(directory.resolve("example.org/search%3Fa%2Fb"), Downloader.localPath(directory, "gemini://example.org/search?a/b"));
+        assertThrows(IOException.class, () -> Downloader.localPath(directory, "gemini://example.org/../../etc/passwd"));
+
+        // other ports get their own directory
+        assertEquals(directory.resolve("example.org/index.gmi"), Downloader.localPath(directory, "gemini://example.org:1965/"));
+        assertEquals(directory.resolve("example.org%3A1966/index.gmi"), Downloader.localPath(directory, "gemini://example.org:1966/"));
+    }
+
+    /**
+     * Test that only link targets change, and not in preformatted blocks.
+     */
+    @Test
+    public void testLinkRewriter() {
+        String page = "# Links\n=> /a.gmi A\n```\n=> /a.gmi not a link\n```\n=>b.gmi\ntext\n";
+        byte[] body = page.getBytes(StandardCharsets.UTF_8);
+
+        byte[] rewritten = LinkRewriter.rewrite(body, StandardCharsets.UTF_8,
+            target -> target.equals("/a.gmi") ? "local/a.gmi" : null);
+        assertEquals("# Links\n=> local/a.gmi A\n```\n=> /a.gmi not a link\n```\n=>b.gmi\ntext\n",
+            new String(rewritten, StandardCharsets.UTF_8));
+
+        // nothing to change
+        assertSame(body, LinkRewriter.rewrite(body, StandardCharsets.UTF_8, target -> null));
+    }
+
+    /**
+     * Test adaptive revisit intervals and saving the manifest.
+     */
+    @Test
+    public void testManifest() throws IOException {
+        Path file = directory.resolve("manifest");
+        Manifest manifest = new Manifest(file);
+        long now = 1_000_000_000L;
+
+        Manifest.Entry entry = manifest.add("gemini://example.org/", "aa", 10, now);
+        assertFalse(entry.isDue(now + Manifest.INITIAL_INTERVAL - 1));
+        assertTrue(entry.isDue(now + Manifest.INITIAL_INTERVAL));
+
+        // unchanged pages wait longer, changed pages less
+        assertFalse(entry.record("aa", 10, now));
+        assertEquals(Manifest.INITIAL_INTERVAL * 2, entry.getInterval());
+        assertTrue(entry.record("bb", 12, now + 1));
+        assertEquals(Manifest.INITIAL_INTERVAL, entry.getInterval());
+        assertEquals(now + 1, entry.getChanged());
+        manifest.save();
+
+        Manifest loaded = new Manifest(file);
+        Manifest.Entry reloaded = loaded.get("gemini://example.org/");
+        assertEquals("bb", reloaded.getHash());
+        assertEquals(12, reloaded.getSize());
+        assertEquals(Manifest.INITIAL_INTERVAL, reloaded.getInterval());
+    }
+
+    /**
+     * Test that later runs only fetch what's due, and never rewrite a page
+     * that hasn't changed.
+     */
+    @Test
+    public void testRuns() throws Exception {
+        try(LoopbackServer server = new LoopbackServer(); LoopbackServer other = new LoopbackServer()) {
+            server.serve("/index.gmi", new Script(20, "text/gemini").withBody("# Home\n=> a.gmi A\n"));
+            server.serve("/a.gmi", new Script(20, "text/gemini").withBody("first\n"));
+            other.serve("/index.gmi", new Script(20, "text/gemini").withBody("# Other\n"));
+            String root = server.url("/index.gmi");
+            String otherRoot = other.url("/index.gmi");
+
+            // every page is copied, and the link points at the copy
+            String output = mirror(List.of(root, otherRoot), false);
+            assertEquals(3, output.lines().filter(line -> line.startsWith("added\t")).count(), output);
+            Path index = Downloader.localPath(directory, root);
+            Path page = Downloader.localPath(directory, server.url("/a.gmi"));
+            assertEquals("# Home\n=> a.gmi A\n", Files.readString(index));
+            assertEquals("first\n", Files.readString(page));
+
+            // two ports of one host don't share a directory
+            Path otherIndex = Downloader.localPath(directory, otherRoot);
+            assertNotEquals(index, otherIndex);
+            assertEquals("# Other\n", Files.readString(otherIndex));
+
+            // nothing is due yet, so nothing is fetched
+            int requests = server.getRequests().size();
+            assertEquals("", mirror(List.of(root), false));
+            for(String request : server.getRequests().subList(requests, server.getRequests().size())) {
+                assertTrue(request.endsWith("/robots.txt"), request);
+            }
+
+            // fetched again unchanged: the copies aren't written
+            FileTime old = FileTime.fromMillis(1_000_000_000_000L);
+            Files.setLastModifiedTime(index, old);
+            Files.setLastModifiedTime(page, old);
+            output = mirror(List.of(root), true);
+            assertTrue(output.lines().anyMatch(line -> line.equals("unchanged\t" + server.url("/a.gmi"))), output);
+            assertEquals(old, Files.getLastModifiedTime(index));
+            assertEquals(old, Files.getLastModifiedTime(page));
+
+            // a changed page is written, and only that one
+            server.serve("/a.gmi", new Script(20, "text/gemini").withBody("second\n"));
+            output = mirror(List.of(root), true);
+            assertTrue(output.lines().anyMatch(line -> line.equals("changed\t" + server.url("/a.gmi"))), output);
+            assertEquals("second\n", Files.readString(page));
+            assertNotEquals(old, Files.getLastModifiedTime(page));
+            assertEquals(old, Files.getLastModifiedTime(index));
+        }
+    }
+
+    /**
+     * Run a mirror into the test directory.
+     *
+     * @param roots Root URLs.
+     * @param all Whether to fetch pages that aren't due.
+     * @return Each URL's outcome, one per line.
+     */
+    private String mirror(List<String> roots, boolean all) throws Exception {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        Mirror mirror = new Mirror(directory, 0);
+        mirror.setTimeout(5000);
+        mirror.setOutput(new PrintStream(lines, true, StandardCharsets.UTF_8));
+        mirror.run(roots, 2, all);
+        return lines.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,182 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import gemtext.GemtextParser;
+import search.PageIndex;
+import search.SearchHit;
+import search.Tokenizer;
+
+/**
+ * JUnit tests for PageIndex.
+ *
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TestPageIndex {
+    /**
+     * Directory for the index, emptied after each test.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test splitting text into terms.
+     */
+    @Test
+    public void testTokenizer() {
+        List<String> terms = new ArrayList<>();
+        Tokenizer.forEachTerm("Gemini's  capsule, a CAF\u00C9 (2024)!", terms::add);
+        assertEquals(List.of("gemini", "capsule", "caf\u00e9", "2024"), terms);
+    }
+
+    /**
+     * Test ranking, titles, and replacing a page with a newer version.
+     */
+    @Test
+    public void testSearch() throws Exception {
+        try(PageIndex index = new PageIndex(directory)) {
+            index.add("gemini://a.example/", GemtextParser.parseDocument("# Tea\nGreen tea and black tea.\n"));
+            index.add("gemini://b.example/", GemtextParser.parseDocument("Coffee, and a little tea.\n"));
+            index.add("gemini://c.example/", GemtextParser.parseDocument("# Rocks\nNothing to drink here.\n"));
+            index.flush();
+
+            List<SearchHit> hits = index.search("tea", 10);
+            assertEquals(2, hits.size());
+            assertEquals("gemini://a.example/", hits.get(0).getURL());
+            assertEquals("Tea", hits.get(0).getTitle());
+            assertEquals("gemini://b.example/", hits.get(1).getTitle());
+            assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+
+            // a reload replaces the old version
+            index.add("gemini://b.example/", GemtextParser.parseDocument("Only coffee now.\n"));
+            index.flush();
+            assertEquals(1, index.search("tea", 10).size());
+            assertEquals(3, index.size());
+            assertTrue(index.search("", 10).isEmpty());
+        }
+    }
+
+    /**
+     * Test that segments are written, merged, and read back.
+     */
+    @Test
+    public void testPersistence() throws Exception {
+        int pages = PageIndex.FLUSH_DOCUMENTS * (PageIndex.MAX_SEGMENTS + 3);
+
+        try(PageIndex index = new PageIndex(directory)) {
+            for(int i = 0; i < pages; i++) {
+                index.add("gemini://example.org/" + i, GemtextParser.parseDocument("page number" + i + " common\n"));
+            }
+            index.flush();
+            assertTrue(index.getSegmentCount() <= PageIndex.MAX_SEGMENTS);
+        }
+
+        try(PageIndex index = new PageIndex(directory)) {
+            assertEquals(pages, index.size());
+            assertEquals(pages, index.search("common", pages * 2).size());
+
+            List<SearchHit> hits = index.search("number7", 10);
+            assertEquals(1, hits.size());
+            assertEquals("gemini://example.org/7", hits.get(0).getURL());
+
+            // new pages keep counting up from the loaded ones
+            index.add("gemini://example.org/7", GemtextParser.parseDocument("renamed\n"));
+            index.flush();
+            assertTrue(index.search("number7", 10).isEmpty());
+            assertEquals(1, index.search("renamed", 10).size());
+        }
+    }
+
+    /**
+     * Test recovering from a merge interrupted before its inputs were
+     * deleted, where pages dropped at the edges of the run narrow the
+     * merged segment so it doesn't cover its inputs.
+     */
+    @Test
+    public void testInterruptedMerge() throws Exception {
+        int pages = PageIndex.FLUSH_DOCUMENTS * PageIndex.MAX_SEGMENTS;
+        Path backup = Files.createDirectory(directory.resolve("backup"));
+        Path indexDirectory = directory.resolve("index");
+
+        try(PageIndex index = new PageIndex(indexDirectory)) {
+            for(int i = 0; i < pages; i++) {
+                index.add("gemini://example.org/" + i, GemtextParser.parseDocument("page number" + i + " common\n"));
+            }
+            index.flush();
+            assertEquals(PageIndex.MAX_SEGMENTS, index.getSegmentCount());
+            copySegments(indexDirectory, backup);
+
+            // revisit the first and last page of every segment, so whichever
+            // run is merged loses the pages at its edges
+            for(int i = 0; i < pages; i += PageIndex.FLUSH_DOCUMENTS) {
+                for(int page : new int[] {i, i + PageIndex.FLUSH_DOCUMENTS - 1}) {
+                    index.add("gemini://example.org/" + page, GemtextParser.parseDocument("page number" + page + " common\n"));
+                }
+            }
+            index.flush();
+        }
+
+        // put back the merge's inputs, as if deleting them was cut short
+        copySegments(backup, indexDirectory);
+
+        try(PageIndex index = new PageIndex(indexDirectory)) {
+            assertEquals(pages, index.size());
+
+            // identical pages score alike unless some are counted twice
+            List<SearchHit> hits = index.search("common", pages * 2);
+            assertEquals(pages, hits.size());
+            for(SearchHit hit : hits) {
+                assertEquals(hits.get(0).getScore(), hit.getScore(), 1e-9, hit.getURL());
+            }
+        }
+    }
+
+    /**
+     * Test that a segment with an impossible count is skipped, rather than
+     * stopping the index opening.
+     */
+    @Test
+    public void testCorruptSegment() throws Exception {
+        try(PageIndex index = new PageIndex(directory)) {
+            for(int i = 0; i < PageIndex.FLUSH_DOCUMENTS; i++) {
+                index.add("gemini://example.org/" + i, GemtextParser.parseDocument("page number" + i + "\n"));
+            }
+        }
+
+        // header, version 1, then a document count of 2^31 - 1
+        byte[] corrupt = {'G', 'M', 'I', 'X', 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        Files.write(directory.resolve("0000009999.seg"), corrupt);
+
+        try(PageIndex index = new PageIndex(directory)) {
+            assertEquals(PageIndex.FLUSH_DOCUMENTS, index.size());
+            assertEquals(1, index.search("number3", 10).size());
+        }
+    }
+
+    /**
+     * Copy the segment files from one directory to another, leaving any
+     * already there.
+     *
+     * @param from Source directory.
+     * @param to Target directory.
+     */
+    private static void copySegments(Path from, Path to) throws Exception {
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(from, "*.seg")) {
+            for(Path file : files) {
+                Path target = to.resolve(file.getFileName());
+                if(!Files.exists(target)) {
+                    Files.copy(file, target);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import network.MediaType;
+import network.TextDecoder;
+
+/**
+ * JUnit tests for TextDecoder and MediaType.
+ * 
+ * @author Hayden Walker
+ * @version 2026-10-19
+ */
+public class TestTextDecoder {
+    /**
+     * Text with one-, two-, three- and four-byte UTF-8 sequences.
+     */
+    private static final String MIXED = "# Caf\u00E9\n=> gemini://example.org/ \u65E5\u672C\u8A9E \u2713\n> \uD83D\uDE80 launch\n";
+
+    /**
+     * Test the charset parameter of the META field.
+     */
+    @Test
+    public void testCharsetParameter() {
+        // default is UTF-8
+        assertEquals(StandardCharsets.UTF_8, new MediaType("text/gemini").getCharset());
+        assertEquals(StandardCharsets.UTF_8, new MediaType("").getCharset());
+
+        // explicit charset, with other parameters and odd spacing
+        MediaType type = new MediaType("text/plain; lang=en ;charset=\"ISO-8859-1\"");
+        assertEquals("text/plain", type.getMimeType());
+        assertEquals(StandardCharsets.ISO_8859_1, type.getCharset());
+        assertEquals("en", type.getParameter("lang"));
+
+        // unknown charset falls back to UTF-8
+        assertEquals(StandardCharsets.UTF_8, new MediaType("text/gemini; charset=zork").getCharset());
+    }
+
+    /**
+     * Test decoding a complete body.
+     */
+    @Test
+    public void testDecode() {
+        // ASCII fast path
+        assertEquals("plain text\n", TextDecoder.decode("plain text\n".getBytes(StandardCharsets.US_ASCII), StandardCharsets.UTF_8));
+
+        // multi-byte UTF-8
+        assertEquals(MIXED, TextDecoder.decode(MIXED.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+
+        // Latin-1
+        byte[] latin = "Caf\u00E9".getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals("Caf\u00E9", TextDecoder.decode(latin, StandardCharsets.ISO_8859_1));
+
+        // UTF-16 isn't ASCII-compatible and must not take the fast path
+        Charset utf16 = StandardCharsets.UTF_16BE;
+        assertEquals("ab", TextDecoder.decode("ab".getBytes(utf16), utf16));
+
+        // malformed input is replaced, not thrown
+        assertEquals("a\uFFFDb", TextDecoder.decode(new byte[] { 'a', (byte) 0xFF, 'b' }, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test decoding chunk by chunk, with sequences split across chunks.
+     */
+    @Test
+    public void testIncrementalDecode() {
+        byte[] bytes = MIXED.getBytes(StandardCharsets.UTF_8);
+
+        // try every chunk size, so every sequence gets split somewhere
+        for(int chunkSize = 1; chunkSize <= bytes.length; chunkSize++) {
+            TextDecoder decoder = new TextDecoder(StandardCharsets.UTF_8);
+            StringBuilder text = new StringBuilder();
+
+            for(int offset = 0; offset < bytes.length; offset += chunkSize) {
+                text.append(decoder.decode(bytes, offset, Math.min(chunkSize, bytes.length - offset)));
+            }
+            text.append(decoder.finish());
+
+            assertEquals(MIXED, text.toString(), "chunk size " + chunkSize);
+        }
+    }
+
+    /**
+     * Test that an incomplete sequence at the end of the body is replaced.
+     */
+    @Test
+    public void testTruncatedSequence() {
+        byte[] bytes = "\u00E9".getBytes(StandardCharsets.UTF_8);
+
+        TextDecoder decoder = new TextDecoder(StandardCharsets.UTF_8);
+        assertEquals("", decoder.decode(bytes, 0, 1));
+        assertEquals("\uFFFD", decoder.finish());
+    }
+}
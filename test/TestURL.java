@@ -11,7 +11,7 @@ import network.URL;
  * JUnit tests for URL.
  * 
  * @author Hayden Walker
- * @version 2024-02-27
+ * @version 2026-10-19
  */
 public class TestURL {
     /**
@@ -36,6 +36,28 @@ public class TestURL {
         
     }
 
+    /**
+     * Test URLs naming a port.
+     */
+    @Test
+    public void testPort() {
+        URL url = new URL("gemini://localhost:1966/folder/page.gmi");
+        assertEquals("localhost", url.getHostname());
+        assertEquals(1966, url.getPort());
+        assertEquals("localhost:1966", url.getAuthority());
+        assertEquals("gemini://localhost:1966/folder/page.gmi", url.getURL());
+        assertEquals("gemini://localhost:1966/root.gmi", URL.resolve(url.getURL(), "/root.gmi"));
+        assertEquals("gemini://localhost:1966/folder/other.gmi", URL.resolve(url.getURL(), "other.gmi"));
+
+        // the default port isn't written out
+        URL plain = new URL("gemini://localhost:1965/");
+        assertEquals(URL.DEFAULT_PORT, plain.getPort());
+        assertEquals("gemini://localhost/", plain.getURL());
+
+        assertThrows(BadURLException.class, () -> new URL("gemini://localhost:99999/"));
+        assertThrows(BadURLException.class, () -> new URL("gemini://localhost:x/"));
+    }
+
     /**
      * Test URL's validation of URLs.
      */
@@ -49,4 +71,18 @@ public class TestURL {
             }
         });
     }
+
+    /**
+     * Test resolving links against the page they're on.
+     */
+    @Test
+    public void testResolve() {
+        String base = "gemini://example.org/folder/page.gmi";
+        assertEquals("gemini://other.org/", URL.resolve(base, "gemini://other.org/"));
+        assertEquals("gemini://example.org/root.gmi", URL.resolve(base, "/root.gmi"));
+        assertEquals("gemini://example.org/folder/next.gmi", URL.resolve(base, "next.gmi"));
+        assertEquals("gemini://example.org/folder/next.gmi", URL.resolve(base, "./next.gmi"));
+        assertNull(URL.resolve(base, "https://example.org/"));
+        assertNull(URL.resolve("not a url", "next.gmi"));
+    }
 }